@@ -0,0 +1,473 @@
+package mx.unam.ciencias.edd;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * <p>Banco de pruebas de rendimiento y calidad para {@link Dispersores}, para
+ * escoger un {@link AlgoritmoDispersor} según el tipo de llave.</p>
+ *
+ * <p>Primero mide cuántos bytes por segundo dispersa cada algoritmo con
+ * llaves de distintas longitudes, comparando las versiones de XOR, Bob
+ * Jenkins y DJB que leen palabras completas contra sus versiones originales,
+ * que arman cada palabra byte por byte.</p>
+ *
+ * <p>Después, para cada corpus de llaves (enteros consecutivos, UUIDs,
+ * palabras, URLs y llaves cortas) y cada algoritmo, reporta:</p>
+ * <ul>
+ *   <li>los GB/s al dispersar el corpus;</li>
+ *   <li>el sesgo de bits: qué tan lejos de 1/2 está la probabilidad de que
+ *       cada bit de la dispersión sea 1 (lo ideal es 0);</li>
+ *   <li>la uniformidad de las cubetas: la χ² de los bits bajos sobre
+ *       {@link #CUBETAS} cubetas, dividida entre sus grados de libertad (lo
+ *       ideal es cercano a 1);</li>
+ *   <li>las colisiones reales de un {@link Diccionario} ({@link
+ *       Diccionario#colisiones} y {@link Diccionario#colisionMaxima}) con
+ *       varias capacidades.</li>
+ * </ul>
+ *
+ * <p>Finalmente mide la avalancha con llaves aleatorias de 16 bytes:
+ * la probabilidad promedio de que un bit de la dispersión cambie al voltear
+ * un bit de la llave (lo ideal es 1/2), y el peor sesgo de un par de bits
+ * (lo ideal es 0).</p>
+ */
+public class BancoDispersores {
+
+    /* Interfaz para los dispersores a medir. */
+    private interface Medible {
+        public int dispersa(byte[] llave, int inicio, int lon);
+    }
+
+    /* Longitudes de las llaves. */
+    private static final int[] LONGITUDES = {
+        4, 8, 16, 32, 64, 256, 1024, 4096
+    };
+
+    /* Nombres de los dispersores. */
+    private static final String[] NOMBRES = {
+        "XOR (bytes)", "XOR", "BJ (bytes)", "BJ", "DJB (bytes)", "DJB",
+        "MurmurHash3", "xxHash32", "xxHash64", "wyhash", "CRC32C"
+    };
+
+    /* Los dispersores. */
+    private static final Medible[] MEDIBLES = {
+        BancoDispersores::xorBytes,
+        Dispersores::dispersaXOR,
+        BancoDispersores::bjBytes,
+        Dispersores::dispersaBJ,
+        BancoDispersores::djbBytes,
+        Dispersores::dispersaDJB,
+        Dispersores::dispersaMurmur3,
+        Dispersores::dispersaXXH32,
+        (b, i, n) -> Dispersores.pliega(Dispersores.dispersaXXH64(b, i, n)),
+        (b, i, n) -> Dispersores.pliega(Dispersores.dispersaWyhash(b, i, n)),
+        Dispersores::dispersaCRC32C
+    };
+
+    /* Tamaño del arreglo del que se sacan las llaves. */
+    private static final int DATOS = 1 << 20;
+
+    /* Algoritmos para los corpus. */
+    private static final AlgoritmoDispersor[] ALGORITMOS =
+        AlgoritmoDispersor.values();
+
+    /* Nombres de los corpus. */
+    private static final String[] CORPUS = {
+        "enteros", "uuids", "palabras", "urls", "cortas"
+    };
+
+    /* Llaves por corpus. */
+    private static final int LLAVES = 1 << 16;
+
+    /** Número de cubetas para la prueba de χ². */
+    public static final int CUBETAS = 1 << 12;
+
+    /* Número de llaves en los diccionarios de la prueba de colisiones. */
+    private static final int[] CAPACIDADES = { 1 << 10, 1 << 13, 1 << 16 };
+
+    /* Número de llaves para la prueba de avalancha. */
+    private static final int AVALANCHA = 2000;
+
+    /* Sílabas para generar palabras cuando no se da un archivo. */
+    private static final String[] SILABAS = {
+        "a", "al", "an", "ar", "as", "at", "be", "ble", "ca", "ce", "com",
+        "con", "de", "der", "di", "dis", "e", "en", "er", "es", "ex", "fi",
+        "for", "ga", "ge", "i", "ic", "in", "ing", "ion", "is", "la", "le",
+        "li", "lo", "ly", "ma", "men", "ment", "mi", "na", "ne", "ness", "ni",
+        "o", "ol", "on", "or", "ous", "pa", "per", "pre", "pro", "ra", "re",
+        "ri", "ro", "sa", "se", "si", "sion", "sta", "ta", "te", "ter", "ti",
+        "tion", "to", "tu", "u", "un", "ur", "ve", "ver", "vi"
+    };
+
+    /* Acumulador para que la máquina virtual no descarte las dispersiones. */
+    private static int sumidero;
+
+    /* Constructor privado para evitar instanciación. */
+    private BancoDispersores() {}
+
+    /* Imprime el uso del programa y lo termina. */
+    private static void uso() {
+        System.err.println("Uso: java -cp practica11.jar " +
+                           "mx.unam.ciencias.edd.BancoDispersores " +
+                           "[MS [PALABRAS]]");
+        System.exit(1);
+    }
+
+    /* XOR original: arma cada palabra big-endian byte por byte. */
+    private static int xorBytes(byte[] llave, int i, int lon) {
+        int r = 0;
+        while (lon >= 4) {
+            r ^= ((llave[i] & 0xff) << 24) | ((llave[i+1] & 0xff) << 16) |
+                ((llave[i+2] & 0xff) << 8) | (llave[i+3] & 0xff);
+            i += 4;
+            lon -= 4;
+        }
+        int n = 0;
+        switch (lon) {
+        case 3: n |= (llave[i+2] & 0xff) << 8;
+        case 2: n |= (llave[i+1] & 0xff) << 16;
+        case 1: n |= (llave[i] & 0xff) << 24;
+        }
+        return r ^ n;
+    }
+
+    /* Arma una palabra little-endian byte por byte. */
+    private static int palabra(byte[] llave, int i) {
+        return (llave[i] & 0xff) | ((llave[i+1] & 0xff) << 8) |
+            ((llave[i+2] & 0xff) << 16) | ((llave[i+3] & 0xff) << 24);
+    }
+
+    /* Bob Jenkins original: arma cada palabra little-endian byte por
+       byte. */
+    private static int bjBytes(byte[] llave, int i, int n) {
+        int l = n;
+        int a = 0x9e3779b9;
+        int b = 0x9e3779b9;
+        int c = 0xffffffff;
+        while (l >= 12) {
+            a += palabra(llave, i);
+            b += palabra(llave, i + 4);
+            c += palabra(llave, i + 8);
+            a -= b; a -= c; a ^= (c >>> 13);
+            b -= c; b -= a; b ^= (a <<  8);
+            c -= a; c -= b; c ^= (b >>> 13);
+            a -= b; a -= c; a ^= (c >>> 12);
+            b -= c; b -= a; b ^= (a <<  16);
+            c -= a; c -= b; c ^= (b >>> 5);
+            a -= b; a -= c; a ^= (c >>> 3);
+            b -= c; b -= a; b ^= (a <<  10);
+            c -= a; c -= b; c ^= (b >>> 15);
+            i += 12;
+            l -= 12;
+        }
+        c += n;
+        switch (l) {
+        case 11: c += (llave[i+10] & 0xff) << 24;
+        case 10: c += (llave[i+9] & 0xff) << 16;
+        case  9: c += (llave[i+8] & 0xff) << 8;
+        case  8: b += (llave[i+7] & 0xff) << 24;
+        case  7: b += (llave[i+6] & 0xff) << 16;
+        case  6: b += (llave[i+5] & 0xff) << 8;
+        case  5: b += llave[i+4] & 0xff;
+        case  4: a += (llave[i+3] & 0xff) << 24;
+        case  3: a += (llave[i+2] & 0xff) << 16;
+        case  2: a += (llave[i+1] & 0xff) << 8;
+        case  1: a += llave[i] & 0xff;
+        }
+        a -= b; a -= c; a ^= (c >>> 13);
+        b -= c; b -= a; b ^= (a <<  8);
+        c -= a; c -= b; c ^= (b >>> 13);
+        a -= b; a -= c; a ^= (c >>> 12);
+        b -= c; b -= a; b ^= (a <<  16);
+        c -= a; c -= b; c ^= (b >>> 5);
+        a -= b; a -= c; a ^= (c >>> 3);
+        b -= c; b -= a; b ^= (a <<  10);
+        c -= a; c -= b; c ^= (b >>> 15);
+        return c;
+    }
+
+    /* DJB original: un byte a la vez. */
+    private static int djbBytes(byte[] llave, int i, int lon) {
+        int h = 5381;
+        for (int j = i; j < i + lon; j++)
+            h += (h << 5) + (llave[j] & 0xff);
+        return h;
+    }
+
+    /* Dispersa llaves de longitud lon tomadas de los datos durante ms
+       milisegundos, y regresa los bytes por segundo. */
+    private static double mide(Medible m, byte[] datos, int lon, long ms) {
+        int llaves = DATOS / lon;
+        long bytes = 0;
+        long inicio = System.nanoTime();
+        long fin = inicio + ms * 1000000L;
+        long ahora;
+        int s = sumidero;
+        do {
+            for (int k = 0; k < 1024; k++) {
+                int i = (k % llaves) * lon;
+                s += m.dispersa(datos, i, lon);
+            }
+            bytes += 1024L * lon;
+            ahora = System.nanoTime();
+        } while (ahora < fin);
+        sumidero = s;
+        return bytes * 1e9 / (ahora - inicio);
+    }
+
+    /* Regresa el dispersor de bytes del algoritmo; los de 64 bits se
+       pliegan. */
+    private static Medible medible(AlgoritmoDispersor algoritmo) {
+        switch (algoritmo) {
+        case XOR_STRING: return Dispersores::dispersaXOR;
+        case BJ_STRING: return Dispersores::dispersaBJ;
+        case DJB_STRING: return Dispersores::dispersaDJB;
+        case MURMUR3_STRING: return Dispersores::dispersaMurmur3;
+        case XXH32_STRING: return Dispersores::dispersaXXH32;
+        case XXH64_STRING:
+            return (b, i, n) ->
+                Dispersores.pliega(Dispersores.dispersaXXH64(b, i, n));
+        case WYHASH_STRING:
+            return (b, i, n) ->
+                Dispersores.pliega(Dispersores.dispersaWyhash(b, i, n));
+        case CRC32C_STRING: return Dispersores::dispersaCRC32C;
+        default: throw new IllegalArgumentException("Algoritmo inválido");
+        }
+    }
+
+    /* Genera una palabra con sílabas. */
+    private static String inventaPalabra(Random random) {
+        int n = 1 + random.nextInt(4);
+        String s = "";
+        for (int i = 0; i < n; i++)
+            s += SILABAS[random.nextInt(SILABAS.length)];
+        return s;
+    }
+
+    /* Genera los corpus de llaves; todas las llaves de un corpus son
+       distintas. */
+    private static String[][] corpus(Random random, List<String> palabras) {
+        String[][] c = new String[CORPUS.length][];
+        for (int i = 0; i < c.length; i++)
+            c[i] = new String[LLAVES];
+        Conjunto<String> vistas = new Conjunto<String>(LLAVES);
+        for (int i = 0; i < LLAVES; i++) {
+            c[0][i] = String.valueOf(i);
+            c[1][i] = new UUID(random.nextLong(), random.nextLong()).toString();
+        }
+        int n = 0;
+        if (palabras != null)
+            for (String p : palabras)
+                if (n < LLAVES && !p.isEmpty() && !vistas.contiene(p)) {
+                    vistas.agrega(p);
+                    c[2][n++] = p;
+                }
+        while (n < LLAVES) {
+            String p = inventaPalabra(random);
+            if (!vistas.contiene(p)) {
+                vistas.agrega(p);
+                c[2][n++] = p;
+            }
+        }
+        for (int i = 0; i < LLAVES; i++)
+            c[3][i] = "https://www." + c[2][random.nextInt(LLAVES)] + ".com/" +
+                c[2][random.nextInt(LLAVES)] + "/" + c[2][i] + "?id=" +
+                random.nextInt(1000000);
+        vistas.limpia();
+        n = 0;
+        while (n < LLAVES) {
+            char[] k = new char[1 + random.nextInt(4)];
+            for (int j = 0; j < k.length; j++)
+                k[j] = (char)(0x21 + random.nextInt(0x5e));
+            String s = new String(k);
+            if (!vistas.contiene(s)) {
+                vistas.agrega(s);
+                c[4][n++] = s;
+            }
+        }
+        return c;
+    }
+
+    /* Convierte las llaves a bytes en UTF-8. */
+    private static byte[][] bytes(String[] llaves) {
+        byte[][] b = new byte[llaves.length][];
+        for (int i = 0; i < llaves.length; i++)
+            b[i] = llaves[i].getBytes(StandardCharsets.UTF_8);
+        return b;
+    }
+
+    /* Dispersa todas las llaves durante ms milisegundos, y regresa los bytes
+       por segundo. */
+    private static double mide(Medible m, byte[][] llaves, long ms) {
+        long total = 0;
+        for (byte[] k : llaves)
+            total += k.length;
+        long bytes = 0;
+        long inicio = System.nanoTime();
+        long fin = inicio + ms * 1000000L;
+        long ahora;
+        int s = sumidero;
+        do {
+            for (byte[] k : llaves)
+                s += m.dispersa(k, 0, k.length);
+            bytes += total;
+            ahora = System.nanoTime();
+        } while (ahora < fin);
+        sumidero = s;
+        return bytes * 1e9 / (ahora - inicio);
+    }
+
+    /* Regresa el peor sesgo de bits de las dispersiones de las llaves. */
+    private static double sesgo(Medible m, byte[][] llaves) {
+        int[] unos = new int[32];
+        for (byte[] k : llaves) {
+            int h = m.dispersa(k, 0, k.length);
+            for (int b = 0; b < 32; b++)
+                unos[b] += (h >>> b) & 1;
+        }
+        double peor = 0;
+        for (int b = 0; b < 32; b++)
+            peor = Math.max(peor, Math.abs((double)unos[b] / llaves.length -
+                                           0.5));
+        return peor;
+    }
+
+    /* Regresa la χ² de las cubetas de los bits bajos entre sus grados de
+       libertad. */
+    private static double chiCuadrada(Medible m, byte[][] llaves) {
+        int[] cubetas = new int[CUBETAS];
+        for (byte[] k : llaves)
+            cubetas[m.dispersa(k, 0, k.length) & (CUBETAS - 1)]++;
+        double esperado = (double)llaves.length / CUBETAS;
+        double x = 0;
+        for (int c : cubetas)
+            x += (c - esperado) * (c - esperado) / esperado;
+        return x / (CUBETAS - 1);
+    }
+
+    /* Regresa un diccionario con las primeras n llaves. */
+    private static Diccionario<String, String>
+    diccionario(AlgoritmoDispersor algoritmo, String[] llaves, int n) {
+        Diccionario<String, String> d = new Diccionario<String, String>(
+            n, FabricaDispersores.dispersorCadena(algoritmo));
+        for (int i = 0; i < n; i++)
+            d.agrega(llaves[i], llaves[i]);
+        return d;
+    }
+
+    /* Regresa la probabilidad promedio de que un bit de la dispersión
+       cambie al voltear un bit de la llave, y el peor sesgo de un par de
+       bits. */
+    private static double[] avalancha(Medible m, Random random) {
+        int[][] cambios = new int[128][32];
+        byte[] k = new byte[16];
+        for (int i = 0; i < AVALANCHA; i++) {
+            random.nextBytes(k);
+            int h = m.dispersa(k, 0, k.length);
+            for (int j = 0; j < 128; j++) {
+                k[j >> 3] ^= 1 << (j & 7);
+                int d = h ^ m.dispersa(k, 0, k.length);
+                k[j >> 3] ^= 1 << (j & 7);
+                for (int b = 0; b < 32; b++)
+                    cambios[j][b] += (d >>> b) & 1;
+            }
+        }
+        double suma = 0, peor = 0;
+        for (int j = 0; j < 128; j++)
+            for (int b = 0; b < 32; b++) {
+                double p = (double)cambios[j][b] / AVALANCHA;
+                suma += p;
+                peor = Math.max(peor, Math.abs(p - 0.5));
+            }
+        double[] r = { suma / (128 * 32), peor };
+        return r;
+    }
+
+    /**
+     * Mide los dispersores e imprime las tablas de rendimiento y calidad.
+     * @param args los milisegundos por medición (opcional; 200 por omisión)
+     *             y un archivo con una palabra por renglón para el corpus de
+     *             palabras (opcional; si no se da, se generan con sílabas).
+     */
+    public static void main(String[] args) {
+        long ms = 200;
+        if (args.length > 2)
+            uso();
+        if (args.length >= 1) {
+            try {
+                ms = Long.parseLong(args[0]);
+            } catch (NumberFormatException nfe) {
+                uso();
+            }
+            if (ms <= 0)
+                uso();
+        }
+        List<String> palabras = null;
+        if (args.length == 2) {
+            try {
+                palabras = Files.readAllLines(Paths.get(args[1]),
+                                              StandardCharsets.UTF_8);
+            } catch (IOException ioe) {
+                System.err.println("No se pudo leer " + args[1]);
+                System.exit(1);
+            }
+        }
+
+        Random random = new Random(5381);
+        byte[] datos = new byte[DATOS];
+        random.nextBytes(datos);
+
+        System.out.printf("%-12s", "GB/s");
+        for (int lon : LONGITUDES)
+            System.out.printf("%8d", lon);
+        System.out.println();
+        for (int i = 0; i < MEDIBLES.length; i++) {
+            System.out.printf("%-12s", NOMBRES[i]);
+            for (int lon : LONGITUDES) {
+                /* Calentamiento para que la máquina virtual compile. */
+                mide(MEDIBLES[i], datos, lon, ms / 2);
+                double r = mide(MEDIBLES[i], datos, lon, ms);
+                System.out.printf("%8.2f", r / 1e9);
+            }
+            System.out.println();
+        }
+
+        String[][] corpus = corpus(random, palabras);
+        for (int c = 0; c < CORPUS.length; c++) {
+            byte[][] llaves = bytes(corpus[c]);
+            System.out.printf("%nCorpus: %s (%d llaves, por ejemplo \"%s\")%n",
+                              CORPUS[c], llaves.length, corpus[c][1]);
+            System.out.printf("%-16s%8s%8s%10s", "", "GB/s", "sesgo", "χ²");
+            for (int n : CAPACIDADES)
+                System.out.printf("%14s", "col/máx " + n);
+            System.out.println();
+            for (AlgoritmoDispersor a : ALGORITMOS) {
+                Medible m = medible(a);
+                mide(m, llaves, ms / 2);
+                System.out.printf("%-16s%8.2f%8.4f%10.3f", a,
+                                  mide(m, llaves, ms) / 1e9,
+                                  sesgo(m, llaves), chiCuadrada(m, llaves));
+                for (int n : CAPACIDADES) {
+                    Diccionario<String, String> d =
+                        diccionario(a, corpus[c], n);
+                    System.out.printf("%14s", d.colisiones() + "/" +
+                                      d.colisionMaxima());
+                }
+                System.out.println();
+            }
+        }
+
+        System.out.printf("%nAvalancha (llaves de 16 bytes)%n");
+        System.out.printf("%-16s%10s%10s%n", "", "promedio", "peor");
+        for (AlgoritmoDispersor a : ALGORITMOS) {
+            double[] r = avalancha(medible(a), random);
+            System.out.printf("%-16s%10.4f%10.4f%n", a, r[0], r[1]);
+        }
+        System.out.println("(" + sumidero + ")");
+    }
+}
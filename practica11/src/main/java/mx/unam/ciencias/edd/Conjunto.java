@@ -57,7 +57,7 @@ public class Conjunto<T> implements Coleccion<T> {
         if(elemento == null){
           return;
         }
-        this.conjunto.elimina(elemento);
+        this.conjunto.eliminaYRegresa(elemento);
     }
 
     /**
@@ -88,16 +88,42 @@ public class Conjunto<T> implements Coleccion<T> {
     }
 
     /**
-     * Regresa la intersección del conjunto y el conjunto recibido.
+     * Define la tasa de falsos positivos del filtro de Bloom del conjunto, o
+     * lo quita si la tasa es cero. Con el filtro, {@link #contiene} descarta
+     * casi todos los elementos que no están sin buscarlos en el diccionario;
+     * ver {@link Diccionario#setFiltroBloom}.
+     * @param tasa la tasa de falsos positivos deseada, o cero para quitar el
+     *             filtro.
+     * @throws IllegalArgumentException si la tasa no es cero y no está
+     *         estrictamente entre 0 y 1.
+     */
+    public void setFiltroBloom(double tasa) {
+        this.conjunto.setFiltroBloom(tasa);
+    }
+
+    /**
+     * Regresa el filtro de Bloom del conjunto, para consultar su tamaño y su
+     * tasa estimada de falsos positivos.
+     * @return el filtro de Bloom del conjunto, o <code>null</code> si no
+     *         tiene.
+     */
+    public FiltroBloom<T> getFiltroBloom() {
+        return this.conjunto.getFiltroBloom();
+    }
+
+    /**
+     * Regresa la intersección del conjunto y el conjunto recibido. Recorre
+     * el más pequeño de los dos, así que tarda lo proporcional a él.
      * @param conjunto el conjunto que queremos intersectar con éste.
      * @return la intersección del conjunto y el conjunto recibido.
      */
     public Conjunto<T> interseccion(Conjunto<T> conjunto) {
         // Aquí va su código.
-        Conjunto<T> nuevo = new Conjunto<>();
-        Iterator it = this.iterator();
-        for(T e : this.conjunto){
-          if(conjunto.contiene(e)){
+        Conjunto<T> menor = menor(this, conjunto);
+        Conjunto<T> mayor = menor == this ? conjunto : this;
+        Conjunto<T> nuevo = new Conjunto<>(menor.getElementos());
+        for(T e : menor.conjunto){
+          if(mayor.contiene(e)){
             nuevo.agrega(e);
           }
         }
@@ -105,15 +131,15 @@ public class Conjunto<T> implements Coleccion<T> {
     }
 
     /**
-     * Regresa la unión del conjunto y el conjunto recibido.
+     * Regresa la unión del conjunto y el conjunto recibido. El resultado se
+     * crea de una vez con espacio para los dos conjuntos.
      * @param conjunto el conjunto que queremos unir con éste.
      * @return la unión del conjunto y el conjunto recibido.
      */
     public Conjunto<T> union(Conjunto<T> conjunto) {
         // Aquí va su código.
-        Conjunto<T> nuevo = new Conjunto<>();
-        Iterator a = this.iterator();
-        Iterator b = conjunto.iterator();
+        Conjunto<T> nuevo =
+            new Conjunto<>(this.getElementos() + conjunto.getElementos());
         for(T e : this.conjunto){
           nuevo.agrega(e);
         }
@@ -123,6 +149,130 @@ public class Conjunto<T> implements Coleccion<T> {
         return nuevo;
     }
 
+    /**
+     * Regresa la diferencia del conjunto y el conjunto recibido: los
+     * elementos de éste que no están en el recibido.
+     * @param conjunto el conjunto cuyos elementos no queremos.
+     * @return la diferencia del conjunto y el conjunto recibido.
+     */
+    public Conjunto<T> diferencia(Conjunto<T> conjunto) {
+        Conjunto<T> nuevo = new Conjunto<>(getElementos());
+        for (T e : this.conjunto)
+            if (!conjunto.contiene(e))
+                nuevo.agrega(e);
+        return nuevo;
+    }
+
+    /**
+     * Regresa la diferencia simétrica del conjunto y el conjunto recibido:
+     * los elementos que están en exactamente uno de los dos.
+     * @param conjunto el conjunto con el que queremos la diferencia
+     *        simétrica.
+     * @return la diferencia simétrica del conjunto y el conjunto recibido.
+     */
+    public Conjunto<T> diferenciaSimetrica(Conjunto<T> conjunto) {
+        Conjunto<T> nuevo =
+            new Conjunto<>(getElementos() + conjunto.getElementos());
+        for (T e : this.conjunto)
+            if (!conjunto.contiene(e))
+                nuevo.agrega(e);
+        for (T e : conjunto.conjunto)
+            if (!contiene(e))
+                nuevo.agrega(e);
+        return nuevo;
+    }
+
+    /**
+     * Agrega al conjunto todos los elementos del conjunto recibido,
+     * reservando antes el espacio para que el conjunto crezca a lo más una
+     * vez.
+     * @param conjunto el conjunto cuyos elementos queremos agregar.
+     */
+    public void agregaTodos(Conjunto<T> conjunto) {
+        if (conjunto == this)
+            return;
+        this.conjunto.reserva(getElementos() + conjunto.getElementos());
+        for (T e : conjunto.conjunto)
+            agrega(e);
+    }
+
+    /**
+     * Elimina del conjunto todos los elementos del conjunto recibido.
+     * Recorre el más pequeño de los dos.
+     * @param conjunto el conjunto cuyos elementos queremos eliminar.
+     */
+    public void eliminaTodos(Conjunto<T> conjunto) {
+        if (conjunto == this) {
+            limpia();
+            return;
+        }
+        if (conjunto.getElementos() <= getElementos()) {
+            for (T e : conjunto.conjunto)
+                this.conjunto.eliminaYRegresa(e);
+            return;
+        }
+        Lista<T> eliminados = new Lista<T>();
+        for (T e : this.conjunto)
+            if (conjunto.contiene(e))
+                eliminados.agrega(e);
+        for (T e : eliminados)
+            this.conjunto.elimina(e);
+    }
+
+    /**
+     * Deja en el conjunto sólo los elementos que también están en el
+     * conjunto recibido. Si el recibido es más pequeño, el conjunto se
+     * reemplaza por la intersección en lugar de eliminar uno por uno, y si
+     * tenía filtro de Bloom se le construye uno con la misma tasa.
+     * @param conjunto el conjunto cuyos elementos queremos retener.
+     */
+    public void retiene(Conjunto<T> conjunto) {
+        if (conjunto.getElementos() < getElementos()) {
+            FiltroBloom<T> filtro = getFiltroBloom();
+            this.conjunto = interseccion(conjunto).conjunto;
+            if (filtro != null)
+                this.conjunto.setFiltroBloom(filtro.getTasa());
+            return;
+        }
+        Lista<T> eliminados = new Lista<T>();
+        for (T e : this.conjunto)
+            if (!conjunto.contiene(e))
+                eliminados.agrega(e);
+        for (T e : eliminados)
+            this.conjunto.elimina(e);
+    }
+
+    /**
+     * Nos dice si el conjunto es subconjunto del conjunto recibido.
+     * @param conjunto el conjunto que queremos saber si contiene a éste.
+     * @return <code>true</code> si todos los elementos del conjunto están en
+     *         el conjunto recibido, <code>false</code> en otro caso.
+     */
+    public boolean esSubconjunto(Conjunto<T> conjunto) {
+        if (getElementos() > conjunto.getElementos())
+            return false;
+        for (T e : this.conjunto)
+            if (!conjunto.contiene(e))
+                return false;
+        return true;
+    }
+
+    /**
+     * Nos dice si el conjunto y el conjunto recibido son disjuntos. Recorre
+     * el más pequeño de los dos.
+     * @param conjunto el conjunto que queremos comparar con éste.
+     * @return <code>true</code> si ningún elemento está en los dos
+     *         conjuntos, <code>false</code> en otro caso.
+     */
+    public boolean sonDisjuntos(Conjunto<T> conjunto) {
+        Conjunto<T> menor = menor(this, conjunto);
+        Conjunto<T> mayor = menor == this ? conjunto : this;
+        for (T e : menor.conjunto)
+            if (mayor.contiene(e))
+                return false;
+        return true;
+    }
+
     /**
      * Regresa una representación en cadena del conjunto.
      * @return una representación en cadena del conjunto.
@@ -160,4 +310,9 @@ public class Conjunto<T> implements Coleccion<T> {
         // Aquí va su código.
         return this.conjunto.iterator();
     }
+
+    /* Regresa el más pequeño de los dos conjuntos. */
+    private static <T> Conjunto<T> menor(Conjunto<T> a, Conjunto<T> b) {
+        return a.getElementos() <= b.getElementos() ? a : b;
+    }
 }
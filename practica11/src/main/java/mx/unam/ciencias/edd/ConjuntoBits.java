@@ -0,0 +1,327 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Clase para conjuntos de enteros no negativos representados con un mapa de
+ * bits: el entero n está en el conjunto si el bit n % 64 de la palabra n / 64
+ * está prendido. Cada elemento ocupa un bit en lugar de una entrada de
+ * diccionario, y la unión, la intersección y la diferencia se calculan de 64
+ * en 64 elementos. Conviene para dominios densos; el arreglo crece hasta el
+ * elemento más grande, así que un solo entero grande cuesta toda la memoria
+ * hasta él.
+ */
+public class ConjuntoBits implements Coleccion<Integer> {
+
+    /* Clase interna privada para iteradores. */
+    private class Iterador implements PrimitiveIterator.OfInt {
+
+        /* La palabra en la que estamos. */
+        private int indice;
+        /* Los bits de la palabra actual que faltan por regresar. */
+        private long palabra;
+
+        /* Construye un nuevo iterador. */
+        public Iterador() {
+            indice = -1;
+            buscaPalabra();
+        }
+
+        /* Avanza a la siguiente palabra con bits prendidos. */
+        private void buscaPalabra() {
+            while (palabra == 0 && ++indice < palabras.length)
+                palabra = palabras[indice];
+        }
+
+        /* Nos dice si hay un siguiente elemento. */
+        @Override public boolean hasNext() {
+            return palabra != 0;
+        }
+
+        /* Regresa el siguiente elemento. */
+        @Override public int nextInt() {
+            if (palabra == 0)
+                throw new NoSuchElementException();
+            int r = (indice << 6) + Long.numberOfTrailingZeros(palabra);
+            palabra &= palabra - 1;
+            buscaPalabra();
+            return r;
+        }
+    }
+
+    /* Número mínimo de palabras. */
+    private static final int MINIMAS_PALABRAS = 1;
+
+    /* El mapa de bits. */
+    private long[] palabras;
+    /* Número de elementos. */
+    private int elementos;
+
+    /**
+     * Crea un nuevo conjunto vacío.
+     */
+    public ConjuntoBits() {
+        palabras = new long[MINIMAS_PALABRAS];
+    }
+
+    /**
+     * Crea un nuevo conjunto vacío con espacio para los enteros menores que
+     * el límite recibido.
+     * @param limite el límite tentativo de los elementos.
+     * @throws IllegalArgumentException si el límite es negativo.
+     */
+    public ConjuntoBits(int limite) {
+        if (limite < 0)
+            throw new IllegalArgumentException();
+        int n = (int)((limite + 63L) >>> 6);
+        palabras = new long[Math.max(MINIMAS_PALABRAS, n)];
+    }
+
+    /* Crea un conjunto con las palabras recibidas, y cuenta sus elementos. */
+    private ConjuntoBits(long[] palabras) {
+        this.palabras = palabras;
+        elementos = cuenta(palabras);
+    }
+
+    /**
+     * Agrega un entero al conjunto.
+     * @param elemento el entero que queremos agregar al conjunto.
+     * @throws IllegalArgumentException si el entero es negativo.
+     */
+    public void agrega(int elemento) {
+        if (elemento < 0)
+            throw new IllegalArgumentException();
+        int i = elemento >>> 6;
+        if (i >= palabras.length)
+            crece(i + 1);
+        long b = 1L << elemento;
+        if ((palabras[i] & b) == 0) {
+            palabras[i] |= b;
+            elementos++;
+        }
+    }
+
+    /**
+     * Agrega un elemento al conjunto.
+     * @param elemento el elemento que queremos agregar al conjunto.
+     * @throws IllegalArgumentException si el elemento es <code>null</code>
+     *         o negativo.
+     */
+    @Override public void agrega(Integer elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        agrega(elemento.intValue());
+    }
+
+    /**
+     * Agrega al conjunto todos los enteros del rango [desde, hasta),
+     * prendiendo palabras completas.
+     * @param desde el primer entero del rango.
+     * @param hasta uno más que el último entero del rango.
+     * @throws IllegalArgumentException si desde es negativo o mayor que
+     *         hasta.
+     */
+    public void agregaRango(int desde, int hasta) {
+        if (desde < 0 || desde > hasta)
+            throw new IllegalArgumentException();
+        if (desde == hasta)
+            return;
+        int i = desde >>> 6;
+        int j = (hasta - 1) >>> 6;
+        if (j >= palabras.length)
+            crece(j + 1);
+        long primera = -1L << desde;
+        long ultima = -1L >>> -hasta;
+        for (int k = i; k <= j; k++)
+            elementos -= Long.bitCount(palabras[k]);
+        if (i == j) {
+            palabras[i] |= primera & ultima;
+        } else {
+            palabras[i] |= primera;
+            for (int k = i + 1; k < j; k++)
+                palabras[k] = -1L;
+            palabras[j] |= ultima;
+        }
+        for (int k = i; k <= j; k++)
+            elementos += Long.bitCount(palabras[k]);
+    }
+
+    /**
+     * Nos dice si un entero está en el conjunto.
+     * @param elemento el entero que queremos saber si está en el conjunto.
+     * @return <code>true</code> si el entero está en el conjunto,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(int elemento) {
+        int i = elemento >>> 6;
+        return elemento >= 0 && i < palabras.length &&
+            (palabras[i] & (1L << elemento)) != 0;
+    }
+
+    /**
+     * Nos dice si el elemento está en el conjunto.
+     * @param elemento el elemento que queremos saber si está en el conjunto.
+     * @return <code>true</code> si el elemento está en el conjunto,
+     *         <code>false</code> en otro caso.
+     */
+    @Override public boolean contiene(Integer elemento) {
+        return elemento != null && contiene(elemento.intValue());
+    }
+
+    /**
+     * Elimina un entero del conjunto, si está.
+     * @param elemento el entero que queremos eliminar del conjunto.
+     */
+    public void elimina(int elemento) {
+        if (!contiene(elemento))
+            return;
+        palabras[elemento >>> 6] &= ~(1L << elemento);
+        elementos--;
+    }
+
+    /**
+     * Elimina el elemento del conjunto, si está.
+     * @param elemento el elemento que queremos eliminar del conjunto.
+     */
+    @Override public void elimina(Integer elemento) {
+        if (elemento != null)
+            elimina(elemento.intValue());
+    }
+
+    /**
+     * Nos dice si el conjunto es vacío.
+     * @return <code>true</code> si el conjunto es vacío, <code>false</code> en
+     *         otro caso.
+     */
+    @Override public boolean esVacia() {
+        return elementos == 0;
+    }
+
+    /**
+     * Regresa el número de elementos en el conjunto.
+     * @return el número de elementos en el conjunto.
+     */
+    @Override public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Limpia el conjunto de elementos, dejándolo vacío. El conjunto conserva
+     * su arreglo.
+     */
+    @Override public void limpia() {
+        Arrays.fill(palabras, 0L);
+        elementos = 0;
+    }
+
+    /**
+     * Regresa la intersección del conjunto y el conjunto recibido.
+     * @param conjunto el conjunto que queremos intersectar con éste.
+     * @return la intersección del conjunto y el conjunto recibido.
+     */
+    public ConjuntoBits interseccion(ConjuntoBits conjunto) {
+        int n = Math.min(palabras.length, conjunto.palabras.length);
+        long[] r = new long[Math.max(MINIMAS_PALABRAS, n)];
+        for (int i = 0; i < n; i++)
+            r[i] = palabras[i] & conjunto.palabras[i];
+        return new ConjuntoBits(r);
+    }
+
+    /**
+     * Regresa la unión del conjunto y el conjunto recibido.
+     * @param conjunto el conjunto que queremos unir con éste.
+     * @return la unión del conjunto y el conjunto recibido.
+     */
+    public ConjuntoBits union(ConjuntoBits conjunto) {
+        long[] a = palabras, b = conjunto.palabras;
+        if (a.length < b.length) {
+            a = conjunto.palabras;
+            b = palabras;
+        }
+        long[] r = a.clone();
+        for (int i = 0; i < b.length; i++)
+            r[i] |= b[i];
+        return new ConjuntoBits(r);
+    }
+
+    /**
+     * Regresa la diferencia del conjunto y el conjunto recibido: los
+     * elementos de éste que no están en el recibido.
+     * @param conjunto el conjunto cuyos elementos no queremos.
+     * @return la diferencia del conjunto y el conjunto recibido.
+     */
+    public ConjuntoBits diferencia(ConjuntoBits conjunto) {
+        long[] r = palabras.clone();
+        int n = Math.min(r.length, conjunto.palabras.length);
+        for (int i = 0; i < n; i++)
+            r[i] &= ~conjunto.palabras[i];
+        return new ConjuntoBits(r);
+    }
+
+    /**
+     * Regresa un iterador de enteros sin envolver para iterar el conjunto en
+     * orden creciente.
+     * @return un iterador de enteros para iterar el conjunto.
+     */
+    public PrimitiveIterator.OfInt iteradorEnteros() {
+        return new Iterador();
+    }
+
+    /**
+     * Regresa un iterador para iterar el conjunto en orden creciente.
+     * @return un iterador para iterar el conjunto.
+     */
+    @Override public PrimitiveIterator.OfInt iterator() {
+        return new Iterador();
+    }
+
+    /**
+     * Regresa una representación en cadena del conjunto.
+     * @return una representación en cadena del conjunto.
+     */
+    @Override public String toString() {
+        if (elementos == 0)
+            return "{}";
+        StringBuilder sb = new StringBuilder("{ ");
+        PrimitiveIterator.OfInt it = new Iterador();
+        sb.append(it.nextInt());
+        while (it.hasNext())
+            sb.append(", ").append(it.nextInt());
+        return sb.append(" }").toString();
+    }
+
+    /**
+     * Nos dice si el conjunto es igual al objeto recibido.
+     * @param o el objeto que queremos saber si es igual al conjunto.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         ConjuntoBits, y tiene los mismos elementos.
+     */
+    @Override public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass())
+            return false;
+        ConjuntoBits c = (ConjuntoBits)o;
+        if (elementos != c.elementos)
+            return false;
+        int n = Math.min(palabras.length, c.palabras.length);
+        for (int i = 0; i < n; i++)
+            if (palabras[i] != c.palabras[i])
+                return false;
+        return true;
+    }
+
+    /* Crece el arreglo para que tenga al menos n palabras. */
+    private void crece(int n) {
+        palabras = Arrays.copyOf(palabras,
+                                 Math.max(n, palabras.length << 1));
+    }
+
+    /* Cuenta los bits prendidos de las palabras. */
+    private static int cuenta(long[] palabras) {
+        int n = 0;
+        for (long p : palabras)
+            n += Long.bitCount(p);
+        return n;
+    }
+}
@@ -0,0 +1,1189 @@
+package mx.unam.ciencias.edd;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * <p>Clase para conjuntos comprimidos de enteros, al estilo de los mapas de
+ * bits <em>Roaring</em>. Los enteros se parten en pedazos de 2<sup>16</sup>
+ * valores según sus 16 bits altos, y cada pedazo guarda sus 16 bits bajos en
+ * el contenedor que le conviene: un arreglo ordenado si tiene a lo más 4096
+ * elementos, un mapa de bits de 8 KB si tiene más, o una lista de corridas
+ * de valores consecutivos si ocupan menos que cualquiera de los otros dos.
+ * Así el conjunto cuesta poco tanto si es disperso como si es denso o si son
+ * rangos de identificadores.</p>
+ *
+ * <p>Los enteros se tratan como números sin signo de 32 bits: el conjunto
+ * se itera en orden creciente sin signo, así que los negativos aparecen al
+ * final.</p>
+ *
+ * <p>Las operaciones de conjuntos recorren los pedazos de ambos conjuntos en
+ * orden, y dentro de cada pedazo usan el algoritmo que corresponde a los dos
+ * contenedores. El formato serializado guarda un descriptor por pedazo con el
+ * desplazamiento de su contenedor, así que {@link #contieneSerializado}
+ * puede consultar un conjunto en un buffer mapeado a memoria sin leerlo
+ * completo.</p>
+ */
+public class ConjuntoRoaring implements Coleccion<Integer> {
+
+    /* Clase abstracta privada para los contenedores de los 16 bits bajos de
+       un pedazo. Las operaciones que cambian al contenedor regresan el
+       contenedor que debe reemplazarlo, que puede ser de otra clase. */
+    private static abstract class Contenedor {
+
+        /* Número de elementos del contenedor. */
+        public int elementos;
+
+        /* Nos dice si el valor está en el contenedor. */
+        public abstract boolean contiene(char x);
+
+        /* Agrega el valor al contenedor. */
+        public abstract Contenedor agrega(char x);
+
+        /* Elimina el valor del contenedor. */
+        public abstract Contenedor elimina(char x);
+
+        /* Regresa una copia del contenedor. */
+        public abstract Contenedor clona();
+
+        /* Prende en el mapa los bits de los elementos. */
+        public abstract void prende(long[] mapa);
+
+        /* Apaga en el mapa los bits de los elementos. */
+        public abstract void apaga(long[] mapa);
+
+        /* Copia los elementos en orden al arreglo y regresa cuántos son. */
+        public abstract int copia(char[] destino);
+
+        /* Regresa el tipo del contenedor en el formato serializado. */
+        public abstract int tipo();
+
+        /* Regresa la cuenta del descriptor serializado: elementos o
+           corridas. */
+        public abstract int cuenta();
+
+        /* Regresa cuántos bytes ocupa el contenedor serializado. */
+        public abstract int bytes();
+
+        /* Escribe el contenedor en el buffer a partir de la posición p. */
+        public abstract void escribe(ByteBuffer b, int p);
+    }
+
+    /* Contenedor de un arreglo ordenado de valores. */
+    private static class Arreglo extends Contenedor {
+
+        /* Los valores, ordenados. */
+        public char[] valores;
+
+        /* Construye un arreglo con los primeros n valores recibidos. */
+        public Arreglo(char[] valores, int n) {
+            this.valores = valores;
+            elementos = n;
+        }
+
+        /* Nos dice si el valor está en el contenedor. */
+        @Override public boolean contiene(char x) {
+            return Arrays.binarySearch(valores, 0, elementos, x) >= 0;
+        }
+
+        /* Agrega el valor, y se vuelve mapa si ya no cabe. */
+        @Override public Contenedor agrega(char x) {
+            int i = Arrays.binarySearch(valores, 0, elementos, x);
+            if (i >= 0)
+                return this;
+            if (elementos == MAXIMO_ARREGLO)
+                return aMapa().agrega(x);
+            i = -i - 1;
+            if (elementos == valores.length)
+                valores = Arrays.copyOf(valores,
+                                        Math.min(MAXIMO_ARREGLO,
+                                                 Math.max(4, elementos * 2)));
+            System.arraycopy(valores, i, valores, i + 1, elementos - i);
+            valores[i] = x;
+            elementos++;
+            return this;
+        }
+
+        /* Elimina el valor. */
+        @Override public Contenedor elimina(char x) {
+            int i = Arrays.binarySearch(valores, 0, elementos, x);
+            if (i < 0)
+                return this;
+            System.arraycopy(valores, i + 1, valores, i, elementos - i - 1);
+            elementos--;
+            return this;
+        }
+
+        /* Regresa una copia del contenedor. */
+        @Override public Contenedor clona() {
+            return new Arreglo(Arrays.copyOf(valores, elementos), elementos);
+        }
+
+        /* Prende en el mapa los bits de los elementos. */
+        @Override public void prende(long[] mapa) {
+            for (int i = 0; i < elementos; i++)
+                mapa[valores[i] >>> 6] |= 1L << valores[i];
+        }
+
+        /* Apaga en el mapa los bits de los elementos. */
+        @Override public void apaga(long[] mapa) {
+            for (int i = 0; i < elementos; i++)
+                mapa[valores[i] >>> 6] &= ~(1L << valores[i]);
+        }
+
+        /* Copia los elementos al arreglo. */
+        @Override public int copia(char[] destino) {
+            System.arraycopy(valores, 0, destino, 0, elementos);
+            return elementos;
+        }
+
+        /* Convierte el arreglo en mapa. */
+        private Mapa aMapa() {
+            Mapa m = new Mapa(new long[PALABRAS]);
+            prende(m.palabras);
+            m.elementos = elementos;
+            return m;
+        }
+
+        @Override public int tipo() { return TIPO_ARREGLO; }
+        @Override public int cuenta() { return elementos; }
+        @Override public int bytes() { return 2 * elementos; }
+
+        /* Escribe los valores. */
+        @Override public void escribe(ByteBuffer b, int p) {
+            for (int i = 0; i < elementos; i++)
+                b.putChar(p + 2 * i, valores[i]);
+        }
+    }
+
+    /* Contenedor de un mapa de bits de 2^16 bits. */
+    private static class Mapa extends Contenedor {
+
+        /* Las palabras del mapa. */
+        public long[] palabras;
+
+        /* Construye un mapa con las palabras recibidas, y cuenta sus
+           elementos. */
+        public Mapa(long[] palabras) {
+            this.palabras = palabras;
+            for (long p : palabras)
+                elementos += Long.bitCount(p);
+        }
+
+        /* Nos dice si el valor está en el contenedor. */
+        @Override public boolean contiene(char x) {
+            return (palabras[x >>> 6] & (1L << x)) != 0;
+        }
+
+        /* Agrega el valor. */
+        @Override public Contenedor agrega(char x) {
+            long b = 1L << x;
+            if ((palabras[x >>> 6] & b) == 0) {
+                palabras[x >>> 6] |= b;
+                elementos++;
+            }
+            return this;
+        }
+
+        /* Elimina el valor, y se vuelve arreglo si ya cabe en uno. */
+        @Override public Contenedor elimina(char x) {
+            long b = 1L << x;
+            if ((palabras[x >>> 6] & b) == 0)
+                return this;
+            palabras[x >>> 6] &= ~b;
+            elementos--;
+            if (elementos > MAXIMO_ARREGLO)
+                return this;
+            char[] v = new char[MAXIMO_ARREGLO];
+            return new Arreglo(v, copia(v));
+        }
+
+        /* Regresa una copia del contenedor. */
+        @Override public Contenedor clona() {
+            return new Mapa(palabras.clone());
+        }
+
+        /* Prende en el mapa los bits de los elementos. */
+        @Override public void prende(long[] mapa) {
+            for (int i = 0; i < PALABRAS; i++)
+                mapa[i] |= palabras[i];
+        }
+
+        /* Apaga en el mapa los bits de los elementos. */
+        @Override public void apaga(long[] mapa) {
+            for (int i = 0; i < PALABRAS; i++)
+                mapa[i] &= ~palabras[i];
+        }
+
+        /* Copia los elementos al arreglo. */
+        @Override public int copia(char[] destino) {
+            int n = 0;
+            for (int i = 0; i < PALABRAS; i++)
+                for (long p = palabras[i]; p != 0; p &= p - 1)
+                    destino[n++] =
+                        (char)((i << 6) + Long.numberOfTrailingZeros(p));
+            return n;
+        }
+
+        @Override public int tipo() { return TIPO_MAPA; }
+        @Override public int cuenta() { return elementos; }
+        @Override public int bytes() { return 8 * PALABRAS; }
+
+        /* Escribe las palabras. */
+        @Override public void escribe(ByteBuffer b, int p) {
+            for (int i = 0; i < PALABRAS; i++)
+                b.putLong(p + 8 * i, palabras[i]);
+        }
+    }
+
+    /* Contenedor de corridas de valores consecutivos. La corrida i va de
+       inicios[i] a inicios[i] + longitudes[i], inclusive. */
+    private static class Corridas extends Contenedor {
+
+        /* Los inicios de las corridas, ordenados. */
+        public char[] inicios;
+        /* Las longitudes de las corridas, menos uno. */
+        public char[] longitudes;
+        /* Número de corridas. */
+        public int corridas;
+
+        /* Construye un contenedor con las primeras n corridas recibidas, y
+           cuenta sus elementos. */
+        public Corridas(char[] inicios, char[] longitudes, int n) {
+            this.inicios = inicios;
+            this.longitudes = longitudes;
+            corridas = n;
+            for (int i = 0; i < n; i++)
+                elementos += longitudes[i] + 1;
+        }
+
+        /* Regresa la última corrida que empieza en o antes del valor, o -1
+           si no hay. */
+        private int busca(char x) {
+            int i = Arrays.binarySearch(inicios, 0, corridas, x);
+            return i >= 0 ? i : -i - 2;
+        }
+
+        /* Nos dice si el valor está en el contenedor. */
+        @Override public boolean contiene(char x) {
+            int i = busca(x);
+            return i >= 0 && x - inicios[i] <= longitudes[i];
+        }
+
+        /* Agrega el valor, extendiendo o uniendo las corridas vecinas si
+           las toca; se vuelve mapa si hay demasiadas corridas. */
+        @Override public Contenedor agrega(char x) {
+            int i = busca(x);
+            if (i >= 0 && x - inicios[i] <= longitudes[i])
+                return this;
+            boolean antes = i >= 0 && x - inicios[i] == longitudes[i] + 1;
+            boolean despues = i + 1 < corridas && x + 1 == inicios[i + 1];
+            if (antes && despues) {
+                longitudes[i] = (char)(inicios[i + 1] + longitudes[i + 1] -
+                                       inicios[i]);
+                quita(i + 1);
+            } else if (antes) {
+                longitudes[i]++;
+            } else if (despues) {
+                inicios[i + 1] = x;
+                longitudes[i + 1]++;
+            } else {
+                inserta(i + 1, x, (char)0);
+            }
+            elementos++;
+            return corridas > MAXIMO_CORRIDAS ? aMapa() : this;
+        }
+
+        /* Elimina el valor, partiendo su corrida si está en medio; se vuelve
+           mapa si hay demasiadas corridas. */
+        @Override public Contenedor elimina(char x) {
+            int i = busca(x);
+            if (i < 0 || x - inicios[i] > longitudes[i])
+                return this;
+            int inicio = inicios[i];
+            int fin = inicio + longitudes[i];
+            if (inicio == fin) {
+                quita(i);
+            } else if (x == inicio) {
+                inicios[i]++;
+                longitudes[i]--;
+            } else if (x == fin) {
+                longitudes[i]--;
+            } else {
+                longitudes[i] = (char)(x - 1 - inicio);
+                inserta(i + 1, (char)(x + 1), (char)(fin - x - 1));
+            }
+            elementos--;
+            return corridas > MAXIMO_CORRIDAS ? aMapa() : this;
+        }
+
+        /* Inserta la corrida en la posición i. */
+        private void inserta(int i, char inicio, char longitud) {
+            if (corridas == inicios.length) {
+                int n = Math.max(4, corridas * 2);
+                inicios = Arrays.copyOf(inicios, n);
+                longitudes = Arrays.copyOf(longitudes, n);
+            }
+            System.arraycopy(inicios, i, inicios, i + 1, corridas - i);
+            System.arraycopy(longitudes, i, longitudes, i + 1, corridas - i);
+            inicios[i] = inicio;
+            longitudes[i] = longitud;
+            corridas++;
+        }
+
+        /* Quita la corrida en la posición i. */
+        private void quita(int i) {
+            System.arraycopy(inicios, i + 1, inicios, i, corridas - i - 1);
+            System.arraycopy(longitudes, i + 1, longitudes, i,
+                             corridas - i - 1);
+            corridas--;
+        }
+
+        /* Regresa una copia del contenedor. */
+        @Override public Contenedor clona() {
+            return new Corridas(Arrays.copyOf(inicios, corridas),
+                                Arrays.copyOf(longitudes, corridas), corridas);
+        }
+
+        /* Prende en el mapa los bits de los elementos. */
+        @Override public void prende(long[] mapa) {
+            for (int i = 0; i < corridas; i++)
+                prendeRango(mapa, inicios[i], inicios[i] + longitudes[i] + 1);
+        }
+
+        /* Apaga en el mapa los bits de los elementos. */
+        @Override public void apaga(long[] mapa) {
+            for (int i = 0; i < corridas; i++)
+                apagaRango(mapa, inicios[i], inicios[i] + longitudes[i] + 1);
+        }
+
+        /* Copia los elementos al arreglo. */
+        @Override public int copia(char[] destino) {
+            int n = 0;
+            for (int i = 0; i < corridas; i++)
+                for (int x = inicios[i]; x <= inicios[i] + longitudes[i]; x++)
+                    destino[n++] = (char)x;
+            return n;
+        }
+
+        /* Convierte las corridas en mapa. */
+        private Contenedor aMapa() {
+            long[] m = new long[PALABRAS];
+            prende(m);
+            return deMapa(m);
+        }
+
+        @Override public int tipo() { return TIPO_CORRIDAS; }
+        @Override public int cuenta() { return corridas; }
+        @Override public int bytes() { return 4 * corridas; }
+
+        /* Escribe los inicios y longitudes intercalados. */
+        @Override public void escribe(ByteBuffer b, int p) {
+            for (int i = 0; i < corridas; i++) {
+                b.putChar(p + 4 * i, inicios[i]);
+                b.putChar(p + 4 * i + 2, longitudes[i]);
+            }
+        }
+    }
+
+    /* Clase interna privada para iteradores. */
+    private class Iterador implements PrimitiveIterator.OfInt {
+
+        /* El pedazo en el que estamos. */
+        private int pedazo;
+        /* Los 16 bits altos del pedazo. */
+        private int alto;
+        /* Los valores del pedazo. */
+        private char[] valores;
+        /* Cuántos valores tiene el pedazo, y cuál sigue. */
+        private int n, i;
+
+        /* Construye un nuevo iterador. */
+        public Iterador() {
+            int m = 0;
+            for (int j = 0; j < pedazos; j++)
+                m = Math.max(m, contenedores[j].elementos);
+            valores = new char[m];
+            pedazo = -1;
+            buscaPedazo();
+        }
+
+        /* Avanza al siguiente pedazo y copia sus valores. */
+        private void buscaPedazo() {
+            while (i == n && ++pedazo < pedazos) {
+                n = contenedores[pedazo].copia(valores);
+                i = 0;
+                alto = llaves[pedazo] << 16;
+            }
+        }
+
+        /* Nos dice si hay un siguiente elemento. */
+        @Override public boolean hasNext() {
+            return i < n;
+        }
+
+        /* Regresa el siguiente elemento. */
+        @Override public int nextInt() {
+            if (i >= n)
+                throw new NoSuchElementException();
+            int r = alto | valores[i++];
+            if (i == n)
+                buscaPedazo();
+            return r;
+        }
+    }
+
+    /* Máximo de elementos de un contenedor arreglo: con más, el mapa de bits
+       ocupa menos. */
+    private static final int MAXIMO_ARREGLO = 4096;
+    /* Máximo de corridas de un contenedor de corridas: con más, el mapa de
+       bits ocupa menos. */
+    private static final int MAXIMO_CORRIDAS = 2048;
+    /* Palabras de un mapa de bits de un pedazo. */
+    private static final int PALABRAS = 1024;
+
+    /* Tipos de contenedores en el formato serializado. */
+    private static final int TIPO_ARREGLO = 0;
+    private static final int TIPO_MAPA = 1;
+    private static final int TIPO_CORRIDAS = 2;
+    /* Número mágico del formato serializado ("ROAR" en little-endian). */
+    private static final int MAGICO = 0x52414f52;
+    /* Bytes del encabezado: el número mágico y el número de pedazos. */
+    private static final int ENCABEZADO = 8;
+    /* Bytes del descriptor de cada pedazo: llave, tipo, cuenta y
+       desplazamiento. */
+    private static final int DESCRIPTOR = 12;
+
+    /* Los 16 bits altos de cada pedazo, ordenados. */
+    private char[] llaves;
+    /* Los contenedores de cada pedazo. */
+    private Contenedor[] contenedores;
+    /* Número de pedazos. */
+    private int pedazos;
+    /* Número de elementos. */
+    private long elementos;
+
+    /**
+     * Crea un nuevo conjunto vacío.
+     */
+    public ConjuntoRoaring() {
+        llaves = new char[4];
+        contenedores = new Contenedor[4];
+    }
+
+    /**
+     * Agrega un entero al conjunto.
+     * @param elemento el entero que queremos agregar al conjunto.
+     */
+    public void agrega(int elemento) {
+        char k = (char)(elemento >>> 16);
+        int i = busca(k);
+        if (i < 0) {
+            char[] v = { (char)elemento };
+            insertaPedazo(-i - 1, k, new Arreglo(v, 1));
+            elementos++;
+            return;
+        }
+        Contenedor c = contenedores[i];
+        int n = c.elementos;
+        contenedores[i] = c.agrega((char)elemento);
+        elementos += contenedores[i].elementos - n;
+    }
+
+    /**
+     * Agrega un elemento al conjunto.
+     * @param elemento el elemento que queremos agregar al conjunto.
+     * @throws IllegalArgumentException si el elemento es <code>null</code>.
+     */
+    @Override public void agrega(Integer elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        agrega(elemento.intValue());
+    }
+
+    /**
+     * Agrega al conjunto todos los enteros del rango [desde, hasta), como
+     * enteros sin signo. Cada pedazo del rango se une con una sola corrida.
+     * @param desde el primer entero del rango.
+     * @param hasta uno más que el último entero del rango.
+     * @throws IllegalArgumentException si desde es mayor que hasta como
+     *         enteros sin signo.
+     */
+    public void agregaRango(int desde, int hasta) {
+        if (Integer.compareUnsigned(desde, hasta) > 0)
+            throw new IllegalArgumentException();
+        long d = desde & 0xffffffffL;
+        long h = hasta & 0xffffffffL;
+        while (d < h) {
+            char k = (char)(d >>> 16);
+            long fin = Math.min(h, ((d >>> 16) + 1) << 16);
+            char[] inicio = { (char)d };
+            char[] longitud = { (char)(fin - d - 1) };
+            Contenedor r = new Corridas(inicio, longitud, 1);
+            int i = busca(k);
+            if (i < 0) {
+                insertaPedazo(-i - 1, k, r);
+                elementos += r.elementos;
+            } else {
+                Contenedor c = union(contenedores[i], r);
+                elementos += c.elementos - contenedores[i].elementos;
+                contenedores[i] = c;
+            }
+            d = fin;
+        }
+    }
+
+    /**
+     * Nos dice si un entero está en el conjunto.
+     * @param elemento el entero que queremos saber si está en el conjunto.
+     * @return <code>true</code> si el entero está en el conjunto,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(int elemento) {
+        int i = busca((char)(elemento >>> 16));
+        return i >= 0 && contenedores[i].contiene((char)elemento);
+    }
+
+    /**
+     * Nos dice si el elemento está en el conjunto.
+     * @param elemento el elemento que queremos saber si está en el conjunto.
+     * @return <code>true</code> si el elemento está en el conjunto,
+     *         <code>false</code> en otro caso.
+     */
+    @Override public boolean contiene(Integer elemento) {
+        return elemento != null && contiene(elemento.intValue());
+    }
+
+    /**
+     * Elimina un entero del conjunto, si está.
+     * @param elemento el entero que queremos eliminar del conjunto.
+     */
+    public void elimina(int elemento) {
+        int i = busca((char)(elemento >>> 16));
+        if (i < 0)
+            return;
+        Contenedor c = contenedores[i];
+        int n = c.elementos;
+        c = c.elimina((char)elemento);
+        elementos -= n - c.elementos;
+        if (c.elementos == 0)
+            quitaPedazo(i);
+        else
+            contenedores[i] = c;
+    }
+
+    /**
+     * Elimina el elemento del conjunto, si está.
+     * @param elemento el elemento que queremos eliminar del conjunto.
+     */
+    @Override public void elimina(Integer elemento) {
+        if (elemento != null)
+            elimina(elemento.intValue());
+    }
+
+    /**
+     * Nos dice si el conjunto es vacío.
+     * @return <code>true</code> si el conjunto es vacío, <code>false</code> en
+     *         otro caso.
+     */
+    @Override public boolean esVacia() {
+        return elementos == 0;
+    }
+
+    /**
+     * Regresa el número de elementos en el conjunto, o {@link
+     * Integer#MAX_VALUE} si son más; {@link #getCardinalidad} los regresa
+     * todos.
+     * @return el número de elementos en el conjunto.
+     */
+    @Override public int getElementos() {
+        return (int)Math.min(elementos, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Regresa el número de elementos en el conjunto, que puede ser hasta
+     * 2<sup>32</sup>.
+     * @return el número de elementos en el conjunto.
+     */
+    public long getCardinalidad() {
+        return elementos;
+    }
+
+    /**
+     * Limpia el conjunto de elementos, dejándolo vacío.
+     */
+    @Override public void limpia() {
+        Arrays.fill(contenedores, null);
+        pedazos = 0;
+        elementos = 0;
+    }
+
+    /**
+     * Cambia el contenedor de cada pedazo por el que ocupe menos memoria,
+     * considerando también las corridas. Conviene llamarlo después de
+     * construir el conjunto, o antes de serializarlo.
+     */
+    public void optimiza() {
+        char[] v = null;
+        for (int i = 0; i < pedazos; i++) {
+            Contenedor c = contenedores[i];
+            if (v == null || v.length < c.elementos)
+                v = new char[c.elementos];
+            int n = c.copia(v);
+            int corridas = 0;
+            for (int j = 0; j < n; j++)
+                if (j == 0 || v[j] != v[j - 1] + 1)
+                    corridas++;
+            int arreglo = n <= MAXIMO_ARREGLO ? 2 * n : Integer.MAX_VALUE;
+            if (4 * corridas < Math.min(arreglo, 8 * PALABRAS)) {
+                char[] inicios = new char[corridas];
+                char[] longitudes = new char[corridas];
+                int r = -1;
+                for (int j = 0; j < n; j++) {
+                    if (j == 0 || v[j] != v[j - 1] + 1)
+                        inicios[++r] = v[j];
+                    else
+                        longitudes[r]++;
+                }
+                contenedores[i] = new Corridas(inicios, longitudes, corridas);
+            } else if (n <= MAXIMO_ARREGLO) {
+                contenedores[i] = new Arreglo(Arrays.copyOf(v, n), n);
+            } else if (!(c instanceof Mapa)) {
+                long[] m = new long[PALABRAS];
+                c.prende(m);
+                contenedores[i] = new Mapa(m);
+            }
+        }
+    }
+
+    /**
+     * Regresa la intersección del conjunto y el conjunto recibido.
+     * @param conjunto el conjunto que queremos intersectar con éste.
+     * @return la intersección del conjunto y el conjunto recibido.
+     */
+    public ConjuntoRoaring interseccion(ConjuntoRoaring conjunto) {
+        ConjuntoRoaring r = new ConjuntoRoaring();
+        int i = 0, j = 0;
+        while (i < pedazos && j < conjunto.pedazos) {
+            char a = llaves[i], b = conjunto.llaves[j];
+            if (a < b) {
+                i++;
+            } else if (a > b) {
+                j++;
+            } else {
+                r.agregaPedazo(a, interseccion(contenedores[i++],
+                                               conjunto.contenedores[j++]));
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Regresa la unión del conjunto y el conjunto recibido.
+     * @param conjunto el conjunto que queremos unir con éste.
+     * @return la unión del conjunto y el conjunto recibido.
+     */
+    public ConjuntoRoaring union(ConjuntoRoaring conjunto) {
+        ConjuntoRoaring r = new ConjuntoRoaring();
+        int i = 0, j = 0;
+        while (i < pedazos || j < conjunto.pedazos) {
+            int a = i < pedazos ? llaves[i] : Integer.MAX_VALUE;
+            int b = j < conjunto.pedazos ? conjunto.llaves[j] :
+                Integer.MAX_VALUE;
+            if (a < b) {
+                r.agregaPedazo((char)a, contenedores[i++].clona());
+            } else if (a > b) {
+                r.agregaPedazo((char)b, conjunto.contenedores[j++].clona());
+            } else {
+                r.agregaPedazo((char)a, union(contenedores[i++],
+                                              conjunto.contenedores[j++]));
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Regresa la diferencia del conjunto y el conjunto recibido: los
+     * elementos de éste que no están en el recibido.
+     * @param conjunto el conjunto cuyos elementos no queremos.
+     * @return la diferencia del conjunto y el conjunto recibido.
+     */
+    public ConjuntoRoaring diferencia(ConjuntoRoaring conjunto) {
+        ConjuntoRoaring r = new ConjuntoRoaring();
+        int j = 0;
+        for (int i = 0; i < pedazos; i++) {
+            char a = llaves[i];
+            while (j < conjunto.pedazos && conjunto.llaves[j] < a)
+                j++;
+            if (j < conjunto.pedazos && conjunto.llaves[j] == a)
+                r.agregaPedazo(a, diferencia(contenedores[i],
+                                             conjunto.contenedores[j]));
+            else
+                r.agregaPedazo(a, contenedores[i].clona());
+        }
+        return r;
+    }
+
+    /**
+     * Regresa cuántos bytes ocupa el conjunto serializado con {@link
+     * #serializa}.
+     * @return cuántos bytes ocupa el conjunto serializado.
+     */
+    public int tamanoSerializado() {
+        int t = ENCABEZADO + DESCRIPTOR * pedazos;
+        for (int i = 0; i < pedazos; i++)
+            t += contenedores[i].bytes();
+        return t;
+    }
+
+    /**
+     * Escribe el conjunto en el buffer a partir de su posición, y la avanza
+     * hasta el final de lo escrito. El formato es little-endian, sin importar
+     * el orden del buffer: un número mágico, el número de pedazos, un
+     * descriptor de 12 bytes por pedazo (sus 16 bits altos, el tipo de su
+     * contenedor, cuántos elementos o corridas tiene y el desplazamiento de
+     * sus datos desde el inicio) y los datos de los contenedores.
+     * @param buffer el buffer donde escribimos el conjunto.
+     * @throws IllegalArgumentException si el conjunto no cabe en lo que
+     *         resta del buffer.
+     */
+    public void serializa(ByteBuffer buffer) {
+        int t = tamanoSerializado();
+        if (buffer.remaining() < t)
+            throw new IllegalArgumentException("El conjunto no cabe");
+        ByteBuffer b = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int p = buffer.position();
+        b.putInt(p, MAGICO);
+        b.putInt(p + 4, pedazos);
+        int datos = ENCABEZADO + DESCRIPTOR * pedazos;
+        for (int i = 0; i < pedazos; i++) {
+            Contenedor c = contenedores[i];
+            int q = p + ENCABEZADO + DESCRIPTOR * i;
+            b.putChar(q, llaves[i]);
+            b.putChar(q + 2, (char)c.tipo());
+            b.putInt(q + 4, c.cuenta());
+            b.putInt(q + 8, datos);
+            c.escribe(b, p + datos);
+            datos += c.bytes();
+        }
+        buffer.position(p + t);
+    }
+
+    /**
+     * Lee un conjunto escrito con {@link #serializa} a partir de la posición
+     * del buffer, y la avanza hasta el final de lo leído.
+     * @param buffer el buffer de donde leemos el conjunto.
+     * @return el conjunto leído.
+     * @throws IllegalArgumentException si el buffer no tiene un conjunto
+     *         válido en su posición.
+     */
+    public static ConjuntoRoaring deserializa(ByteBuffer buffer) {
+        ByteBuffer b = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int p = buffer.position();
+        try {
+            int n = revisaEncabezado(b, p);
+            ConjuntoRoaring r = new ConjuntoRoaring();
+            int fin = p + ENCABEZADO + DESCRIPTOR * n;
+            for (int i = 0; i < n; i++) {
+                int q = p + ENCABEZADO + DESCRIPTOR * i;
+                char k = b.getChar(q);
+                if (i > 0 && k <= r.llaves[i - 1])
+                    throw new IllegalArgumentException("Formato inválido");
+                Contenedor c = lee(b, b.getChar(q + 2), b.getInt(q + 4),
+                                   p + b.getInt(q + 8));
+                r.agregaPedazo(k, c);
+                fin = Math.max(fin, p + b.getInt(q + 8) + c.bytes());
+            }
+            buffer.position(fin);
+            return r;
+        } catch (IndexOutOfBoundsException ioobe) {
+            throw new IllegalArgumentException("Formato inválido");
+        }
+    }
+
+    /**
+     * Nos dice si un entero está en el conjunto escrito con {@link
+     * #serializa} a partir de la posición del buffer, sin leer el conjunto
+     * completo ni mover la posición: busca el descriptor del pedazo y
+     * consulta sólo su contenedor. Con un buffer mapeado a memoria, el
+     * sistema operativo sólo lee las páginas que se consultan.
+     * @param buffer el buffer con el conjunto serializado.
+     * @param elemento el entero que queremos saber si está en el conjunto.
+     * @return <code>true</code> si el entero está en el conjunto,
+     *         <code>false</code> en otro caso.
+     * @throws IllegalArgumentException si el buffer no tiene un conjunto
+     *         válido en su posición.
+     */
+    public static boolean contieneSerializado(ByteBuffer buffer,
+                                              int elemento) {
+        ByteBuffer b = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int p = buffer.position();
+        char k = (char)(elemento >>> 16);
+        char x = (char)elemento;
+        try {
+            int a = 0, z = revisaEncabezado(b, p) - 1;
+            while (a <= z) {
+                int m = (a + z) >>> 1;
+                int q = p + ENCABEZADO + DESCRIPTOR * m;
+                char l = b.getChar(q);
+                if (l < k) {
+                    a = m + 1;
+                } else if (l > k) {
+                    z = m - 1;
+                } else {
+                    int cuenta = b.getInt(q + 4);
+                    int datos = p + b.getInt(q + 8);
+                    switch (b.getChar(q + 2)) {
+                    case TIPO_ARREGLO:
+                        return buscaSerializado(b, datos, 2, cuenta, x) >= 0;
+                    case TIPO_MAPA:
+                        return (b.getLong(datos + 8 * (x >>> 6)) &
+                                (1L << x)) != 0;
+                    case TIPO_CORRIDAS:
+                        int i = buscaSerializado(b, datos, 4, cuenta, x);
+                        if (i >= 0)
+                            return true;
+                        i = -i - 2;
+                        return i >= 0 &&
+                            x - b.getChar(datos + 4 * i) <=
+                            b.getChar(datos + 4 * i + 2);
+                    default:
+                        throw new IllegalArgumentException("Formato " +
+                                                           "inválido");
+                    }
+                }
+            }
+            return false;
+        } catch (IndexOutOfBoundsException ioobe) {
+            throw new IllegalArgumentException("Formato inválido");
+        }
+    }
+
+    /**
+     * Regresa un iterador de enteros sin envolver para iterar el conjunto en
+     * orden creciente sin signo.
+     * @return un iterador de enteros para iterar el conjunto.
+     */
+    public PrimitiveIterator.OfInt iteradorEnteros() {
+        return new Iterador();
+    }
+
+    /**
+     * Regresa un iterador para iterar el conjunto en orden creciente sin
+     * signo.
+     * @return un iterador para iterar el conjunto.
+     */
+    @Override public PrimitiveIterator.OfInt iterator() {
+        return new Iterador();
+    }
+
+    /**
+     * Regresa una representación en cadena del conjunto.
+     * @return una representación en cadena del conjunto.
+     */
+    @Override public String toString() {
+        if (elementos == 0)
+            return "{}";
+        StringBuilder sb = new StringBuilder("{ ");
+        PrimitiveIterator.OfInt it = new Iterador();
+        sb.append(Integer.toUnsignedString(it.nextInt()));
+        while (it.hasNext())
+            sb.append(", ").append(Integer.toUnsignedString(it.nextInt()));
+        return sb.append(" }").toString();
+    }
+
+    /**
+     * Nos dice si el conjunto es igual al objeto recibido.
+     * @param o el objeto que queremos saber si es igual al conjunto.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         ConjuntoRoaring, y tiene los mismos elementos.
+     */
+    @Override public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass())
+            return false;
+        ConjuntoRoaring c = (ConjuntoRoaring)o;
+        if (elementos != c.elementos || pedazos != c.pedazos)
+            return false;
+        for (int i = 0; i < pedazos; i++) {
+            if (llaves[i] != c.llaves[i] ||
+                contenedores[i].elementos != c.contenedores[i].elementos)
+                return false;
+            char[] a = new char[contenedores[i].elementos];
+            char[] b = new char[a.length];
+            contenedores[i].copia(a);
+            c.contenedores[i].copia(b);
+            if (!Arrays.equals(a, b))
+                return false;
+        }
+        return true;
+    }
+
+    /* Regresa el índice del pedazo con los 16 bits altos recibidos; si no
+       está, regresa -(i + 1), donde i es donde habría que insertarlo. */
+    private int busca(char k) {
+        return Arrays.binarySearch(llaves, 0, pedazos, k);
+    }
+
+    /* Inserta un pedazo en la posición i. */
+    private void insertaPedazo(int i, char k, Contenedor c) {
+        if (pedazos == llaves.length) {
+            llaves = Arrays.copyOf(llaves, pedazos * 2);
+            contenedores = Arrays.copyOf(contenedores, pedazos * 2);
+        }
+        System.arraycopy(llaves, i, llaves, i + 1, pedazos - i);
+        System.arraycopy(contenedores, i, contenedores, i + 1, pedazos - i);
+        llaves[i] = k;
+        contenedores[i] = c;
+        pedazos++;
+    }
+
+    /* Agrega un pedazo al final, si no es vacío. */
+    private void agregaPedazo(char k, Contenedor c) {
+        if (c.elementos == 0)
+            return;
+        insertaPedazo(pedazos, k, c);
+        elementos += c.elementos;
+    }
+
+    /* Quita el pedazo en la posición i. */
+    private void quitaPedazo(int i) {
+        System.arraycopy(llaves, i + 1, llaves, i, pedazos - i - 1);
+        System.arraycopy(contenedores, i + 1, contenedores, i,
+                         pedazos - i - 1);
+        contenedores[--pedazos] = null;
+    }
+
+    /* Regresa el contenedor más chico entre arreglo y mapa para los bits del
+       mapa. */
+    private static Contenedor deMapa(long[] mapa) {
+        Mapa m = new Mapa(mapa);
+        if (m.elementos > MAXIMO_ARREGLO)
+            return m;
+        char[] v = new char[m.elementos];
+        return new Arreglo(v, m.copia(v));
+    }
+
+    /* Regresa la intersección de dos contenedores. Si alguno es arreglo,
+       buscamos cada uno de sus valores en el otro; dos mapas se intersectan
+       de palabra en palabra, y dos listas de corridas corrida por corrida. */
+    private static Contenedor interseccion(Contenedor a, Contenedor b) {
+        if (b instanceof Arreglo && !(a instanceof Arreglo)) {
+            Contenedor t = a;
+            a = b;
+            b = t;
+        }
+        if (a instanceof Arreglo) {
+            Arreglo x = (Arreglo)a;
+            char[] v = new char[Math.min(a.elementos, b.elementos)];
+            int n = 0;
+            for (int i = 0; i < x.elementos; i++)
+                if (b.contiene(x.valores[i]))
+                    v[n++] = x.valores[i];
+            return new Arreglo(v, n);
+        }
+        if (a instanceof Corridas && b instanceof Corridas)
+            return interseccionCorridas((Corridas)a, (Corridas)b);
+        long[] m = new long[PALABRAS];
+        long[] q = new long[PALABRAS];
+        a.prende(m);
+        b.prende(q);
+        for (int i = 0; i < PALABRAS; i++)
+            m[i] &= q[i];
+        return deMapa(m);
+    }
+
+    /* Intersecta dos listas de corridas, avanzando siempre la corrida que
+       termina antes. El resultado puede tener hasta a.corridas + b.corridas
+       corridas, así que también puede convenir el mapa. */
+    private static Contenedor interseccionCorridas(Corridas a, Corridas b) {
+        int n = a.corridas + b.corridas;
+        char[] inicios = new char[n];
+        char[] longitudes = new char[n];
+        int r = 0, i = 0, j = 0;
+        while (i < a.corridas && j < b.corridas) {
+            int ai = a.inicios[i], af = ai + a.longitudes[i];
+            int bi = b.inicios[j], bf = bi + b.longitudes[j];
+            int inicio = Math.max(ai, bi), fin = Math.min(af, bf);
+            if (inicio <= fin) {
+                inicios[r] = (char)inicio;
+                longitudes[r++] = (char)(fin - inicio);
+            }
+            if (af < bf)
+                i++;
+            else
+                j++;
+        }
+        Corridas c = new Corridas(inicios, longitudes, r);
+        return r > MAXIMO_CORRIDAS ? c.aMapa() : c;
+    }
+
+    /* Regresa la unión de dos contenedores. Dos arreglos que caben juntos en
+       uno se mezclan, dos listas de corridas se mezclan corrida por corrida,
+       y lo demás se une en un mapa de bits. */
+    private static Contenedor union(Contenedor a, Contenedor b) {
+        if (a instanceof Arreglo && b instanceof Arreglo &&
+            a.elementos + b.elementos <= MAXIMO_ARREGLO) {
+            Arreglo x = (Arreglo)a, y = (Arreglo)b;
+            char[] v = new char[a.elementos + b.elementos];
+            int n = 0, i = 0, j = 0;
+            while (i < x.elementos || j < y.elementos) {
+                if (j == y.elementos ||
+                    (i < x.elementos && x.valores[i] < y.valores[j]))
+                    v[n++] = x.valores[i++];
+                else if (i == x.elementos || y.valores[j] < x.valores[i])
+                    v[n++] = y.valores[j++];
+                else {
+                    v[n++] = x.valores[i++];
+                    j++;
+                }
+            }
+            return new Arreglo(v, n);
+        }
+        if (a instanceof Corridas && b instanceof Corridas)
+            return unionCorridas((Corridas)a, (Corridas)b);
+        long[] m = new long[PALABRAS];
+        a.prende(m);
+        b.prende(m);
+        return deMapa(m);
+    }
+
+    /* Une dos listas de corridas, juntando las que se enciman o se
+       tocan. */
+    private static Contenedor unionCorridas(Corridas a, Corridas b) {
+        int n = a.corridas + b.corridas;
+        char[] inicios = new char[n];
+        char[] longitudes = new char[n];
+        int r = -1, i = 0, j = 0, fin = -2;
+        while (i < a.corridas || j < b.corridas) {
+            int s, f;
+            if (j == b.corridas ||
+                (i < a.corridas && a.inicios[i] < b.inicios[j])) {
+                s = a.inicios[i];
+                f = s + a.longitudes[i++];
+            } else {
+                s = b.inicios[j];
+                f = s + b.longitudes[j++];
+            }
+            if (s <= fin + 1) {
+                fin = Math.max(fin, f);
+            } else {
+                inicios[++r] = (char)s;
+                fin = f;
+            }
+            longitudes[r] = (char)(fin - inicios[r]);
+        }
+        Corridas c = new Corridas(inicios, longitudes, r + 1);
+        return c.corridas > MAXIMO_CORRIDAS ? c.aMapa() : c;
+    }
+
+    /* Regresa la diferencia de dos contenedores: si el primero es arreglo
+       buscamos cada uno de sus valores en el segundo; si no, apagamos los
+       bits del segundo en un mapa del primero. */
+    private static Contenedor diferencia(Contenedor a, Contenedor b) {
+        if (a instanceof Arreglo) {
+            Arreglo x = (Arreglo)a;
+            char[] v = new char[a.elementos];
+            int n = 0;
+            for (int i = 0; i < x.elementos; i++)
+                if (!b.contiene(x.valores[i]))
+                    v[n++] = x.valores[i];
+            return new Arreglo(v, n);
+        }
+        long[] m = new long[PALABRAS];
+        a.prende(m);
+        b.apaga(m);
+        return deMapa(m);
+    }
+
+    /* Prende los bits del rango [desde, hasta) del mapa. */
+    private static void prendeRango(long[] mapa, int desde, int hasta) {
+        int i = desde >>> 6, j = (hasta - 1) >>> 6;
+        long primera = -1L << desde, ultima = -1L >>> -hasta;
+        if (i == j) {
+            mapa[i] |= primera & ultima;
+            return;
+        }
+        mapa[i] |= primera;
+        for (int k = i + 1; k < j; k++)
+            mapa[k] = -1L;
+        mapa[j] |= ultima;
+    }
+
+    /* Apaga los bits del rango [desde, hasta) del mapa. */
+    private static void apagaRango(long[] mapa, int desde, int hasta) {
+        int i = desde >>> 6, j = (hasta - 1) >>> 6;
+        long primera = -1L << desde, ultima = -1L >>> -hasta;
+        if (i == j) {
+            mapa[i] &= ~(primera & ultima);
+            return;
+        }
+        mapa[i] &= ~primera;
+        for (int k = i + 1; k < j; k++)
+            mapa[k] = 0L;
+        mapa[j] &= ~ultima;
+    }
+
+    /* Revisa el número mágico del conjunto serializado en la posición p, y
+       regresa su número de pedazos. */
+    private static int revisaEncabezado(ByteBuffer b, int p) {
+        if (b.getInt(p) != MAGICO)
+            throw new IllegalArgumentException("Formato inválido");
+        int n = b.getInt(p + 4);
+        if (n < 0 || n > 1 << 16)
+            throw new IllegalArgumentException("Formato inválido");
+        return n;
+    }
+
+    /* Lee un contenedor serializado del tipo y la cuenta recibidos en la
+       posición p. */
+    private static Contenedor lee(ByteBuffer b, int tipo, int cuenta, int p) {
+        switch (tipo) {
+        case TIPO_ARREGLO:
+            if (cuenta < 1 || cuenta > MAXIMO_ARREGLO)
+                break;
+            char[] v = new char[cuenta];
+            for (int i = 0; i < cuenta; i++)
+                v[i] = b.getChar(p + 2 * i);
+            return new Arreglo(v, cuenta);
+        case TIPO_MAPA:
+            long[] m = new long[PALABRAS];
+            for (int i = 0; i < PALABRAS; i++)
+                m[i] = b.getLong(p + 8 * i);
+            return new Mapa(m);
+        case TIPO_CORRIDAS:
+            if (cuenta < 1 || cuenta > MAXIMO_CORRIDAS)
+                break;
+            char[] inicios = new char[cuenta];
+            char[] longitudes = new char[cuenta];
+            for (int i = 0; i < cuenta; i++) {
+                inicios[i] = b.getChar(p + 4 * i);
+                longitudes[i] = b.getChar(p + 4 * i + 2);
+            }
+            return new Corridas(inicios, longitudes, cuenta);
+        default:
+        }
+        throw new IllegalArgumentException("Formato inválido");
+    }
+
+    /* Busca el valor entre los n chars serializados a partir de p, separados
+       por el paso recibido; regresa su índice, o -(i + 1) si no está, donde
+       i es donde habría que insertarlo. */
+    private static int buscaSerializado(ByteBuffer b, int p, int paso, int n,
+                                        char x) {
+        int a = 0, z = n - 1;
+        while (a <= z) {
+            int m = (a + z) >>> 1;
+            char v = b.getChar(p + paso * m);
+            if (v < x)
+                a = m + 1;
+            else if (v > x)
+                z = m - 1;
+            else
+                return m;
+        }
+        return -(a + 1);
+    }
+}
@@ -1,8 +1,12 @@
 package mx.unam.ciencias.edd;
 
 import java.lang.reflect.Array;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiFunction;
 
 /**
  * Clase para diccionarios (<em>hash tables</em>). Un diccionario generaliza el
@@ -11,68 +15,132 @@ import java.util.NoSuchElementException;
  */
 public class Diccionario<K, V> implements Iterable<V> {
 
-    /* Clase interna privada para entradas. */
-    private class Entrada {
+    /* Clase interna privada para entradas. Las entradas se ordenan por su
+       dispersión, y luego por su llave, para poder guardarlas en un árbol
+       cuando su lista crece demasiado; sólo se comparan entradas cuyas
+       llaves son comparables y de la misma clase. */
+    private class Entrada implements Comparable<Entrada> {
 
         /* La llave. */
         public K llave;
         /* El valor. */
         public V valor;
+        /* La dispersión de la llave; se guarda para no volver a dispersar la
+           llave al crecer, y para comparar dispersiones antes que llaves. */
+        public int dispersion;
 
         /* Construye una nueva entrada. */
-        public Entrada(K llave, V valor) {
+        public Entrada(K llave, V valor, int dispersion) {
             this.llave = llave;
             this.valor = valor;
+            this.dispersion = dispersion;
+        }
+
+        /* Compara la entrada con otra. */
+        @Override public int compareTo(Entrada e) {
+            if (dispersion != e.dispersion)
+                return dispersion < e.dispersion ? -1 : 1;
+            @SuppressWarnings("unchecked") Comparable<Object> c =
+                (Comparable<Object>)llave;
+            return c.compareTo(e.llave);
         }
     }
 
     /* Clase interna privada para iteradores. */
     private class Iterador {
 
-        /* En qué lista estamos. */
+        /* En qué grupo de listas (o en qué casilla, en modo Robin Hood)
+         * estamos. */
         private int indice;
+        /* Número de grupos de listas. */
+        private int grupos;
+        /* Listas por grupo: dos mientras crecemos, una en otro caso. */
+        private int partes;
+        /* Qué lista del grupo estamos recorriendo. */
+        private int parte;
         /* Iterador auxiliar. */
         private Iterator<Entrada> iterador;
+        /* La llave de la última entrada visitada. */
+        public K llave;
+        /* El valor de la última entrada visitada. */
+        public V valor;
 
         /* Construye un nuevo iterador, auxiliándose de las listas del
-         * diccionario. */
+         * diccionario. Mientras el diccionario crece, las entradas de la
+         * lista anterior j terminan en las listas j y j + grupos, así que
+         * recorremos por grupos y migramos cada grupo antes de recorrerlo;
+         * las migraciones de get no pueden entonces mover entradas que ya
+         * visitamos. */
         public Iterador() {
-          while(indice < entradas.length){
-            if(entradas[indice] != null)
-              if(!entradas[indice].esVacia()){
-                iterador = entradas[indice].iterator();
-                break;
-              }
+          if(modo != ModoDiccionario.ENCADENADO){
+            while(indice < limite() && llaves[indice] == null)
               indice++;
+            return;
+          }
+          grupos = anteriores == null ? entradas.length : anteriores.length;
+          partes = entradas.length / grupos;
+          indice = -1;
+          parte = partes - 1;
+          buscaLista();
+        }
+
+        /* Avanza a la siguiente lista no vacía. */
+        private void buscaLista() {
+          iterador = null;
+          while(iterador == null){
+            if(++parte >= partes){
+              parte = 0;
+              if(++indice >= grupos)
+                return;
+              migraLista(indice);
+            }
+            Lista<Entrada> l = entradas[indice + parte * grupos];
+            if(l != null && !l.esVacia())
+              iterador = l.iterator();
           }
         }
 
         /* Nos dice si hay una siguiente entrada. */
         public boolean hasNext() {
+            if(modo != ModoDiccionario.ENCADENADO)
+              return indice < limite();
             if(iterador != null)
               return true;
             return false;
         }
 
-        /* Regresa la siguiente entrada. */
-        public Entrada siguiente() {
-          if(iterador == null)
-            throw new NoSuchElementException();
-          Entrada e = iterador.next();
-          if(!iterador.hasNext()){
+        /* Avanza a la siguiente entrada, dejando su llave y su valor en
+         * llave y valor. */
+        public void avanza() {
+          if(modo != ModoDiccionario.ENCADENADO){
+            if(indice >= limite())
+              throw new NoSuchElementException();
+            llave = llaves[indice];
+            valor = valores[indice];
             indice++;
-          while(indice < entradas.length){
-            if(entradas[indice] != null)
-              if(!entradas[indice].esVacia()){
-                iterador = entradas[indice].iterator();
-                break;
-              }
+            while(indice < limite() && llaves[indice] == null)
               indice++;
+            return;
           }
-          }
-          if(indice >= entradas.length)
-            iterador = null;
-            return e;
+          Entrada e = siguiente();
+          llave = e.llave;
+          valor = e.valor;
+        }
+
+        /* Regresa hasta dónde recorrer las casillas: en modo compacto
+         * sólo las que ya se usaron, que están en orden de inserción. */
+        private int limite() {
+            return modo == ModoDiccionario.COMPACTO ? usadas : llaves.length;
+        }
+
+        /* Regresa la siguiente entrada del modo encadenado. */
+        private Entrada siguiente() {
+          if(iterador == null)
+            throw new NoSuchElementException();
+          Entrada e = iterador.next();
+          if(!iterador.hasNext())
+            buscaLista();
+          return e;
         }
     }
 
@@ -82,7 +150,8 @@ public class Diccionario<K, V> implements Iterable<V> {
 
         /* Regresa el siguiente elemento. */
         @Override public K next() {
-            return super.siguiente().llave;
+            super.avanza();
+            return llave;
         }
     }
 
@@ -92,7 +161,123 @@ public class Diccionario<K, V> implements Iterable<V> {
 
         /* Regresa el siguiente elemento. */
         @Override public V next() {
-            return super.siguiente().valor;
+            super.avanza();
+            return valor;
+        }
+    }
+
+    /* Clase interna privada para dispersar en paralelo las llaves de una
+       construcción paralela. */
+    private class Dispersion extends RecursiveAction {
+
+        /* Las llaves. */
+        private K[] llaves;
+        /* Dónde guardar las dispersiones. */
+        private int[] dispersiones;
+        /* El rango de llaves a dispersar. */
+        private int de, a;
+
+        /* Construye una tarea para dispersar las llaves en [de, a). */
+        public Dispersion(K[] llaves, int[] dispersiones, int de, int a) {
+            this.llaves = llaves;
+            this.dispersiones = dispersiones;
+            this.de = de;
+            this.a = a;
+        }
+
+        /* Dispersa las llaves, dividiendo el rango si es grande. */
+        @Override protected void compute() {
+            if (a - de <= TAREA) {
+                for (int i = de; i < a; i++)
+                    dispersiones[i] = dispersor.dispersa(llaves[i]);
+                return;
+            }
+            int m = (de + a) >>> 1;
+            invokeAll(new Dispersion(llaves, dispersiones, de, m),
+                      new Dispersion(llaves, dispersiones, m, a));
+        }
+    }
+
+    /* Clase interna privada para llenar en paralelo las particiones de una
+       construcción paralela. La partición p es la región de listas cuyos
+       índices empiezan con p en sus bits altos, así que dos particiones
+       nunca tocan la misma lista. */
+    private class Llenado extends RecursiveAction {
+
+        /* Las llaves y los valores. */
+        private K[] llaves;
+        private V[] valores;
+        /* Las dispersiones de las llaves. */
+        private int[] dispersiones;
+        /* Los índices de las entradas, ordenados por partición. */
+        private int[] orden;
+        /* Dónde empieza cada partición en orden. */
+        private int[] inicios;
+        /* Cuántas llaves distintas quedaron en cada partición. */
+        private int[] distintas;
+        /* Los histogramas de cada partición. */
+        private int[][] histogramas;
+        /* El rango de particiones a llenar. */
+        private int de, a;
+
+        /* Construye una tarea para llenar las particiones en [de, a). */
+        public Llenado(K[] llaves, V[] valores, int[] dispersiones,
+                       int[] orden, int[] inicios, int[] distintas,
+                       int[][] histogramas, int de, int a) {
+            this.llaves = llaves;
+            this.valores = valores;
+            this.dispersiones = dispersiones;
+            this.orden = orden;
+            this.inicios = inicios;
+            this.distintas = distintas;
+            this.histogramas = histogramas;
+            this.de = de;
+            this.a = a;
+        }
+
+        /* Llena las particiones, una por tarea. */
+        @Override protected void compute() {
+            if (a - de == 1) {
+                llena(de);
+                return;
+            }
+            int m = (de + a) >>> 1;
+            invokeAll(new Llenado(llaves, valores, dispersiones, orden,
+                                  inicios, distintas, histogramas, de, m),
+                      new Llenado(llaves, valores, dispersiones, orden,
+                                  inicios, distintas, histogramas, m, a));
+        }
+
+        /* Llena la partición p en el orden de la entrada, para que, como
+           con agrega, el último valor de una llave repetida sea el que
+           quede; luego calcula su histograma. */
+        private void llena(int p) {
+            int mascara = entradas.length - 1;
+            for (int i = inicios[p]; i < inicios[p + 1]; i++) {
+                int j = orden[i];
+                int h = dispersiones[j];
+                int b = h & mascara;
+                if (entradas[b] == null)
+                    entradas[b] = new Lista<Entrada>();
+                Entrada e = null;
+                for (Entrada f : entradas[b])
+                    if (f.dispersion == h && f.llave.equals(llaves[j])) {
+                        e = f;
+                        break;
+                    }
+                if (e != null) {
+                    e.valor = valores[j];
+                    continue;
+                }
+                entradas[b].agrega(new Entrada(llaves[j], valores[j], h));
+                distintas[p]++;
+            }
+            int n = entradas.length / PARTICIONES;
+            int[] h = new int[HISTOGRAMA];
+            for (int b = p * n; b < (p + 1) * n; b++)
+                h[Math.min(entradas[b] == null ? 0 :
+                           entradas[b].getElementos(), HISTOGRAMA - 1)]++;
+            histogramas[p] = h;
         }
     }
 
@@ -102,12 +287,101 @@ public class Diccionario<K, V> implements Iterable<V> {
     /* Capacidad mínima; decidida arbitrariamente a 2^6. */
     private static final int MINIMA_CAPACIDAD = 64;
 
+    /* Cuántas listas anteriores migramos en cada operación mientras
+       crecemos. Con cuatro la migración siempre termina antes de que la carga
+       vuelva a rebasar MAXIMA_CARGA. */
+    private static final int MIGRACION = 4;
+
+    /* Tamaño del histograma de las estadísticas; la última posición acumula
+       las longitudes (o distancias) mayores. */
+    private static final int HISTOGRAMA = 16;
+
+    /* Marca de las casillas de indices cuya entrada se eliminó. */
+    private static final int LAPIDA = -1;
+
+    /* Cuando una lista tiene más de ARBOL entradas con llaves comparables,
+       la indexamos con un árbol rojinegro; cuando baja a LISTA entradas o
+       menos, tiramos el árbol. */
+    private static final int ARBOL = 8;
+    private static final int LISTA = 6;
+
+    /* En cuántas particiones dividimos las listas en una construcción
+       paralela. Los arreglos tienen al menos 2^7 listas, así que cada
+       partición tiene al menos dos. */
+    private static final int PARTICIONES = 64;
+
+    /* Cuántas llaves dispersa cada tarea de una construcción paralela. */
+    private static final int TAREA = 1 << 12;
+
     /* Dispersor. */
     private Dispersor<K> dispersor;
+    /* Modo de almacenamiento. */
+    private ModoDiccionario modo;
     /* Nuestro diccionario. */
     private Lista<Entrada>[] entradas;
+    /* Las listas de antes de crecer, mientras las migramos; null si no
+       estamos creciendo. */
+    private Lista<Entrada>[] anteriores;
+    /* Los árboles que indexan las listas largas; null si ninguna lista
+       tiene árbol. */
+    private ArbolRojinegro<Entrada>[] arboles;
+    /* Los árboles de las listas anteriores, mientras las migramos. */
+    private ArbolRojinegro<Entrada>[] arbolesAnteriores;
+    /* Cuántas listas anteriores ya recorrió la migración. */
+    private int migradas;
+    /* Dónde encontró buscaEntrada la última entrada: en qué listas, en
+       cuál de ellas y, si la encontró recorriendo la lista, un iterador que
+       acaba de regresarla (null si la encontró el árbol). Así la entrada se
+       quita sin volver a buscarla. */
+    private Lista<Entrada>[] listasEncontrada;
+    private int indiceEncontrada;
+    private Iterator<Entrada> posicionEncontrada;
+    /* Las llaves, en modo Robin Hood; null si la casilla está vacía. */
+    private K[] llaves;
+    /* Los valores, en modo Robin Hood. */
+    private V[] valores;
+    /* Las dispersiones de las llaves, en modo Robin Hood. */
+    private int[] dispersiones;
+    /* La tabla del modo compacto: en cada casilla, uno más la posición de
+       su entrada en llaves, valores y dispersiones, que en este modo están
+       en orden de inserción; 0 si la casilla está vacía, y LAPIDA si su
+       entrada se eliminó. */
+    private int[] indices;
+    /* Cuántas posiciones de llaves ya se usaron, en modo compacto. */
+    private int usadas;
+    /* Número de lápidas en indices. */
+    private int lapidas;
     /* Número de valores. */
     private int elementos;
+    /* Carga mínima antes de encoger; cero si nunca encogemos. */
+    private double minimaCarga;
+    /* Cuántas listas hay de cada longitud o, en modo Robin Hood, cuántas
+       entradas hay a cada distancia de su casilla ideal. */
+    private int[] histograma;
+    /* Cuántas listas anteriores hay de cada longitud, mientras crecemos. */
+    private int[] histogramaAnterior;
+    /* Número de veces que el diccionario ha crecido. */
+    private int crecimientos;
+    /* Tiempo en nanosegundos dedicado a crecer y a migrar. */
+    private long tiempoCrecimientos;
+    /* Entradas comparadas (o casillas sondeadas) en la búsqueda en curso. */
+    private int sondeo;
+    /* Búsquedas exitosas y sus sondeos. */
+    private long busquedasExitosas, sondeosExitosos;
+    /* Búsquedas fallidas y sus sondeos. */
+    private long busquedasFallidas, sondeosFallidos;
+    /* El dispersor con semilla del que sale dispersor al resembrar; null si
+       el diccionario nunca resiembra. */
+    private DispersorSembrado<K> sembrado;
+    /* Cuántas colisiones toleramos para una llave nueva antes de resembrar. */
+    private int umbral;
+    /* Cuántas entradas debe haber para volver a resembrar. */
+    private int proximaResiembra;
+    /* Número de veces que el diccionario ha resembrado. */
+    private int resiembras;
+    /* El filtro de Bloom de las dispersiones de las llaves; null si el
+       diccionario no tiene filtro. */
+    private FiltroBloom<K> filtro;
 
     /* Truco para crear un arreglo genérico. Es necesario hacerlo así por cómo
        Java implementa sus genéricos; de otra forma obtenemos advertencias del
@@ -117,6 +391,20 @@ public class Diccionario<K, V> implements Iterable<V> {
         return (Lista<Entrada>[])Array.newInstance(Lista.class, n);
     }
 
+    /* Crea un arreglo genérico de árboles. */
+    @SuppressWarnings("unchecked")
+    private ArbolRojinegro<Entrada>[] nuevoArregloArboles(int n) {
+        return (ArbolRojinegro<Entrada>[])
+            Array.newInstance(ArbolRojinegro.class, n);
+    }
+
+    /* Crea un arreglo genérico de objetos para las llaves o los valores del
+       modo Robin Hood. */
+    @SuppressWarnings("unchecked")
+    private <T> T[] nuevoArregloObjetos(int n) {
+        return (T[])new Object[n];
+    }
+
     /**
      * Construye un diccionario con una capacidad inicial y dispersor
      * predeterminados.
@@ -150,15 +438,120 @@ public class Diccionario<K, V> implements Iterable<V> {
      * @param dispersor el dispersor a utilizar.
      */
     public Diccionario(int capacidad, Dispersor<K> dispersor) {
+        this(capacidad, dispersor, ModoDiccionario.ENCADENADO);
+    }
+
+    /**
+     * Construye un diccionario con una capacidad inicial, un método de
+     * dispersor y un modo de almacenamiento definidos por el usuario. En modo
+     * {@link ModoDiccionario#ROBIN_HOOD} las llaves, los valores y sus
+     * dispersiones se guardan en arreglos paralelos, sin listas ni entradas;
+     * en modo {@link ModoDiccionario#COMPACTO} esos arreglos están además en
+     * orden de inserción, y el diccionario se itera en ese orden.
+     * @param capacidad la capacidad inicial del diccionario.
+     * @param dispersor el dispersor a utilizar.
+     * @param modo el modo de almacenamiento a utilizar.
+     * @throws IllegalArgumentException si el modo es nulo.
+     */
+    public Diccionario(int capacidad, Dispersor<K> dispersor,
+                       ModoDiccionario modo) {
+        if(modo == null)
+            throw new IllegalArgumentException();
         this.dispersor = dispersor;
-        if(capacidad < MINIMA_CAPACIDAD)
-            capacidad = MINIMA_CAPACIDAD;
-        int mascara = 1;
-        while(mascara <capacidad)
-            mascara = (mascara <<1) | 1;
-        mascara = (mascara <<1) | 1;
-        capacidad = mascara + 1;
-        entradas = nuevoArreglo(capacidad);
+        this.modo = modo;
+        capacidad = calculaCapacidad(capacidad);
+        if(modo == ModoDiccionario.ROBIN_HOOD)
+            nuevasCasillas(capacidad);
+        else if(modo == ModoDiccionario.COMPACTO)
+            nuevosIndices(capacidad);
+        else
+            nuevasListas(capacidad);
+    }
+
+    /**
+     * Construye un diccionario con dispersor predeterminado a partir de las
+     * entradas recibidas, reservando de una vez espacio para n entradas.
+     * @param <K> el tipo de las llaves.
+     * @param <V> el tipo de los valores.
+     * @param entradas las entradas del diccionario.
+     * @param n cuántas entradas esperamos recibir.
+     * @return un diccionario con las entradas recibidas.
+     * @throws IllegalArgumentException si las entradas son nulas, si n es
+     *         negativo, o si alguna llave o valor es nulo.
+     */
+    public static <K, V> Diccionario<K, V>
+    desde(Iterable<? extends Map.Entry<? extends K, ? extends V>> entradas,
+          int n) {
+        return desde(entradas, n, (K llave) -> llave.hashCode(),
+                     ModoDiccionario.ENCADENADO);
+    }
+
+    /**
+     * Construye un diccionario con el dispersor y el modo recibidos a partir
+     * de las entradas recibidas, reservando de una vez espacio para n
+     * entradas. Si una llave se repite, se queda su último valor.
+     * @param <K> el tipo de las llaves.
+     * @param <V> el tipo de los valores.
+     * @param entradas las entradas del diccionario.
+     * @param n cuántas entradas esperamos recibir.
+     * @param dispersor el dispersor a utilizar.
+     * @param modo el modo de almacenamiento a utilizar.
+     * @return un diccionario con las entradas recibidas.
+     * @throws IllegalArgumentException si las entradas o el modo son nulos,
+     *         si n es negativo, o si alguna llave o valor es nulo.
+     */
+    public static <K, V> Diccionario<K, V>
+    desde(Iterable<? extends Map.Entry<? extends K, ? extends V>> entradas,
+          int n, Dispersor<K> dispersor, ModoDiccionario modo) {
+        if(entradas == null || n < 0)
+            throw new IllegalArgumentException();
+        Diccionario<K, V> d = new Diccionario<K, V>(n, dispersor, modo);
+        d.agregaTodos(entradas, n);
+        return d;
+    }
+
+    /**
+     * <p>Construye en paralelo un diccionario en modo {@link
+     * ModoDiccionario#ENCADENADO} a partir de las entradas recibidas. Si una
+     * llave se repite, se queda su último valor.</p>
+     *
+     * <p>Las llaves se dispersan en paralelo, y las entradas se reparten por
+     * los bits altos del índice de su lista en particiones que ocupan
+     * regiones disjuntas del arreglo, así que cada partición se llena en
+     * paralelo sin sincronización. El dispersor, y los métodos
+     * <code>equals</code> de las llaves, deben poder llamarse desde varios
+     * hilos a la vez. El modo Robin Hood no se puede construir así, porque
+     * sus sondeos cruzan de una región a otra.</p>
+     * @param <K> el tipo de las llaves.
+     * @param <V> el tipo de los valores.
+     * @param entradas las entradas del diccionario.
+     * @param n cuántas entradas esperamos recibir.
+     * @param dispersor el dispersor a utilizar.
+     * @return un diccionario con las entradas recibidas.
+     * @throws IllegalArgumentException si las entradas son nulas, si n es
+     *         negativo, o si alguna llave o valor es nulo.
+     */
+    public static <K, V> Diccionario<K, V>
+    desdeParalelo(Iterable<? extends Map.Entry<? extends K, ? extends V>>
+                  entradas, int n, Dispersor<K> dispersor) {
+        if(entradas == null || n < 0)
+            throw new IllegalArgumentException();
+        Diccionario<K, V> d = new Diccionario<K, V>(0, dispersor);
+        K[] ks = d.nuevoArregloObjetos(Math.max(n, 1));
+        V[] vs = d.nuevoArregloObjetos(Math.max(n, 1));
+        int m = 0;
+        for(Map.Entry<? extends K, ? extends V> e : entradas){
+            if(e.getKey() == null || e.getValue() == null)
+                throw new IllegalArgumentException();
+            if(m == ks.length){
+                ks = Arrays.copyOf(ks, m << 1);
+                vs = Arrays.copyOf(vs, m << 1);
+            }
+            ks[m] = e.getKey();
+            vs[m++] = e.getValue();
+        }
+        d.llenaParalelo(ks, vs, m);
+        return d;
     }
 
     /**
@@ -172,22 +565,129 @@ public class Diccionario<K, V> implements Iterable<V> {
     public void agrega(K llave, V valor) {
         if(llave == null || valor == null)
             throw new IllegalArgumentException();
-        int i = indice(llave);
-        if(entradas[i] == null){
-            entradas[i] = new Lista<Entrada>();
-            entradas[i].agrega(new Entrada(llave, valor));
-            elementos++;
-        }else{
-            Entrada e = buscaEntrada(llave);
-            if(e != null)
-                e.valor = valor;
-            else{
-                entradas[i].agrega(new Entrada(llave, valor));
-                elementos++;
-            }
+        int h = dispersor.dispersa(llave);
+        if(modo != ModoDiccionario.ENCADENADO){
+            int c = localizaCasilla(llave, h);
+            if(c >= 0)
+                asignaValor(c, valor);
+            else
+                agregaCasilla(-c - 1, llave, valor, h);
+            return;
         }
-        if(carga() > MAXIMA_CARGA)
-            creceArreglo();
+        migra();
+        Entrada e = buscaEntrada(llave, h);
+        if(e != null)
+            e.valor = valor;
+        else
+            agregaEntrada(llave, valor, h);
+    }
+
+    /**
+     * Agrega todas las entradas recibidas al diccionario, como si se llamara
+     * {@link #agrega} con cada una en orden, pero reservando de una vez
+     * espacio para n entradas más, así que el diccionario no crece mientras
+     * las agrega (a menos que sean más de n).
+     * @param entradas las entradas a agregar.
+     * @param n cuántas entradas esperamos recibir.
+     * @throws IllegalArgumentException si las entradas son nulas, si n es
+     *         negativo, o si alguna llave o valor es nulo.
+     */
+    public void agregaTodos(Iterable<? extends Map.Entry<? extends K,
+                                                         ? extends V>>
+                            entradas, int n) {
+        if(entradas == null || n < 0)
+            throw new IllegalArgumentException();
+        reserva(elementos + n);
+        for(Map.Entry<? extends K, ? extends V> e : entradas)
+            agrega(e.getKey(), e.getValue());
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario sólo si la llave no está ya en el
+     * diccionario. La llave se dispersa y se busca una sola vez.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @return el valor que ya estaba asociado a la llave, o <code>null</code>
+     *         si la llave no estaba y se agregó el valor recibido.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     */
+    public V agregaSiAusente(K llave, V valor) {
+        if(llave == null || valor == null)
+            throw new IllegalArgumentException();
+        int h = dispersor.dispersa(llave);
+        if(modo != ModoDiccionario.ENCADENADO){
+            int c = localizaCasilla(llave, h);
+            if(c >= 0)
+                return valor(c);
+            agregaCasilla(-c - 1, llave, valor, h);
+            return null;
+        }
+        migra();
+        Entrada e = buscaEntrada(llave, h);
+        if(e != null)
+            return e.valor;
+        agregaEntrada(llave, valor, h);
+        return null;
+    }
+
+    /**
+     * Calcula un nuevo valor para la llave a partir de la llave y de su valor
+     * actual (<code>null</code> si la llave no está en el diccionario). Si la
+     * función regresa <code>null</code>, la llave se elimina del diccionario;
+     * si no, el valor calculado se asocia a la llave. La llave se dispersa y
+     * se busca una sola vez. La función no debe modificar el diccionario.
+     * @param llave la llave cuyo valor queremos calcular.
+     * @param funcion la función para calcular el nuevo valor.
+     * @return el nuevo valor asociado a la llave, o <code>null</code> si la
+     *         llave ya no está en el diccionario.
+     * @throws IllegalArgumentException si la llave o la función son nulas.
+     */
+    public V computa(K llave, BiFunction<? super K, ? super V, ? extends V>
+                     funcion) {
+        if(llave == null || funcion == null)
+            throw new IllegalArgumentException();
+        int h = dispersor.dispersa(llave);
+        if(modo != ModoDiccionario.ENCADENADO){
+            int c = localizaCasilla(llave, h);
+            V nuevo = funcion.apply(llave, c >= 0 ? valor(c) : null);
+            return actualizaCasilla(c, llave, nuevo, h);
+        }
+        migra();
+        Entrada e = buscaEntrada(llave, h);
+        V nuevo = funcion.apply(llave, e != null ? e.valor : null);
+        return actualizaEntrada(e, llave, nuevo, h);
+    }
+
+    /**
+     * Combina el valor recibido con el valor actual de la llave. Si la llave
+     * no está en el diccionario, se le asocia el valor recibido; si está, se
+     * le asocia el resultado de aplicar la función a su valor actual y al
+     * valor recibido, y si la función regresa <code>null</code> la llave se
+     * elimina. La llave se dispersa y se busca una sola vez. La función no
+     * debe modificar el diccionario.
+     * @param llave la llave cuyo valor queremos combinar.
+     * @param valor el valor a combinar.
+     * @param funcion la función para combinar el valor actual con el
+     *                recibido.
+     * @return el nuevo valor asociado a la llave, o <code>null</code> si la
+     *         llave ya no está en el diccionario.
+     * @throws IllegalArgumentException si la llave, el valor o la función son
+     *         nulos.
+     */
+    public V combina(K llave, V valor,
+                     BiFunction<? super V, ? super V, ? extends V> funcion) {
+        if(llave == null || valor == null || funcion == null)
+            throw new IllegalArgumentException();
+        int h = dispersor.dispersa(llave);
+        if(modo != ModoDiccionario.ENCADENADO){
+            int c = localizaCasilla(llave, h);
+            V nuevo = c >= 0 ? funcion.apply(valor(c), valor) : valor;
+            return actualizaCasilla(c, llave, nuevo, h);
+        }
+        migra();
+        Entrada e = buscaEntrada(llave, h);
+        V nuevo = e != null ? funcion.apply(e.valor, valor) : valor;
+        return actualizaEntrada(e, llave, nuevo, h);
     }
 
     /**
@@ -200,13 +700,27 @@ public class Diccionario<K, V> implements Iterable<V> {
     public V get(K llave) {
         if(llave == null)
             throw new IllegalArgumentException();
-        int i = indice(llave);
-        if(entradas[i] == null)
+        V v = busca(llave);
+        if(v == null)
             throw new NoSuchElementException();
-        for(Entrada e : entradas[i])
-            if(e.llave.equals(llave))
-                return e.valor;
-        throw new NoSuchElementException();
+        return v;
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada, o
+     * el valor por omisión si la llave no está en el diccionario. A
+     * diferencia de {@link #get}, no lanza ninguna excepción cuando la llave
+     * no está.
+     * @param llave la llave para buscar el valor.
+     * @param porOmision el valor a regresar si la llave no está.
+     * @return el valor correspondiente a la llave, o el valor por omisión.
+     * @throws IllegalArgumentException si la llave es nula.
+     */
+    public V getOrDefault(K llave, V porOmision) {
+        if(llave == null)
+            throw new IllegalArgumentException();
+        V v = busca(llave);
+        return v != null ? v : porOmision;
     }
 
     /**
@@ -216,12 +730,7 @@ public class Diccionario<K, V> implements Iterable<V> {
      *         <code>false</code> en otro caso.
      */
     public boolean contiene(K llave) {
-        try{
-            get(llave);
-        }catch(Exception e){
-            return false;
-        }
-        return true;
+        return llave != null && busca(llave) != null;
     }
 
     /**
@@ -232,26 +741,56 @@ public class Diccionario<K, V> implements Iterable<V> {
      *         el diccionario.
      */
     public void elimina(K llave) {
+        if(eliminaYRegresa(llave) == null)
+            throw new NoSuchElementException();
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada, y
+     * lo regresa. La llave se dispersa y se busca una sola vez.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @return el valor que estaba asociado a la llave, o <code>null</code> si
+     *         la llave no se encontraba en el diccionario.
+     * @throws IllegalArgumentException si la llave es nula.
+     */
+    public V eliminaYRegresa(K llave) {
         if (llave == null)
             throw new IllegalArgumentException();
-        int i = indice(llave);
-        if (entradas[i] == null)
-            throw new NoSuchElementException();
-        if(contiene(llave)){
-            entradas[i].elimina(buscaEntrada(llave));
-            elementos--;
+        int h = dispersor.dispersa(llave);
+        if(filtro != null && !filtro.puedeContenerDispersion(h))
+            return null;
+        if(modo != ModoDiccionario.ENCADENADO){
+            int c = localizaCasilla(llave, h);
+            if(c < 0)
+                return null;
+            V v = valor(c);
+            quitaCasilla(c);
+            return v;
         }
+        migra();
+        Entrada e = buscaEntrada(llave, h);
+        if(e == null)
+            return null;
+        quitaEntrada(e);
+        return e.valor;
     }
 
     /**
-     * Nos dice cuántas colisiones hay en el diccionario.
+     * Nos dice cuántas colisiones hay en el diccionario. En modo Robin Hood
+     * se cuentan las entradas cuya casilla ideal es la misma que la de la
+     * entrada anterior, y en modo compacto las entradas cuya casilla ideal es
+     * la misma que la de alguna otra entrada, que es lo mismo que contarían
+     * las listas.
      * @return cuántas colisiones hay en el diccionario.
      */
     public int colisiones() {
-        int c = 0;
-        for(int i = 0; i < entradas.length; i++)
-            if(entradas[i] != null)
-                c += entradas[i].getElementos()-1;
+        if(modo == ModoDiccionario.ROBIN_HOOD)
+            return colisionesCasillas(false);
+        if(modo == ModoDiccionario.COMPACTO)
+            return colisionesIndices(false);
+        int c = colisionesListas(entradas, false);
+        if(anteriores != null)
+            c += colisionesListas(anteriores, false);
         return c;
     }
 
@@ -261,14 +800,14 @@ public class Diccionario<K, V> implements Iterable<V> {
      * @return el máximo número de colisiones para una misma llave.
      */
     public int colisionMaxima() {
-        int c = 0, cM = 0;
-        for(int i = 0 ; i < entradas.length; i++)
-            if(entradas[i] != null){
-                c = entradas[i].getElementos()-1;
-                if(c > cM)
-                    cM = c;
-            }
-        return cM;
+        if(modo == ModoDiccionario.ROBIN_HOOD)
+            return colisionesCasillas(true);
+        if(modo == ModoDiccionario.COMPACTO)
+            return colisionesIndices(true);
+        int c = colisionesListas(entradas, true);
+        if(anteriores != null)
+            c = Math.max(c, colisionesListas(anteriores, true));
+        return c;
     }
 
     /**
@@ -278,10 +817,143 @@ public class Diccionario<K, V> implements Iterable<V> {
     public double carga() {
         /*return (elementos + 0.0)/entradas.length;*/
         double e = elementos;
-        double l = entradas.length;
+        double l = capacidad();
         return e / l;
     }
 
+    /**
+     * Regresa la carga mínima del diccionario.
+     * @return la carga mínima del diccionario; cero si el diccionario nunca
+     *         se encoge.
+     */
+    public double getMinimaCarga() {
+        return minimaCarga;
+    }
+
+    /**
+     * Define la carga mínima del diccionario: si al eliminar una entrada la
+     * carga queda por debajo de ella, el diccionario se encoge a la mitad.
+     * Por omisión es cero, y el diccionario nunca se encoge. Para que el
+     * diccionario no vuelva a crecer justo después de encogerse, debe ser
+     * menor que la mitad de {@link #MAXIMA_CARGA}.
+     * @param minimaCarga la nueva carga mínima.
+     * @throws IllegalArgumentException si la carga mínima es negativa, o no
+     *         es menor que la mitad de {@link #MAXIMA_CARGA}.
+     */
+    public void setMinimaCarga(double minimaCarga) {
+        if(!(minimaCarga >= 0.0 && minimaCarga < MAXIMA_CARGA / 2))
+            throw new IllegalArgumentException();
+        this.minimaCarga = minimaCarga;
+    }
+
+    /**
+     * Hace que el diccionario disperse con el dispersor con semilla recibido
+     * y una semilla aleatoria, en lugar de su dispersor, y que resiembre: si
+     * al agregar una llave nueva ésta tiene más de umbral colisiones (más
+     * entradas antes en su lista o, en los modos de direccionamiento
+     * abierto, más casillas de distancia a su casilla ideal), el diccionario
+     * escoge otra semilla y vuelve a dispersar todas sus llaves. Así, quien
+     * fabrique llaves que choquen para una semilla las pierde en cuanto
+     * rebasan el umbral, sin poder saber la siguiente. Para que un dispersor
+     * que no separa a las llaves con ninguna semilla no haga que cada
+     * inserción vuelva a dispersar todo, el diccionario no resiembra otra
+     * vez hasta tener el doble de entradas que la última vez.
+     * @param dispersor el dispersor con semilla a utilizar.
+     * @param umbral cuántas colisiones toleramos para una llave nueva.
+     * @throws IllegalArgumentException si el dispersor es nulo o el umbral
+     *         es menor que uno.
+     */
+    public void setResiembra(DispersorSembrado<K> dispersor, int umbral) {
+        if(dispersor == null || umbral < 1)
+            throw new IllegalArgumentException();
+        this.sembrado = dispersor;
+        this.umbral = umbral;
+        resiembra();
+    }
+
+    /**
+     * Define la tasa de falsos positivos del filtro de Bloom del diccionario,
+     * o lo quita si la tasa es cero. Con el filtro, {@link #contiene}, {@link
+     * #get}, {@link #getOrDefault} y {@link #eliminaYRegresa} responden que
+     * una llave no está probando unos cuantos bits, sin recorrer listas ni
+     * casillas ni comparar llaves; sólo una fracción tasa de las búsquedas
+     * fallidas llega a la tabla. El filtro guarda las dispersiones de las
+     * llaves, así que conviene cuando la mayoría de las búsquedas fallan y
+     * el dispersor es bueno: llaves distintas con la misma dispersión no se
+     * distinguen. Como no se puede eliminar de un filtro de Bloom, las llaves
+     * eliminadas siguen en él hasta que se reconstruye, lo que sucede cada
+     * vez que se agregan más llaves de las que tenía previstas (entonces se
+     * construye para el doble de las entradas actuales) y cuando el
+     * diccionario resiembra.
+     * @param tasa la tasa de falsos positivos deseada, o cero para quitar el
+     *             filtro.
+     * @throws IllegalArgumentException si la tasa no es cero y no está
+     *         estrictamente entre 0 y 1.
+     */
+    public void setFiltroBloom(double tasa) {
+        if(tasa == 0.0){
+            filtro = null;
+            return;
+        }
+        if(!(tasa > 0.0 && tasa < 1.0))
+            throw new IllegalArgumentException();
+        reconstruyeFiltro(tasa);
+    }
+
+    /**
+     * Regresa el filtro de Bloom del diccionario, para consultar su tamaño y
+     * su tasa estimada de falsos positivos.
+     * @return el filtro de Bloom del diccionario, o <code>null</code> si no
+     *         tiene.
+     */
+    public FiltroBloom<K> getFiltroBloom() {
+        return filtro;
+    }
+
+    /**
+     * Regresa el número de veces que el diccionario ha resembrado.
+     * @return el número de veces que el diccionario ha resembrado.
+     */
+    public int getResiembras() {
+        return resiembras;
+    }
+
+    /**
+     * Compacta el diccionario: si el arreglo es más grande de lo que
+     * reservaría un diccionario nuevo para las entradas que tiene, lo cambia
+     * por uno de ese tamaño. En modo compacto además quita los huecos que
+     * dejaron las entradas eliminadas. Sirve para liberar memoria y acelerar
+     * las iteraciones después de eliminar muchas entradas.
+     */
+    public void compacta() {
+        int n = calculaCapacidad(elementos);
+        if(n < capacidad())
+            redimensiona(n);
+        else if(modo == ModoDiccionario.COMPACTO && usadas > elementos)
+            reindiza(capacidad());
+    }
+
+    /**
+     * Regresa una instantánea de la salud del diccionario: el histograma de
+     * longitudes de listas (o de distancias de sondeo), cuántas veces ha
+     * crecido y cuánto tiempo le ha tomado, y cuántos sondeos en promedio
+     * requieren las búsquedas. Los contadores se actualizan conforme el
+     * diccionario cambia, así que obtener la instantánea no recorre el
+     * diccionario.
+     * @return una instantánea de la salud del diccionario.
+     */
+    public EstadisticasDiccionario estadisticas() {
+        int[] h = histograma.clone();
+        if(anteriores != null)
+            for(int i = 1; i < HISTOGRAMA; i++)
+                h[i] += histogramaAnterior[i];
+        return new EstadisticasDiccionario(modo, elementos, capacidad(), h,
+                                           crecimientos, tiempoCrecimientos,
+                                           busquedasExitosas, sondeosExitosos,
+                                           busquedasFallidas, sondeosFallidos,
+                                           lapidas);
+    }
+
     /**
      * Regresa el número de entradas en el diccionario.
      * @return el número de entradas en el diccionario.
@@ -300,11 +972,29 @@ public class Diccionario<K, V> implements Iterable<V> {
     }
 
     /**
-     * Limpia el diccionario de elementos, dejándolo vacío.
+     * Limpia el diccionario de elementos, dejándolo vacío. El diccionario
+     * conserva y reutiliza su arreglo; para liberarlo hay que llamar después
+     * a {@link #compacta}.
      */
     public void limpia() {
-       entradas = nuevoArreglo(entradas.length);
+       if(modo != ModoDiccionario.ENCADENADO){
+           Arrays.fill(llaves, null);
+           Arrays.fill(valores, null);
+       }else
+           Arrays.fill(entradas, null);
+       if(modo == ModoDiccionario.COMPACTO)
+           Arrays.fill(indices, 0);
+       Arrays.fill(histograma, 0);
+       if(modo == ModoDiccionario.ENCADENADO)
+           histograma[0] = entradas.length;
+       usadas = 0;
+       lapidas = 0;
+       arboles = null;
+       anteriores = null;
+       arbolesAnteriores = null;
        elementos = 0;
+       if(filtro != null)
+           filtro.limpia();
     }
 
     /**
@@ -317,8 +1007,8 @@ public class Diccionario<K, V> implements Iterable<V> {
         Iterador t = new Iterador();
         String s = "";
         while (t.hasNext()){
-            Entrada entrada = t.siguiente();
-            s += "'" + entrada.valor + "': '"+ entrada.llave + "', ";
+            t.avanza();
+            s += "'" + t.valor + "': '"+ t.llave + "', ";
         }
         return "{ " + s + "}";
     }
@@ -339,10 +1029,9 @@ public class Diccionario<K, V> implements Iterable<V> {
             return false;
         Iterador t = new Iterador();
         while (t.hasNext()){
-            Entrada e = t.siguiente();
-            if(!d.contiene(e.llave))
-                return false;
-            if(!d.get(e.llave).equals(e.valor))
+            t.avanza();
+            V v = d.busca(t.llave);
+            if(v == null || !v.equals(t.valor))
                 return false;
         }
         return true;
@@ -366,27 +1055,740 @@ public class Diccionario<K, V> implements Iterable<V> {
         return new IteradorValores();
     }
 
-    private int indice(K k){
-        return dispersor.dispersa(k) & (entradas.length - 1);
+    /* Regresa el valor asociado a la llave, o null si la llave no está. */
+    private V busca(K llave){
+        int h = dispersor.dispersa(llave);
+        if(filtro != null && !filtro.puedeContenerDispersion(h))
+            return null;
+        if(modo != ModoDiccionario.ENCADENADO){
+            int c = localizaCasilla(llave, h);
+            return c >= 0 ? valor(c) : null;
+        }
+        migra();
+        Entrada e = buscaEntrada(llave, h);
+        return e != null ? e.valor : null;
     }
 
-    private Entrada buscaEntrada(K k){
-        int i = indice(k);
-        if(entradas[i] == null)
+    /* Busca la entrada de la llave en las listas actuales y, si estamos
+       creciendo, en las anteriores. */
+    private Entrada buscaEntrada(K k, int h){
+        sondeo = 0;
+        Entrada e = buscaEntrada(entradas, h, k);
+        if(e == null && anteriores != null)
+            e = buscaEntrada(anteriores, h, k);
+        registraBusqueda(e != null);
+        return e;
+    }
+
+    /* Busca la entrada de la llave en la lista que le toca en el arreglo, o
+       en su árbol si lo tiene; buscar en el árbol cuenta como un sondeo. Si
+       el árbol encuentra una llave que se compara igual pero no es igual
+       (compareTo inconsistente con equals), busca en la lista, que sigue
+       teniendo todas las entradas. Si la encuentra, guarda dónde. */
+    private Entrada buscaEntrada(Lista<Entrada>[] a, int h, K k){
+        int i = h & (a.length - 1);
+        Lista<Entrada> l = a[i];
+        if(l == null)
             return null;
-        for(Entrada e : entradas[i])
-            if(e.llave.equals(k))
+        listasEncontrada = a;
+        indiceEncontrada = i;
+        posicionEncontrada = null;
+        ArbolRojinegro<Entrada> t = arbol(a, i);
+        if(t != null && k.getClass() == claseArbol(t)){
+            sondeo++;
+            VerticeArbolBinario<Entrada> v = t.busca(new Entrada(k, null, h));
+            if(v == null)
+                return null;
+            if(v.get().llave.equals(k))
+                return v.get();
+        }
+        Iterator<Entrada> it = l.iterator();
+        while(it.hasNext()){
+            Entrada e = it.next();
+            sondeo++;
+            if(e.dispersion == h && e.llave.equals(k)){
+                posicionEncontrada = it;
                 return e;
+            }
+        }
         return null;
     }
 
+    /* Acumula los sondeos de la búsqueda que acaba de terminar. */
+    private void registraBusqueda(boolean exitosa){
+        if(exitosa){
+            busquedasExitosas++;
+            sondeosExitosos += sondeo;
+        }else{
+            busquedasFallidas++;
+            sondeosFallidos += sondeo;
+        }
+    }
+
+    /* Cuenta en el histograma que algo pasó de longitud (o distancia) de a
+       longitud a. */
+    private static void cuenta(int[] histograma, int de, int a){
+        histograma[Math.min(de, HISTOGRAMA - 1)]--;
+        histograma[Math.min(a, HISTOGRAMA - 1)]++;
+    }
+
+    /* Crea listas vacías, con su histograma. */
+    private void nuevasListas(int n){
+        entradas = nuevoArreglo(n);
+        arboles = null;
+        histograma = new int[HISTOGRAMA];
+        histograma[0] = n;
+    }
+
+    /* Agrega la entrada a la lista que le toca en las listas actuales. */
+    private void colocaEntrada(int i, Entrada e){
+        if(entradas[i] == null)
+            entradas[i] = new Lista<Entrada>();
+        int n = entradas[i].getElementos();
+        entradas[i].agrega(e);
+        cuenta(histograma, n, n + 1);
+        ArbolRojinegro<Entrada> t = arbol(entradas, i);
+        if(t == null){
+            if(n + 1 > ARBOL)
+                arbolea(i);
+        }else if(e.llave.getClass() == claseArbol(t))
+            t.agrega(e);
+        else
+            arboles[i] = null;
+    }
+
+    /* Regresa el árbol de la lista i del arreglo, o null si no tiene. */
+    private ArbolRojinegro<Entrada> arbol(Lista<Entrada>[] a, int i){
+        ArbolRojinegro<Entrada>[] ts =
+            a == entradas ? arboles : arbolesAnteriores;
+        return ts == null ? null : ts[i];
+    }
+
+    /* Regresa la clase de las llaves del árbol. */
+    private Class<?> claseArbol(ArbolRojinegro<Entrada> t){
+        return t.raiz().get().llave.getClass();
+    }
+
+    /* Indexa con un árbol la lista actual i, si todas sus llaves son
+       comparables y de la misma clase. */
+    private void arbolea(int i){
+        Class<?> c = entradas[i].getPrimero().llave.getClass();
+        if(!Comparable.class.isAssignableFrom(c))
+            return;
+        for(Entrada e : entradas[i])
+            if(e.llave.getClass() != c)
+                return;
+        ArbolRojinegro<Entrada> t = new ArbolRojinegro<Entrada>();
+        for(Entrada e : entradas[i])
+            t.agrega(e);
+        if(arboles == null)
+            arboles = nuevoArregloArboles(entradas.length);
+        arboles[i] = t;
+    }
+
+    /* Agrega una entrada nueva a la lista que le toca, y crece el arreglo si
+       la carga lo requiere. */
+    private void agregaEntrada(K llave, V valor, int h){
+        int i = h & (entradas.length - 1);
+        colocaEntrada(i, new Entrada(llave, valor, h));
+        elementos++;
+        if(filtro != null)
+            filtra(h);
+        if(debeResembrar(entradas[i].getElementos() - 1))
+            resiembra();
+        if(carga() > MAXIMA_CARGA)
+            creceArreglo();
+    }
+
+    /* Quita la entrada e, que buscaEntrada acaba de encontrar, de donde la
+       encontró. Si la encontró recorriendo la lista, la quita con el mismo
+       iterador; si la encontró el árbol, la lista no sabe dónde está y se
+       recorre para quitarla. Si la lista tiene árbol y la entrada no la
+       encontró él (otra entrada se compara igual), eliminar del árbol
+       quitaría la otra, así que mejor se descarta el árbol. */
+    private void quitaEntrada(Entrada e){
+        Lista<Entrada>[] a = listasEncontrada;
+        int i = indiceEncontrada;
+        int n = a[i].getElementos();
+        if(posicionEncontrada != null)
+            posicionEncontrada.remove();
+        else
+            a[i].elimina(e);
+        cuenta(a == entradas ? histograma : histogramaAnterior, n, n - 1);
+        ArbolRojinegro<Entrada> t = arbol(a, i);
+        if(t != null){
+            if(n - 1 > LISTA && posicionEncontrada == null)
+                t.elimina(e);
+            else if(a == entradas)
+                arboles[i] = null;
+            else
+                arbolesAnteriores[i] = null;
+        }
+        listasEncontrada = null;
+        posicionEncontrada = null;
+        elementos--;
+        encoge();
+    }
+
+    /* Asocia el nuevo valor a la entrada e (null si la llave no estaba), o
+       quita la entrada si el nuevo valor es null; regresa el nuevo valor. */
+    private V actualizaEntrada(Entrada e, K llave, V nuevo, int h){
+        if(nuevo == null){
+            if(e != null)
+                quitaEntrada(e);
+        }else if(e != null)
+            e.valor = nuevo;
+        else
+            agregaEntrada(llave, nuevo, h);
+        return nuevo;
+    }
+
+    /* Cuenta las colisiones de las listas del arreglo. Si maxima es true
+       regresa las de la lista más larga; si no, el total. */
+    private int colisionesListas(Lista<Entrada>[] a, boolean maxima){
+        int c = 0, cM = 0;
+        for(int i = 0; i < a.length; i++)
+            if(a[i] != null && !a[i].esVacia()){
+                c += a[i].getElementos()-1;
+                if(a[i].getElementos()-1 > cM)
+                    cM = a[i].getElementos()-1;
+            }
+        return maxima ? cM : c;
+    }
+
+    /* Comienza a crecer el arreglo al doble. Las entradas no se reinsertan
+       aquí: se quedan en las listas anteriores y cada operación posterior
+       migra unas cuantas listas, para que ninguna operación pague todo el
+       crecimiento. */
     private void creceArreglo(){
-        Lista<Entrada>[] v = entradas;
-        entradas = nuevoArreglo(v.length << 1);
-        elementos = 0;
-        for(int i = 0; i < v.length; i++)
-            if(v[i] != null)
-                for(Entrada e : v[i])
-                    agrega(e.llave, e.valor);
-     }
+        long t = System.nanoTime();
+        if(anteriores != null)
+            terminaMigracion();
+        anteriores = entradas;
+        arbolesAnteriores = arboles;
+        histogramaAnterior = histograma;
+        migradas = 0;
+        nuevasListas(anteriores.length << 1);
+        crecimientos++;
+        tiempoCrecimientos += System.nanoTime() - t;
+    }
+
+    /* Migra a lo más MIGRACION listas anteriores. */
+    private void migra(){
+        if(anteriores == null)
+            return;
+        long t = System.nanoTime();
+        for(int n = 0; n < MIGRACION && migradas < anteriores.length; n++)
+            migraLista(migradas++);
+        if(migradas == anteriores.length){
+            anteriores = null;
+            arbolesAnteriores = null;
+        }
+        tiempoCrecimientos += System.nanoTime() - t;
+    }
+
+    /* Migra todas las listas anteriores que falten. */
+    private void terminaMigracion(){
+        while(migradas < anteriores.length)
+            migraLista(migradas++);
+        anteriores = null;
+        arbolesAnteriores = null;
+    }
+
+    /* Mueve las entradas de la lista anterior j a las listas actuales,
+       reutilizando las entradas y sus dispersiones. */
+    private void migraLista(int j){
+        if(anteriores == null || anteriores[j] == null)
+            return;
+        for(Entrada e : anteriores[j])
+            colocaEntrada(e.dispersion & (entradas.length - 1), e);
+        cuenta(histogramaAnterior, anteriores[j].getElementos(), 0);
+        anteriores[j] = null;
+        if(arbolesAnteriores != null)
+            arbolesAnteriores[j] = null;
+    }
+
+    /* Nos dice si una llave nueva con c colisiones debe hacer que
+       resembremos. */
+    private boolean debeResembrar(int c){
+        return sembrado != null && c > umbral && elementos >= proximaResiembra;
+    }
+
+    /* Escoge una semilla aleatoria nueva y vuelve a dispersar todas las
+       llaves con ella, sin cambiar la capacidad. */
+    private void resiembra(){
+        DispersorSembrado<K> s = sembrado;
+        long semilla = FabricaDispersores.semillaAleatoria();
+        dispersor = (K llave) -> s.dispersa(llave, semilla);
+        if(modo == ModoDiccionario.ENCADENADO){
+            if(anteriores != null)
+                terminaMigracion();
+            Lista<Entrada>[] a = entradas;
+            nuevasListas(a.length);
+            for(int i = 0; i < a.length; i++)
+                if(a[i] != null)
+                    for(Entrada e : a[i]){
+                        e.dispersion = dispersor.dispersa(e.llave);
+                        colocaEntrada(e.dispersion & (a.length - 1), e);
+                    }
+        }else{
+            int n = modo == ModoDiccionario.COMPACTO ? usadas : llaves.length;
+            for(int i = 0; i < n; i++)
+                if(llaves[i] != null)
+                    dispersiones[i] = dispersor.dispersa(llaves[i]);
+            if(modo == ModoDiccionario.COMPACTO)
+                reindiza(indices.length);
+            else
+                recoloca(llaves.length);
+        }
+        proximaResiembra = elementos << 1;
+        resiembras++;
+        if(filtro != null)
+            reconstruyeFiltro(filtro.getTasa());
+    }
+
+    /* Agrega la dispersión de una llave nueva, que ya está en el
+       diccionario, al filtro; si el filtro ya tiene más de las que previó,
+       lo reconstruye para el doble de las entradas. */
+    private void filtra(int h){
+        filtro.agregaDispersion(h);
+        if(filtro.getElementos() > filtro.getCapacidad())
+            reconstruyeFiltro(filtro.getTasa());
+    }
+
+    /* Construye un filtro nuevo con la tasa recibida para el doble de las
+       entradas, y le agrega las dispersiones de todas las llaves. */
+    private void reconstruyeFiltro(double tasa){
+        FiltroBloom<K> f = new FiltroBloom<K>(Math.max(MINIMA_CAPACIDAD,
+                                                       elementos << 1),
+                                              tasa, dispersor);
+        Iterator<K> it = iteradorLlaves();
+        while(it.hasNext())
+            f.agrega(it.next());
+        filtro = f;
+    }
+
+    /* Regresa cuántos índices (o casillas) reservamos para la capacidad
+       recibida: la primera potencia de dos mayor o igual a ella, duplicada,
+       para que la carga empiece en a lo más un medio. */
+    private static int calculaCapacidad(int capacidad){
+        if(capacidad < MINIMA_CAPACIDAD)
+            capacidad = MINIMA_CAPACIDAD;
+        int mascara = 1;
+        while(mascara <capacidad)
+            mascara = (mascara <<1) | 1;
+        mascara = (mascara <<1) | 1;
+        return mascara + 1;
+    }
+
+    /* Se asegura de tener espacio para n entradas sin crecer. Es visible en
+       el paquete para que Conjunto pueda reservar antes de agregar. */
+    void reserva(int n){
+        int c = calculaCapacidad(n);
+        if(c > capacidad())
+            redimensiona(c);
+    }
+
+    /* Llena el diccionario, que es vacío, con las primeras m llaves y
+       valores, en paralelo. Las entradas se reparten por partición con un
+       ordenamiento por conteo estable, para que cada partición las vea en el
+       orden original. */
+    private void llenaParalelo(K[] ks, V[] vs, int m){
+        nuevasListas(calculaCapacidad(m));
+        int[] hs = new int[m];
+        new Dispersion(ks, hs, 0, m).invoke();
+        int desplazamiento = Integer.numberOfTrailingZeros(entradas.length) -
+            Integer.numberOfTrailingZeros(PARTICIONES);
+        int mascara = entradas.length - 1;
+        int[] inicios = new int[PARTICIONES + 1];
+        for(int i = 0; i < m; i++)
+            inicios[((hs[i] & mascara) >>> desplazamiento) + 1]++;
+        for(int p = 0; p < PARTICIONES; p++)
+            inicios[p + 1] += inicios[p];
+        int[] siguiente = Arrays.copyOf(inicios, PARTICIONES);
+        int[] orden = new int[m];
+        for(int i = 0; i < m; i++)
+            orden[siguiente[(hs[i] & mascara) >>> desplazamiento]++] = i;
+        int[] distintas = new int[PARTICIONES];
+        int[][] histogramas = new int[PARTICIONES][];
+        new Llenado(ks, vs, hs, orden, inicios, distintas, histogramas,
+                    0, PARTICIONES).invoke();
+        Arrays.fill(histograma, 0);
+        for(int p = 0; p < PARTICIONES; p++){
+            elementos += distintas[p];
+            for(int i = 0; i < HISTOGRAMA; i++)
+                histograma[i] += histogramas[p][i];
+        }
+        boolean largas = false;
+        for(int i = ARBOL + 1; i < HISTOGRAMA; i++)
+            largas |= histograma[i] > 0;
+        if(largas)
+            for(int i = 0; i < entradas.length; i++)
+                if(entradas[i] != null && entradas[i].getElementos() > ARBOL)
+                    arbolea(i);
+    }
+
+    /* Encoge el arreglo a la mitad si la carga quedó por debajo de la
+       mínima. */
+    private void encoge(){
+        if(minimaCarga > 0.0 && carga() < minimaCarga &&
+           capacidad() > calculaCapacidad(0))
+            redimensiona(capacidad() >> 1);
+    }
+
+    /* Cambia el arreglo (o las casillas) por uno de n índices, reinsertando
+       de una vez cada entrada con su dispersión guardada. */
+    private void redimensiona(int n){
+        if(modo == ModoDiccionario.ROBIN_HOOD){
+            recoloca(n);
+            return;
+        }
+        if(modo == ModoDiccionario.COMPACTO){
+            reindiza(n);
+            return;
+        }
+        if(anteriores != null)
+            terminaMigracion();
+        Lista<Entrada>[] a = entradas;
+        nuevasListas(n);
+        for(int i = 0; i < a.length; i++)
+            if(a[i] != null)
+                for(Entrada e : a[i])
+                    colocaEntrada(e.dispersion & (n - 1), e);
+    }
+
+    /* Regresa el número de índices (o casillas) del diccionario. */
+    private int capacidad(){
+        if(modo == ModoDiccionario.ROBIN_HOOD)
+            return llaves.length;
+        if(modo == ModoDiccionario.COMPACTO)
+            return indices.length;
+        return entradas.length;
+    }
+
+    /* Crea casillas vacías para el modo Robin Hood. */
+    private void nuevasCasillas(int n){
+        llaves = nuevoArregloObjetos(n);
+        valores = nuevoArregloObjetos(n);
+        dispersiones = new int[n];
+        histograma = new int[HISTOGRAMA];
+    }
+
+    /* Regresa qué tan lejos está la entrada en la casilla c de su casilla
+       ideal. */
+    private int distancia(int c){
+        int mascara = llaves.length - 1;
+        return (c - (dispersiones[c] & mascara)) & mascara;
+    }
+
+    /* Regresa la casilla de la llave si está. Si no, regresa -(c + 1), donde
+       c es la casilla en la que terminó el sondeo: justo ahí es donde Robin
+       Hood colocaría la llave, así que agregarla no requiere volver a
+       sondear. El sondeo termina en cuanto encontramos una entrada más cerca
+       de su casilla ideal que la distancia que llevamos, porque Robin Hood
+       no la habría dejado ahí. */
+    private int localizaCasilla(K llave, int h){
+        if(modo == ModoDiccionario.COMPACTO)
+            return localizaIndice(llave, h);
+        int mascara = llaves.length - 1;
+        int c = h & mascara;
+        int d = 0;
+        for(; llaves[c] != null && d <= distancia(c); d++){
+            if(dispersiones[c] == h && llaves[c].equals(llave)){
+                sondeo = d + 1;
+                registraBusqueda(true);
+                return c;
+            }
+            c = (c + 1) & mascara;
+        }
+        sondeo = d + 1;
+        registraBusqueda(false);
+        return -(c + 1);
+    }
+
+    /* Coloca una llave nueva a partir de la casilla c. A la entrada que lleva
+       más distancia le cedemos la casilla de la que está más cerca de su
+       casilla ideal, y seguimos sondeando con la desplazada. */
+    private void colocaCasilla(int c, K llave, V valor, int h){
+        int mascara = llaves.length - 1;
+        int d = (c - (h & mascara)) & mascara;
+        while(llaves[c] != null){
+            int dc = distancia(c);
+            if(dc < d){
+                cuenta(histograma, dc, d);
+                K k = llaves[c];
+                V v = valores[c];
+                int hc = dispersiones[c];
+                llaves[c] = llave;
+                valores[c] = valor;
+                dispersiones[c] = h;
+                llave = k;
+                valor = v;
+                h = hc;
+                d = dc;
+            }
+            c = (c + 1) & mascara;
+            d++;
+        }
+        llaves[c] = llave;
+        valores[c] = valor;
+        dispersiones[c] = h;
+        histograma[Math.min(d, HISTOGRAMA - 1)]++;
+    }
+
+    /* Agrega una llave nueva a partir de la casilla c, crece las casillas
+       si la carga lo requiere, y resiembra si la llave quedó demasiado lejos
+       de su casilla ideal; el sondeo de localizaCasilla nos dice qué tan
+       lejos. */
+    private void agregaCasilla(int c, K llave, V valor, int h){
+        int d = sondeo - 1;
+        if(modo == ModoDiccionario.COMPACTO){
+            agregaIndice(c, llave, valor, h);
+        }else{
+            colocaCasilla(c, llave, valor, h);
+            elementos++;
+            if(carga() > MAXIMA_CARGA)
+                creceCasillas();
+        }
+        if(filtro != null)
+            filtra(h);
+        if(debeResembrar(d))
+            resiembra();
+    }
+
+    /* Asocia el nuevo valor a la llave con el resultado c de
+       localizaCasilla, o la elimina si el nuevo valor es null; regresa el
+       nuevo valor. */
+    private V actualizaCasilla(int c, K llave, V nuevo, int h){
+        if(nuevo == null){
+            if(c >= 0)
+                quitaCasilla(c);
+        }else if(c >= 0)
+            asignaValor(c, nuevo);
+        else
+            agregaCasilla(-c - 1, llave, nuevo, h);
+        return nuevo;
+    }
+
+    /* Elimina la entrada de la casilla c, recorriendo hacia atrás las
+       entradas que la siguen hasta encontrar una casilla vacía o una entrada
+       en su casilla ideal; así no necesitamos lápidas. */
+    private void eliminaCasilla(int c){
+        int mascara = llaves.length - 1;
+        histograma[Math.min(distancia(c), HISTOGRAMA - 1)]--;
+        int s = (c + 1) & mascara;
+        while(llaves[s] != null && distancia(s) > 0){
+            int ds = distancia(s);
+            cuenta(histograma, ds, ds - 1);
+            llaves[c] = llaves[s];
+            valores[c] = valores[s];
+            dispersiones[c] = dispersiones[s];
+            c = s;
+            s = (s + 1) & mascara;
+        }
+        llaves[c] = null;
+        valores[c] = null;
+        dispersiones[c] = 0;
+    }
+
+    /* Cuenta las colisiones de las casillas. Las entradas con la misma
+       casilla ideal quedan contiguas, así que cada corrida de entradas con la
+       misma casilla ideal equivale a una lista del modo encadenado. Si maxima
+       es true regresa la corrida más larga menos uno; si no, el total. */
+    private int colisionesCasillas(boolean maxima){
+        int mascara = llaves.length - 1;
+        int inicio = 0;
+        while(llaves[inicio] != null)
+            inicio++;
+        int total = 0, corrida = 0, maximo = 0;
+        for(int i = 1; i <= llaves.length; i++){
+            int c = (inicio + i) & mascara;
+            int a = (c - 1) & mascara;
+            if(llaves[c] == null)
+                continue;
+            if(llaves[a] != null &&
+               (dispersiones[a] & mascara) == (dispersiones[c] & mascara)){
+                total++;
+                corrida++;
+                if(corrida > maximo)
+                    maximo = corrida;
+            }else
+                corrida = 0;
+        }
+        return maxima ? maximo : total;
+    }
+
+    /* Elimina la entrada de la casilla c, y encoge las casillas si la carga
+       lo requiere. */
+    private void quitaCasilla(int c){
+        if(modo == ModoDiccionario.COMPACTO)
+            eliminaIndice(c);
+        else
+            eliminaCasilla(c);
+        elementos--;
+        encoge();
+    }
+
+    /* Duplica el número de casillas. */
+    private void creceCasillas(){
+        long t = System.nanoTime();
+        recoloca(llaves.length << 1);
+        crecimientos++;
+        tiempoCrecimientos += System.nanoTime() - t;
+    }
+
+    /* Cambia las casillas por n casillas, reinsertando directamente cada
+       entrada con su dispersión guardada. */
+    private void recoloca(int n){
+        K[] ll = llaves;
+        V[] vs = valores;
+        int[] ds = dispersiones;
+        nuevasCasillas(n);
+        int mascara = n - 1;
+        for(int i = 0; i < ll.length; i++)
+            if(ll[i] != null)
+                colocaCasilla(ds[i] & mascara, ll[i], vs[i], ds[i]);
+    }
+
+    /* Regresa el valor de la casilla c que regresó localizaCasilla. */
+    private V valor(int c){
+        if(modo == ModoDiccionario.COMPACTO)
+            return valores[indices[c] - 1];
+        return valores[c];
+    }
+
+    /* Asigna el valor de la casilla c que regresó localizaCasilla. */
+    private void asignaValor(int c, V valor){
+        if(modo == ModoDiccionario.COMPACTO)
+            valores[indices[c] - 1] = valor;
+        else
+            valores[c] = valor;
+    }
+
+    /* Regresa cuántas posiciones de llaves caben en el modo compacto con n
+       casillas en indices: justo las necesarias para llegar a la carga
+       máxima, contando las lápidas. */
+    private static int densas(int n){
+        return (int)(n * MAXIMA_CARGA) + 1;
+    }
+
+    /* Crea una tabla vacía para el modo compacto. */
+    private void nuevosIndices(int n){
+        indices = new int[n];
+        llaves = nuevoArregloObjetos(densas(n));
+        valores = nuevoArregloObjetos(densas(n));
+        dispersiones = new int[densas(n)];
+        histograma = new int[HISTOGRAMA];
+        usadas = 0;
+        lapidas = 0;
+    }
+
+    /* Regresa la casilla de indices de la llave si está. Si no, regresa
+       -(c + 1), donde c es la primera lápida o casilla vacía del sondeo, que
+       es donde agregaríamos la llave. */
+    private int localizaIndice(K llave, int h){
+        int mascara = indices.length - 1;
+        int c = h & mascara;
+        int libre = -1;
+        int d = 0;
+        for(int x; (x = indices[c]) != 0; d++){
+            if(x == LAPIDA){
+                if(libre < 0)
+                    libre = c;
+            }else if(dispersiones[x - 1] == h && llaves[x - 1].equals(llave)){
+                sondeo = d + 1;
+                registraBusqueda(true);
+                return c;
+            }
+            c = (c + 1) & mascara;
+        }
+        sondeo = d + 1;
+        registraBusqueda(false);
+        return -((libre < 0 ? c : libre) + 1);
+    }
+
+    /* Agrega una llave nueva al final de las posiciones usadas, apuntada por
+       la casilla c de indices, y reconstruye la tabla si ya no caben más. */
+    private void agregaIndice(int c, K llave, V valor, int h){
+        if(indices[c] == LAPIDA)
+            lapidas--;
+        llaves[usadas] = llave;
+        valores[usadas] = valor;
+        dispersiones[usadas] = h;
+        indices[c] = ++usadas;
+        histograma[Math.min(distanciaIndice(c, h), HISTOGRAMA - 1)]++;
+        elementos++;
+        if(usadas == llaves.length){
+            long t = System.nanoTime();
+            boolean crece = carga() > MAXIMA_CARGA / 2;
+            reindiza(crece ? indices.length << 1 : indices.length);
+            if(crece)
+                crecimientos++;
+            tiempoCrecimientos += System.nanoTime() - t;
+        }
+    }
+
+    /* Elimina la entrada de la casilla c de indices, dejando una lápida en la
+       casilla y un hueco en su posición. */
+    private void eliminaIndice(int c){
+        int p = indices[c] - 1;
+        histograma[Math.min(distanciaIndice(c, dispersiones[p]),
+                            HISTOGRAMA - 1)]--;
+        llaves[p] = null;
+        valores[p] = null;
+        indices[c] = LAPIDA;
+        lapidas++;
+    }
+
+    /* Regresa qué tan lejos está la casilla c de indices de la casilla ideal
+       de la dispersión h. */
+    private int distanciaIndice(int c, int h){
+        int mascara = indices.length - 1;
+        return (c - (h & mascara)) & mascara;
+    }
+
+    /* Cambia la tabla del modo compacto por una de n casillas, recorriendo
+       las entradas hacia el inicio para quitar los huecos (conservando su
+       orden) y sin lápidas. */
+    private void reindiza(int n){
+        K[] ll = llaves;
+        V[] vs = valores;
+        int[] ds = dispersiones;
+        int u = usadas;
+        nuevosIndices(n);
+        int mascara = n - 1;
+        for(int i = 0; i < u; i++){
+            if(ll[i] == null)
+                continue;
+            int c = ds[i] & mascara;
+            while(indices[c] != 0)
+                c = (c + 1) & mascara;
+            llaves[usadas] = ll[i];
+            valores[usadas] = vs[i];
+            dispersiones[usadas] = ds[i];
+            indices[c] = ++usadas;
+            histograma[Math.min(distanciaIndice(c, ds[i]), HISTOGRAMA - 1)]++;
+        }
+    }
+
+    /* Cuenta las colisiones de la tabla del modo compacto. Como el sondeo es
+       lineal, las entradas con la misma casilla ideal no quedan contiguas,
+       así que contamos cuántas entradas tiene cada casilla ideal. Si maxima
+       es true regresa las de la casilla con más entradas; si no, el
+       total. */
+    private int colisionesIndices(boolean maxima){
+        int mascara = indices.length - 1;
+        int[] n = new int[indices.length];
+        int total = 0, maximo = 0;
+        for(int i = 0; i < usadas; i++){
+            if(llaves[i] == null)
+                continue;
+            int c = ++n[dispersiones[i] & mascara] - 1;
+            if(c > 0)
+                total++;
+            if(c > maximo)
+                maximo = c;
+        }
+        return maxima ? maximo : total;
+    }
 }
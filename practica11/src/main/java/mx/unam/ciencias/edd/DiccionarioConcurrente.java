@@ -0,0 +1,438 @@
+package mx.unam.ciencias.edd;
+
+import java.lang.reflect.Array;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>Clase para diccionarios concurrentes. El arreglo de listas se reparte en
+ * <em>franjas</em>, cada una con su propio candado para las escrituras;
+ * {@link #get} y {@link #contiene} no toman ningún candado.</p>
+ *
+ * <p>Los nodos de las listas nunca cambian su llave ni su siguiente nodo; sólo
+ * su valor, que es volátil. Para eliminar un nodo se copian los nodos que lo
+ * preceden, y para crecer se copian las listas a un arreglo nuevo que se
+ * publica al final; así, quien lee sin candado siempre ve listas completas.
+ * Cada franja crece por su cuenta, así que los hilos que escriben en franjas
+ * distintas reparten entre ellos el trabajo de crecer el diccionario.</p>
+ *
+ * <p>Los iteradores son débilmente consistentes: nunca lanzan excepciones por
+ * modificaciones concurrentes, pero pueden o no reflejar las modificaciones
+ * hechas después de crearlos.</p>
+ */
+public class DiccionarioConcurrente<K, V> implements Iterable<V> {
+
+    /* Clase interna privada para nodos. */
+    private class Nodo {
+
+        /* La llave. */
+        public final K llave;
+        /* La dispersión mezclada de la llave. */
+        public final int dispersion;
+        /* El valor. */
+        public volatile V valor;
+        /* El siguiente nodo. */
+        public final Nodo siguiente;
+
+        /* Construye un nuevo nodo. */
+        public Nodo(K llave, int dispersion, V valor, Nodo siguiente) {
+            this.llave = llave;
+            this.dispersion = dispersion;
+            this.valor = valor;
+            this.siguiente = siguiente;
+        }
+    }
+
+    /* Clase interna privada para franjas. */
+    private class Franja {
+
+        /* Las listas de la franja. */
+        public volatile AtomicReferenceArray<Nodo> listas;
+        /* Número de valores en la franja. */
+        public volatile int elementos;
+
+        /* Construye una nueva franja con n listas. */
+        public Franja(int n) {
+            listas = new AtomicReferenceArray<Nodo>(n);
+        }
+
+        /* Busca el nodo de la llave sin tomar el candado. */
+        public Nodo busca(K llave, int h) {
+            AtomicReferenceArray<Nodo> l = listas;
+            Nodo n = l.get(h & (l.length() - 1));
+            while (n != null) {
+                if (n.dispersion == h && n.llave.equals(llave))
+                    return n;
+                n = n.siguiente;
+            }
+            return null;
+        }
+
+        /* Agrega la llave con el valor a la franja. */
+        public synchronized void agrega(K llave, int h, V valor) {
+            Nodo n = busca(llave, h);
+            if (n != null) {
+                n.valor = valor;
+                return;
+            }
+            AtomicReferenceArray<Nodo> l = listas;
+            int i = h & (l.length() - 1);
+            l.set(i, new Nodo(llave, h, valor, l.get(i)));
+            elementos++;
+            if ((double)elementos / l.length() > Diccionario.MAXIMA_CARGA)
+                crece();
+        }
+
+        /* Elimina la llave de la franja; regresa false si no estaba. */
+        public synchronized boolean elimina(K llave, int h) {
+            AtomicReferenceArray<Nodo> l = listas;
+            int i = h & (l.length() - 1);
+            Nodo cabeza = l.get(i);
+            Nodo n = cabeza;
+            while (n != null && !(n.dispersion == h && n.llave.equals(llave)))
+                n = n.siguiente;
+            if (n == null)
+                return false;
+            Nodo nueva = n.siguiente;
+            for (Nodo m = cabeza; m != n; m = m.siguiente)
+                nueva = new Nodo(m.llave, m.dispersion, m.valor, nueva);
+            l.set(i, nueva);
+            elementos--;
+            return true;
+        }
+
+        /* Limpia la franja. */
+        public synchronized void limpia() {
+            listas = new AtomicReferenceArray<Nodo>(listas.length());
+            elementos = 0;
+        }
+
+        /* Duplica el número de listas de la franja, copiando los nodos a un
+           arreglo nuevo que publicamos hasta tenerlo completo. */
+        private void crece() {
+            AtomicReferenceArray<Nodo> l = listas;
+            AtomicReferenceArray<Nodo> nuevas =
+                new AtomicReferenceArray<Nodo>(l.length() << 1);
+            int mascara = nuevas.length() - 1;
+            for (int i = 0; i < l.length(); i++)
+                for (Nodo n = l.get(i); n != null; n = n.siguiente) {
+                    int j = n.dispersion & mascara;
+                    nuevas.set(j, new Nodo(n.llave, n.dispersion, n.valor,
+                                           nuevas.get(j)));
+                }
+            listas = nuevas;
+        }
+    }
+
+    /* Clase interna privada para iteradores. */
+    private class Iterador {
+
+        /* En qué franja estamos. */
+        private int franja;
+        /* En qué lista de la franja estamos. */
+        private int indice;
+        /* Las listas de la franja actual. */
+        private AtomicReferenceArray<Nodo> listas;
+        /* El siguiente nodo. */
+        private Nodo siguiente;
+
+        /* Construye un nuevo iterador. */
+        public Iterador() {
+            franja = -1;
+            buscaNodo();
+        }
+
+        /* Avanza al siguiente nodo, saltándose listas vacías. */
+        private void buscaNodo() {
+            while (siguiente == null) {
+                if (listas == null || ++indice >= listas.length()) {
+                    if (++franja >= franjas.length)
+                        return;
+                    listas = franjas[franja].listas;
+                    indice = 0;
+                }
+                siguiente = listas.get(indice);
+            }
+        }
+
+        /* Nos dice si hay un siguiente nodo. */
+        public boolean hasNext() {
+            return siguiente != null;
+        }
+
+        /* Regresa el siguiente nodo. */
+        public Nodo siguiente() {
+            if (siguiente == null)
+                throw new NoSuchElementException();
+            Nodo n = siguiente;
+            siguiente = n.siguiente;
+            buscaNodo();
+            return n;
+        }
+    }
+
+    /* Clase interna privada para iteradores de llaves. */
+    private class IteradorLlaves extends Iterador
+        implements Iterator<K> {
+
+        /* Regresa el siguiente elemento. */
+        @Override public K next() {
+            return super.siguiente().llave;
+        }
+    }
+
+    /* Clase interna privada para iteradores de valores. */
+    private class IteradorValores extends Iterador
+        implements Iterator<V> {
+
+        /* Regresa el siguiente elemento. */
+        @Override public V next() {
+            return super.siguiente().valor;
+        }
+    }
+
+    /** Número de franjas predeterminado. */
+    public static final int FRANJAS = 16;
+
+    /* Capacidad mínima; decidida arbitrariamente a 2^6. */
+    private static final int MINIMA_CAPACIDAD = 64;
+
+    /* Dispersor. */
+    private Dispersor<K> dispersor;
+    /* Las franjas. */
+    private Franja[] franjas;
+    /* Cuántos bits desplazar una dispersión para obtener su franja. */
+    private int desplazamiento;
+
+    /* Truco para crear un arreglo genérico. Es necesario hacerlo así por cómo
+       Java implementa sus genéricos; de otra forma obtenemos advertencias del
+       compilador. */
+    @SuppressWarnings("unchecked")
+    private Franja[] nuevoArreglo(int n) {
+        return (Franja[])Array.newInstance(Franja.class, n);
+    }
+
+    /**
+     * Construye un diccionario con una capacidad inicial, un dispersor y un
+     * número de franjas predeterminados.
+     */
+    public DiccionarioConcurrente() {
+        this(MINIMA_CAPACIDAD, (K llave) -> llave.hashCode(), FRANJAS);
+    }
+
+    /**
+     * Construye un diccionario con una capacidad inicial definida por el
+     * usuario, y un dispersor y un número de franjas predeterminados.
+     * @param capacidad la capacidad a utilizar.
+     */
+    public DiccionarioConcurrente(int capacidad) {
+        this(capacidad, (K llave) -> llave.hashCode(), FRANJAS);
+    }
+
+    /**
+     * Construye un diccionario con una capacidad inicial, un dispersor y un
+     * número de franjas definidos por el usuario. El número de franjas se
+     * redondea a la siguiente potencia de dos.
+     * @param capacidad la capacidad inicial del diccionario.
+     * @param dispersor el dispersor a utilizar.
+     * @param franjas el número de franjas; el número máximo de hilos que
+     *                pueden escribir al mismo tiempo.
+     * @throws IllegalArgumentException si el número de franjas no es
+     *         positivo.
+     */
+    public DiccionarioConcurrente(int capacidad, Dispersor<K> dispersor,
+                                  int franjas) {
+        if (franjas < 1 || franjas > (1 << 16))
+            throw new IllegalArgumentException();
+        this.dispersor = dispersor;
+        int f = 1, bits = 0;
+        while (f < franjas) {
+            f <<= 1;
+            bits++;
+        }
+        desplazamiento = 32 - bits;
+        if (capacidad < MINIMA_CAPACIDAD)
+            capacidad = MINIMA_CAPACIDAD;
+        int n = 1;
+        while (n * f < capacidad * 2)
+            n <<= 1;
+        this.franjas = nuevoArreglo(f);
+        for (int i = 0; i < f; i++)
+            this.franjas[i] = new Franja(n);
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario, usando la llave proporcionada. Si
+     * la llave ya había sido utilizada antes para agregar un valor, el
+     * diccionario reemplaza ese valor con el recibido aquí.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     */
+    public void agrega(K llave, V valor) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+        int h = dispersa(llave);
+        franja(h).agrega(llave, h, valor);
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada. No
+     * toma ningún candado.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public V get(K llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        int h = dispersa(llave);
+        Nodo n = franja(h).busca(llave, h);
+        if (n == null)
+            throw new NoSuchElementException();
+        return n.valor;
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario. No toma ningún
+     * candado.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <code>true</code> si la llave está en el diccionario,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(K llave) {
+        if (llave == null)
+            return false;
+        int h = dispersa(llave);
+        return franja(h).busca(llave, h) != null;
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     */
+    public void elimina(K llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        int h = dispersa(llave);
+        if (!franja(h).elimina(llave, h))
+            throw new NoSuchElementException();
+    }
+
+    /**
+     * Nos dice cuántas colisiones hay en el diccionario. El resultado es
+     * aproximado si otros hilos modifican el diccionario mientras tanto.
+     * @return cuántas colisiones hay en el diccionario.
+     */
+    public int colisiones() {
+        return colisiones(false);
+    }
+
+    /**
+     * Nos dice el máximo número de colisiones para una misma llave que tenemos
+     * en el diccionario. El resultado es aproximado si otros hilos modifican
+     * el diccionario mientras tanto.
+     * @return el máximo número de colisiones para una misma llave.
+     */
+    public int colisionMaxima() {
+        return colisiones(true);
+    }
+
+    /**
+     * Nos dice la carga del diccionario.
+     * @return la carga del diccionario.
+     */
+    public double carga() {
+        long capacidad = 0;
+        for (Franja f : franjas)
+            capacidad += f.listas.length();
+        return (double)getElementos() / capacidad;
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        int e = 0;
+        for (Franja f : franjas)
+            e += f.elementos;
+        return e;
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacia() {
+        for (Franja f : franjas)
+            if (f.elementos != 0)
+                return false;
+        return true;
+    }
+
+    /**
+     * Limpia el diccionario de elementos, dejándolo vacío. Cada franja se
+     * limpia por separado.
+     */
+    public void limpia() {
+        for (Franja f : franjas)
+            f.limpia();
+    }
+
+    /**
+     * Regresa un iterador débilmente consistente para iterar las llaves del
+     * diccionario. El diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar las llaves del diccionario.
+     */
+    public Iterator<K> iteradorLlaves() {
+        return new IteradorLlaves();
+    }
+
+    /**
+     * Regresa un iterador débilmente consistente para iterar los valores del
+     * diccionario. El diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar los valores del diccionario.
+     */
+    @Override public Iterator<V> iterator() {
+        return new IteradorValores();
+    }
+
+    /* Mezcla la dispersión de la llave (con el finalizador de MurmurHash3),
+       para que las franjas, que usan los bits altos, queden parejas aunque el
+       dispersor sólo use los bits bajos. */
+    private int dispersa(K llave) {
+        return Dispersores.dispersaEntero(dispersor.dispersa(llave));
+    }
+
+    /* Regresa la franja de una dispersión. */
+    private Franja franja(int h) {
+        return desplazamiento == 32 ? franjas[0] :
+            franjas[h >>> desplazamiento];
+    }
+
+    /* Cuenta las colisiones de todas las franjas. Si maxima es true regresa
+       las de la lista más larga; si no, el total. */
+    private int colisiones(boolean maxima) {
+        int c = 0, cM = 0;
+        for (Franja f : franjas) {
+            AtomicReferenceArray<Nodo> l = f.listas;
+            for (int i = 0; i < l.length(); i++) {
+                int m = -1;
+                for (Nodo n = l.get(i); n != null; n = n.siguiente)
+                    m++;
+                if (m > 0) {
+                    c += m;
+                    cM = Math.max(cM, m);
+                }
+            }
+        }
+        return maxima ? cM : c;
+    }
+}
@@ -0,0 +1,577 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para diccionarios con dispersión <em>cuckoo</em>. Cada llave se
+ * dispersa con dos dispersores, y sólo puede estar en una de las dos cubetas
+ * que le tocan (cada una con cuatro casillas), o en un pequeño escondite para
+ * las llaves que no se pudieron acomodar. Una búsqueda revisa entonces a lo
+ * más dos cubetas y el escondite, sin listas ni sondeos.</p>
+ *
+ * <p>Para agregar una llave cuyas dos cubetas están llenas, se saca a otra
+ * llave de una de ellas y se lleva a su otra cubeta, y así sucesivamente.
+ * Gracias a las cubetas de cuatro casillas el diccionario puede llegar a una
+ * carga de {@link #MAXIMA_CARGA} antes de crecer. Los dos dispersores deben
+ * ser independientes: las llaves con las mismas dos dispersiones caen en las
+ * mismas dos cubetas con cualquier tamaño, así que las que no quepan en ellas
+ * se quedan en el escondite, que crece para ellas y se revisa entero en cada
+ * búsqueda.</p>
+ */
+public class DiccionarioCuckoo<K, V> implements Iterable<V> {
+
+    /* Clase interna privada para iteradores. */
+    private class Iterador {
+
+        /* En qué casilla estamos; después de las casillas siguen las del
+           escondite. */
+        private int indice;
+
+        /* Construye un nuevo iterador. */
+        public Iterador() {
+            indice = -1;
+            avanza();
+        }
+
+        /* Avanza a la siguiente casilla ocupada. */
+        private void avanza() {
+            indice++;
+            while (indice < llaves.length && llaves[indice] == null)
+                indice++;
+        }
+
+        /* Nos dice si hay un siguiente elemento. */
+        public boolean hasNext() {
+            return indice < llaves.length + escondidas;
+        }
+
+        /* Regresa la casilla de la siguiente entrada; las del escondite se
+           regresan como -(i + 1). */
+        public int siguiente() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            int c = indice < llaves.length ? indice :
+                -(indice - llaves.length + 1);
+            avanza();
+            return c;
+        }
+    }
+
+    /* Clase interna privada para iteradores de llaves. */
+    private class IteradorLlaves extends Iterador
+        implements Iterator<K> {
+
+        /* Regresa el siguiente elemento. */
+        @Override public K next() {
+            int c = super.siguiente();
+            return c >= 0 ? llaves[c] : llavesEscondidas[-c - 1];
+        }
+    }
+
+    /* Clase interna privada para iteradores de valores. */
+    private class IteradorValores extends Iterador
+        implements Iterator<V> {
+
+        /* Regresa el siguiente elemento. */
+        @Override public V next() {
+            int c = super.siguiente();
+            return c >= 0 ? valores[c] : valoresEscondidos[-c - 1];
+        }
+    }
+
+    /** Máxima carga permitida por el diccionario. */
+    public static final double MAXIMA_CARGA = 0.9;
+
+    /* Capacidad mínima; decidida arbitrariamente a 2^6. */
+    private static final int MINIMA_CAPACIDAD = 64;
+    /* Casillas por cubeta. */
+    private static final int CASILLAS = 4;
+    /* Tamaño del escondite. */
+    private static final int ESCONDITE = 4;
+    /* Cuántas llaves sacamos de su casilla antes de rendirnos y usar el
+       escondite. */
+    private static final int DESPLAZAMIENTOS = 256;
+    /* Cuántas veces puede duplicarse el diccionario al reconstruirse antes
+       de concluir que los dispersores no separan las llaves. */
+    private static final int DUPLICACIONES = 4;
+
+    /* Los dispersores. */
+    private Dispersor<K> primero, segundo;
+    /* Las llaves; null si la casilla está vacía. */
+    private K[] llaves;
+    /* Los valores. */
+    private V[] valores;
+    /* Las dispersiones de las llaves con cada dispersor; se guardan para no
+       volver a dispersar al desplazar o al crecer. */
+    private int[] primeras, segundas;
+    /* El escondite. */
+    private K[] llavesEscondidas;
+    private V[] valoresEscondidos;
+    private int[] primerasEscondidas, segundasEscondidas;
+    /* Cuántas entradas hay en el escondite. */
+    private int escondidas;
+    /* La entrada que se quedó sin casilla y sin lugar en el escondite. */
+    private K erranteLlave;
+    private V erranteValor;
+    private int errantePrimera, erranteSegunda;
+    /* Número de valores. */
+    private int elementos;
+    /* Estado del generador para escoger qué llave sacar. */
+    private int azar;
+
+    /* Truco para crear un arreglo genérico. */
+    @SuppressWarnings("unchecked")
+    private <T> T[] nuevoArreglo(int n) {
+        return (T[])new Object[n];
+    }
+
+    /**
+     * Construye un diccionario con capacidad inicial predeterminada, que
+     * dispersa con {@link Object#hashCode} y, como segundo dispersor, con
+     * {@link Dispersores#dispersaXXH32(CharSequence)} si la llave es una
+     * cadena. Para otras llaves el segundo dispersor es una mezcla de los bits
+     * de {@link Object#hashCode}, así que llaves con el mismo hashCode
+     * terminan en el escondite; si eso es común, hay que pasar dos
+     * dispersores independientes.
+     */
+    public DiccionarioCuckoo() {
+        this(MINIMA_CAPACIDAD, (K llave) -> llave.hashCode(),
+             (K llave) -> llave instanceof CharSequence ?
+             Dispersores.dispersaXXH32((CharSequence)llave) :
+             Dispersores.dispersaEntero(llave.hashCode()));
+    }
+
+    /**
+     * Construye un diccionario con capacidad inicial predeterminada y los
+     * dispersores recibidos.
+     * @param primero el primer dispersor.
+     * @param segundo el segundo dispersor.
+     * @throws IllegalArgumentException si algún dispersor es nulo.
+     */
+    public DiccionarioCuckoo(Dispersor<K> primero, Dispersor<K> segundo) {
+        this(MINIMA_CAPACIDAD, primero, segundo);
+    }
+
+    /**
+     * Construye un diccionario con la capacidad inicial y los dispersores
+     * recibidos.
+     * @param capacidad la capacidad inicial del diccionario.
+     * @param primero el primer dispersor.
+     * @param segundo el segundo dispersor.
+     * @throws IllegalArgumentException si algún dispersor es nulo.
+     */
+    public DiccionarioCuckoo(int capacidad, Dispersor<K> primero,
+                             Dispersor<K> segundo) {
+        if (primero == null || segundo == null)
+            throw new IllegalArgumentException();
+        this.primero = primero;
+        this.segundo = segundo;
+        azar = 0x9e3779b9;
+        if (capacidad < MINIMA_CAPACIDAD)
+            capacidad = MINIMA_CAPACIDAD;
+        int n = MINIMA_CAPACIDAD;
+        while (n * MAXIMA_CARGA < capacidad)
+            n <<= 1;
+        nuevasCasillas(n);
+        nuevoEscondite(ESCONDITE);
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario, usando la llave proporcionada. Si
+     * la llave ya había sido utilizada antes para agregar un valor, el
+     * diccionario reemplaza ese valor con el recibido aquí.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     */
+    public void agrega(K llave, V valor) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+        int h1 = primero.dispersa(llave);
+        int h2 = segundo.dispersa(llave);
+        int c = busca(llave, h1, h2);
+        if (c >= 0) {
+            valores[c] = valor;
+            return;
+        }
+        if (c != -1) {
+            valoresEscondidos[-c - 2] = valor;
+            return;
+        }
+        elementos++;
+        if (!coloca(llave, valor, h1, h2) || carga() > MAXIMA_CARGA)
+            reconstruye(llaves.length << 1);
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public V get(K llave) {
+        V v = getOrDefault(llave, null);
+        if (v == null)
+            throw new NoSuchElementException();
+        return v;
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada, o
+     * el valor por omisión si la llave no está en el diccionario.
+     * @param llave la llave para buscar el valor.
+     * @param porOmision el valor a regresar si la llave no está.
+     * @return el valor correspondiente a la llave, o el valor por omisión.
+     * @throws IllegalArgumentException si la llave es nula.
+     */
+    public V getOrDefault(K llave, V porOmision) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        int c = busca(llave, primero.dispersa(llave), segundo.dispersa(llave));
+        if (c >= 0)
+            return valores[c];
+        return c == -1 ? porOmision : valoresEscondidos[-c - 2];
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <code>true</code> si la llave está en el diccionario,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(K llave) {
+        return llave != null && busca(llave, primero.dispersa(llave),
+                                      segundo.dispersa(llave)) != -1;
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     */
+    public void elimina(K llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        int c = busca(llave, primero.dispersa(llave), segundo.dispersa(llave));
+        if (c == -1)
+            throw new NoSuchElementException();
+        if (c >= 0) {
+            llaves[c] = null;
+            valores[c] = null;
+        } else {
+            int i = -c - 2;
+            escondidas--;
+            llavesEscondidas[i] = llavesEscondidas[escondidas];
+            valoresEscondidos[i] = valoresEscondidos[escondidas];
+            primerasEscondidas[i] = primerasEscondidas[escondidas];
+            segundasEscondidas[i] = segundasEscondidas[escondidas];
+            llavesEscondidas[escondidas] = null;
+            valoresEscondidos[escondidas] = null;
+        }
+        elementos--;
+    }
+
+    /**
+     * Nos dice la carga del diccionario.
+     * @return la carga del diccionario.
+     */
+    public double carga() {
+        return (double)elementos / llaves.length;
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Regresa cuántas entradas están en el escondite.
+     * @return cuántas entradas están en el escondite.
+     */
+    public int getEscondidas() {
+        return escondidas;
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacia() {
+        return elementos == 0;
+    }
+
+    /**
+     * Limpia el diccionario de elementos, dejándolo vacío.
+     */
+    public void limpia() {
+        nuevasCasillas(llaves.length);
+        nuevoEscondite(ESCONDITE);
+        elementos = 0;
+    }
+
+    /**
+     * Regresa una representación en cadena del diccionario.
+     * @return una representación en cadena del diccionario.
+     */
+    @Override public String toString() {
+        if (elementos == 0)
+            return "{}";
+        String s = "{ ";
+        Iterator<K> ks = iteradorLlaves();
+        Iterator<V> vs = iterator();
+        while (ks.hasNext())
+            s += "'" + ks.next() + "': '" + vs.next() + "', ";
+        return s + "}";
+    }
+
+    /**
+     * Nos dice si el diccionario es igual al objeto recibido.
+     * @param o el objeto que queremos saber si es igual al diccionario.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         DiccionarioCuckoo, y tiene las mismas llaves asociadas a los
+     *         mismos valores.
+     */
+    @Override public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass())
+            return false;
+        @SuppressWarnings("unchecked") DiccionarioCuckoo<K, V> d =
+            (DiccionarioCuckoo<K, V>)o;
+        if (elementos != d.elementos)
+            return false;
+        Iterator<K> ks = iteradorLlaves();
+        Iterator<V> vs = iterator();
+        while (ks.hasNext()) {
+            V v = d.getOrDefault(ks.next(), null);
+            if (v == null || !v.equals(vs.next()))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Regresa un iterador para iterar las llaves del diccionario. El
+     * diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar las llaves del diccionario.
+     */
+    public Iterator<K> iteradorLlaves() {
+        return new IteradorLlaves();
+    }
+
+    /**
+     * Regresa un iterador para iterar los valores del diccionario. El
+     * diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar los valores del diccionario.
+     */
+    @Override public Iterator<V> iterator() {
+        return new IteradorValores();
+    }
+
+    /* Crea n casillas vacías. */
+    private void nuevasCasillas(int n) {
+        llaves = nuevoArreglo(n);
+        valores = nuevoArreglo(n);
+        primeras = new int[n];
+        segundas = new int[n];
+    }
+
+    /* Crea un escondite vacío para n entradas. */
+    private void nuevoEscondite(int n) {
+        llavesEscondidas = nuevoArreglo(n);
+        valoresEscondidos = nuevoArreglo(n);
+        primerasEscondidas = new int[n];
+        segundasEscondidas = new int[n];
+        escondidas = 0;
+    }
+
+    /* Pone la entrada en el escondite, creciéndolo si está lleno. */
+    private void esconde(K llave, V valor, int h1, int h2) {
+        if (escondidas == llavesEscondidas.length) {
+            int n = escondidas << 1;
+            llavesEscondidas = Arrays.copyOf(llavesEscondidas, n);
+            valoresEscondidos = Arrays.copyOf(valoresEscondidos, n);
+            primerasEscondidas = Arrays.copyOf(primerasEscondidas, n);
+            segundasEscondidas = Arrays.copyOf(segundasEscondidas, n);
+        }
+        llavesEscondidas[escondidas] = llave;
+        valoresEscondidos[escondidas] = valor;
+        primerasEscondidas[escondidas] = h1;
+        segundasEscondidas[escondidas++] = h2;
+    }
+
+    /* Nos dice si las dos cubetas de las dispersiones están llenas de
+       entradas con esas mismas dispersiones; entonces ningún tamaño puede
+       hacerle lugar a otra. */
+    private boolean inseparable(int h1, int h2) {
+        int a = primeraCubeta(h1), b = segundaCubeta(h1, h2);
+        for (int i = 0; i < CASILLAS; i++)
+            if (llaves[a + i] == null || primeras[a + i] != h1 ||
+                segundas[a + i] != h2 || llaves[b + i] == null ||
+                primeras[b + i] != h1 || segundas[b + i] != h2)
+                return false;
+        return true;
+    }
+
+    /* Regresa la primera casilla de la primera cubeta de la llave. */
+    private int primeraCubeta(int h1) {
+        return (h1 * CASILLAS) & (llaves.length - 1);
+    }
+
+    /* Regresa la primera casilla de la segunda cubeta de la llave, que
+       nunca es la misma que la primera. */
+    private int segundaCubeta(int h1, int h2) {
+        int b = (h2 * CASILLAS) & (llaves.length - 1);
+        return b != primeraCubeta(h1) ? b :
+            b ^ CASILLAS;
+    }
+
+    /* Regresa la casilla de la llave si está en sus cubetas; si está en el
+       escondite en la posición i, regresa -(i + 2); y si no está, -1. */
+    private int busca(K llave, int h1, int h2) {
+        int b = primeraCubeta(h1);
+        for (int c = b; c < b + CASILLAS; c++)
+            if (llaves[c] != null && primeras[c] == h1 &&
+                llaves[c].equals(llave))
+                return c;
+        b = segundaCubeta(h1, h2);
+        for (int c = b; c < b + CASILLAS; c++)
+            if (llaves[c] != null && primeras[c] == h1 &&
+                llaves[c].equals(llave))
+                return c;
+        for (int i = 0; i < escondidas; i++)
+            if (primerasEscondidas[i] == h1 &&
+                llavesEscondidas[i].equals(llave))
+                return -(i + 2);
+        return -1;
+    }
+
+    /* Regresa una casilla vacía de la cubeta que empieza en b, o -1. */
+    private int libre(int b) {
+        for (int c = b; c < b + CASILLAS; c++)
+            if (llaves[c] == null)
+                return c;
+        return -1;
+    }
+
+    /* Pone la entrada en la casilla c. */
+    private void pon(int c, K llave, V valor, int h1, int h2) {
+        llaves[c] = llave;
+        valores[c] = valor;
+        primeras[c] = h1;
+        segundas[c] = h2;
+    }
+
+    /* Coloca una entrada que no está en el diccionario. Si sus dos cubetas
+       están llenas, saca a una entrada al azar de una de ellas y la lleva a
+       su otra cubeta, repitiendo hasta DESPLAZAMIENTOS veces; la entrada que
+       se quede sin casilla va al escondite. Si el escondite está lleno, la
+       deja como errante y regresa false, a menos que crecer el diccionario
+       no pueda ayudarla: entonces crece el escondite. */
+    private boolean coloca(K llave, V valor, int h1, int h2) {
+        int b = primeraCubeta(h1);
+        int c = libre(b);
+        if (c < 0)
+            c = libre(b = segundaCubeta(h1, h2));
+        for (int n = 0; c < 0 && n < DESPLAZAMIENTOS; n++) {
+            azar ^= azar << 13;
+            azar ^= azar >>> 17;
+            azar ^= azar << 5;
+            int s = b + (azar & (CASILLAS - 1));
+            K k = llaves[s];
+            V v = valores[s];
+            int p = primeras[s], q = segundas[s];
+            pon(s, llave, valor, h1, h2);
+            llave = k;
+            valor = v;
+            h1 = p;
+            h2 = q;
+            b = b == primeraCubeta(h1) ? segundaCubeta(h1, h2) :
+                primeraCubeta(h1);
+            c = libre(b);
+        }
+        if (c >= 0) {
+            pon(c, llave, valor, h1, h2);
+            return true;
+        }
+        if (escondidas < ESCONDITE || inseparable(h1, h2)) {
+            esconde(llave, valor, h1, h2);
+            return true;
+        }
+        erranteLlave = llave;
+        erranteValor = valor;
+        errantePrimera = h1;
+        erranteSegunda = h2;
+        return false;
+    }
+
+    /* Reconstruye el diccionario con n casillas, reacomodando todas las
+       entradas (incluyendo las del escondite y la errante, si hay) con sus
+       dispersiones guardadas. Si alguna no cabe, vuelve a empezar con el
+       doble de casillas. Si ni así caben, regresa a las casillas y al
+       escondite de antes, que no se tocaron, y esconde a la errante. */
+    private void reconstruye(int n) {
+        int total = elementos;
+        K[] ks = nuevoArreglo(total);
+        V[] vs = nuevoArreglo(total);
+        int[] ps = new int[total];
+        int[] qs = new int[total];
+        int m = 0;
+        for (int i = 0; i < llaves.length; i++)
+            if (llaves[i] != null) {
+                ks[m] = llaves[i];
+                vs[m] = valores[i];
+                ps[m] = primeras[i];
+                qs[m++] = segundas[i];
+            }
+        for (int i = 0; i < escondidas; i++) {
+            ks[m] = llavesEscondidas[i];
+            vs[m] = valoresEscondidos[i];
+            ps[m] = primerasEscondidas[i];
+            qs[m++] = segundasEscondidas[i];
+        }
+        K errante = erranteLlave;
+        V erranteV = erranteValor;
+        int erranteP = errantePrimera, erranteS = erranteSegunda;
+        if (errante != null) {
+            ks[m] = errante;
+            vs[m] = erranteV;
+            ps[m] = erranteP;
+            qs[m++] = erranteS;
+        }
+        K[] ls = llaves, les = llavesEscondidas;
+        V[] vls = valores, ves = valoresEscondidos;
+        int[] pls = primeras, sls = segundas;
+        int[] pes = primerasEscondidas, ses = segundasEscondidas;
+        int e = escondidas;
+        for (int d = 0; d <= DUPLICACIONES; d++, n <<= 1) {
+            nuevasCasillas(n);
+            nuevoEscondite(ESCONDITE);
+            int i = 0;
+            while (i < m && coloca(ks[i], vs[i], ps[i], qs[i]))
+                i++;
+            erranteLlave = null;
+            erranteValor = null;
+            if (i == m)
+                return;
+        }
+        llaves = ls;
+        valores = vls;
+        primeras = pls;
+        segundas = sls;
+        llavesEscondidas = les;
+        valoresEscondidos = ves;
+        primerasEscondidas = pes;
+        segundasEscondidas = ses;
+        escondidas = e;
+        if (errante != null)
+            esconde(errante, erranteV, erranteP, erranteS);
+    }
+}
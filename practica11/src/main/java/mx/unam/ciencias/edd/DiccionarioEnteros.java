@@ -0,0 +1,345 @@
+package mx.unam.ciencias.edd;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Clase para diccionarios de enteros a enteros. Las llaves y los valores se
+ * guardan sin envolver en arreglos paralelos, con direccionamiento abierto y
+ * sondeo Robin Hood, así que agregar una entrada no crea ningún objeto.
+ */
+public class DiccionarioEnteros {
+
+    /* Clase interna privada para iteradores. */
+    private class Iterador implements PrimitiveIterator.OfInt {
+
+        /* En qué casilla estamos. */
+        private int indice;
+        /* Si iteramos llaves o valores. */
+        private boolean sonLlaves;
+
+        /* Construye un nuevo iterador de llaves o de valores. */
+        public Iterador(boolean sonLlaves) {
+            this.sonLlaves = sonLlaves;
+            while (indice < ocupadas.length && !ocupadas[indice])
+                indice++;
+        }
+
+        /* Nos dice si hay un siguiente elemento. */
+        @Override public boolean hasNext() {
+            return indice < ocupadas.length;
+        }
+
+        /* Regresa el siguiente elemento. */
+        @Override public int nextInt() {
+            if (indice >= ocupadas.length)
+                throw new NoSuchElementException();
+            int r = sonLlaves ? llaves[indice] : valores[indice];
+            indice++;
+            while (indice < ocupadas.length && !ocupadas[indice])
+                indice++;
+            return r;
+        }
+    }
+
+    /* Capacidad mínima; decidida arbitrariamente a 2^6. */
+    private static final int MINIMA_CAPACIDAD = 64;
+
+    /* Las llaves. */
+    private int[] llaves;
+    /* Los valores. */
+    private int[] valores;
+    /* Qué casillas están ocupadas. */
+    private boolean[] ocupadas;
+    /* Número de valores. */
+    private int elementos;
+
+    /**
+     * Construye un diccionario con una capacidad inicial predeterminada.
+     */
+    public DiccionarioEnteros() {
+        this(MINIMA_CAPACIDAD);
+    }
+
+    /**
+     * Construye un diccionario con una capacidad inicial definida por el
+     * usuario.
+     * @param capacidad la capacidad inicial del diccionario.
+     */
+    public DiccionarioEnteros(int capacidad) {
+        if (capacidad < MINIMA_CAPACIDAD)
+            capacidad = MINIMA_CAPACIDAD;
+        int mascara = 1;
+        while (mascara < capacidad)
+            mascara = (mascara << 1) | 1;
+        mascara = (mascara << 1) | 1;
+        nuevasCasillas(mascara + 1);
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario, usando la llave proporcionada. Si
+     * la llave ya había sido utilizada antes para agregar un valor, el
+     * diccionario reemplaza ese valor con el recibido aquí.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     */
+    public void agrega(int llave, int valor) {
+        if (inserta(llave, valor))
+            elementos++;
+        if (carga() > Diccionario.MAXIMA_CARGA)
+            crece();
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public int get(int llave) {
+        int c = busca(llave);
+        if (c == -1)
+            throw new NoSuchElementException();
+        return valores[c];
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <code>true</code> si la llave está en el diccionario,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(int llave) {
+        return busca(llave) != -1;
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     */
+    public void elimina(int llave) {
+        int c = busca(llave);
+        if (c == -1)
+            throw new NoSuchElementException();
+        int mascara = llaves.length - 1;
+        int s = (c + 1) & mascara;
+        while (ocupadas[s] && distancia(s) > 0) {
+            llaves[c] = llaves[s];
+            valores[c] = valores[s];
+            c = s;
+            s = (s + 1) & mascara;
+        }
+        ocupadas[c] = false;
+        elementos--;
+    }
+
+    /**
+     * Nos dice cuántas colisiones hay en el diccionario; es decir, cuántas
+     * entradas comparten su casilla ideal con otra entrada anterior.
+     * @return cuántas colisiones hay en el diccionario.
+     */
+    public int colisiones() {
+        return colisiones(false);
+    }
+
+    /**
+     * Nos dice el máximo número de colisiones para una misma llave que tenemos
+     * en el diccionario.
+     * @return el máximo número de colisiones para una misma llave.
+     */
+    public int colisionMaxima() {
+        return colisiones(true);
+    }
+
+    /**
+     * Nos dice la carga del diccionario.
+     * @return la carga del diccionario.
+     */
+    public double carga() {
+        return (double)elementos / llaves.length;
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacia() {
+        return elementos == 0;
+    }
+
+    /**
+     * Limpia el diccionario de elementos, dejándolo vacío.
+     */
+    public void limpia() {
+        nuevasCasillas(llaves.length);
+        elementos = 0;
+    }
+
+    /**
+     * Regresa un iterador para iterar las llaves del diccionario, sin
+     * envolverlas. El diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar las llaves del diccionario.
+     */
+    public PrimitiveIterator.OfInt iteradorLlaves() {
+        return new Iterador(true);
+    }
+
+    /**
+     * Regresa un iterador para iterar los valores del diccionario, sin
+     * envolverlos. El diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar los valores del diccionario.
+     */
+    public PrimitiveIterator.OfInt iteradorValores() {
+        return new Iterador(false);
+    }
+
+    /**
+     * Regresa una representación en cadena del diccionario.
+     * @return una representación en cadena del diccionario.
+     */
+    @Override public String toString() {
+        if (elementos == 0)
+            return "{}";
+        String s = "{ ";
+        for (int i = 0; i < llaves.length; i++)
+            if (ocupadas[i])
+                s += "'" + llaves[i] + "': '" + valores[i] + "', ";
+        return s + "}";
+    }
+
+    /**
+     * Nos dice si el diccionario es igual al objeto recibido.
+     * @param o el objeto que queremos saber si es igual al diccionario.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         DiccionarioEnteros, y tiene las mismas llaves asociadas a los
+     *         mismos valores.
+     */
+    @Override public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass())
+            return false;
+        DiccionarioEnteros d = (DiccionarioEnteros)o;
+        if (elementos != d.elementos)
+            return false;
+        for (int i = 0; i < llaves.length; i++) {
+            if (!ocupadas[i])
+                continue;
+            int c = d.busca(llaves[i]);
+            if (c == -1 || d.valores[c] != valores[i])
+                return false;
+        }
+        return true;
+    }
+
+    /* Mezcla los bits de la llave, para que llaves consecutivas no caigan
+       en casillas consecutivas. */
+    private static int mezcla(int h) {
+        return Dispersores.dispersaEntero(h);
+    }
+
+    /* Crea casillas vacías. */
+    private void nuevasCasillas(int n) {
+        llaves = new int[n];
+        valores = new int[n];
+        ocupadas = new boolean[n];
+    }
+
+    /* Regresa qué tan lejos está la entrada en la casilla c de su casilla
+       ideal. */
+    private int distancia(int c) {
+        int mascara = llaves.length - 1;
+        return (c - (mezcla(llaves[c]) & mascara)) & mascara;
+    }
+
+    /* Regresa la casilla de la llave, o -1 si no está. */
+    private int busca(int llave) {
+        int mascara = llaves.length - 1;
+        int c = mezcla(llave) & mascara;
+        for (int d = 0; ocupadas[c] && d <= distancia(c); d++) {
+            if (llaves[c] == llave)
+                return c;
+            c = (c + 1) & mascara;
+        }
+        return -1;
+    }
+
+    /* Inserta la llave con sondeo Robin Hood. Regresa true si la llave es
+       nueva y false si sólo reemplazamos su valor. */
+    private boolean inserta(int llave, int valor) {
+        int mascara = llaves.length - 1;
+        int c = mezcla(llave) & mascara;
+        int d = 0;
+        boolean propia = true;
+        while (ocupadas[c]) {
+            if (propia && llaves[c] == llave) {
+                valores[c] = valor;
+                return false;
+            }
+            int dc = distancia(c);
+            if (dc < d) {
+                int k = llaves[c];
+                int v = valores[c];
+                llaves[c] = llave;
+                valores[c] = valor;
+                llave = k;
+                valor = v;
+                d = dc;
+                propia = false;
+            }
+            c = (c + 1) & mascara;
+            d++;
+        }
+        llaves[c] = llave;
+        valores[c] = valor;
+        ocupadas[c] = true;
+        return true;
+    }
+
+    /* Duplica el número de casillas. */
+    private void crece() {
+        int[] ll = llaves;
+        int[] vs = valores;
+        boolean[] os = ocupadas;
+        nuevasCasillas(ll.length << 1);
+        for (int i = 0; i < ll.length; i++)
+            if (os[i])
+                inserta(ll[i], vs[i]);
+    }
+
+    /* Cuenta las colisiones. Las entradas con la misma casilla ideal quedan
+       contiguas, así que contamos las corridas de entradas con la misma
+       casilla ideal. Si maxima es true regresa la corrida más larga menos
+       uno; si no, el total. */
+    private int colisiones(boolean maxima) {
+        int mascara = llaves.length - 1;
+        int inicio = 0;
+        while (ocupadas[inicio])
+            inicio++;
+        int total = 0, corrida = 0, maximo = 0;
+        for (int i = 1; i <= llaves.length; i++) {
+            int c = (inicio + i) & mascara;
+            int a = (c - 1) & mascara;
+            if (!ocupadas[c])
+                continue;
+            if (ocupadas[a] && ((mezcla(llaves[a]) ^ mezcla(llaves[c])) &
+                                mascara) == 0) {
+                total++;
+                corrida++;
+                if (corrida > maximo)
+                    maximo = corrida;
+            } else
+                corrida = 0;
+        }
+        return maxima ? maximo : total;
+    }
+}
@@ -0,0 +1,366 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Clase para diccionarios de enteros largos a objetos. Las llaves se guardan
+ * sin envolver en un arreglo paralelo al de los valores, con direccionamiento
+ * abierto y sondeo Robin Hood, así que agregar una entrada no crea ningún
+ * objeto.
+ */
+public class DiccionarioLargo<V> implements Iterable<V> {
+
+    /* Clase interna privada para iteradores. */
+    private class Iterador {
+
+        /* En qué casilla estamos. */
+        protected int indice;
+
+        /* Construye un nuevo iterador. */
+        public Iterador() {
+            while (indice < valores.length && valores[indice] == null)
+                indice++;
+        }
+
+        /* Nos dice si hay un siguiente elemento. */
+        public boolean hasNext() {
+            return indice < valores.length;
+        }
+
+        /* Regresa la casilla de la siguiente entrada. */
+        public int siguiente() {
+            if (indice >= valores.length)
+                throw new NoSuchElementException();
+            int c = indice++;
+            while (indice < valores.length && valores[indice] == null)
+                indice++;
+            return c;
+        }
+    }
+
+    /* Clase interna privada para iteradores de llaves. */
+    private class IteradorLlaves extends Iterador
+        implements PrimitiveIterator.OfLong {
+
+        /* Regresa el siguiente elemento. */
+        @Override public long nextLong() {
+            return llaves[super.siguiente()];
+        }
+    }
+
+    /* Clase interna privada para iteradores de valores. */
+    private class IteradorValores extends Iterador
+        implements Iterator<V> {
+
+        /* Regresa el siguiente elemento. */
+        @Override public V next() {
+            return valores[super.siguiente()];
+        }
+    }
+
+    /* Capacidad mínima; decidida arbitrariamente a 2^6. */
+    private static final int MINIMA_CAPACIDAD = 64;
+
+    /* Las llaves. */
+    private long[] llaves;
+    /* Los valores; null si la casilla está vacía. */
+    private V[] valores;
+    /* Número de valores. */
+    private int elementos;
+
+    /* Truco para crear un arreglo genérico. Es necesario hacerlo así por cómo
+       Java implementa sus genéricos; de otra forma obtenemos advertencias del
+       compilador. */
+    @SuppressWarnings("unchecked")
+    private V[] nuevoArreglo(int n) {
+        return (V[])new Object[n];
+    }
+
+    /**
+     * Construye un diccionario con una capacidad inicial predeterminada.
+     */
+    public DiccionarioLargo() {
+        this(MINIMA_CAPACIDAD);
+    }
+
+    /**
+     * Construye un diccionario con una capacidad inicial definida por el
+     * usuario.
+     * @param capacidad la capacidad inicial del diccionario.
+     */
+    public DiccionarioLargo(int capacidad) {
+        if (capacidad < MINIMA_CAPACIDAD)
+            capacidad = MINIMA_CAPACIDAD;
+        int mascara = 1;
+        while (mascara < capacidad)
+            mascara = (mascara << 1) | 1;
+        mascara = (mascara << 1) | 1;
+        llaves = new long[mascara + 1];
+        valores = nuevoArreglo(mascara + 1);
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario, usando la llave proporcionada. Si
+     * la llave ya había sido utilizada antes para agregar un valor, el
+     * diccionario reemplaza ese valor con el recibido aquí.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si el valor es nulo.
+     */
+    public void agrega(long llave, V valor) {
+        if (valor == null)
+            throw new IllegalArgumentException();
+        if (inserta(llave, valor))
+            elementos++;
+        if (carga() > Diccionario.MAXIMA_CARGA)
+            crece();
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public V get(long llave) {
+        int c = busca(llave);
+        if (c == -1)
+            throw new NoSuchElementException();
+        return valores[c];
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <code>true</code> si la llave está en el diccionario,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(long llave) {
+        return busca(llave) != -1;
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     */
+    public void elimina(long llave) {
+        int c = busca(llave);
+        if (c == -1)
+            throw new NoSuchElementException();
+        int mascara = llaves.length - 1;
+        int s = (c + 1) & mascara;
+        while (valores[s] != null && distancia(s) > 0) {
+            llaves[c] = llaves[s];
+            valores[c] = valores[s];
+            c = s;
+            s = (s + 1) & mascara;
+        }
+        valores[c] = null;
+        elementos--;
+    }
+
+    /**
+     * Nos dice cuántas colisiones hay en el diccionario; es decir, cuántas
+     * entradas comparten su casilla ideal con otra entrada anterior.
+     * @return cuántas colisiones hay en el diccionario.
+     */
+    public int colisiones() {
+        return colisiones(false);
+    }
+
+    /**
+     * Nos dice el máximo número de colisiones para una misma llave que tenemos
+     * en el diccionario.
+     * @return el máximo número de colisiones para una misma llave.
+     */
+    public int colisionMaxima() {
+        return colisiones(true);
+    }
+
+    /**
+     * Nos dice la carga del diccionario.
+     * @return la carga del diccionario.
+     */
+    public double carga() {
+        return (double)elementos / llaves.length;
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacia() {
+        return elementos == 0;
+    }
+
+    /**
+     * Limpia el diccionario de elementos, dejándolo vacío.
+     */
+    public void limpia() {
+        llaves = new long[llaves.length];
+        valores = nuevoArreglo(valores.length);
+        elementos = 0;
+    }
+
+    /**
+     * Regresa una representación en cadena del diccionario.
+     * @return una representación en cadena del diccionario.
+     */
+    @Override public String toString() {
+        if (elementos == 0)
+            return "{}";
+        String s = "{ ";
+        for (int i = 0; i < llaves.length; i++)
+            if (valores[i] != null)
+                s += "'" + llaves[i] + "': '" + valores[i] + "', ";
+        return s + "}";
+    }
+
+    /**
+     * Nos dice si el diccionario es igual al objeto recibido.
+     * @param o el objeto que queremos saber si es igual al diccionario.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         DiccionarioLargo, y tiene las mismas llaves asociadas a los
+     *         mismos valores.
+     */
+    @Override public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass())
+            return false;
+        @SuppressWarnings("unchecked") DiccionarioLargo<V> d =
+            (DiccionarioLargo<V>)o;
+        if (elementos != d.elementos)
+            return false;
+        for (int i = 0; i < llaves.length; i++) {
+            if (valores[i] == null)
+                continue;
+            int c = d.busca(llaves[i]);
+            if (c == -1 || !d.valores[c].equals(valores[i]))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Regresa un iterador para iterar las llaves del diccionario, sin
+     * envolverlas. El diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar las llaves del diccionario.
+     */
+    public PrimitiveIterator.OfLong iteradorLlaves() {
+        return new IteradorLlaves();
+    }
+
+    /**
+     * Regresa un iterador para iterar los valores del diccionario. El
+     * diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar los valores del diccionario.
+     */
+    @Override public Iterator<V> iterator() {
+        return new IteradorValores();
+    }
+
+    /* Mezcla los bits de la llave y los dobla a 32 bits. */
+    private static int mezcla(long h) {
+        return Dispersores.dispersaLargo(h);
+    }
+
+    /* Regresa qué tan lejos está la entrada en la casilla c de su casilla
+       ideal. */
+    private int distancia(int c) {
+        int mascara = llaves.length - 1;
+        return (c - (mezcla(llaves[c]) & mascara)) & mascara;
+    }
+
+    /* Regresa la casilla de la llave, o -1 si no está. */
+    private int busca(long llave) {
+        int mascara = llaves.length - 1;
+        int c = mezcla(llave) & mascara;
+        for (int d = 0; valores[c] != null && d <= distancia(c); d++) {
+            if (llaves[c] == llave)
+                return c;
+            c = (c + 1) & mascara;
+        }
+        return -1;
+    }
+
+    /* Inserta la llave con sondeo Robin Hood. Regresa true si la llave es
+       nueva y false si sólo reemplazamos su valor. */
+    private boolean inserta(long llave, V valor) {
+        int mascara = llaves.length - 1;
+        int c = mezcla(llave) & mascara;
+        int d = 0;
+        boolean propia = true;
+        while (valores[c] != null) {
+            if (propia && llaves[c] == llave) {
+                valores[c] = valor;
+                return false;
+            }
+            int dc = distancia(c);
+            if (dc < d) {
+                long k = llaves[c];
+                V v = valores[c];
+                llaves[c] = llave;
+                valores[c] = valor;
+                llave = k;
+                valor = v;
+                d = dc;
+                propia = false;
+            }
+            c = (c + 1) & mascara;
+            d++;
+        }
+        llaves[c] = llave;
+        valores[c] = valor;
+        return true;
+    }
+
+    /* Duplica el número de casillas. */
+    private void crece() {
+        long[] ll = llaves;
+        V[] vs = valores;
+        llaves = new long[ll.length << 1];
+        valores = nuevoArreglo(vs.length << 1);
+        for (int i = 0; i < ll.length; i++)
+            if (vs[i] != null)
+                inserta(ll[i], vs[i]);
+    }
+
+    /* Cuenta las colisiones. Las entradas con la misma casilla ideal quedan
+       contiguas, así que contamos las corridas de entradas con la misma
+       casilla ideal. Si maxima es true regresa la corrida más larga menos
+       uno; si no, el total. */
+    private int colisiones(boolean maxima) {
+        int mascara = llaves.length - 1;
+        int inicio = 0;
+        while (valores[inicio] != null)
+            inicio++;
+        int total = 0, corrida = 0, maximo = 0;
+        for (int i = 1; i <= llaves.length; i++) {
+            int c = (inicio + i) & mascara;
+            int a = (c - 1) & mascara;
+            if (valores[c] == null)
+                continue;
+            if (valores[a] != null && ((mezcla(llaves[a]) ^ mezcla(llaves[c])) &
+                                       mascara) == 0) {
+                total++;
+                corrida++;
+                if (corrida > maximo)
+                    maximo = corrida;
+            } else
+                corrida = 0;
+        }
+        return maxima ? maximo : total;
+    }
+}
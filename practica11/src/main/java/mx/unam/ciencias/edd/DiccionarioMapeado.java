@@ -0,0 +1,522 @@
+package mx.unam.ciencias.edd;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para diccionarios persistentes de bytes a bytes, guardados en un
+ * archivo mapeado a memoria. Ni las entradas ni la tabla viven en el
+ * <em>heap</em>: abrir un diccionario existente sólo lee su encabezado, y las
+ * búsquedas comparan las llaves directamente sobre el mapeo, sin
+ * deserializar nada.</p>
+ *
+ * <p>El archivo tiene un encabezado, una región de datos en la que las
+ * entradas sólo se agregan al final, y un índice de direccionamiento abierto
+ * con sondeo lineal. Cada casilla del índice guarda la dispersión de la llave
+ * y la posición de su entrada; el índice se guarda también en la región de
+ * datos, y cuando crece el nuevo índice se agrega al final. Las entradas
+ * eliminadas o reemplazadas por un valor de distinta longitud, y los índices
+ * anteriores, quedan como espacio muerto en el archivo.</p>
+ *
+ * <p>Como el archivo se mapea completo en un solo {@link MappedByteBuffer},
+ * no puede rebasar 2 GB. Los diccionarios no son seguros para hilos, y un
+ * mismo archivo no debe abrirse dos veces a la vez.</p>
+ */
+public class DiccionarioMapeado implements Closeable {
+
+    /* Clase interna privada para iteradores de llaves. */
+    private class Iterador implements Iterator<byte[]> {
+
+        /* En qué casilla estamos. */
+        private int indice;
+
+        /* Construye un nuevo iterador. */
+        public Iterador() {
+            buscaCasilla();
+        }
+
+        /* Avanza hasta la siguiente casilla ocupada. */
+        private void buscaCasilla() {
+            while (indice < capacidad && posicion(indice) == 0)
+                indice++;
+        }
+
+        /* Nos dice si hay un siguiente elemento. */
+        @Override public boolean hasNext() {
+            return indice < capacidad;
+        }
+
+        /* Regresa el siguiente elemento. */
+        @Override public byte[] next() {
+            if (indice >= capacidad)
+                throw new NoSuchElementException();
+            int p = posicion(indice++);
+            buscaCasilla();
+            return lee(p + ENTRADA, mapeo.getInt(p));
+        }
+    }
+
+    /* Número mágico al inicio del archivo. */
+    private static final int MAGIA = 0x45444431;
+    /* Posiciones de los campos del encabezado. */
+    private static final int ALGORITMO = 4;
+    private static final int CAPACIDAD = 8;
+    private static final int ELEMENTOS = 12;
+    private static final int INDICE = 16;
+    private static final int FIN = 20;
+    /* Tamaño del encabezado. */
+    private static final int ENCABEZADO = 24;
+    /* Tamaño de una casilla: la dispersión y la posición de la entrada. */
+    private static final int CASILLA = 8;
+    /* Tamaño del encabezado de una entrada: las longitudes de la llave y del
+       valor. */
+    private static final int ENTRADA = 8;
+    /* Capacidad mínima; decidida arbitrariamente a 2^6. */
+    private static final int MINIMA_CAPACIDAD = 64;
+
+    /* El canal del archivo. */
+    private FileChannel canal;
+    /* El mapeo del archivo. */
+    private MappedByteBuffer mapeo;
+    /* El algoritmo de dispersión. */
+    private AlgoritmoDispersor algoritmo;
+    /* El dispersor de bytes. */
+    private Dispersor<byte[]> dispersor;
+    /* Número de casillas del índice. */
+    private int capacidad;
+    /* Posición del índice. */
+    private int indice;
+    /* Número de entradas. */
+    private int elementos;
+    /* Dónde termina la región de datos. */
+    private int fin;
+
+    /**
+     * Abre el diccionario guardado en el archivo, o crea uno nuevo con
+     * dispersión de Bob Jenkins si el archivo no existe o es vacío.
+     * @param archivo el archivo del diccionario.
+     * @throws IOException si ocurre un error de entrada/salida.
+     * @throws IllegalArgumentException si el archivo no es un diccionario.
+     */
+    public DiccionarioMapeado(Path archivo) throws IOException {
+        this(archivo, null);
+    }
+
+    /**
+     * Abre el diccionario guardado en el archivo, o crea uno nuevo con el
+     * algoritmo de dispersión recibido si el archivo no existe o es vacío.
+     * Abrir un diccionario existente sólo lee su encabezado.
+     * @param archivo el archivo del diccionario.
+     * @param algoritmo el algoritmo de dispersión; si es <code>null</code> se
+     *        usa el del archivo, o el de Bob Jenkins si el archivo es nuevo.
+     * @throws IOException si ocurre un error de entrada/salida.
+     * @throws IllegalArgumentException si el archivo no es un diccionario, o
+     *         si fue creado con otro algoritmo de dispersión.
+     */
+    public DiccionarioMapeado(Path archivo, AlgoritmoDispersor algoritmo)
+        throws IOException {
+        canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                                 StandardOpenOption.READ,
+                                 StandardOpenOption.WRITE);
+        try {
+            if (canal.size() == 0)
+                inicializa(algoritmo == null ? AlgoritmoDispersor.BJ_STRING :
+                           algoritmo);
+            else
+                abre(algoritmo);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario, usando la llave proporcionada. Si
+     * la llave ya había sido utilizada antes para agregar un valor, el
+     * diccionario reemplaza ese valor con el recibido aquí.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     * @throws IllegalStateException si el archivo rebasaría 2 GB.
+     * @throws UncheckedIOException si no se puede crecer el archivo.
+     */
+    public void agrega(byte[] llave, byte[] valor) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+        int h = dispersor.dispersa(llave);
+        int c = busca(llave, h);
+        if (c >= 0) {
+            int p = posicion(c);
+            if (mapeo.getInt(p + 4) == valor.length) {
+                escribe(p + ENTRADA + mapeo.getInt(p), valor);
+                return;
+            }
+            asignaCasilla(c, h, agregaEntrada(llave, valor));
+            return;
+        }
+        asignaCasilla(-c - 1, h, agregaEntrada(llave, valor));
+        elementos++;
+        mapeo.putInt(ELEMENTOS, elementos);
+        if (carga() > Diccionario.MAXIMA_CARGA)
+            creceIndice();
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario, usando la llave proporcionada. La
+     * llave y el valor se guardan en UTF-8.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     * @throws IllegalStateException si el archivo rebasaría 2 GB.
+     * @throws UncheckedIOException si no se puede crecer el archivo.
+     */
+    public void agrega(String llave, String valor) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+        agrega(llave.getBytes(StandardCharsets.UTF_8),
+               valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Regresa una copia del valor del diccionario asociado a la llave
+     * proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public byte[] get(byte[] llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        int c = busca(llave, dispersor.dispersa(llave));
+        if (c < 0)
+            throw new NoSuchElementException();
+        int p = posicion(c);
+        return lee(p + ENTRADA + mapeo.getInt(p), mapeo.getInt(p + 4));
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada,
+     * decodificando la llave y el valor en UTF-8.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public String get(String llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        return new String(get(llave.getBytes(StandardCharsets.UTF_8)),
+                          StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <code>true</code> si la llave está en el diccionario,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(byte[] llave) {
+        return llave != null && busca(llave, dispersor.dispersa(llave)) >= 0;
+    }
+
+    /**
+     * Nos dice si una llave, codificada en UTF-8, se encuentra en el
+     * diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <code>true</code> si la llave está en el diccionario,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(String llave) {
+        return llave != null &&
+            contiene(llave.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     */
+    public void elimina(byte[] llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        int c = busca(llave, dispersor.dispersa(llave));
+        if (c < 0)
+            throw new NoSuchElementException();
+        eliminaCasilla(c);
+        elementos--;
+        mapeo.putInt(ELEMENTOS, elementos);
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada,
+     * codificada en UTF-8.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     */
+    public void elimina(String llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        elimina(llave.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Regresa el algoritmo de dispersión del diccionario.
+     * @return el algoritmo de dispersión del diccionario.
+     */
+    public AlgoritmoDispersor getAlgoritmo() {
+        return algoritmo;
+    }
+
+    /**
+     * Nos dice la carga del diccionario.
+     * @return la carga del diccionario.
+     */
+    public double carga() {
+        return (double)elementos / capacidad;
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacia() {
+        return elementos == 0;
+    }
+
+    /**
+     * Regresa un iterador para iterar copias de las llaves del diccionario.
+     * El diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar las llaves del diccionario.
+     */
+    public Iterator<byte[]> iteradorLlaves() {
+        return new Iterador();
+    }
+
+    /**
+     * Obliga a que los cambios del diccionario se escriban en el archivo.
+     */
+    public void fuerza() {
+        mapeo.force();
+    }
+
+    /**
+     * Escribe los cambios del diccionario en el archivo y lo cierra.
+     * @throws IOException si ocurre un error de entrada/salida.
+     */
+    @Override public void close() throws IOException {
+        if (!canal.isOpen())
+            return;
+        mapeo.force();
+        canal.close();
+    }
+
+    /* Regresa el dispersor de bytes del algoritmo. */
+    private static Dispersor<byte[]> dispersor(AlgoritmoDispersor algoritmo) {
+        switch (algoritmo) {
+        case XOR_STRING: return Dispersores::dispersaXOR;
+        case BJ_STRING:  return Dispersores::dispersaBJ;
+        case DJB_STRING: return Dispersores::dispersaDJB;
+        case MURMUR3_STRING: return Dispersores::dispersaMurmur3;
+        case XXH32_STRING:   return Dispersores::dispersaXXH32;
+        case XXH64_STRING:
+            return k -> Dispersores.pliega(Dispersores.dispersaXXH64(k));
+        case WYHASH_STRING:
+            return k -> Dispersores.pliega(Dispersores.dispersaWyhash(k));
+        case CRC32C_STRING:  return Dispersores::dispersaCRC32C;
+        default: throw new IllegalArgumentException("Algoritmo inválido");
+        }
+    }
+
+    /* Inicializa un archivo vacío. */
+    private void inicializa(AlgoritmoDispersor algoritmo) throws IOException {
+        this.algoritmo = algoritmo;
+        dispersor = dispersor(algoritmo);
+        capacidad = MINIMA_CAPACIDAD << 1;
+        indice = ENCABEZADO;
+        fin = indice + capacidad * CASILLA;
+        mapea(fin << 1);
+        mapeo.putInt(0, MAGIA);
+        mapeo.putInt(ALGORITMO, algoritmo.ordinal());
+        mapeo.putInt(CAPACIDAD, capacidad);
+        mapeo.putInt(ELEMENTOS, 0);
+        mapeo.putInt(INDICE, indice);
+        mapeo.putInt(FIN, fin);
+    }
+
+    /* Abre un archivo existente, leyendo sólo su encabezado. */
+    private void abre(AlgoritmoDispersor algoritmo) throws IOException {
+        if (canal.size() < ENCABEZADO || canal.size() > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Archivo inválido");
+        mapea((int)canal.size());
+        AlgoritmoDispersor[] algoritmos = AlgoritmoDispersor.values();
+        int a = mapeo.getInt(ALGORITMO);
+        if (mapeo.getInt(0) != MAGIA || a < 0 || a >= algoritmos.length)
+            throw new IllegalArgumentException("Archivo inválido");
+        if (algoritmo != null && algoritmo != algoritmos[a])
+            throw new IllegalArgumentException("Algoritmo distinto");
+        this.algoritmo = algoritmos[a];
+        dispersor = dispersor(this.algoritmo);
+        capacidad = mapeo.getInt(CAPACIDAD);
+        elementos = mapeo.getInt(ELEMENTOS);
+        indice = mapeo.getInt(INDICE);
+        fin = mapeo.getInt(FIN);
+    }
+
+    /* Mapea los primeros n bytes del archivo, creciéndolo si es necesario. */
+    private void mapea(int n) throws IOException {
+        mapeo = canal.map(FileChannel.MapMode.READ_WRITE, 0, n);
+    }
+
+    /* Se asegura de que el mapeo tenga al menos n bytes, duplicándolo. */
+    private void asegura(long n) {
+        if (n <= mapeo.capacity())
+            return;
+        if (n > Integer.MAX_VALUE)
+            throw new IllegalStateException("El archivo rebasaría 2 GB");
+        long m = Math.max(n, (long)mapeo.capacity() << 1);
+        try {
+            mapea((int)Math.min(m, Integer.MAX_VALUE));
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+    }
+
+    /* Regresa la posición de la casilla c. */
+    private int casilla(int c) {
+        return indice + c * CASILLA;
+    }
+
+    /* Regresa la posición de la entrada de la casilla c; 0 si está vacía. */
+    private int posicion(int c) {
+        return mapeo.getInt(casilla(c) + 4);
+    }
+
+    /* Guarda la dispersión y la posición de una entrada en la casilla c. */
+    private void asignaCasilla(int c, int h, int p) {
+        mapeo.putInt(casilla(c), h);
+        mapeo.putInt(casilla(c) + 4, p);
+    }
+
+    /* Regresa la casilla de la llave si está. Si no, regresa -(c + 1), donde
+       c es la casilla vacía en la que terminó el sondeo. */
+    private int busca(byte[] llave, int h) {
+        int mascara = capacidad - 1;
+        int c = h & mascara;
+        int p;
+        while ((p = posicion(c)) != 0) {
+            if (mapeo.getInt(casilla(c)) == h && mismaLlave(p, llave))
+                return c;
+            c = (c + 1) & mascara;
+        }
+        return -(c + 1);
+    }
+
+    /* Compara la llave de la entrada en la posición p con la recibida, sin
+       copiarla. */
+    private boolean mismaLlave(int p, byte[] llave) {
+        if (mapeo.getInt(p) != llave.length)
+            return false;
+        p += ENTRADA;
+        for (int i = 0; i < llave.length; i++)
+            if (mapeo.get(p + i) != llave[i])
+                return false;
+        return true;
+    }
+
+    /* Copia n bytes a partir de la posición p. */
+    private byte[] lee(int p, int n) {
+        byte[] b = new byte[n];
+        for (int i = 0; i < n; i++)
+            b[i] = mapeo.get(p + i);
+        return b;
+    }
+
+    /* Escribe los bytes a partir de la posición p. */
+    private void escribe(int p, byte[] b) {
+        for (int i = 0; i < b.length; i++)
+            mapeo.put(p + i, b[i]);
+    }
+
+    /* Agrega una entrada al final de la región de datos y regresa su
+       posición. */
+    private int agregaEntrada(byte[] llave, byte[] valor) {
+        int p = fin;
+        asegura((long)p + ENTRADA + llave.length + valor.length);
+        mapeo.putInt(p, llave.length);
+        mapeo.putInt(p + 4, valor.length);
+        escribe(p + ENTRADA, llave);
+        escribe(p + ENTRADA + llave.length, valor);
+        fin = p + ENTRADA + llave.length + valor.length;
+        mapeo.putInt(FIN, fin);
+        return p;
+    }
+
+    /* Elimina la casilla c, recorriendo hacia atrás las casillas que la siguen
+       y que sondearon a través de ella; así no necesitamos lápidas. */
+    private void eliminaCasilla(int c) {
+        int mascara = capacidad - 1;
+        int s = (c + 1) & mascara;
+        int p;
+        while ((p = posicion(s)) != 0) {
+            int h = mapeo.getInt(casilla(s));
+            /* La casilla s puede ocupar c si c está entre su casilla ideal y
+               s, circularmente. */
+            if (((s - (h & mascara)) & mascara) >= ((s - c) & mascara)) {
+                asignaCasilla(c, h, p);
+                c = s;
+            }
+            s = (s + 1) & mascara;
+        }
+        asignaCasilla(c, 0, 0);
+    }
+
+    /* Duplica el número de casillas, agregando el nuevo índice al final de la
+       región de datos y reinsertando cada casilla con su dispersión. */
+    private void creceIndice() {
+        int anterior = indice;
+        int n = capacidad;
+        long tam = (long)(n << 1) * CASILLA;
+        asegura(fin + tam);
+        indice = fin;
+        capacidad = n << 1;
+        for (int i = 0; i < tam; i += 4)
+            mapeo.putInt(indice + i, 0);
+        int mascara = capacidad - 1;
+        for (int i = 0; i < n; i++) {
+            int h = mapeo.getInt(anterior + i * CASILLA);
+            int p = mapeo.getInt(anterior + i * CASILLA + 4);
+            if (p == 0)
+                continue;
+            int c = h & mascara;
+            while (posicion(c) != 0)
+                c = (c + 1) & mascara;
+            asignaCasilla(c, h, p);
+        }
+        fin = (int)(indice + tam);
+        mapeo.putInt(FIN, fin);
+        mapeo.putInt(INDICE, indice);
+        mapeo.putInt(CAPACIDAD, capacidad);
+    }
+}
@@ -0,0 +1,523 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para diccionarios persistentes e inmutables, implementados como
+ * árboles de prefijos de dispersiones (<em>hash array mapped tries</em>).
+ * Cada nivel del árbol consume cinco bits de la dispersión de la llave, así
+ * que el árbol tiene a lo más siete niveles.</p>
+ *
+ * <p>Los métodos que modifican el diccionario no lo modifican: regresan una
+ * nueva versión que comparte con la anterior todos los vértices que no
+ * cambiaron, así que agregar o eliminar una llave sólo copia los vértices de
+ * su camino, en tiempo O(log<sub>32</sub> n). Como ninguna versión cambia
+ * nunca, una versión se puede leer desde varios hilos a la vez sin
+ * candados.</p>
+ */
+public class DiccionarioPersistente<K, V> implements Iterable<V> {
+
+    /* Clase interna privada para vértices. Las clases de vértices son
+       estáticas para que los vértices compartidos no retengan a la versión
+       del diccionario que los creó. */
+    private static abstract class Vertice<K, V> {}
+
+    /* Clase interna privada para hojas, que tienen una entrada. */
+    private static class Hoja<K, V> extends Vertice<K, V> {
+
+        /* La dispersión de la llave. */
+        public final int dispersion;
+        /* La llave. */
+        public final K llave;
+        /* El valor. */
+        public final V valor;
+
+        /* Construye una nueva hoja. */
+        public Hoja(int dispersion, K llave, V valor) {
+            this.dispersion = dispersion;
+            this.llave = llave;
+            this.valor = valor;
+        }
+    }
+
+    /* Clase interna privada para colisiones: hojas con la misma dispersión
+       completa, que ningún nivel puede separar. */
+    private static class Colision<K, V> extends Vertice<K, V> {
+
+        /* La dispersión común. */
+        public final int dispersion;
+        /* Las hojas. */
+        public final Hoja<K, V>[] hojas;
+
+        /* Construye una nueva colisión. */
+        public Colision(int dispersion, Hoja<K, V>[] hojas) {
+            this.dispersion = dispersion;
+            this.hojas = hojas;
+        }
+    }
+
+    /* Clase interna privada para ramas. El bit i del mapa nos dice si la
+       rama tiene un hijo para el fragmento i de la dispersión; los hijos
+       están juntos, en el orden de sus fragmentos. */
+    private static class Rama<K, V> extends Vertice<K, V> {
+
+        /* El mapa de los hijos. */
+        public final int mapa;
+        /* Los hijos. */
+        public final Vertice<K, V>[] hijos;
+
+        /* Construye una nueva rama. */
+        public Rama(int mapa, Vertice<K, V>[] hijos) {
+            this.mapa = mapa;
+            this.hijos = hijos;
+        }
+    }
+
+    /* Clase interna privada para iteradores. */
+    private class Iterador {
+
+        /* Los vértices por visitar. */
+        private Pila<Vertice<K, V>> pila;
+        /* La siguiente hoja; null si ya no hay. */
+        private Hoja<K, V> siguiente;
+
+        /* Construye un nuevo iterador. */
+        public Iterador() {
+            pila = new Pila<Vertice<K, V>>();
+            if (raiz != null)
+                pila.mete(raiz);
+            avanza();
+        }
+
+        /* Avanza a la siguiente hoja. */
+        private void avanza() {
+            siguiente = null;
+            while (siguiente == null && !pila.esVacia()) {
+                Vertice<K, V> v = pila.saca();
+                if (v instanceof Hoja) {
+                    siguiente = (Hoja<K, V>)v;
+                } else if (v instanceof Colision) {
+                    for (Hoja<K, V> h : ((Colision<K, V>)v).hojas)
+                        pila.mete(h);
+                } else {
+                    Vertice<K, V>[] hs = ((Rama<K, V>)v).hijos;
+                    for (int i = hs.length - 1; i >= 0; i--)
+                        pila.mete(hs[i]);
+                }
+            }
+        }
+
+        /* Nos dice si hay un siguiente elemento. */
+        public boolean hasNext() {
+            return siguiente != null;
+        }
+
+        /* Regresa la siguiente hoja. */
+        public Hoja<K, V> siguienteHoja() {
+            if (siguiente == null)
+                throw new NoSuchElementException();
+            Hoja<K, V> h = siguiente;
+            avanza();
+            return h;
+        }
+    }
+
+    /* Clase interna privada para iteradores de llaves. */
+    private class IteradorLlaves extends Iterador
+        implements Iterator<K> {
+
+        /* Regresa el siguiente elemento. */
+        @Override public K next() {
+            return super.siguienteHoja().llave;
+        }
+    }
+
+    /* Clase interna privada para iteradores de valores. */
+    private class IteradorValores extends Iterador
+        implements Iterator<V> {
+
+        /* Regresa el siguiente elemento. */
+        @Override public V next() {
+            return super.siguienteHoja().valor;
+        }
+    }
+
+    /* Bits de la dispersión que consume cada nivel. */
+    private static final int BITS = 5;
+    /* Máscara de un fragmento de la dispersión. */
+    private static final int FRAGMENTO = (1 << BITS) - 1;
+
+    /* Dispersor. */
+    private final Dispersor<K> dispersor;
+    /* La raíz; null si el diccionario es vacío. */
+    private final Vertice<K, V> raiz;
+    /* Número de valores. */
+    private final int elementos;
+
+    /**
+     * Construye un diccionario vacío con un dispersor predeterminado.
+     */
+    public DiccionarioPersistente() {
+        this((K llave) -> llave.hashCode());
+    }
+
+    /**
+     * Construye un diccionario vacío con un dispersor definido por el
+     * usuario.
+     * @param dispersor el dispersor a utilizar.
+     * @throws IllegalArgumentException si el dispersor es nulo.
+     */
+    public DiccionarioPersistente(Dispersor<K> dispersor) {
+        this(dispersor, null, 0);
+        if (dispersor == null)
+            throw new IllegalArgumentException();
+    }
+
+    /* Construye una versión del diccionario. */
+    private DiccionarioPersistente(Dispersor<K> dispersor,
+                                   Vertice<K, V> raiz, int elementos) {
+        this.dispersor = dispersor;
+        this.raiz = raiz;
+        this.elementos = elementos;
+    }
+
+    /**
+     * Regresa una nueva versión del diccionario con el valor recibido
+     * asociado a la llave proporcionada. Si la llave ya tenía ese mismo valor,
+     * regresa este mismo diccionario.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @return la nueva versión del diccionario.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     */
+    public DiccionarioPersistente<K, V> agrega(K llave, V valor) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+        Hoja<K, V> h = new Hoja<K, V>(dispersor.dispersa(llave), llave, valor);
+        if (raiz == null)
+            return new DiccionarioPersistente<K, V>(dispersor, h, 1);
+        boolean[] nueva = { false };
+        Vertice<K, V> r = agrega(raiz, h, 0, nueva);
+        if (r == raiz)
+            return this;
+        return new DiccionarioPersistente<K, V>(dispersor, r, nueva[0] ?
+                                                elementos + 1 : elementos);
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public V get(K llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        Hoja<K, V> h = busca(raiz, dispersor.dispersa(llave), 0, llave);
+        if (h == null)
+            throw new NoSuchElementException();
+        return h.valor;
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada, o
+     * el valor por omisión si la llave no está en el diccionario.
+     * @param llave la llave para buscar el valor.
+     * @param porOmision el valor a regresar si la llave no está.
+     * @return el valor correspondiente a la llave, o el valor por omisión.
+     * @throws IllegalArgumentException si la llave es nula.
+     */
+    public V getOrDefault(K llave, V porOmision) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        Hoja<K, V> h = busca(raiz, dispersor.dispersa(llave), 0, llave);
+        return h != null ? h.valor : porOmision;
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <code>true</code> si la llave está en el diccionario,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(K llave) {
+        return llave != null &&
+            busca(raiz, dispersor.dispersa(llave), 0, llave) != null;
+    }
+
+    /**
+     * Regresa una nueva versión del diccionario sin la llave proporcionada.
+     * @param llave la llave a eliminar.
+     * @return la nueva versión del diccionario.
+     * @throws IllegalArgumentException si la llave es nula.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     */
+    public DiccionarioPersistente<K, V> elimina(K llave) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        if (raiz == null)
+            throw new NoSuchElementException();
+        Vertice<K, V> r = elimina(raiz, dispersor.dispersa(llave), 0, llave);
+        if (r == raiz)
+            throw new NoSuchElementException();
+        return new DiccionarioPersistente<K, V>(dispersor, r, elementos - 1);
+    }
+
+    /**
+     * Regresa una versión vacía del diccionario, con el mismo dispersor.
+     * @return una versión vacía del diccionario.
+     */
+    public DiccionarioPersistente<K, V> limpia() {
+        return new DiccionarioPersistente<K, V>(dispersor, null, 0);
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacia() {
+        return elementos == 0;
+    }
+
+    /**
+     * Regresa una representación en cadena del diccionario.
+     * @return una representación en cadena del diccionario.
+     */
+    @Override public String toString() {
+        if (elementos == 0)
+            return "{}";
+        Iterador t = new Iterador();
+        String s = "{ ";
+        while (t.hasNext()) {
+            Hoja<K, V> h = t.siguienteHoja();
+            s += "'" + h.llave + "': '" + h.valor + "', ";
+        }
+        return s + "}";
+    }
+
+    /**
+     * Nos dice si el diccionario es igual al objeto recibido.
+     * @param o el objeto que queremos saber si es igual al diccionario.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         DiccionarioPersistente, y tiene las mismas llaves asociadas a
+     *         los mismos valores.
+     */
+    @Override public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass())
+            return false;
+        @SuppressWarnings("unchecked") DiccionarioPersistente<K, V> d =
+            (DiccionarioPersistente<K, V>)o;
+        if (elementos != d.elementos)
+            return false;
+        Iterador t = new Iterador();
+        while (t.hasNext()) {
+            Hoja<K, V> h = t.siguienteHoja();
+            V v = d.getOrDefault(h.llave, null);
+            if (v == null || !v.equals(h.valor))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Regresa un iterador para iterar las llaves del diccionario. El
+     * diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar las llaves del diccionario.
+     */
+    public Iterator<K> iteradorLlaves() {
+        return new IteradorLlaves();
+    }
+
+    /**
+     * Regresa un iterador para iterar los valores del diccionario. El
+     * diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar los valores del diccionario.
+     */
+    @Override public Iterator<V> iterator() {
+        return new IteradorValores();
+    }
+
+    /* Regresa el fragmento de la dispersión que le toca al nivel. */
+    private static int fragmento(int dispersion, int nivel) {
+        return (dispersion >>> nivel) & FRAGMENTO;
+    }
+
+    /* Truco para crear un arreglo genérico. */
+    @SuppressWarnings("unchecked")
+    private static <K, V> Vertice<K, V>[] nuevosHijos(int n) {
+        return (Vertice<K, V>[])new Vertice[n];
+    }
+
+    /* Truco para crear un arreglo genérico. */
+    @SuppressWarnings("unchecked")
+    private static <K, V> Hoja<K, V>[] nuevasHojas(int n) {
+        return (Hoja<K, V>[])new Hoja[n];
+    }
+
+    /* Busca la hoja de la llave debajo del vértice, que está en el nivel
+       recibido; regresa null si no está. */
+    private Hoja<K, V> busca(Vertice<K, V> v, int h, int nivel, K llave) {
+        while (v instanceof Rama) {
+            Rama<K, V> r = (Rama<K, V>)v;
+            int bit = 1 << fragmento(h, nivel);
+            if ((r.mapa & bit) == 0)
+                return null;
+            v = r.hijos[Integer.bitCount(r.mapa & (bit - 1))];
+            nivel += BITS;
+        }
+        if (v instanceof Hoja) {
+            Hoja<K, V> hoja = (Hoja<K, V>)v;
+            return hoja.dispersion == h && hoja.llave.equals(llave) ?
+                hoja : null;
+        }
+        if (v == null || ((Colision<K, V>)v).dispersion != h)
+            return null;
+        for (Hoja<K, V> hoja : ((Colision<K, V>)v).hojas)
+            if (hoja.llave.equals(llave))
+                return hoja;
+        return null;
+    }
+
+    /* Regresa el vértice que resulta de agregar la hoja debajo del vértice,
+       que está en el nivel recibido; regresa el mismo vértice si la llave
+       ya tenía ese valor. Si la llave es nueva, lo marca en nueva[0]. */
+    private Vertice<K, V> agrega(Vertice<K, V> v, Hoja<K, V> hoja,
+                                 int nivel, boolean[] nueva) {
+        if (v instanceof Rama) {
+            Rama<K, V> r = (Rama<K, V>)v;
+            int bit = 1 << fragmento(hoja.dispersion, nivel);
+            int i = Integer.bitCount(r.mapa & (bit - 1));
+            Vertice<K, V>[] hs;
+            if ((r.mapa & bit) == 0) {
+                hs = nuevosHijos(r.hijos.length + 1);
+                System.arraycopy(r.hijos, 0, hs, 0, i);
+                System.arraycopy(r.hijos, i, hs, i + 1, r.hijos.length - i);
+                hs[i] = hoja;
+                nueva[0] = true;
+                return new Rama<K, V>(r.mapa | bit, hs);
+            }
+            Vertice<K, V> hijo = agrega(r.hijos[i], hoja, nivel + BITS,
+                                        nueva);
+            if (hijo == r.hijos[i])
+                return r;
+            hs = r.hijos.clone();
+            hs[i] = hijo;
+            return new Rama<K, V>(r.mapa, hs);
+        }
+        if (v instanceof Hoja) {
+            Hoja<K, V> h = (Hoja<K, V>)v;
+            if (h.dispersion == hoja.dispersion && h.llave.equals(hoja.llave))
+                return h.valor == hoja.valor ? h : hoja;
+            nueva[0] = true;
+            if (h.dispersion == hoja.dispersion) {
+                Hoja<K, V>[] hs = nuevasHojas(2);
+                hs[0] = h;
+                hs[1] = hoja;
+                return new Colision<K, V>(h.dispersion, hs);
+            }
+            return separa(h, h.dispersion, hoja, nivel);
+        }
+        Colision<K, V> c = (Colision<K, V>)v;
+        if (c.dispersion != hoja.dispersion) {
+            nueva[0] = true;
+            return separa(c, c.dispersion, hoja, nivel);
+        }
+        for (int i = 0; i < c.hojas.length; i++)
+            if (c.hojas[i].llave.equals(hoja.llave)) {
+                if (c.hojas[i].valor == hoja.valor)
+                    return c;
+                Hoja<K, V>[] hs = c.hojas.clone();
+                hs[i] = hoja;
+                return new Colision<K, V>(c.dispersion, hs);
+            }
+        Hoja<K, V>[] hs = nuevasHojas(c.hojas.length + 1);
+        System.arraycopy(c.hojas, 0, hs, 0, c.hojas.length);
+        hs[c.hojas.length] = hoja;
+        nueva[0] = true;
+        return new Colision<K, V>(c.dispersion, hs);
+    }
+
+    /* Regresa una rama en el nivel recibido con el vértice v, cuya
+       dispersión es h, y la hoja, cuya dispersión es distinta; si sus
+       fragmentos coinciden en este nivel, los separa en el siguiente. */
+    private Vertice<K, V> separa(Vertice<K, V> v, int h, Hoja<K, V> hoja,
+                                 int nivel) {
+        int a = fragmento(h, nivel);
+        int b = fragmento(hoja.dispersion, nivel);
+        Vertice<K, V>[] hs;
+        if (a == b) {
+            hs = nuevosHijos(1);
+            hs[0] = separa(v, h, hoja, nivel + BITS);
+            return new Rama<K, V>(1 << a, hs);
+        }
+        hs = nuevosHijos(2);
+        hs[a < b ? 0 : 1] = v;
+        hs[a < b ? 1 : 0] = hoja;
+        return new Rama<K, V>((1 << a) | (1 << b), hs);
+    }
+
+    /* Regresa el vértice que resulta de eliminar la llave debajo del
+       vértice, que está en el nivel recibido; null si el vértice queda vacío,
+       y el mismo vértice si la llave no está. Una rama que se queda con un
+       solo hijo que no es rama se reemplaza por ese hijo, para que el árbol
+       no tenga caminos inútiles. */
+    private Vertice<K, V> elimina(Vertice<K, V> v, int h, int nivel,
+                                  K llave) {
+        if (v instanceof Rama) {
+            Rama<K, V> r = (Rama<K, V>)v;
+            int bit = 1 << fragmento(h, nivel);
+            if ((r.mapa & bit) == 0)
+                return r;
+            int i = Integer.bitCount(r.mapa & (bit - 1));
+            Vertice<K, V> hijo = elimina(r.hijos[i], h, nivel + BITS, llave);
+            if (hijo == r.hijos[i])
+                return r;
+            if (hijo == null) {
+                if (r.hijos.length == 1)
+                    return null;
+                if (r.hijos.length == 2 && !(r.hijos[1 - i] instanceof Rama))
+                    return r.hijos[1 - i];
+                Vertice<K, V>[] hs = nuevosHijos(r.hijos.length - 1);
+                System.arraycopy(r.hijos, 0, hs, 0, i);
+                System.arraycopy(r.hijos, i + 1, hs, i, hs.length - i);
+                return new Rama<K, V>(r.mapa & ~bit, hs);
+            }
+            if (r.hijos.length == 1 && !(hijo instanceof Rama))
+                return hijo;
+            Vertice<K, V>[] hs = r.hijos.clone();
+            hs[i] = hijo;
+            return new Rama<K, V>(r.mapa, hs);
+        }
+        if (v instanceof Hoja) {
+            Hoja<K, V> hoja = (Hoja<K, V>)v;
+            return hoja.dispersion == h && hoja.llave.equals(llave) ?
+                null : hoja;
+        }
+        Colision<K, V> c = (Colision<K, V>)v;
+        if (c.dispersion != h)
+            return c;
+        for (int i = 0; i < c.hojas.length; i++) {
+            if (!c.hojas[i].llave.equals(llave))
+                continue;
+            if (c.hojas.length == 2)
+                return c.hojas[1 - i];
+            Hoja<K, V>[] hs = nuevasHojas(c.hojas.length - 1);
+            System.arraycopy(c.hojas, 0, hs, 0, i);
+            System.arraycopy(c.hojas, i + 1, hs, i, hs.length - i);
+            return new Colision<K, V>(c.dispersion, hs);
+        }
+        return c;
+    }
+}
@@ -0,0 +1,34 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Interfaz genérica para dispersores de 64 bits, para tablas muy grandes y
+ * para estructuras que necesitan varios rangos de bits independientes.
+ */
+@FunctionalInterface
+public interface Dispersor64<T> {
+
+    /**
+     * Calcula la función de dispersión de 64 bits del objeto recibido.
+     * @param objeto el objeto que queremos dispersar.
+     * @return el resultado de dispersar del objeto recibido.
+     */
+    public long dispersa(T objeto);
+
+    /**
+     * Regresa un {@link Dispersor} que pliega la dispersión de 64 bits a 32
+     * con {@link Dispersores#pliega}, para que los bits altos también
+     * afecten los bits bajos que usa {@link Diccionario}.
+     * @return un dispersor de 32 bits con la dispersión plegada.
+     */
+    public default Dispersor<T> plegado() {
+        return o -> Dispersores.pliega(dispersa(o));
+    }
+
+    /**
+     * Regresa un {@link Dispersor} con los 32 bits altos de la dispersión.
+     * @return un dispersor de 32 bits con los bits altos de la dispersión.
+     */
+    public default Dispersor<T> altos() {
+        return o -> (int)(dispersa(o) >>> 32);
+    }
+}
@@ -0,0 +1,29 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Interfaz genérica para dispersores con semilla. Un diccionario cuyas
+ * llaves vienen de afuera puede usar una semilla aleatoria para que nadie
+ * pueda fabricar llaves que choquen, y cambiarla si de todos modos aparecen
+ * demasiadas colisiones.
+ */
+@FunctionalInterface
+public interface DispersorSembrado<T> {
+
+    /**
+     * Calcula la función de dispersión del objeto recibido con la semilla
+     * recibida.
+     * @param objeto el objeto que queremos dispersar.
+     * @param semilla la semilla de la dispersión.
+     * @return el resultado de dispersar del objeto recibido.
+     */
+    public int dispersa(T objeto, long semilla);
+
+    /**
+     * Regresa un {@link Dispersor} que dispersa con la semilla recibida.
+     * @param semilla la semilla de la dispersión.
+     * @return un dispersor con la semilla fija.
+     */
+    public default Dispersor<T> sembrado(long semilla) {
+        return o -> dispersa(o, semilla);
+    }
+}
@@ -1,10 +1,37 @@
 package mx.unam.ciencias.edd;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 /**
  * Clase para métodos estáticos con dispersores de bytes.
+ *
+ * <p>Los dispersores de Bob Jenkins, MurmurHash3, xxHash y wyhash tienen
+ * variantes con semilla: con semillas distintas las colisiones son
+ * distintas, así que quien no conoce la semilla no puede fabricar llaves
+ * que choquen. XOR, DJB y CRC32C no las tienen porque en ellos la semilla
+ * sólo se suma (o se combina linealmente) al resultado, y dos llaves de la
+ * misma longitud que chocan con una semilla chocan con todas.</p>
  */
 public class Dispersores {
 
+    /* Espacio para codificar cadenas, uno por hilo, para no crear un arreglo
+       en cada dispersión. */
+    private static final ThreadLocal<ByteBuffer> ESPACIO =
+        ThreadLocal.withInitial(() -> vista(new byte[256]));
+
+    /* Semilla predeterminada de Bob Jenkins. */
+    private static final int BJ_SEMILLA = 0xffffffff;
+
+    /* Potencias de 33 para procesar ocho bytes a la vez en DJB. */
+    private static final int DJB_2 = 33 * 33;
+    private static final int DJB_3 = DJB_2 * 33;
+    private static final int DJB_4 = DJB_3 * 33;
+    private static final int DJB_5 = DJB_4 * 33;
+    private static final int DJB_6 = DJB_5 * 33;
+    private static final int DJB_7 = DJB_6 * 33;
+    private static final int DJB_8 = DJB_7 * 33;
+
     /* Constructor privado para evitar instanciación. */
     private Dispersores() {}
 
@@ -14,27 +41,20 @@ public class Dispersores {
      * @return la dispersión de XOR de la llave.
      */
     public static int dispersaXOR(byte[] llave) {
-        // Aquí va su código.
-        int lon = llave.length;
-        int r = 0;
-        int i = 0;
-        while (lon >= 4) {
-          r = r ^ bigEndian(llave[i], llave[i+1], llave[i+2], llave[i+3]);
-          i = i + 4;
-          lon = lon - 4;
-        }
-        int n = 0;
-        switch (lon) {
-          case 3: n = n | ((llave[i + 2] & 0xFF) << 8);
-          case 2: n = n | ((llave[i + 1] & 0xFF) << 16);
-          case 1: n = n | ((llave[i] & 0xFF) << 24);
-        }
-        r = r ^ n;
-        return r;
+        return dispersaXOR(llave, 0, llave.length);
     }
-    private static int bigEndian(byte a, byte b, byte c, byte d){
-      return ((a & 0xFF) << 24) | ((b & 0xFF) << 16) | ((c & 0xFF) << 8)
-                                                     | ((d & 0xFF));
+
+    /**
+     * Función de dispersión XOR sobre un pedazo de un arreglo.
+     * @param llave el arreglo con la llave a dispersar.
+     * @param inicio dónde empieza la llave en el arreglo.
+     * @param lon la longitud de la llave.
+     * @return la dispersión de XOR de la llave.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static int dispersaXOR(byte[] llave, int inicio, int lon) {
+        revisaPedazo(llave, inicio, lon);
+        return xor(vista(llave), inicio, lon);
     }
 
     /**
@@ -43,44 +63,708 @@ public class Dispersores {
      * @return la dispersión de Bob Jenkins de la llave.
      */
     public static int dispersaBJ(byte[] llave) {
-        // Aquí va su código.
-        int n = llave.length;
+        return dispersaBJ(llave, 0, llave.length);
+    }
+
+    /**
+     * Función de dispersión de Bob Jenkins sobre un pedazo de un arreglo.
+     * @param llave el arreglo con la llave a dispersar.
+     * @param inicio dónde empieza la llave en el arreglo.
+     * @param lon la longitud de la llave.
+     * @return la dispersión de Bob Jenkins de la llave.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static int dispersaBJ(byte[] llave, int inicio, int lon) {
+        revisaPedazo(llave, inicio, lon);
+        return bj(vista(llave), inicio, lon, BJ_SEMILLA);
+    }
+
+    /**
+     * Función de dispersión Daniel J. Bernstein.
+     * @param llave la llave a dispersar.
+     * @return la dispersión de Daniel Bernstein de la llave.
+     */
+    public static int dispersaDJB(byte[] llave) {
+        return dispersaDJB(llave, 0, llave.length);
+    }
+
+    /**
+     * Función de dispersión Daniel J. Bernstein sobre un pedazo de un
+     * arreglo.
+     * @param llave el arreglo con la llave a dispersar.
+     * @param inicio dónde empieza la llave en el arreglo.
+     * @param lon la longitud de la llave.
+     * @return la dispersión de Daniel Bernstein de la llave.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static int dispersaDJB(byte[] llave, int inicio, int lon) {
+        revisaPedazo(llave, inicio, lon);
+        return djb(vista(llave), inicio, lon);
+    }
+
+    /**
+     * Función de dispersión XOR sobre la codificación UTF-8 de una cadena,
+     * sin crear arreglos.
+     * @param llave la cadena a dispersar.
+     * @return la dispersión de XOR de la llave.
+     */
+    public static int dispersaXOR(CharSequence llave) {
+        int n = codifica(llave);
+        return xor(ESPACIO.get(), 0, n);
+    }
+
+    /**
+     * Función de dispersión XOR sobre los bytes restantes de un buffer, sin
+     * mover su posición.
+     * @param llave el buffer con la llave a dispersar.
+     * @return la dispersión de XOR de la llave.
+     */
+    public static int dispersaXOR(ByteBuffer llave) {
+        return xor(llave, llave.position(), llave.remaining());
+    }
+
+    /**
+     * Función de dispersión de Bob Jenkins sobre la codificación UTF-8 de una
+     * cadena, sin crear arreglos.
+     * @param llave la cadena a dispersar.
+     * @return la dispersión de Bob Jenkins de la llave.
+     */
+    public static int dispersaBJ(CharSequence llave) {
+        int n = codifica(llave);
+        return bj(ESPACIO.get(), 0, n, BJ_SEMILLA);
+    }
+
+    /**
+     * Función de dispersión de Bob Jenkins sobre los bytes restantes de un
+     * buffer, sin mover su posición.
+     * @param llave el buffer con la llave a dispersar.
+     * @return la dispersión de Bob Jenkins de la llave.
+     */
+    public static int dispersaBJ(ByteBuffer llave) {
+        return bj(llave, llave.position(), llave.remaining(), BJ_SEMILLA);
+    }
+
+    /**
+     * Función de dispersión de Bob Jenkins con semilla sobre un pedazo de un
+     * arreglo.
+     * @param llave el arreglo con la llave a dispersar.
+     * @param inicio dónde empieza la llave en el arreglo.
+     * @param lon la longitud de la llave.
+     * @param semilla la semilla de la dispersión.
+     * @return la dispersión de Bob Jenkins de la llave con la semilla.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static int dispersaBJ(byte[] llave, int inicio, int lon,
+                                 int semilla) {
+        revisaPedazo(llave, inicio, lon);
+        return bj(vista(llave), inicio, lon, semilla);
+    }
+
+    /**
+     * Función de dispersión de Bob Jenkins con semilla sobre la codificación
+     * UTF-8 de una cadena, sin crear arreglos.
+     * @param llave la cadena a dispersar.
+     * @param semilla la semilla de la dispersión.
+     * @return la dispersión de Bob Jenkins de la llave con la semilla.
+     */
+    public static int dispersaBJ(CharSequence llave, int semilla) {
+        int n = codifica(llave);
+        return bj(ESPACIO.get(), 0, n, semilla);
+    }
+
+    /**
+     * Función de dispersión Daniel J. Bernstein sobre la codificación UTF-8
+     * de una cadena, sin crear arreglos.
+     * @param llave la cadena a dispersar.
+     * @return la dispersión de Daniel Bernstein de la llave.
+     */
+    public static int dispersaDJB(CharSequence llave) {
+        int n = codifica(llave);
+        return djb(ESPACIO.get(), 0, n);
+    }
+
+    /**
+     * Función de dispersión Daniel J. Bernstein sobre los bytes restantes de
+     * un buffer, sin mover su posición.
+     * @param llave el buffer con la llave a dispersar.
+     * @return la dispersión de Daniel Bernstein de la llave.
+     */
+    public static int dispersaDJB(ByteBuffer llave) {
+        return djb(llave, llave.position(), llave.remaining());
+    }
+
+    /**
+     * Función de dispersión MurmurHash3 de 32 bits (la variante x86_32 de
+     * Austin Appleby, con semilla 0).
+     * @param llave la llave a dispersar.
+     * @return la dispersión MurmurHash3 de la llave.
+     */
+    public static int dispersaMurmur3(byte[] llave) {
+        return dispersaMurmur3(llave, 0, llave.length);
+    }
+
+    /**
+     * Función de dispersión MurmurHash3 sobre un pedazo de un arreglo.
+     * @param llave el arreglo con la llave a dispersar.
+     * @param inicio dónde empieza la llave en el arreglo.
+     * @param lon la longitud de la llave.
+     * @return la dispersión MurmurHash3 de la llave.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static int dispersaMurmur3(byte[] llave, int inicio, int lon) {
+        revisaPedazo(llave, inicio, lon);
+        return murmur3(vista(llave), inicio, lon, 0);
+    }
+
+    /**
+     * Función de dispersión MurmurHash3 sobre la codificación UTF-8 de una
+     * cadena, sin crear arreglos.
+     * @param llave la cadena a dispersar.
+     * @return la dispersión MurmurHash3 de la llave.
+     */
+    public static int dispersaMurmur3(CharSequence llave) {
+        int n = codifica(llave);
+        return murmur3(ESPACIO.get(), 0, n, 0);
+    }
+
+    /**
+     * Función de dispersión MurmurHash3 sobre los bytes restantes de un
+     * buffer, sin mover su posición.
+     * @param llave el buffer con la llave a dispersar.
+     * @return la dispersión MurmurHash3 de la llave.
+     */
+    public static int dispersaMurmur3(ByteBuffer llave) {
+        return murmur3(llave, llave.position(), llave.remaining(), 0);
+    }
+
+    /**
+     * Función de dispersión MurmurHash3 con semilla sobre un pedazo de un
+     * arreglo.
+     * @param llave el arreglo con la llave a dispersar.
+     * @param inicio dónde empieza la llave en el arreglo.
+     * @param lon la longitud de la llave.
+     * @param semilla la semilla de la dispersión.
+     * @return la dispersión MurmurHash3 de la llave con la semilla.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static int dispersaMurmur3(byte[] llave, int inicio, int lon,
+                                      int semilla) {
+        revisaPedazo(llave, inicio, lon);
+        return murmur3(vista(llave), inicio, lon, semilla);
+    }
+
+    /**
+     * Función de dispersión MurmurHash3 con semilla sobre la codificación UTF-8
+     * de una cadena, sin crear arreglos.
+     * @param llave la cadena a dispersar.
+     * @param semilla la semilla de la dispersión.
+     * @return la dispersión MurmurHash3 de la llave con la semilla.
+     */
+    public static int dispersaMurmur3(CharSequence llave, int semilla) {
+        int n = codifica(llave);
+        return murmur3(ESPACIO.get(), 0, n, semilla);
+    }
+
+    /**
+     * Función de dispersión xxHash de 32 bits de Yann Collet, con semilla 0.
+     * @param llave la llave a dispersar.
+     * @return la dispersión xxHash32 de la llave.
+     */
+    public static int dispersaXXH32(byte[] llave) {
+        return dispersaXXH32(llave, 0, llave.length);
+    }
+
+    /**
+     * Función de dispersión xxHash32 sobre un pedazo de un arreglo.
+     * @param llave el arreglo con la llave a dispersar.
+     * @param inicio dónde empieza la llave en el arreglo.
+     * @param lon la longitud de la llave.
+     * @return la dispersión xxHash32 de la llave.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static int dispersaXXH32(byte[] llave, int inicio, int lon) {
+        revisaPedazo(llave, inicio, lon);
+        return xxh32(vista(llave), inicio, lon, 0);
+    }
+
+    /**
+     * Función de dispersión xxHash32 sobre la codificación UTF-8 de una
+     * cadena, sin crear arreglos.
+     * @param llave la cadena a dispersar.
+     * @return la dispersión xxHash32 de la llave.
+     */
+    public static int dispersaXXH32(CharSequence llave) {
+        int n = codifica(llave);
+        return xxh32(ESPACIO.get(), 0, n, 0);
+    }
+
+    /**
+     * Función de dispersión xxHash32 sobre los bytes restantes de un buffer,
+     * sin mover su posición.
+     * @param llave el buffer con la llave a dispersar.
+     * @return la dispersión xxHash32 de la llave.
+     */
+    public static int dispersaXXH32(ByteBuffer llave) {
+        return xxh32(llave, llave.position(), llave.remaining(), 0);
+    }
+
+    /**
+     * Función de dispersión xxHash32 con semilla sobre un pedazo de un
+     * arreglo.
+     * @param llave el arreglo con la llave a dispersar.
+     * @param inicio dónde empieza la llave en el arreglo.
+     * @param lon la longitud de la llave.
+     * @param semilla la semilla de la dispersión.
+     * @return la dispersión xxHash32 de la llave con la semilla.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static int dispersaXXH32(byte[] llave, int inicio, int lon,
+                                    int semilla) {
+        revisaPedazo(llave, inicio, lon);
+        return xxh32(vista(llave), inicio, lon, semilla);
+    }
+
+    /**
+     * Función de dispersión xxHash32 con semilla sobre la codificación UTF-8
+     * de una cadena, sin crear arreglos.
+     * @param llave la cadena a dispersar.
+     * @param semilla la semilla de la dispersión.
+     * @return la dispersión xxHash32 de la llave con la semilla.
+     */
+    public static int dispersaXXH32(CharSequence llave, int semilla) {
+        int n = codifica(llave);
+        return xxh32(ESPACIO.get(), 0, n, semilla);
+    }
+
+    /**
+     * Función de dispersión xxHash de 64 bits de Yann Collet, con semilla 0.
+     * @param llave la llave a dispersar.
+     * @return la dispersión xxHash64 de la llave.
+     */
+    public static long dispersaXXH64(byte[] llave) {
+        return dispersaXXH64(llave, 0, llave.length);
+    }
+
+    /**
+     * Función de dispersión xxHash64 sobre un pedazo de un arreglo.
+     * @param llave el arreglo con la llave a dispersar.
+     * @param inicio dónde empieza la llave en el arreglo.
+     * @param lon la longitud de la llave.
+     * @return la dispersión xxHash64 de la llave.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static long dispersaXXH64(byte[] llave, int inicio, int lon) {
+        revisaPedazo(llave, inicio, lon);
+        return xxh64(vista(llave), inicio, lon, 0);
+    }
+
+    /**
+     * Función de dispersión xxHash64 sobre la codificación UTF-8 de una
+     * cadena, sin crear arreglos.
+     * @param llave la cadena a dispersar.
+     * @return la dispersión xxHash64 de la llave.
+     */
+    public static long dispersaXXH64(CharSequence llave) {
+        int n = codifica(llave);
+        return xxh64(ESPACIO.get(), 0, n, 0);
+    }
+
+    /**
+     * Función de dispersión xxHash64 sobre los bytes restantes de un buffer,
+     * sin mover su posición.
+     * @param llave el buffer con la llave a dispersar.
+     * @return la dispersión xxHash64 de la llave.
+     */
+    public static long dispersaXXH64(ByteBuffer llave) {
+        return xxh64(llave, llave.position(), llave.remaining(), 0);
+    }
+
+    /**
+     * Función de dispersión xxHash64 con semilla sobre un pedazo de un
+     * arreglo.
+     * @param llave el arreglo con la llave a dispersar.
+     * @param inicio dónde empieza la llave en el arreglo.
+     * @param lon la longitud de la llave.
+     * @param semilla la semilla de la dispersión.
+     * @return la dispersión xxHash64 de la llave con la semilla.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static long dispersaXXH64(byte[] llave, int inicio, int lon,
+                                     long semilla) {
+        revisaPedazo(llave, inicio, lon);
+        return xxh64(vista(llave), inicio, lon, semilla);
+    }
+
+    /**
+     * Función de dispersión xxHash64 con semilla sobre la codificación UTF-8
+     * de una cadena, sin crear arreglos.
+     * @param llave la cadena a dispersar.
+     * @param semilla la semilla de la dispersión.
+     * @return la dispersión xxHash64 de la llave con la semilla.
+     */
+    public static long dispersaXXH64(CharSequence llave, long semilla) {
+        int n = codifica(llave);
+        return xxh64(ESPACIO.get(), 0, n, semilla);
+    }
+
+    /**
+     * Función de dispersión wyhash de Wang Yi (la versión final 4, con los
+     * secretos predeterminados y semilla 0).
+     * @param llave la llave a dispersar.
+     * @return la dispersión wyhash de la llave.
+     */
+    public static long dispersaWyhash(byte[] llave) {
+        return dispersaWyhash(llave, 0, llave.length);
+    }
+
+    /**
+     * Función de dispersión wyhash sobre un pedazo de un arreglo.
+     * @param llave el arreglo con la llave a dispersar.
+     * @param inicio dónde empieza la llave en el arreglo.
+     * @param lon la longitud de la llave.
+     * @return la dispersión wyhash de la llave.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static long dispersaWyhash(byte[] llave, int inicio, int lon) {
+        revisaPedazo(llave, inicio, lon);
+        return wyhash(vista(llave), inicio, lon, 0);
+    }
+
+    /**
+     * Función de dispersión wyhash sobre la codificación UTF-8 de una cadena,
+     * sin crear arreglos.
+     * @param llave la cadena a dispersar.
+     * @return la dispersión wyhash de la llave.
+     */
+    public static long dispersaWyhash(CharSequence llave) {
+        int n = codifica(llave);
+        return wyhash(ESPACIO.get(), 0, n, 0);
+    }
+
+    /**
+     * Función de dispersión wyhash sobre los bytes restantes de un buffer,
+     * sin mover su posición.
+     * @param llave el buffer con la llave a dispersar.
+     * @return la dispersión wyhash de la llave.
+     */
+    public static long dispersaWyhash(ByteBuffer llave) {
+        return wyhash(llave, llave.position(), llave.remaining(), 0);
+    }
+
+    /**
+     * Función de dispersión wyhash con semilla sobre un pedazo de un
+     * arreglo.
+     * @param llave el arreglo con la llave a dispersar.
+     * @param inicio dónde empieza la llave en el arreglo.
+     * @param lon la longitud de la llave.
+     * @param semilla la semilla de la dispersión.
+     * @return la dispersión wyhash de la llave con la semilla.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static long dispersaWyhash(byte[] llave, int inicio, int lon,
+                                      long semilla) {
+        revisaPedazo(llave, inicio, lon);
+        return wyhash(vista(llave), inicio, lon, semilla);
+    }
+
+    /**
+     * Función de dispersión wyhash con semilla sobre la codificación UTF-8
+     * de una cadena, sin crear arreglos.
+     * @param llave la cadena a dispersar.
+     * @param semilla la semilla de la dispersión.
+     * @return la dispersión wyhash de la llave con la semilla.
+     */
+    public static long dispersaWyhash(CharSequence llave, long semilla) {
+        int n = codifica(llave);
+        return wyhash(ESPACIO.get(), 0, n, semilla);
+    }
+
+    /**
+     * Función de dispersión CRC32C (el polinomio de Castagnoli que usan iSCSI
+     * y las instrucciones SSE4.2), con tablas de ocho en ocho bytes.
+     * @param llave la llave a dispersar.
+     * @return el CRC32C de la llave.
+     */
+    public static int dispersaCRC32C(byte[] llave) {
+        return dispersaCRC32C(llave, 0, llave.length);
+    }
+
+    /**
+     * Función de dispersión CRC32C sobre un pedazo de un arreglo.
+     * @param llave el arreglo con la llave a dispersar.
+     * @param inicio dónde empieza la llave en el arreglo.
+     * @param lon la longitud de la llave.
+     * @return el CRC32C de la llave.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static int dispersaCRC32C(byte[] llave, int inicio, int lon) {
+        revisaPedazo(llave, inicio, lon);
+        return crc32c(vista(llave), inicio, lon);
+    }
+
+    /**
+     * Función de dispersión CRC32C sobre la codificación UTF-8 de una cadena,
+     * sin crear arreglos.
+     * @param llave la cadena a dispersar.
+     * @return el CRC32C de la llave.
+     */
+    public static int dispersaCRC32C(CharSequence llave) {
+        int n = codifica(llave);
+        return crc32c(ESPACIO.get(), 0, n);
+    }
+
+    /**
+     * Función de dispersión CRC32C sobre los bytes restantes de un buffer,
+     * sin mover su posición.
+     * @param llave el buffer con la llave a dispersar.
+     * @return el CRC32C de la llave.
+     */
+    public static int dispersaCRC32C(ByteBuffer llave) {
+        return crc32c(llave, llave.position(), llave.remaining());
+    }
+
+    /**
+     * Función de dispersión MurmurHash3 de 64 bits: los primeros 64 bits de
+     * la variante x64_128 de Austin Appleby, con semilla 0.
+     * @param llave la llave a dispersar.
+     * @return la dispersión MurmurHash3 de 64 bits de la llave.
+     */
+    public static long dispersaMurmur3x64(byte[] llave) {
+        return dispersaMurmur3x64(llave, 0, llave.length);
+    }
+
+    /**
+     * Función de dispersión MurmurHash3 de 64 bits sobre un pedazo de un
+     * arreglo.
+     * @param llave el arreglo con la llave a dispersar.
+     * @param inicio dónde empieza la llave en el arreglo.
+     * @param lon la longitud de la llave.
+     * @return la dispersión MurmurHash3 de 64 bits de la llave.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static long dispersaMurmur3x64(byte[] llave, int inicio, int lon) {
+        revisaPedazo(llave, inicio, lon);
+        return murmur3x64(vista(llave), inicio, lon, 0);
+    }
+
+    /**
+     * Función de dispersión MurmurHash3 de 64 bits sobre la codificación
+     * UTF-8 de una cadena, sin crear arreglos.
+     * @param llave la cadena a dispersar.
+     * @return la dispersión MurmurHash3 de 64 bits de la llave.
+     */
+    public static long dispersaMurmur3x64(CharSequence llave) {
+        int n = codifica(llave);
+        return murmur3x64(ESPACIO.get(), 0, n, 0);
+    }
+
+    /**
+     * Función de dispersión MurmurHash3 de 64 bits sobre los bytes restantes
+     * de un buffer, sin mover su posición.
+     * @param llave el buffer con la llave a dispersar.
+     * @return la dispersión MurmurHash3 de 64 bits de la llave.
+     */
+    public static long dispersaMurmur3x64(ByteBuffer llave) {
+        return murmur3x64(llave, llave.position(), llave.remaining(), 0);
+    }
+
+    /**
+     * Función de dispersión MurmurHash3 de 64 bits con semilla sobre un
+     * pedazo de un arreglo.
+     * @param llave el arreglo con la llave a dispersar.
+     * @param inicio dónde empieza la llave en el arreglo.
+     * @param lon la longitud de la llave.
+     * @param semilla la semilla de la dispersión.
+     * @return la dispersión MurmurHash3 de 64 bits de la llave con la semilla.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static long dispersaMurmur3x64(byte[] llave, int inicio, int lon,
+                                          long semilla) {
+        revisaPedazo(llave, inicio, lon);
+        return murmur3x64(vista(llave), inicio, lon, semilla);
+    }
+
+    /**
+     * Función de dispersión MurmurHash3 de 64 bits con semilla sobre la
+     * codificación UTF-8 de una cadena, sin crear arreglos.
+     * @param llave la cadena a dispersar.
+     * @param semilla la semilla de la dispersión.
+     * @return la dispersión MurmurHash3 de 64 bits de la llave con la semilla.
+     */
+    public static long dispersaMurmur3x64(CharSequence llave, long semilla) {
+        int n = codifica(llave);
+        return murmur3x64(ESPACIO.get(), 0, n, semilla);
+    }
+
+    /**
+     * Función de dispersión Daniel J. Bernstein de 64 bits: la misma
+     * recurrencia que {@link #dispersaDJB(byte[])}, con aritmética de 64
+     * bits.
+     * @param llave la llave a dispersar.
+     * @return la dispersión de Daniel Bernstein de 64 bits de la llave.
+     */
+    public static long dispersaDJB64(byte[] llave) {
+        return dispersaDJB64(llave, 0, llave.length);
+    }
+
+    /**
+     * Función de dispersión Daniel J. Bernstein de 64 bits sobre un pedazo
+     * de un arreglo.
+     * @param llave el arreglo con la llave a dispersar.
+     * @param inicio dónde empieza la llave en el arreglo.
+     * @param lon la longitud de la llave.
+     * @return la dispersión de Daniel Bernstein de 64 bits de la llave.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static long dispersaDJB64(byte[] llave, int inicio, int lon) {
+        revisaPedazo(llave, inicio, lon);
+        return djb64(vista(llave), inicio, lon);
+    }
+
+    /**
+     * Función de dispersión Daniel J. Bernstein de 64 bits sobre la
+     * codificación UTF-8 de una cadena, sin crear arreglos.
+     * @param llave la cadena a dispersar.
+     * @return la dispersión de Daniel Bernstein de 64 bits de la llave.
+     */
+    public static long dispersaDJB64(CharSequence llave) {
+        int n = codifica(llave);
+        return djb64(ESPACIO.get(), 0, n);
+    }
+
+    /**
+     * Función de dispersión Daniel J. Bernstein de 64 bits sobre los bytes
+     * restantes de un buffer, sin mover su posición.
+     * @param llave el buffer con la llave a dispersar.
+     * @return la dispersión de Daniel Bernstein de 64 bits de la llave.
+     */
+    public static long dispersaDJB64(ByteBuffer llave) {
+        return djb64(llave, llave.position(), llave.remaining());
+    }
+
+    /**
+     * Pliega una dispersión de 64 bits en una de 32, combinando ambas
+     * mitades con XOR.
+     * @param h la dispersión de 64 bits.
+     * @return la dispersión plegada a 32 bits.
+     */
+    public static int pliega(long h) {
+        return (int)(h ^ (h >>> 32));
+    }
+
+    /**
+     * Función de dispersión para enteros: el finalizador de MurmurHash3,
+     * que hace que cada bit de la llave afecte a todos los de la dispersión.
+     * A diferencia de {@link Integer#hashCode}, que es la identidad, llaves
+     * consecutivas o que sólo difieren en los bits altos no caen en casillas
+     * vecinas.
+     * @param llave la llave a dispersar.
+     * @return la dispersión de la llave.
+     */
+    public static int dispersaEntero(int llave) {
+        llave ^= llave >>> 16;
+        llave *= 0x85ebca6b;
+        llave ^= llave >>> 13;
+        llave *= 0xc2b2ae35;
+        llave ^= llave >>> 16;
+        return llave;
+    }
+
+    /**
+     * Función de dispersión para enteros largos: el finalizador de 64 bits de
+     * MurmurHash3, del que nos quedamos con los 32 bits bajos.
+     * @param llave la llave a dispersar.
+     * @return la dispersión de la llave.
+     */
+    public static int dispersaLargo(long llave) {
+        return (int)fmix64(llave);
+    }
+
+    /**
+     * Función de dispersión para dobles: dispersa sus bits con {@link
+     * #dispersaLargo}. Como {@link Double#equals}, distingue 0.0 de -0.0 y
+     * trata a todos los NaN como uno solo.
+     * @param llave la llave a dispersar.
+     * @return la dispersión de la llave.
+     */
+    public static int dispersaDoble(double llave) {
+        return dispersaLargo(Double.doubleToLongBits(llave));
+    }
+
+    /**
+     * Combina la dispersión de un campo más en la dispersión acumulada de una
+     * llave compuesta, con un paso de bloque de MurmurHash3. Para dispersar
+     * una llave de n campos se empieza con cero, se combina cada campo en
+     * orden, y al final se regresa <code>dispersaEntero(h ^ n)</code>.
+     * @param h la dispersión acumulada.
+     * @param campo la dispersión del campo.
+     * @return la nueva dispersión acumulada.
+     */
+    public static int combina(int h, int campo) {
+        return murmur3Bloque(h, campo);
+    }
+
+    /* XOR de las palabras big-endian de la llave. Como XOR conmuta, se
+       combinan las palabras como little-endian, de ocho en ocho bytes, y se
+       voltea el resultado una sola vez. */
+    private static int xor(ByteBuffer b, int i, int n) {
+        int r = 0;
+        int fin = i + n;
+        for (; i + 8 <= fin; i += 8) {
+            long w = largo(b, i);
+            r ^= (int)w ^ (int)(w >>> 32);
+        }
+        if (i + 4 <= fin) {
+            r ^= entero(b, i);
+            i += 4;
+        }
+        r = Integer.reverseBytes(r);
+        int k = 0;
+        switch (fin - i) {
+        case 3: k |= (b.get(i + 2) & 0xff) << 8;
+        case 2: k |= (b.get(i + 1) & 0xff) << 16;
+        case 1: k |= (b.get(i) & 0xff) << 24;
+        }
+        return r ^ k;
+    }
+
+    /* lookup2 de Bob Jenkins; cada bloque de 12 bytes se lee como un entero
+       de 64 bits y uno de 32. El valor inicial de c es la semilla. */
+    private static int bj(ByteBuffer llave, int i, int n, int c) {
         int l = n;
         int a = 0x9e3779b9;
         int b = 0x9e3779b9;
-        int c = 0xffffffff;
-        int i = 0;
-        while (l >= 12){
-          a = a + littleEndian(llave[i], llave[i+1], llave[i+2], llave[i+3]);
-          b = b + littleEndian(llave[i+4], llave[i+5], llave[i+6], llave[i+7]);
-          c = c + littleEndian(llave[i+8], llave[i+9], llave[i+10], llave[i+11]);
-          a -= b; a -= c; a ^= (c >>> 13);
-          b -= c; b -= a; b ^= (a <<  8);
-          c -= a; c -= b; c ^= (b >>> 13);
-          a -= b; a -= c; a ^= (c >>> 12);
-          b -= c; b -= a; b ^= (a <<  16);
-          c -= a; c -= b; c ^= (b >>> 5);
-          a -= b; a -= c; a ^= (c >>> 3);
-          b -= c; b -= a; b ^= (a <<  10);
-          c -= a; c -= b; c ^= (b >>> 15);
-          i += 12;
-          l -=12;
+        while (l >= 12) {
+            long w = largo(llave, i);
+            a += (int)w;
+            b += (int)(w >>> 32);
+            c += entero(llave, i + 8);
+            a -= b; a -= c; a ^= (c >>> 13);
+            b -= c; b -= a; b ^= (a <<  8);
+            c -= a; c -= b; c ^= (b >>> 13);
+            a -= b; a -= c; a ^= (c >>> 12);
+            b -= c; b -= a; b ^= (a <<  16);
+            c -= a; c -= b; c ^= (b >>> 5);
+            a -= b; a -= c; a ^= (c >>> 3);
+            b -= c; b -= a; b ^= (a <<  10);
+            c -= a; c -= b; c ^= (b >>> 15);
+            i += 12;
+            l -= 12;
         }
         c += n;
         switch (l) {
-          case 11: c += ((llave[i+10]& 0xFF) << 24);
-          case 10: c += ((llave[i+9]& 0xFF)  << 16);
-          case  9: c += ((llave[i+8]& 0xFF)  << 8);
-          case  8: b += ((llave[i+7]& 0xFF)  << 24);
-          case  7: b += ((llave[i+6]& 0xFF)  << 16);
-          case  6: b += ((llave[i+5]& 0xFF)  << 8);
-          case  5: b +=  (llave[i+4]& 0xFF);
-          case  4: a += ((llave[i+3]& 0xFF)  << 24);
-          case  3: a += ((llave[i+2]& 0xFF)  << 16);
-          case  2: a += ((llave[i+1]& 0xFF)  << 8);
-          case  1: a += (llave[i]& 0xFF);
+        case 11: c += (llave.get(i + 10) & 0xff) << 24;
+        case 10: c += (llave.get(i + 9) & 0xff) << 16;
+        case  9: c += (llave.get(i + 8) & 0xff) << 8;
+        case  8: b += (llave.get(i + 7) & 0xff) << 24;
+        case  7: b += (llave.get(i + 6) & 0xff) << 16;
+        case  6: b += (llave.get(i + 5) & 0xff) << 8;
+        case  5: b += llave.get(i + 4) & 0xff;
+        case  4: a += (llave.get(i + 3) & 0xff) << 24;
+        case  3: a += (llave.get(i + 2) & 0xff) << 16;
+        case  2: a += (llave.get(i + 1) & 0xff) << 8;
+        case  1: a += llave.get(i) & 0xff;
         }
-
         a -= b; a -= c; a ^= (c >>> 13);
         b -= c; b -= a; b ^= (a <<  8);
         c -= a; c -= b; c ^= (b >>> 13);
@@ -93,22 +777,431 @@ public class Dispersores {
         return c;
     }
 
-    private static int littleEndian(byte a, byte b, byte c, byte d){
-      return  ((a & 0xFF)) | ((b & 0xFF) << 8) | ((c & 0xFF) << 16)
-                                               | ((d & 0xFF) << 24);
+    /* DJB: h = 33h + byte. Ocho pasos seguidos equivalen a multiplicar h por
+       33^8 y sumarle cada byte por su potencia de 33, así que se lee un
+       entero de 64 bits y las multiplicaciones son independientes. */
+    private static int djb(ByteBuffer b, int i, int n) {
+        int h = 5381;
+        int fin = i + n;
+        for (; i + 8 <= fin; i += 8) {
+            long w = largo(b, i);
+            h = h * DJB_8 +
+                (int)(w & 0xff) * DJB_7 +
+                (int)((w >>> 8) & 0xff) * DJB_6 +
+                (int)((w >>> 16) & 0xff) * DJB_5 +
+                (int)((w >>> 24) & 0xff) * DJB_4 +
+                (int)((w >>> 32) & 0xff) * DJB_3 +
+                (int)((w >>> 40) & 0xff) * DJB_2 +
+                (int)((w >>> 48) & 0xff) * 33 +
+                (int)(w >>> 56);
+        }
+        for (; i < fin; i++)
+            h = h * 33 + (b.get(i) & 0xff);
+        return h;
     }
 
-    /**
-     * Función de dispersión Daniel J. Bernstein.
-     * @param llave la llave a dispersar.
-     * @return la dispersión de Daniel Bernstein de la llave.
-     */
-    public static int dispersaDJB(byte[] llave) {
-        // Aquí va su código.
-        int h = 5381;
-        for (int i = 0; i < llave.length; i++) {
-          h += (h << 5) + (llave[i] & 0x000000FF);
+    /* Mezcla un bloque de 32 bits de MurmurHash3 en h. */
+    private static int murmur3Bloque(int h, int k) {
+        k *= 0xcc9e2d51;
+        k = Integer.rotateLeft(k, 15);
+        k *= 0x1b873593;
+        h ^= k;
+        h = Integer.rotateLeft(h, 13);
+        return h * 5 + 0xe6546b64;
+    }
+
+    /* MurmurHash3 x86_32; lee de ocho en ocho bytes y procesa dos bloques
+       por lectura. */
+    private static int murmur3(ByteBuffer b, int i, int n, int semilla) {
+        int h = semilla;
+        int fin = i + n;
+        for (; i + 8 <= fin; i += 8) {
+            long w = largo(b, i);
+            h = murmur3Bloque(h, (int)w);
+            h = murmur3Bloque(h, (int)(w >>> 32));
         }
+        if (i + 4 <= fin) {
+            h = murmur3Bloque(h, entero(b, i));
+            i += 4;
+        }
+        int k = 0;
+        switch (fin - i) {
+        case 3: k ^= (b.get(i + 2) & 0xff) << 16;
+        case 2: k ^= (b.get(i + 1) & 0xff) << 8;
+        case 1: k ^= b.get(i) & 0xff;
+            k *= 0xcc9e2d51;
+            k = Integer.rotateLeft(k, 15);
+            k *= 0x1b873593;
+            h ^= k;
+        }
+        return dispersaEntero(h ^ n);
+    }
+
+    /* Primos de xxHash32. */
+    private static final int P32_1 = 0x9e3779b1;
+    private static final int P32_2 = 0x85ebca77;
+    private static final int P32_3 = 0xc2b2ae3d;
+    private static final int P32_4 = 0x27d4eb2f;
+    private static final int P32_5 = 0x165667b1;
+
+    /* Una ronda de xxHash32. */
+    private static int xxh32Ronda(int v, int k) {
+        v += k * P32_2;
+        v = Integer.rotateLeft(v, 13);
+        return v * P32_1;
+    }
+
+    /* xxHash32; lee cada franja de 16 bytes como dos enteros de 64 bits. */
+    private static int xxh32(ByteBuffer b, int i, int n, int semilla) {
+        int fin = i + n;
+        int h;
+        if (n >= 16) {
+            int v1 = semilla + P32_1 + P32_2;
+            int v2 = semilla + P32_2;
+            int v3 = semilla;
+            int v4 = semilla - P32_1;
+            for (; i + 16 <= fin; i += 16) {
+                long w = largo(b, i);
+                long x = largo(b, i + 8);
+                v1 = xxh32Ronda(v1, (int)w);
+                v2 = xxh32Ronda(v2, (int)(w >>> 32));
+                v3 = xxh32Ronda(v3, (int)x);
+                v4 = xxh32Ronda(v4, (int)(x >>> 32));
+            }
+            h = Integer.rotateLeft(v1, 1) + Integer.rotateLeft(v2, 7) +
+                Integer.rotateLeft(v3, 12) + Integer.rotateLeft(v4, 18);
+        } else {
+            h = semilla + P32_5;
+        }
+        h += n;
+        for (; i + 4 <= fin; i += 4) {
+            h += entero(b, i) * P32_3;
+            h = Integer.rotateLeft(h, 17) * P32_4;
+        }
+        for (; i < fin; i++) {
+            h += (b.get(i) & 0xff) * P32_5;
+            h = Integer.rotateLeft(h, 11) * P32_1;
+        }
+        h ^= h >>> 15;
+        h *= P32_2;
+        h ^= h >>> 13;
+        h *= P32_3;
+        h ^= h >>> 16;
         return h;
     }
+
+    /* Primos de xxHash64. */
+    private static final long P64_1 = 0x9e3779b185ebca87L;
+    private static final long P64_2 = 0xc2b2ae3d27d4eb4fL;
+    private static final long P64_3 = 0x165667b19e3779f9L;
+    private static final long P64_4 = 0x85ebca77c2b2ae63L;
+    private static final long P64_5 = 0x27d4eb2f165667c5L;
+
+    /* Una ronda de xxHash64. */
+    private static long xxh64Ronda(long v, long k) {
+        v += k * P64_2;
+        v = Long.rotateLeft(v, 31);
+        return v * P64_1;
+    }
+
+    /* Mezcla un acumulador de xxHash64 en h. */
+    private static long xxh64Mezcla(long h, long v) {
+        h ^= xxh64Ronda(0, v);
+        return h * P64_1 + P64_4;
+    }
+
+    /* xxHash64. */
+    private static long xxh64(ByteBuffer b, int i, int n, long semilla) {
+        int fin = i + n;
+        long h;
+        if (n >= 32) {
+            long v1 = semilla + P64_1 + P64_2;
+            long v2 = semilla + P64_2;
+            long v3 = semilla;
+            long v4 = semilla - P64_1;
+            for (; i + 32 <= fin; i += 32) {
+                v1 = xxh64Ronda(v1, largo(b, i));
+                v2 = xxh64Ronda(v2, largo(b, i + 8));
+                v3 = xxh64Ronda(v3, largo(b, i + 16));
+                v4 = xxh64Ronda(v4, largo(b, i + 24));
+            }
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) +
+                Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = xxh64Mezcla(h, v1);
+            h = xxh64Mezcla(h, v2);
+            h = xxh64Mezcla(h, v3);
+            h = xxh64Mezcla(h, v4);
+        } else {
+            h = semilla + P64_5;
+        }
+        h += n;
+        for (; i + 8 <= fin; i += 8) {
+            h ^= xxh64Ronda(0, largo(b, i));
+            h = Long.rotateLeft(h, 27) * P64_1 + P64_4;
+        }
+        if (i + 4 <= fin) {
+            h ^= (entero(b, i) & 0xffffffffL) * P64_1;
+            h = Long.rotateLeft(h, 23) * P64_2 + P64_3;
+            i += 4;
+        }
+        for (; i < fin; i++) {
+            h ^= (b.get(i) & 0xff) * P64_5;
+            h = Long.rotateLeft(h, 11) * P64_1;
+        }
+        h ^= h >>> 33;
+        h *= P64_2;
+        h ^= h >>> 29;
+        h *= P64_3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    /* Secretos predeterminados de wyhash. */
+    private static final long WY_0 = 0xa0761d6478bd642fL;
+    private static final long WY_1 = 0xe7037ed1a0b428dbL;
+    private static final long WY_2 = 0x8ebc6af09c88c6e3L;
+    private static final long WY_3 = 0x589965cc75374cc3L;
+
+    /* Los 64 bits altos del producto sin signo de 128 bits. */
+    private static long altoSinSigno(long a, long b) {
+        long ha = a >>> 32, la = a & 0xffffffffL;
+        long hb = b >>> 32, lb = b & 0xffffffffL;
+        long m = (la * lb >>> 32) + (ha * lb & 0xffffffffL) +
+            (la * hb & 0xffffffffL);
+        return ha * hb + (ha * lb >>> 32) + (la * hb >>> 32) + (m >>> 32);
+    }
+
+    /* La mezcla de wyhash: el XOR de las dos mitades del producto de 128
+       bits. */
+    private static long wymix(long a, long b) {
+        return a * b ^ altoSinSigno(a, b);
+    }
+
+    /* wyhash, versión final 4. */
+    private static long wyhash(ByteBuffer b, int i, int n, long semilla) {
+        semilla ^= wymix(semilla ^ WY_0, WY_1);
+        long a, c;
+        if (n <= 16) {
+            if (n >= 4) {
+                int d = (n >>> 3) << 2;
+                a = (entero(b, i) & 0xffffffffL) << 32 |
+                    (entero(b, i + d) & 0xffffffffL);
+                c = (entero(b, i + n - 4) & 0xffffffffL) << 32 |
+                    (entero(b, i + n - 4 - d) & 0xffffffffL);
+            } else if (n > 0) {
+                a = (b.get(i) & 0xffL) << 16 |
+                    (b.get(i + (n >>> 1)) & 0xffL) << 8 |
+                    (b.get(i + n - 1) & 0xffL);
+                c = 0;
+            } else {
+                a = c = 0;
+            }
+        } else {
+            int r = n;
+            if (r > 48) {
+                long s1 = semilla, s2 = semilla;
+                do {
+                    semilla = wymix(largo(b, i) ^ WY_1,
+                                    largo(b, i + 8) ^ semilla);
+                    s1 = wymix(largo(b, i + 16) ^ WY_2,
+                               largo(b, i + 24) ^ s1);
+                    s2 = wymix(largo(b, i + 32) ^ WY_3,
+                               largo(b, i + 40) ^ s2);
+                    i += 48;
+                    r -= 48;
+                } while (r > 48);
+                semilla ^= s1 ^ s2;
+            }
+            for (; r > 16; r -= 16, i += 16)
+                semilla = wymix(largo(b, i) ^ WY_1,
+                                largo(b, i + 8) ^ semilla);
+            a = largo(b, i + r - 16);
+            c = largo(b, i + r - 8);
+        }
+        a ^= WY_1;
+        c ^= semilla;
+        long bajo = a * c;
+        long alto = altoSinSigno(a, c);
+        return wymix(bajo ^ WY_0 ^ n, alto ^ WY_1);
+    }
+
+    /* El finalizador de 64 bits de MurmurHash3. */
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    /* Constantes de MurmurHash3 x64_128. */
+    private static final long M64_1 = 0x87c37b91114253d5L;
+    private static final long M64_2 = 0x4cf5ad432745937fL;
+
+    /* MurmurHash3 x64_128; regresa los primeros 64 bits. */
+    private static long murmur3x64(ByteBuffer b, int i, int n, long semilla) {
+        long h1 = semilla, h2 = semilla;
+        int fin = i + n;
+        for (; i + 16 <= fin; i += 16) {
+            long k1 = largo(b, i);
+            long k2 = largo(b, i + 8);
+            k1 *= M64_1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= M64_2;
+            h1 ^= k1;
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+            k2 *= M64_2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= M64_1;
+            h2 ^= k2;
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+        long k1 = 0, k2 = 0;
+        for (int j = fin - 1; j >= i + 8; j--)
+            k2 = (k2 << 8) | (b.get(j) & 0xff);
+        for (int j = Math.min(fin, i + 8) - 1; j >= i; j--)
+            k1 = (k1 << 8) | (b.get(j) & 0xff);
+        if (fin - i > 8) {
+            k2 *= M64_2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= M64_1;
+            h2 ^= k2;
+        }
+        if (fin > i) {
+            k1 *= M64_1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= M64_2;
+            h1 ^= k1;
+        }
+        h1 ^= n;
+        h2 ^= n;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        return h1 + h2;
+    }
+
+    /* DJB con aritmética de 64 bits. */
+    private static long djb64(ByteBuffer b, int i, int n) {
+        long h = 5381;
+        for (int fin = i + n; i < fin; i++)
+            h = h * 33 + (b.get(i) & 0xff);
+        return h;
+    }
+
+    /* Tablas de CRC32C para procesar ocho bytes a la vez: la tabla k está en
+       [256 * k, 256 * (k + 1)). */
+    private static final int[] CRC32C = tablasCRC32C();
+
+    /* Construye las tablas de CRC32C. */
+    private static int[] tablasCRC32C() {
+        int[] t = new int[8 * 256];
+        for (int i = 0; i < 256; i++) {
+            int c = i;
+            for (int j = 0; j < 8; j++)
+                c = (c >>> 1) ^ ((c & 1) != 0 ? 0x82f63b78 : 0);
+            t[i] = c;
+        }
+        for (int i = 256; i < t.length; i++)
+            t[i] = (t[i - 256] >>> 8) ^ t[t[i - 256] & 0xff];
+        return t;
+    }
+
+    /* CRC32C con slicing-by-8. */
+    private static int crc32c(ByteBuffer b, int i, int n) {
+        int c = ~0;
+        int fin = i + n;
+        for (; i + 8 <= fin; i += 8) {
+            long w = largo(b, i);
+            int x = c ^ (int)w;
+            int y = (int)(w >>> 32);
+            c = CRC32C[7 * 256 + (x & 0xff)] ^
+                CRC32C[6 * 256 + ((x >>> 8) & 0xff)] ^
+                CRC32C[5 * 256 + ((x >>> 16) & 0xff)] ^
+                CRC32C[4 * 256 + (x >>> 24)] ^
+                CRC32C[3 * 256 + (y & 0xff)] ^
+                CRC32C[2 * 256 + ((y >>> 8) & 0xff)] ^
+                CRC32C[256 + ((y >>> 16) & 0xff)] ^
+                CRC32C[y >>> 24];
+        }
+        for (; i < fin; i++)
+            c = (c >>> 8) ^ CRC32C[(c ^ b.get(i)) & 0xff];
+        return ~c;
+    }
+
+    /* Revisa que el pedazo esté dentro del arreglo. */
+    private static void revisaPedazo(byte[] llave, int inicio, int lon) {
+        if (inicio < 0 || lon < 0 || inicio > llave.length - lon)
+            throw new IndexOutOfBoundsException();
+    }
+
+    /* Regresa una vista little-endian del arreglo. */
+    private static ByteBuffer vista(byte[] llave) {
+        return ByteBuffer.wrap(llave).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /* Lee el entero little-endian en i del buffer. Las vistas de arreglos
+       ya son little-endian; en un buffer big-endian se voltea el entero
+       leído, en lugar de duplicar el buffer en cada dispersión. */
+    private static int entero(ByteBuffer b, int i) {
+        int x = b.getInt(i);
+        return b.order() == ByteOrder.LITTLE_ENDIAN ? x :
+            Integer.reverseBytes(x);
+    }
+
+    /* Lee el entero largo little-endian en i del buffer. */
+    private static long largo(ByteBuffer b, int i) {
+        long x = b.getLong(i);
+        return b.order() == ByteOrder.LITTLE_ENDIAN ? x :
+            Long.reverseBytes(x);
+    }
+
+    /* Regresa el arreglo del espacio del hilo, creciéndolo si tiene menos de
+       n bytes. */
+    private static byte[] espacio(int n) {
+        ByteBuffer b = ESPACIO.get();
+        if (b.capacity() < n) {
+            b = vista(new byte[Math.max(n, b.capacity() * 2)]);
+            ESPACIO.set(b);
+        }
+        return b.array();
+    }
+
+    /* Codifica la cadena en UTF-8 en el espacio del hilo y regresa el número
+       de bytes. Como String.getBytes con UTF-8, los sustitutos sin pareja se
+       codifican como '?'. */
+    private static int codifica(CharSequence llave) {
+        int n = llave.length();
+        byte[] b = espacio(n * 3);
+        int j = 0;
+        for (int i = 0; i < n; i++) {
+            char c = llave.charAt(i);
+            if (c < 0x80) {
+                b[j++] = (byte)c;
+            } else if (c < 0x800) {
+                b[j++] = (byte)(0xc0 | (c >> 6));
+                b[j++] = (byte)(0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < n &&
+                       Character.isLowSurrogate(llave.charAt(i + 1))) {
+                int p = Character.toCodePoint(c, llave.charAt(++i));
+                b[j++] = (byte)(0xf0 | (p >> 18));
+                b[j++] = (byte)(0x80 | ((p >> 12) & 0x3f));
+                b[j++] = (byte)(0x80 | ((p >> 6) & 0x3f));
+                b[j++] = (byte)(0x80 | (p & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                b[j++] = (byte)'?';
+            } else {
+                b[j++] = (byte)(0xe0 | (c >> 12));
+                b[j++] = (byte)(0x80 | ((c >> 6) & 0x3f));
+                b[j++] = (byte)(0x80 | (c & 0x3f));
+            }
+        }
+        return j;
+    }
 }
@@ -0,0 +1,179 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * <p>Clase para instantáneas de la salud de un {@link Diccionario}. Los
+ * contadores de los que sale una instantánea se actualizan conforme el
+ * diccionario cambia, así que obtenerla no recorre el diccionario.</p>
+ *
+ * <p>En modo {@link ModoDiccionario#ENCADENADO} el histograma cuenta cuántas
+ * listas tienen cada longitud; en modo {@link ModoDiccionario#ROBIN_HOOD},
+ * cuántas entradas están a cada distancia de su casilla ideal. La última
+ * posición del histograma acumula todas las longitudes (o distancias) mayores
+ * o iguales a ella.</p>
+ */
+public class EstadisticasDiccionario {
+
+    /* El modo del diccionario. */
+    private ModoDiccionario modo;
+    /* Número de entradas. */
+    private int elementos;
+    /* Número de índices o casillas. */
+    private int capacidad;
+    /* Histograma de longitudes de listas o de distancias de sondeo. */
+    private int[] histograma;
+    /* Número de veces que el diccionario ha crecido. */
+    private int crecimientos;
+    /* Tiempo total en nanosegundos dedicado a crecer. */
+    private long tiempoCrecimientos;
+    /* Búsquedas exitosas. */
+    private long busquedasExitosas;
+    /* Sondeos de las búsquedas exitosas. */
+    private long sondeosExitosos;
+    /* Búsquedas fallidas. */
+    private long busquedasFallidas;
+    /* Sondeos de las búsquedas fallidas. */
+    private long sondeosFallidos;
+    /* Número de lápidas. */
+    private int lapidas;
+
+    /* Construye una nueva instantánea; sólo Diccionario las construye. */
+    EstadisticasDiccionario(ModoDiccionario modo, int elementos,
+                            int capacidad, int[] histograma,
+                            int crecimientos, long tiempoCrecimientos,
+                            long busquedasExitosas, long sondeosExitosos,
+                            long busquedasFallidas, long sondeosFallidos,
+                            int lapidas) {
+        this.modo = modo;
+        this.elementos = elementos;
+        this.capacidad = capacidad;
+        this.histograma = histograma;
+        this.crecimientos = crecimientos;
+        this.tiempoCrecimientos = tiempoCrecimientos;
+        this.busquedasExitosas = busquedasExitosas;
+        this.sondeosExitosos = sondeosExitosos;
+        this.busquedasFallidas = busquedasFallidas;
+        this.sondeosFallidos = sondeosFallidos;
+        this.lapidas = lapidas;
+    }
+
+    /**
+     * Regresa el modo de almacenamiento del diccionario.
+     * @return el modo de almacenamiento del diccionario.
+     */
+    public ModoDiccionario getModo() {
+        return modo;
+    }
+
+    /**
+     * Regresa el número de entradas del diccionario.
+     * @return el número de entradas del diccionario.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Regresa el número de índices (o casillas) del diccionario.
+     * @return el número de índices del diccionario.
+     */
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    /**
+     * Regresa la carga del diccionario.
+     * @return la carga del diccionario.
+     */
+    public double getCarga() {
+        return (double)elementos / capacidad;
+    }
+
+    /**
+     * Regresa una copia del histograma de longitudes de listas (o de
+     * distancias de sondeo, en modo Robin Hood).
+     * @return una copia del histograma.
+     */
+    public int[] getHistograma() {
+        return histograma.clone();
+    }
+
+    /**
+     * Regresa el número de veces que el diccionario ha crecido.
+     * @return el número de veces que el diccionario ha crecido.
+     */
+    public int getCrecimientos() {
+        return crecimientos;
+    }
+
+    /**
+     * Regresa el tiempo total, en nanosegundos, que el diccionario ha
+     * dedicado a crecer, incluyendo las migraciones incrementales.
+     * @return el tiempo total dedicado a crecer.
+     */
+    public long getTiempoCrecimientos() {
+        return tiempoCrecimientos;
+    }
+
+    /**
+     * Regresa el número de búsquedas exitosas.
+     * @return el número de búsquedas exitosas.
+     */
+    public long getBusquedasExitosas() {
+        return busquedasExitosas;
+    }
+
+    /**
+     * Regresa el número de búsquedas fallidas.
+     * @return el número de búsquedas fallidas.
+     */
+    public long getBusquedasFallidas() {
+        return busquedasFallidas;
+    }
+
+    /**
+     * Regresa el promedio de entradas comparadas (o casillas sondeadas) por
+     * búsqueda exitosa.
+     * @return el promedio de sondeos por búsqueda exitosa.
+     */
+    public double getSondeosExitosos() {
+        return busquedasExitosas == 0 ? 0.0 :
+            (double)sondeosExitosos / busquedasExitosas;
+    }
+
+    /**
+     * Regresa el promedio de entradas comparadas (o casillas sondeadas) por
+     * búsqueda fallida.
+     * @return el promedio de sondeos por búsqueda fallida.
+     */
+    public double getSondeosFallidos() {
+        return busquedasFallidas == 0 ? 0.0 :
+            (double)sondeosFallidos / busquedasFallidas;
+    }
+
+    /**
+     * Regresa la razón de lápidas (casillas que quedaron ocupadas por
+     * entradas eliminadas) entre la capacidad. Los modos encadenado y Robin
+     * Hood no dejan lápidas.
+     * @return la razón de lápidas.
+     */
+    public double getRazonLapidas() {
+        return (double)lapidas / capacidad;
+    }
+
+    /**
+     * Regresa una representación en cadena de la instantánea.
+     * @return una representación en cadena de la instantánea.
+     */
+    @Override public String toString() {
+        String h = "";
+        for (int i = 0; i < histograma.length; i++)
+            h += (i == 0 ? "" : ", ") + histograma[i];
+        return String.format("%s: %d elementos, %d índices, carga %.3f, " +
+                             "histograma [%s], %d crecimientos (%d ns), " +
+                             "sondeos %.3f/%.3f, lápidas %.3f",
+                             modo, elementos, capacidad, getCarga(), h,
+                             crecimientos, tiempoCrecimientos,
+                             getSondeosExitosos(), getSondeosFallidos(),
+                             getRazonLapidas());
+    }
+}
@@ -1,15 +1,21 @@
 package mx.unam.ciencias.edd;
 
+import java.security.SecureRandom;
+
 /**
  * Clase para fabricar dispersores.
  */
 public class FabricaDispersores {
 
+    /* Fuente de semillas aleatorias, impredecibles desde afuera. */
+    private static final SecureRandom SEMILLAS = new SecureRandom();
+
     /* Constructor privado para evitar instanciación. */
     private FabricaDispersores() {}
 
     /**
-     * Regresa una instancia de {@link Dispersor} para cadenas.
+     * Regresa una instancia de {@link Dispersor} para cadenas. Las cadenas se
+     * dispersan sobre su codificación UTF-8, sin crear arreglos.
      * @param algoritmo el algoritmo de dispersor que se desea.
      * @return una instancia de {@link Dispersor} para cadenas.
      * @throws IllegalArgumentException si recibe un identificador no
@@ -19,12 +25,183 @@ public class FabricaDispersores {
     dispersorCadena(AlgoritmoDispersor algoritmo) {
         switch (algoritmo) {
         case XOR_STRING:
-            return c -> Dispersores.dispersaXOR(c.getBytes());
+            return c -> Dispersores.dispersaXOR(c);
         case BJ_STRING:
-            return c -> Dispersores.dispersaBJ(c.getBytes());
+            return c -> Dispersores.dispersaBJ(c);
         case DJB_STRING:
-            return c -> Dispersores.dispersaDJB(c.getBytes());
+            return c -> Dispersores.dispersaDJB(c);
+        case MURMUR3_STRING:
+            return c -> Dispersores.dispersaMurmur3(c);
+        case XXH32_STRING:
+            return c -> Dispersores.dispersaXXH32(c);
+        case XXH64_STRING:
+            return c -> Dispersores.pliega(Dispersores.dispersaXXH64(c));
+        case WYHASH_STRING:
+            return c -> Dispersores.pliega(Dispersores.dispersaWyhash(c));
+        case CRC32C_STRING:
+            return c -> Dispersores.dispersaCRC32C(c);
         default: throw new IllegalArgumentException("Algoritmo inválido");
         }
     }
+
+    /**
+     * Regresa una instancia de {@link Dispersor64} para cadenas. Sólo los
+     * algoritmos con versión de 64 bits son válidos: {@link
+     * AlgoritmoDispersor#DJB_STRING}, {@link
+     * AlgoritmoDispersor#MURMUR3_STRING} (la variante x64_128), {@link
+     * AlgoritmoDispersor#XXH64_STRING} y {@link
+     * AlgoritmoDispersor#WYHASH_STRING}.
+     * @param algoritmo el algoritmo de dispersor que se desea.
+     * @return una instancia de {@link Dispersor64} para cadenas.
+     * @throws IllegalArgumentException si recibe un identificador no
+     *         reconocido o sin versión de 64 bits.
+     */
+    public static Dispersor64<String>
+    dispersor64Cadena(AlgoritmoDispersor algoritmo) {
+        switch (algoritmo) {
+        case DJB_STRING:
+            return c -> Dispersores.dispersaDJB64(c);
+        case MURMUR3_STRING:
+            return c -> Dispersores.dispersaMurmur3x64(c);
+        case XXH64_STRING:
+            return c -> Dispersores.dispersaXXH64(c);
+        case WYHASH_STRING:
+            return c -> Dispersores.dispersaWyhash(c);
+        default: throw new IllegalArgumentException("Algoritmo sin versión " +
+                                                    "de 64 bits");
+        }
+    }
+
+    /**
+     * Regresa una instancia de {@link DispersorSembrado} para cadenas. Los
+     * algoritmos de 32 bits reciben la semilla plegada con {@link
+     * Dispersores#pliega}, y los de 64 bits regresan su dispersión plegada.
+     * XOR, DJB y CRC32C no son válidos: con ellos la semilla no cambia qué
+     * llaves chocan.
+     * @param algoritmo el algoritmo de dispersor que se desea.
+     * @return una instancia de {@link DispersorSembrado} para cadenas.
+     * @throws IllegalArgumentException si recibe un identificador no
+     *         reconocido o sin versión con semilla.
+     */
+    public static DispersorSembrado<String>
+    dispersorSembradoCadena(AlgoritmoDispersor algoritmo) {
+        switch (algoritmo) {
+        case BJ_STRING:
+            return (c, s) -> Dispersores.dispersaBJ(c, Dispersores.pliega(s));
+        case MURMUR3_STRING:
+            return (c, s) ->
+                Dispersores.dispersaMurmur3(c, Dispersores.pliega(s));
+        case XXH32_STRING:
+            return (c, s) ->
+                Dispersores.dispersaXXH32(c, Dispersores.pliega(s));
+        case XXH64_STRING:
+            return (c, s) ->
+                Dispersores.pliega(Dispersores.dispersaXXH64(c, s));
+        case WYHASH_STRING:
+            return (c, s) ->
+                Dispersores.pliega(Dispersores.dispersaWyhash(c, s));
+        default: throw new IllegalArgumentException("Algoritmo sin versión " +
+                                                    "con semilla");
+        }
+    }
+
+    /**
+     * Regresa una instancia de {@link Dispersor} para cadenas con la semilla
+     * recibida.
+     * @param algoritmo el algoritmo de dispersor que se desea.
+     * @param semilla la semilla del dispersor.
+     * @return una instancia de {@link Dispersor} para cadenas.
+     * @throws IllegalArgumentException si recibe un identificador no
+     *         reconocido o sin versión con semilla.
+     */
+    public static Dispersor<String>
+    dispersorCadena(AlgoritmoDispersor algoritmo, long semilla) {
+        return dispersorSembradoCadena(algoritmo).sembrado(semilla);
+    }
+
+    /**
+     * Regresa una instancia de {@link Dispersor} para cadenas con una semilla
+     * aleatoria propia. Es el dispersor que hay que usar para diccionarios
+     * cuyas llaves vienen de afuera: cada instancia dispersa distinto, así
+     * que no se pueden fabricar llaves que choquen.
+     * @param algoritmo el algoritmo de dispersor que se desea.
+     * @return una instancia de {@link Dispersor} para cadenas.
+     * @throws IllegalArgumentException si recibe un identificador no
+     *         reconocido o sin versión con semilla.
+     */
+    public static Dispersor<String>
+    dispersorCadenaAleatorio(AlgoritmoDispersor algoritmo) {
+        return dispersorCadena(algoritmo, semillaAleatoria());
+    }
+
+    /**
+     * Regresa una instancia de {@link Dispersor} para enteros, que mezcla sus
+     * bits con {@link Dispersores#dispersaEntero} en lugar de usar {@link
+     * Integer#hashCode}, que es la identidad.
+     * @return una instancia de {@link Dispersor} para enteros.
+     */
+    public static Dispersor<Integer> dispersorEntero() {
+        return k -> Dispersores.dispersaEntero(k);
+    }
+
+    /**
+     * Regresa una instancia de {@link Dispersor} para enteros largos, que
+     * mezcla sus bits con {@link Dispersores#dispersaLargo}.
+     * @return una instancia de {@link Dispersor} para enteros largos.
+     */
+    public static Dispersor<Long> dispersorLargo() {
+        return k -> Dispersores.dispersaLargo(k);
+    }
+
+    /**
+     * Regresa una instancia de {@link Dispersor} para dobles, que mezcla sus
+     * bits con {@link Dispersores#dispersaDoble}.
+     * @return una instancia de {@link Dispersor} para dobles.
+     */
+    public static Dispersor<Double> dispersorDoble() {
+        return k -> Dispersores.dispersaDoble(k);
+    }
+
+    /**
+     * Regresa una instancia de {@link Dispersor} para arreglos de bytes, que
+     * dispersa su contenido con MurmurHash3. Hay que tomar en cuenta que los
+     * arreglos se comparan por identidad con {@link Object#equals}.
+     * @return una instancia de {@link Dispersor} para arreglos de bytes.
+     */
+    public static Dispersor<byte[]> dispersorArreglo() {
+        return k -> Dispersores.dispersaMurmur3(k);
+    }
+
+    /**
+     * Regresa una instancia de {@link Dispersor} para llaves compuestas de
+     * varios campos. Cada campo se dispersa con su dispersor (por ejemplo
+     * <code>p -> Dispersores.dispersaLargo(p.id)</code>, sin envolver el
+     * campo), y las dispersiones se combinan en orden con {@link
+     * Dispersores#combina}, así que dos llaves con los mismos campos en otro
+     * orden no chocan.
+     * @param <T> el tipo de las llaves.
+     * @param campos los dispersores de cada campo.
+     * @return una instancia de {@link Dispersor} para las llaves compuestas.
+     * @throws IllegalArgumentException si no recibe campos o alguno es nulo.
+     */
+    @SafeVarargs
+    public static <T> Dispersor<T> dispersorCompuesto(Dispersor<T>... campos) {
+        if (campos == null || campos.length == 0)
+            throw new IllegalArgumentException();
+        for (Dispersor<T> c : campos)
+            if (c == null)
+                throw new IllegalArgumentException();
+        Dispersor<T>[] cs = campos.clone();
+        return o -> {
+            int h = 0;
+            for (Dispersor<T> c : cs)
+                h = Dispersores.combina(h, c.dispersa(o));
+            return Dispersores.dispersaEntero(h ^ cs.length);
+        };
+    }
+
+    /* Regresa una semilla aleatoria. */
+    static long semillaAleatoria() {
+        return SEMILLAS.nextLong();
+    }
 }
@@ -0,0 +1,196 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Arrays;
+
+/**
+ * <p>Clase para filtros de Bloom: un arreglo de bits que responde si un
+ * elemento <em>puede</em> haberse agregado. Si el filtro dice que no, el
+ * elemento seguro no se agregó; si dice que sí, puede equivocarse con la
+ * probabilidad con la que se construyó. Un elemento no se puede eliminar del
+ * filtro.</p>
+ *
+ * <p>Cada elemento prende k bits, calculados con dispersión doble: de la
+ * dispersión h del elemento salen h<sub>1</sub> = {@link
+ * Dispersores#dispersaEntero}(h) y h<sub>2</sub> = {@link
+ * Dispersores#dispersaLargo}(h), y el i-ésimo bit es h<sub>1</sub> +
+ * i·h<sub>2</sub> reducido al número de bits. Así cuesta lo mismo que dos
+ * funciones de dispersión, y el dispersor del elemento puede ser malo (como
+ * {@link Object#hashCode}) sin que los bits se amontonen.</p>
+ *
+ * <p>Para n elementos y una tasa p de falsos positivos, el filtro usa
+ * m = −n ln p / (ln 2)<sup>2</sup> bits y k = (m / n) ln 2 funciones: unos 10
+ * bits y 7 funciones por elemento para p = 1%.</p>
+ *
+ * @param <T> El tipo de los elementos del filtro.
+ */
+public class FiltroBloom<T> {
+
+    /* Número mínimo de bits. */
+    private static final int MINIMOS_BITS = 64;
+
+    /* El dispersor de los elementos. */
+    private Dispersor<T> dispersor;
+    /* Los bits del filtro. */
+    private long[] palabras;
+    /* Número de bits del filtro. */
+    private int bits;
+    /* Número de funciones de dispersión. */
+    private int funciones;
+    /* Número de elementos para el que se construyó el filtro. */
+    private int capacidad;
+    /* Tasa de falsos positivos para la que se construyó el filtro. */
+    private double tasa;
+    /* Número de elementos agregados. */
+    private int elementos;
+
+    /**
+     * Construye un filtro para el número de elementos y la tasa de falsos
+     * positivos recibidos, con el dispersor predeterminado.
+     * @param capacidad el número de elementos que esperamos agregar.
+     * @param tasa la tasa de falsos positivos deseada.
+     * @throws IllegalArgumentException si la capacidad es negativa, o la tasa
+     *         no está estrictamente entre 0 y 1.
+     */
+    public FiltroBloom(int capacidad, double tasa) {
+        this(capacidad, tasa, (T elemento) -> elemento.hashCode());
+    }
+
+    /**
+     * Construye un filtro para el número de elementos y la tasa de falsos
+     * positivos recibidos, con un dispersor definido por el usuario.
+     * @param capacidad el número de elementos que esperamos agregar.
+     * @param tasa la tasa de falsos positivos deseada.
+     * @param dispersor el dispersor a utilizar.
+     * @throws IllegalArgumentException si la capacidad es negativa, la tasa
+     *         no está estrictamente entre 0 y 1, o el dispersor es nulo.
+     */
+    public FiltroBloom(int capacidad, double tasa, Dispersor<T> dispersor) {
+        if (capacidad < 0 || !(tasa > 0.0 && tasa < 1.0) || dispersor == null)
+            throw new IllegalArgumentException();
+        this.dispersor = dispersor;
+        this.capacidad = capacidad;
+        this.tasa = tasa;
+        double ln2 = Math.log(2.0);
+        double m = -Math.max(1, capacidad) * Math.log(tasa) / (ln2 * ln2);
+        bits = (int)Math.min(Integer.MAX_VALUE - 63,
+                             Math.max(MINIMOS_BITS, Math.ceil(m)));
+        funciones = (int)Math.max(1, Math.round(ln2 * bits /
+                                                Math.max(1, capacidad)));
+        palabras = new long[(bits + 63) >>> 6];
+    }
+
+    /**
+     * Agrega un elemento al filtro.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si el elemento es nulo.
+     */
+    public void agrega(T elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        agregaDispersion(dispersor.dispersa(elemento));
+    }
+
+    /**
+     * Nos dice si el elemento puede estar en el filtro. Si regresa
+     * <code>false</code> el elemento seguro no se agregó; si regresa
+     * <code>true</code>, puede no haberse agregado con probabilidad {@link
+     * #tasaEstimada}.
+     * @param elemento el elemento que queremos saber si está en el filtro.
+     * @return <code>false</code> si el elemento seguro no está en el filtro,
+     *         <code>true</code> en otro caso.
+     */
+    public boolean puedeContener(T elemento) {
+        return elemento != null &&
+            puedeContenerDispersion(dispersor.dispersa(elemento));
+    }
+
+    /* Prende los bits de la dispersión. Lo usa Diccionario, que ya calculó
+       la dispersión de la llave. */
+    void agregaDispersion(int h) {
+        int h1 = Dispersores.dispersaEntero(h);
+        int h2 = Dispersores.dispersaLargo(h) | 1;
+        for (int i = 0; i < funciones; i++) {
+            int b = reduce(h1 + i * h2);
+            palabras[b >>> 6] |= 1L << b;
+        }
+        elementos++;
+    }
+
+    /* Nos dice si los bits de la dispersión están prendidos. */
+    boolean puedeContenerDispersion(int h) {
+        int h1 = Dispersores.dispersaEntero(h);
+        int h2 = Dispersores.dispersaLargo(h) | 1;
+        for (int i = 0; i < funciones; i++) {
+            int b = reduce(h1 + i * h2);
+            if ((palabras[b >>> 6] & (1L << b)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Limpia el filtro, dejándolo vacío.
+     */
+    public void limpia() {
+        Arrays.fill(palabras, 0L);
+        elementos = 0;
+    }
+
+    /**
+     * Regresa el número de veces que se ha agregado un elemento al filtro,
+     * contando las repeticiones.
+     * @return el número de elementos agregados.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Regresa el número de elementos para el que se construyó el filtro.
+     * @return el número de elementos para el que se construyó el filtro.
+     */
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    /**
+     * Regresa la tasa de falsos positivos para la que se construyó el filtro.
+     * @return la tasa de falsos positivos deseada.
+     */
+    public double getTasa() {
+        return tasa;
+    }
+
+    /**
+     * Regresa el número de bits del filtro.
+     * @return el número de bits del filtro.
+     */
+    public int getBits() {
+        return bits;
+    }
+
+    /**
+     * Regresa el número de funciones de dispersión del filtro.
+     * @return el número de funciones de dispersión del filtro.
+     */
+    public int getFunciones() {
+        return funciones;
+    }
+
+    /**
+     * Regresa la tasa estimada de falsos positivos con los elementos
+     * agregados hasta ahora: (1 − e<sup>−kn/m</sup>)<sup>k</sup>. Rebasa a la
+     * tasa deseada cuando se agregan más elementos que la capacidad.
+     * @return la tasa estimada de falsos positivos.
+     */
+    public double tasaEstimada() {
+        double p = 1.0 - Math.exp(-(double)funciones * elementos / bits);
+        return Math.pow(p, funciones);
+    }
+
+    /* Reduce la dispersión a un bit del filtro multiplicando, en lugar de
+       usar el módulo. */
+    private int reduce(int h) {
+        return (int)(((h & 0xffffffffL) * bits) >>> 32);
+    }
+}
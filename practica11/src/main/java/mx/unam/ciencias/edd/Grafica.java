@@ -153,7 +153,8 @@ public class Grafica<T> implements Coleccion<T> {
         public boolean seSiguen(Grafica.Vertice v, Grafica.Vecino a);
     }
 
-    /* Vértices. */
+    /* Vértices; en modo compacto, para que se iteren en el orden en que
+       fueron agregados. */
     private Diccionario<T, Vertice> vertices;
     /* Número de aristas. */
     private int aristas;
@@ -163,7 +164,8 @@ public class Grafica<T> implements Coleccion<T> {
      */
     public Grafica() {
         // Aquí va su código.
-        this.vertices = new Diccionario<>();
+        this.vertices = new Diccionario<>(0, (T e) -> e.hashCode(),
+                                          ModoDiccionario.COMPACTO);
     }
 
     /**
@@ -39,6 +39,8 @@ public class Lista<T> implements Coleccion<T> {
         public Nodo anterior;
         /* El nodo siguiente. */
         public Nodo siguiente;
+        /* El nodo del último elemento regresado, o null si no hay. */
+        private Nodo ultimo;
 
         /* Construye un nuevo iterador. */
         public Iterador() {
@@ -65,6 +67,7 @@ public class Lista<T> implements Coleccion<T> {
             T e = this.siguiente.elemento;
             this.anterior = siguiente;
             this.siguiente = siguiente.siguiente;
+            this.ultimo = anterior;
             return e;
         }
 
@@ -86,6 +89,7 @@ public class Lista<T> implements Coleccion<T> {
             T e = this.anterior.elemento;
             this.siguiente = anterior;
             this.anterior = anterior.anterior;
+            this.ultimo = siguiente;
             return e;
         }
 
@@ -94,6 +98,7 @@ public class Lista<T> implements Coleccion<T> {
             // Aquí va su código.
             this.anterior = null;
             this.siguiente = cabeza;
+            this.ultimo = null;
         }
 
         /* Mueve el iterador al final de la lista. */
@@ -101,6 +106,19 @@ public class Lista<T> implements Coleccion<T> {
             // Aquí va su código.
             this.anterior = rabo;
             this.siguiente = null;
+            this.ultimo = null;
+        }
+
+        /* Elimina de la lista el último elemento regresado, sin buscarlo. */
+        @Override public void remove() {
+            if(ultimo == null)
+              throw new IllegalStateException();
+            if(ultimo == anterior)
+              anterior = ultimo.anterior;
+            else
+              siguiente = ultimo.siguiente;
+            eliminaNodo(ultimo);
+            ultimo = null;
         }
     }
 
@@ -247,15 +265,7 @@ public class Lista<T> implements Coleccion<T> {
         // Aquí va su código.
         Nodo n = buscaNodo(elemento);
       if(n != null){
-        if(n == this.cabeza){
-          eliminaPrimero();
-        } else if(n == this.rabo){
-          eliminaUltimo();
-        } else{
-          n.anterior.siguiente = n.siguiente;
-          n.siguiente.anterior = n.anterior;
-          longitud--;
-        }
+        eliminaNodo(n);
       }
     }
 
@@ -487,7 +497,9 @@ public class Lista<T> implements Coleccion<T> {
     }
 
     /**
-     * Regresa un iterador para recorrer la lista en una dirección.
+     * Regresa un iterador para recorrer la lista en una dirección. Su método
+     * {@link Iterator#remove} elimina el último elemento regresado sin
+     * volver a buscarlo.
      * @return un iterador para recorrer la lista en una dirección.
      */
     @Override public Iterator<T> iterator() {
@@ -612,6 +624,19 @@ public class Lista<T> implements Coleccion<T> {
         return lista.busquedaLineal(elemento, (a, b) -> a.compareTo(b));
     }
 
+    /* Elimina un nodo de la lista. */
+    private void eliminaNodo(Nodo n){
+        if(n == this.cabeza){
+          eliminaPrimero();
+        } else if(n == this.rabo){
+          eliminaUltimo();
+        } else{
+          n.anterior.siguiente = n.siguiente;
+          n.siguiente.anterior = n.anterior;
+          longitud--;
+        }
+    }
+
     /**
     *Busca un nodo y lo regresa.
     * @return el nodo deseado.
@@ -0,0 +1,17 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Enumeración para los distintos modos de almacenamiento de un diccionario.
+ */
+public enum ModoDiccionario {
+    /** Cada índice del arreglo tiene una lista de entradas. */
+    ENCADENADO,
+    /** Direccionamiento abierto con sondeo lineal Robin Hood. */
+    ROBIN_HOOD,
+    /**
+     * Las entradas en un arreglo denso en orden de inserción, y una tabla de
+     * enteros con sondeo lineal que apunta a ellas; el diccionario se itera
+     * en orden de inserción.
+     */
+    COMPACTO;
+}
@@ -0,0 +1,115 @@
+package mx.unam.ciencias.edd;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * <p>Clase para publicar por JMX la salud de un {@link Diccionario}.</p>
+ *
+ * <p>Los diccionarios no son seguros para hilos, y JMX lee los atributos desde
+ * otro hilo; los valores publicados pueden por lo tanto estar ligeramente
+ * desfasados, pero leerlos nunca recorre el diccionario.</p>
+ */
+public class MonitorDiccionario implements MonitorDiccionarioMBean {
+
+    /* El diccionario monitoreado. */
+    private Diccionario<?, ?> diccionario;
+
+    /**
+     * Construye un monitor para el diccionario recibido.
+     * @param diccionario el diccionario a monitorear.
+     * @throws IllegalArgumentException si el diccionario es nulo.
+     */
+    public MonitorDiccionario(Diccionario<?, ?> diccionario) {
+        if (diccionario == null)
+            throw new IllegalArgumentException();
+        this.diccionario = diccionario;
+    }
+
+    /**
+     * Registra un monitor para el diccionario en el servidor de MBeans de la
+     * plataforma, con el nombre
+     * <code>mx.unam.ciencias.edd:type=Diccionario,name=</code><em>nombre</em>.
+     * @param diccionario el diccionario a monitorear.
+     * @param nombre el nombre con el que se publica.
+     * @return el nombre de objeto con el que quedó registrado.
+     * @throws IllegalArgumentException si el diccionario o el nombre son
+     *         nulos, o si el nombre no es válido.
+     * @throws IllegalStateException si no se pudo registrar el monitor.
+     */
+    public static ObjectName registra(Diccionario<?, ?> diccionario,
+                                      String nombre) {
+        if (nombre == null)
+            throw new IllegalArgumentException();
+        ObjectName n;
+        try {
+            n = new ObjectName("mx.unam.ciencias.edd:type=Diccionario,name=" +
+                               ObjectName.quote(nombre));
+        } catch (JMException jme) {
+            throw new IllegalArgumentException(jme);
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                .registerMBean(new MonitorDiccionario(diccionario), n);
+        } catch (JMException jme) {
+            throw new IllegalStateException(jme);
+        }
+        return n;
+    }
+
+    /**
+     * Quita del servidor de MBeans de la plataforma el monitor registrado con
+     * el nombre de objeto recibido.
+     * @param nombre el nombre de objeto con el que quedó registrado.
+     * @throws IllegalStateException si no se pudo quitar el monitor.
+     */
+    public static void desregistra(ObjectName nombre) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(nombre);
+        } catch (JMException jme) {
+            throw new IllegalStateException(jme);
+        }
+    }
+
+    /* Regresa una instantánea del diccionario. */
+    private EstadisticasDiccionario estadisticas() {
+        return diccionario.estadisticas();
+    }
+
+    @Override public int getElementos() {
+        return estadisticas().getElementos();
+    }
+
+    @Override public int getCapacidad() {
+        return estadisticas().getCapacidad();
+    }
+
+    @Override public double getCarga() {
+        return estadisticas().getCarga();
+    }
+
+    @Override public int[] getHistograma() {
+        return estadisticas().getHistograma();
+    }
+
+    @Override public int getCrecimientos() {
+        return estadisticas().getCrecimientos();
+    }
+
+    @Override public long getTiempoCrecimientos() {
+        return estadisticas().getTiempoCrecimientos();
+    }
+
+    @Override public double getSondeosExitosos() {
+        return estadisticas().getSondeosExitosos();
+    }
+
+    @Override public double getSondeosFallidos() {
+        return estadisticas().getSondeosFallidos();
+    }
+
+    @Override public double getRazonLapidas() {
+        return estadisticas().getRazonLapidas();
+    }
+}
@@ -0,0 +1,63 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Interfaz para publicar por JMX la salud de un {@link Diccionario}. Cada
+ * atributo sale de {@link Diccionario#estadisticas}.
+ */
+public interface MonitorDiccionarioMBean {
+
+    /**
+     * Regresa el número de entradas del diccionario.
+     * @return el número de entradas del diccionario.
+     */
+    public int getElementos();
+
+    /**
+     * Regresa el número de índices (o casillas) del diccionario.
+     * @return el número de índices del diccionario.
+     */
+    public int getCapacidad();
+
+    /**
+     * Regresa la carga del diccionario.
+     * @return la carga del diccionario.
+     */
+    public double getCarga();
+
+    /**
+     * Regresa el histograma de longitudes de listas (o de distancias de
+     * sondeo).
+     * @return el histograma.
+     */
+    public int[] getHistograma();
+
+    /**
+     * Regresa el número de veces que el diccionario ha crecido.
+     * @return el número de veces que el diccionario ha crecido.
+     */
+    public int getCrecimientos();
+
+    /**
+     * Regresa el tiempo total, en nanosegundos, dedicado a crecer.
+     * @return el tiempo total dedicado a crecer.
+     */
+    public long getTiempoCrecimientos();
+
+    /**
+     * Regresa el promedio de sondeos por búsqueda exitosa.
+     * @return el promedio de sondeos por búsqueda exitosa.
+     */
+    public double getSondeosExitosos();
+
+    /**
+     * Regresa el promedio de sondeos por búsqueda fallida.
+     * @return el promedio de sondeos por búsqueda fallida.
+     */
+    public double getSondeosFallidos();
+
+    /**
+     * Regresa la razón de lápidas entre la capacidad.
+     * @return la razón de lápidas.
+     */
+    public double getRazonLapidas();
+}
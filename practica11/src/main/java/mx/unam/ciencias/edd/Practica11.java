@@ -77,6 +77,18 @@ public class Practica11 {
                           "con %s elementos.\n",
                           (tiempoTotal/1000000000.0), nf.format(N));
 
+        int[] enteros = new int[N];
+        for (int i = 0; i < N; i++)
+            enteros[i] = arreglo[i];
+        DiccionarioEnteros diccionarioEnteros = new DiccionarioEnteros(N);
+        tiempoInicial = System.nanoTime();
+        for (int i = 0; i < N; i++)
+            diccionarioEnteros.agrega(enteros[i], enteros[i]);
+        tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en llenar un diccionario " +
+                          "de enteros con %s elementos.\n",
+                          (tiempoTotal/1000000000.0), nf.format(N));
+
         Conjunto<Integer> conjunto = new Conjunto<Integer>(N);
         tiempoInicial = System.nanoTime();
         for (int i = 0; i < N; i++)
@@ -113,6 +125,13 @@ public class Practica11 {
                           "diccionario con %s elementos.\n",
                           (tiempoTotal/1000000000.0), nf.format(N));
 
+        tiempoInicial = System.nanoTime();
+        diccionarioEnteros.contiene(b);
+        tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en buscar en un " +
+                          "diccionario de enteros con %s elementos.\n",
+                          (tiempoTotal/1000000000.0), nf.format(N));
+
         tiempoInicial = System.nanoTime();
         conjunto.contiene(b);
         tiempoTotal = System.nanoTime() - tiempoInicial;
@@ -94,6 +94,12 @@ public class TestConjunto {
             conjunto.elimina(a[i]);
             Assert.assertFalse(conjunto.contiene(a[i]));
         }
+        conjunto.agrega(ini);
+        for (int i = 1; i < total; i++) {
+            conjunto.elimina(ini + i);
+            conjunto.elimina(-1 - i);
+            Assert.assertTrue(conjunto.getElementos() == 1);
+        }
         try {
             conjunto.elimina(null);
         } catch (IllegalArgumentException iae) {
@@ -258,4 +264,181 @@ public class TestConjunto {
             c++;
         Assert.assertTrue(c == 0);
     }
+
+    /* Regresa un conjunto con n enteros aleatorios entre 0 y 2 * total. */
+    private Conjunto<Integer> aleatorio(int n) {
+        Conjunto<Integer> c = new Conjunto<Integer>();
+        for (int i = 0; i < n; i++)
+            c.agrega(random.nextInt(2 * total));
+        return c;
+    }
+
+    /* Revisa que el conjunto r tenga exactamente los elementos que sólo
+       están en a (si soloA), los que sólo están en b (si soloB) y los que
+       están en los dos (si ambos). */
+    private void revisa(Conjunto<Integer> r, Conjunto<Integer> a,
+                        Conjunto<Integer> b, boolean soloA, boolean soloB,
+                        boolean ambos) {
+        int n = 0;
+        for (int i = 0; i < 2 * total; i++) {
+            boolean x = a.contiene(i), y = b.contiene(i);
+            boolean debe = (x && !y && soloA) || (!x && y && soloB) ||
+                (x && y && ambos);
+            Assert.assertTrue(r.contiene(i) == debe);
+            n += debe ? 1 : 0;
+        }
+        Assert.assertTrue(r.getElementos() == n);
+    }
+
+    /**
+     * Prueba unitaria para {@link Conjunto#interseccion} y {@link
+     * Conjunto#union} con conjuntos de tamaños muy distintos.
+     */
+    @Test public void testInterseccionUnionAsimetricas() {
+        Conjunto<Integer> a = aleatorio(total / 10);
+        Conjunto<Integer> b = aleatorio(total * 2);
+        revisa(a.interseccion(b), a, b, false, false, true);
+        revisa(b.interseccion(a), a, b, false, false, true);
+        revisa(a.union(b), a, b, true, true, true);
+        revisa(b.union(a), a, b, true, true, true);
+    }
+
+    /**
+     * Prueba unitaria para {@link Conjunto#diferencia} y {@link
+     * Conjunto#diferenciaSimetrica}.
+     */
+    @Test public void testDiferencia() {
+        Conjunto<Integer> a = aleatorio(total);
+        Conjunto<Integer> b = aleatorio(total);
+        revisa(a.diferencia(b), a, b, true, false, false);
+        revisa(b.diferencia(a), a, b, false, true, false);
+        revisa(a.diferenciaSimetrica(b), a, b, true, true, false);
+        revisa(b.diferenciaSimetrica(a), a, b, true, true, false);
+        Assert.assertTrue(a.diferencia(a).esVacia());
+        Assert.assertTrue(a.diferenciaSimetrica(a).esVacia());
+    }
+
+    /**
+     * Prueba unitaria para {@link Conjunto#agregaTodos}.
+     */
+    @Test public void testAgregaTodos() {
+        Conjunto<Integer> a = aleatorio(total);
+        Conjunto<Integer> b = aleatorio(total * 2);
+        Conjunto<Integer> union = a.union(b);
+        a.agregaTodos(b);
+        Assert.assertTrue(a.equals(union));
+        a.agregaTodos(a);
+        Assert.assertTrue(a.equals(union));
+    }
+
+    /**
+     * Prueba unitaria para {@link Conjunto#eliminaTodos}, con el conjunto
+     * recibido más pequeño y más grande.
+     */
+    @Test public void testEliminaTodos() {
+        for (int n : new int[] { total / 4, total * 4 }) {
+            Conjunto<Integer> a = aleatorio(total);
+            Conjunto<Integer> b = aleatorio(n);
+            Conjunto<Integer> diferencia = a.diferencia(b);
+            a.eliminaTodos(b);
+            Assert.assertTrue(a.equals(diferencia));
+            a.eliminaTodos(a);
+            Assert.assertTrue(a.esVacia());
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Conjunto#retiene}, con el conjunto recibido
+     * más pequeño y más grande.
+     */
+    @Test public void testRetiene() {
+        for (int n : new int[] { total / 4, total * 4 }) {
+            Conjunto<Integer> a = aleatorio(total);
+            Conjunto<Integer> b = aleatorio(n);
+            Conjunto<Integer> interseccion = a.interseccion(b);
+            a.retiene(b);
+            Assert.assertTrue(a.equals(interseccion));
+            a.agrega(-1);
+            Assert.assertTrue(a.contiene(-1));
+            a.retiene(a);
+            Assert.assertTrue(a.contiene(-1));
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Conjunto#esSubconjunto}.
+     */
+    @Test public void testEsSubconjunto() {
+        Conjunto<Integer> a = aleatorio(total);
+        Conjunto<Integer> b = aleatorio(total);
+        Conjunto<Integer> union = a.union(b);
+        Assert.assertTrue(a.esSubconjunto(union));
+        Assert.assertTrue(b.esSubconjunto(union));
+        Assert.assertTrue(a.esSubconjunto(a));
+        Assert.assertTrue(new Conjunto<Integer>().esSubconjunto(a));
+        union.agrega(-1);
+        Assert.assertFalse(union.esSubconjunto(a));
+        Assert.assertTrue(a.interseccion(b).esSubconjunto(b));
+    }
+
+    /**
+     * Prueba unitaria para {@link Conjunto#sonDisjuntos}.
+     */
+    @Test public void testSonDisjuntos() {
+        Conjunto<Integer> a = aleatorio(total);
+        Conjunto<Integer> b = aleatorio(total * 4);
+        Conjunto<Integer> d = b.diferencia(a);
+        Assert.assertTrue(a.sonDisjuntos(d));
+        Assert.assertTrue(d.sonDisjuntos(a));
+        Assert.assertTrue(a.sonDisjuntos(new Conjunto<Integer>()));
+        Assert.assertFalse(a.sonDisjuntos(a));
+        Assert.assertTrue(a.sonDisjuntos(b) ==
+                          a.interseccion(b).esVacia());
+    }
+
+    /**
+     * Prueba unitaria para {@link Conjunto#setFiltroBloom}.
+     */
+    @Test public void testFiltroBloom() {
+        conjunto.setFiltroBloom(0.01);
+        for (int i = 0; i < total; i++)
+            conjunto.agrega(i);
+        for (int i = 0; i < total; i += 2)
+            conjunto.elimina(i);
+        for (int i = -total; i < 2 * total; i++)
+            Assert.assertTrue(conjunto.contiene(i) ==
+                              (i >= 0 && i < total && i % 2 == 1));
+        conjunto.setFiltroBloom(0.0);
+        Assert.assertTrue(conjunto.contiene(1));
+        try {
+            conjunto.setFiltroBloom(2.0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba que {@link Conjunto#retiene} conserve el filtro de Bloom, con el
+     * conjunto recibido más pequeño y más grande.
+     */
+    @Test public void testRetieneFiltroBloom() {
+        for (int n : new int[] { total / 4, total * 4 }) {
+            Conjunto<Integer> a = aleatorio(total);
+            a.setFiltroBloom(0.01);
+            Conjunto<Integer> b = aleatorio(n);
+            Conjunto<Integer> interseccion = a.interseccion(b);
+            a.retiene(b);
+            Assert.assertTrue(a.getFiltroBloom() != null);
+            Assert.assertTrue(a.getFiltroBloom().getTasa() == 0.01);
+            Assert.assertTrue(a.equals(interseccion));
+            for (int i = -total; i < 0; i++)
+                Assert.assertFalse(a.contiene(i));
+            for (Integer e : interseccion)
+                Assert.assertTrue(a.contiene(e));
+            a.agrega(-1);
+            Assert.assertTrue(a.contiene(-1));
+        }
+        Conjunto<Integer> a = aleatorio(total);
+        a.retiene(aleatorio(total / 4));
+        Assert.assertTrue(a.getFiltroBloom() == null);
+    }
 }
@@ -0,0 +1,176 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import mx.unam.ciencias.edd.Conjunto;
+import mx.unam.ciencias.edd.ConjuntoBits;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link ConjuntoBits}.
+ */
+public class TestConjuntoBits {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+
+    /**
+     * Crea un generador de números aleatorios y un número total de elementos
+     * para cada prueba.
+     */
+    public TestConjuntoBits() {
+        random = new Random();
+        total = 1000 + random.nextInt(1000);
+    }
+
+    /* Llena el conjunto de bits y el conjunto con n enteros aleatorios menores
+       que el límite. */
+    private void llena(ConjuntoBits b, Conjunto<Integer> c, int n,
+                       int limite) {
+        for (int i = 0; i < n; i++) {
+            int k = random.nextInt(limite);
+            b.agrega(k);
+            c.agrega(k);
+        }
+    }
+
+    /* Revisa que el conjunto de bits tenga lo mismo que el conjunto, y que
+       lo itere en orden. */
+    private void revisa(ConjuntoBits b, Conjunto<Integer> c) {
+        Assert.assertTrue(b.getElementos() == c.getElementos());
+        int anterior = -1, n = 0;
+        PrimitiveIterator.OfInt it = b.iteradorEnteros();
+        while (it.hasNext()) {
+            int k = it.nextInt();
+            Assert.assertTrue(k > anterior);
+            Assert.assertTrue(c.contiene(k));
+            anterior = k;
+            n++;
+        }
+        Assert.assertTrue(n == c.getElementos());
+        for (Integer k : c)
+            Assert.assertTrue(b.contiene(k));
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoBits#agrega}.
+     */
+    @Test public void testAgrega() {
+        ConjuntoBits b = new ConjuntoBits();
+        Conjunto<Integer> c = new Conjunto<Integer>();
+        Assert.assertTrue(b.esVacia());
+        llena(b, c, total, total * 2);
+        revisa(b, c);
+        b.agrega(Integer.valueOf(total * 100));
+        Assert.assertTrue(b.contiene(total * 100));
+        Assert.assertFalse(b.contiene(total * 100 + 1));
+        Assert.assertFalse(b.contiene(-1));
+        try {
+            b.agrega(-1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            b.agrega((Integer)null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoBits#agregaRango}.
+     */
+    @Test public void testAgregaRango() {
+        for (int r = 0; r < 100; r++) {
+            ConjuntoBits b = new ConjuntoBits();
+            Conjunto<Integer> c = new Conjunto<Integer>();
+            llena(b, c, 20, 300);
+            int desde = random.nextInt(300);
+            int hasta = desde + random.nextInt(300);
+            b.agregaRango(desde, hasta);
+            for (int k = desde; k < hasta; k++)
+                c.agrega(k);
+            revisa(b, c);
+        }
+        try {
+            new ConjuntoBits().agregaRango(5, 4);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoBits#elimina}.
+     */
+    @Test public void testElimina() {
+        ConjuntoBits b = new ConjuntoBits(total);
+        Conjunto<Integer> c = new Conjunto<Integer>();
+        llena(b, c, total, total);
+        for (int i = 0; i < total; i++) {
+            int k = random.nextInt(total * 2) - total / 2;
+            b.elimina(k);
+            if (c.contiene(k))
+                c.elimina(k);
+            Assert.assertFalse(b.contiene(k));
+        }
+        revisa(b, c);
+        b.limpia();
+        Assert.assertTrue(b.esVacia());
+        Assert.assertFalse(b.iterator().hasNext());
+        try {
+            b.iteradorEnteros().nextInt();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoBits#union}, {@link
+     * ConjuntoBits#interseccion} y {@link ConjuntoBits#diferencia}, con
+     * conjuntos de límites distintos.
+     */
+    @Test public void testOperaciones() {
+        ConjuntoBits a = new ConjuntoBits();
+        ConjuntoBits b = new ConjuntoBits();
+        Conjunto<Integer> ca = new Conjunto<Integer>();
+        Conjunto<Integer> cb = new Conjunto<Integer>();
+        llena(a, ca, total, total);
+        llena(b, cb, total, total * 3);
+        revisa(a.union(b), ca.union(cb));
+        revisa(b.union(a), ca.union(cb));
+        revisa(a.interseccion(b), ca.interseccion(cb));
+        revisa(b.interseccion(a), ca.interseccion(cb));
+        revisa(a.diferencia(b), ca.diferencia(cb));
+        revisa(b.diferencia(a), cb.diferencia(ca));
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoBits#equals} y {@link
+     * ConjuntoBits#toString}.
+     */
+    @Test public void testEquals() {
+        ConjuntoBits a = new ConjuntoBits();
+        ConjuntoBits b = new ConjuntoBits(total * 10);
+        Assert.assertTrue(a.equals(b));
+        Assert.assertTrue(a.toString().equals("{}"));
+        for (int i = 0; i < total; i++) {
+            a.agrega(i * 3);
+            b.agrega((total - i - 1) * 3);
+        }
+        Assert.assertTrue(a.equals(b));
+        Assert.assertTrue(b.equals(a));
+        b.agrega(1);
+        Assert.assertFalse(a.equals(b));
+        Assert.assertFalse(a.equals(null));
+        ConjuntoBits c = new ConjuntoBits();
+        c.agrega(1);
+        c.agrega(64);
+        c.agrega(3);
+        Assert.assertTrue(c.toString().equals("{ 1, 3, 64 }"));
+    }
+}
@@ -0,0 +1,335 @@
+package mx.unam.ciencias.edd.test;
+
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import mx.unam.ciencias.edd.Conjunto;
+import mx.unam.ciencias.edd.ConjuntoRoaring;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link ConjuntoRoaring}.
+ */
+public class TestConjuntoRoaring {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+
+    /**
+     * Crea un generador de números aleatorios y un número total de elementos
+     * para cada prueba.
+     */
+    public TestConjuntoRoaring() {
+        random = new Random();
+        total = 1000 + random.nextInt(1000);
+    }
+
+    /* Llena el conjunto Roaring y el conjunto con enteros dispersos en todo
+       el rango, enteros densos en unos cuantos pedazos y algunos rangos, para
+       que haya contenedores de los tres tipos. */
+    private void llena(ConjuntoRoaring r, Conjunto<Integer> c) {
+        for (int i = 0; i < total; i++) {
+            int k = random.nextInt();
+            r.agrega(k);
+            c.agrega(k);
+        }
+        int base = random.nextInt(4) << 16;
+        for (int i = 0; i < 10 * total; i++) {
+            int k = base + random.nextInt(1 << 17);
+            r.agrega(k);
+            c.agrega(k);
+        }
+        for (int i = 0; i < 5; i++) {
+            int desde = random.nextInt(1 << 20);
+            int hasta = desde + random.nextInt(1 << 12);
+            r.agregaRango(desde, hasta);
+            for (int k = desde; k < hasta; k++)
+                c.agrega(k);
+        }
+    }
+
+    /* Revisa que el conjunto Roaring tenga lo mismo que el conjunto, y que
+       lo itere en orden sin signo. */
+    private void revisa(ConjuntoRoaring r, Conjunto<Integer> c) {
+        Assert.assertTrue(r.getElementos() == c.getElementos());
+        Assert.assertTrue(r.getCardinalidad() == c.getElementos());
+        long anterior = -1;
+        int n = 0;
+        PrimitiveIterator.OfInt it = r.iteradorEnteros();
+        while (it.hasNext()) {
+            int k = it.nextInt();
+            Assert.assertTrue(Integer.toUnsignedLong(k) > anterior);
+            Assert.assertTrue(c.contiene(k));
+            anterior = Integer.toUnsignedLong(k);
+            n++;
+        }
+        Assert.assertTrue(n == c.getElementos());
+        for (Integer k : c)
+            Assert.assertTrue(r.contiene(k));
+        try {
+            it.nextInt();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoRoaring#agrega(int)} y {@link
+     * ConjuntoRoaring#contiene(int)}.
+     */
+    @Test public void testAgrega() {
+        ConjuntoRoaring r = new ConjuntoRoaring();
+        Conjunto<Integer> c = new Conjunto<Integer>();
+        Assert.assertTrue(r.esVacia());
+        Assert.assertTrue(r.toString().equals("{}"));
+        llena(r, c);
+        revisa(r, c);
+        Assert.assertFalse(r.contiene((Integer)null));
+        try {
+            r.agrega((Integer)null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        r = new ConjuntoRoaring();
+        r.agrega(-1);
+        r.agrega(3);
+        r.agrega(1 << 16);
+        Assert.assertTrue(r.toString().equals("{ 3, 65536, 4294967295 }"));
+        r.limpia();
+        Assert.assertTrue(r.esVacia());
+        Assert.assertFalse(r.contiene(3));
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoRoaring#agregaRango}.
+     */
+    @Test public void testAgregaRango() {
+        ConjuntoRoaring r = new ConjuntoRoaring();
+        r.agregaRango(-10, -1);
+        r.agrega(-1);
+        r.agregaRango(70000, 70000);
+        Assert.assertTrue(r.getElementos() == 10);
+        Assert.assertTrue(r.contiene(-10) && r.contiene(-1));
+        Assert.assertFalse(r.contiene(0) || r.contiene(-11));
+        r.agregaRango(65530, 200000);
+        Assert.assertTrue(r.getElementos() == 10 + 200000 - 65530);
+        r.agregaRango(0, 10);
+        r.agregaRango(5, 65535);
+        Assert.assertTrue(r.getElementos() == 10 + 200000);
+        r.elimina(100000);
+        Assert.assertFalse(r.contiene(100000));
+        Assert.assertTrue(r.contiene(99999) && r.contiene(100001));
+        Assert.assertTrue(r.getElementos() == 9 + 200000);
+        r = new ConjuntoRoaring();
+        r.agregaRango(0, -1);
+        Assert.assertTrue(r.getCardinalidad() == 0xffffffffL);
+        Assert.assertTrue(r.getElementos() == Integer.MAX_VALUE);
+        try {
+            r.agregaRango(-1, 0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoRoaring#elimina(int)}.
+     */
+    @Test public void testElimina() {
+        ConjuntoRoaring r = new ConjuntoRoaring();
+        Conjunto<Integer> c = new Conjunto<Integer>();
+        llena(r, c);
+        int[] a = new int[c.getElementos()];
+        int n = 0;
+        for (Integer k : c)
+            a[n++] = k;
+        for (int i = 0; i < n; i += 2) {
+            r.elimina(a[i]);
+            c.elimina(a[i]);
+            r.elimina(a[i]);
+        }
+        revisa(r, c);
+        r.optimiza();
+        revisa(r, c);
+        for (int i = 1; i < n; i += 2)
+            r.elimina(a[i]);
+        Assert.assertTrue(r.esVacia());
+        Assert.assertFalse(r.iteradorEnteros().hasNext());
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoRoaring#optimiza}.
+     */
+    @Test public void testOptimiza() {
+        ConjuntoRoaring r = new ConjuntoRoaring();
+        Conjunto<Integer> c = new Conjunto<Integer>();
+        llena(r, c);
+        int antes = r.tamanoSerializado();
+        r.optimiza();
+        Assert.assertTrue(r.tamanoSerializado() <= antes);
+        revisa(r, c);
+        for (int i = 0; i < total; i++) {
+            int k = random.nextInt(1 << 20);
+            r.agrega(k);
+            c.agrega(k);
+            k = random.nextInt(1 << 20);
+            r.elimina(k);
+            if (c.contiene(k))
+                c.elimina(k);
+        }
+        revisa(r, c);
+        r = new ConjuntoRoaring();
+        for (int i = 0; i < 1 << 16; i += 2)
+            r.agrega(i);
+        r.optimiza();
+        for (int i = 1; i < 1 << 16; i += 2)
+            r.agrega(i);
+        Assert.assertTrue(r.getElementos() == 1 << 16);
+        antes = r.tamanoSerializado();
+        r.optimiza();
+        Assert.assertTrue(r.tamanoSerializado() < antes);
+        Assert.assertTrue(r.getElementos() == 1 << 16);
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoRoaring#interseccion}, {@link
+     * ConjuntoRoaring#union} y {@link ConjuntoRoaring#diferencia}.
+     */
+    @Test public void testOperaciones() {
+        ConjuntoRoaring a = new ConjuntoRoaring();
+        ConjuntoRoaring b = new ConjuntoRoaring();
+        Conjunto<Integer> ca = new Conjunto<Integer>();
+        Conjunto<Integer> cb = new Conjunto<Integer>();
+        llena(a, ca);
+        llena(b, cb);
+        if (random.nextBoolean())
+            a.optimiza();
+        if (random.nextBoolean())
+            b.optimiza();
+        revisa(a.interseccion(b), ca.interseccion(cb));
+        revisa(a.union(b), ca.union(cb));
+        revisa(a.diferencia(b), ca.diferencia(cb));
+        revisa(b.diferencia(a), cb.diferencia(ca));
+        revisa(a, ca);
+        revisa(b, cb);
+        Assert.assertTrue(a.interseccion(a).equals(a));
+        Assert.assertTrue(a.union(a).equals(a));
+        Assert.assertTrue(a.diferencia(a).esVacia());
+        Assert.assertTrue(a.union(b).equals(b.union(a)));
+        Assert.assertTrue(a.union(new ConjuntoRoaring()).equals(a));
+    }
+
+    /* Serializa el conjunto, lo deserializa y revisa que sea igual. */
+    private void idaYVuelta(ConjuntoRoaring r) {
+        ByteBuffer b = ByteBuffer.allocate(r.tamanoSerializado());
+        r.serializa(b);
+        b.flip();
+        Assert.assertTrue(ConjuntoRoaring.deserializa(b).equals(r));
+        Assert.assertFalse(b.hasRemaining());
+    }
+
+    /**
+     * Prueba unitaria para serializar los resultados de {@link
+     * ConjuntoRoaring#interseccion}, {@link ConjuntoRoaring#union} y {@link
+     * ConjuntoRoaring#diferencia}, incluyendo la intersección de corridas
+     * que se enciman en un solo punto, que da más corridas de las que caben
+     * en un contenedor de corridas.
+     */
+    @Test public void testSerializaOperaciones() {
+        ConjuntoRoaring a = new ConjuntoRoaring();
+        ConjuntoRoaring b = new ConjuntoRoaring();
+        for (int k = 0; k < 2047; k++) {
+            a.agregaRango(4 * k, 4 * k + 3);
+            b.agregaRango(4 * k + 2, 4 * k + 5);
+        }
+        a.optimiza();
+        b.optimiza();
+        ConjuntoRoaring c = a.interseccion(b);
+        Assert.assertTrue(c.getElementos() == 4093);
+        Assert.assertTrue(c.tamanoSerializado() <= 8 + 12 + 8192);
+        idaYVuelta(c);
+        idaYVuelta(a.union(b));
+        idaYVuelta(a.diferencia(b));
+        a = new ConjuntoRoaring();
+        b = new ConjuntoRoaring();
+        llena(a, new Conjunto<Integer>());
+        llena(b, new Conjunto<Integer>());
+        a.optimiza();
+        b.optimiza();
+        idaYVuelta(a.interseccion(b));
+        idaYVuelta(a.union(b));
+        idaYVuelta(a.diferencia(b));
+        idaYVuelta(b.diferencia(a));
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoRoaring#serializa}, {@link
+     * ConjuntoRoaring#deserializa} y {@link
+     * ConjuntoRoaring#contieneSerializado}.
+     */
+    @Test public void testSerializa() {
+        ConjuntoRoaring r = new ConjuntoRoaring();
+        Conjunto<Integer> c = new Conjunto<Integer>();
+        llena(r, c);
+        r.optimiza();
+        int t = r.tamanoSerializado();
+        ByteBuffer b = ByteBuffer.allocate(t + 3);
+        b.position(3);
+        r.serializa(b);
+        Assert.assertTrue(b.position() == t + 3);
+        b.position(3);
+        for (Integer k : c)
+            Assert.assertTrue(ConjuntoRoaring.contieneSerializado(b, k));
+        for (int i = 0; i < total; i++) {
+            int k = random.nextInt();
+            Assert.assertTrue(ConjuntoRoaring.contieneSerializado(b, k) ==
+                              c.contiene(k));
+        }
+        Assert.assertTrue(b.position() == 3);
+        ConjuntoRoaring s = ConjuntoRoaring.deserializa(b);
+        Assert.assertTrue(b.position() == t + 3);
+        Assert.assertTrue(s.equals(r));
+        revisa(s, c);
+        b = ByteBuffer.allocate(t - 1);
+        try {
+            r.serializa(b);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        b = ByteBuffer.allocate(t);
+        try {
+            ConjuntoRoaring.deserializa(b);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        r.serializa(b);
+        b.flip();
+        b.limit(t - 1);
+        try {
+            ConjuntoRoaring.deserializa(b);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoRoaring#equals}.
+     */
+    @Test public void testEquals() {
+        ConjuntoRoaring a = new ConjuntoRoaring();
+        ConjuntoRoaring b = new ConjuntoRoaring();
+        Assert.assertTrue(a.equals(b));
+        Assert.assertFalse(a.equals(null));
+        Assert.assertFalse(a.equals(""));
+        a.agregaRango(0, 5000);
+        for (int i = 4999; i >= 0; i--)
+            b.agrega(i);
+        Assert.assertTrue(a.equals(b));
+        b.elimina(2500);
+        Assert.assertFalse(a.equals(b));
+        b.agrega(5000);
+        Assert.assertFalse(a.equals(b));
+    }
+}
@@ -1,14 +1,19 @@
 package mx.unam.ciencias.edd.test;
 
+import java.util.AbstractMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Random;
 import mx.unam.ciencias.edd.AlgoritmoDispersor;
 import mx.unam.ciencias.edd.Arreglos;
 import mx.unam.ciencias.edd.Diccionario;
 import mx.unam.ciencias.edd.Dispersor;
+import mx.unam.ciencias.edd.DispersorSembrado;
+import mx.unam.ciencias.edd.EstadisticasDiccionario;
 import mx.unam.ciencias.edd.FabricaDispersores;
 import mx.unam.ciencias.edd.Lista;
+import mx.unam.ciencias.edd.ModoDiccionario;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -29,6 +34,59 @@ public class TestDiccionario {
     /* El diccionario. */
     private Diccionario<String, String> diccionario;
 
+    /* Comparaciones de llaves Contada hechas con equals. */
+    private int comparaciones;
+
+    /* Clase para llaves que cuentan sus comparaciones. */
+    private class Contada {
+
+        /* Identificador de la llave. */
+        private int id;
+
+        /* Constructor. */
+        public Contada(int id) {
+            this.id = id;
+        }
+
+        /* Dos llaves son iguales si tienen el mismo identificador. */
+        @Override public boolean equals(Object o) {
+            comparaciones++;
+            return o instanceof Contada && ((Contada)o).id == id;
+        }
+
+        /* Todas las llaves tienen la misma dispersión. */
+        @Override public int hashCode() {
+            return 0;
+        }
+    }
+
+    /* Clase para llaves que se comparan iguales sin ser iguales. */
+    private class Ficha implements Comparable<Ficha> {
+
+        /* Identificador de la ficha. */
+        private int id;
+
+        /* Constructor. */
+        public Ficha(int id) {
+            this.id = id;
+        }
+
+        /* Dos fichas son iguales si tienen el mismo identificador. */
+        @Override public boolean equals(Object o) {
+            return o instanceof Ficha && ((Ficha)o).id == id;
+        }
+
+        /* Todas las fichas tienen la misma dispersión. */
+        @Override public int hashCode() {
+            return 0;
+        }
+
+        /* Todas las fichas se comparan iguales. */
+        @Override public int compareTo(Ficha ficha) {
+            return 0;
+        }
+    }
+
     /**
      * Crea un diccionario para cada prueba.
      */
@@ -421,4 +479,819 @@ public class TestDiccionario {
             c++;
         Assert.assertTrue(c == 0);
     }
+
+    /* Calcula las colisiones que deben tener las llaves en un diccionario
+     * con n índices. */
+    private int colisiones(Dispersor<String> hd, Lista<String> llaves,
+                           int n, boolean maxima) {
+        int[] cuentas = new int[n];
+        int c = 0, m = 0;
+        for (String s : llaves) {
+            int i = hd.dispersa(s) & (n - 1);
+            if (cuentas[i]++ > 0)
+                c++;
+            m = Math.max(m, cuentas[i] - 1);
+        }
+        return maxima ? m : c;
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#Diccionario(int,Dispersor,
+     * ModoDiccionario)} con {@link ModoDiccionario#ROBIN_HOOD}.
+     */
+    @Test public void testRobinHood() {
+        Dispersor<String> hd =
+            FabricaDispersores.dispersorCadena(AlgoritmoDispersor.XOR_STRING);
+        Diccionario<String, String> rh =
+            new Diccionario<String, String>(total, hd,
+                                            ModoDiccionario.ROBIN_HOOD);
+        Diccionario<String, String> le =
+            new Diccionario<String, String>(total, hd);
+        Lista<String> llaves = new Lista<String>();
+        int ini = random.nextInt(10000);
+        String[] a = new String[total * 4];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = String.format("%x", ini + i * 1000);
+            Assert.assertFalse(rh.contiene(a[i]));
+            rh.agrega(a[i], a[i]);
+            le.agrega(a[i], a[i]);
+            llaves.agrega(a[i]);
+            Assert.assertTrue(rh.getElementos() == i+1);
+            Assert.assertTrue(rh.get(a[i]).equals(a[i]));
+            Assert.assertTrue(rh.carga() == le.carga());
+            Assert.assertTrue(rh.carga() < Diccionario.MAXIMA_CARGA);
+        }
+        int n = (int)Math.round(rh.getElementos() / rh.carga());
+        Assert.assertTrue(rh.colisiones() ==
+                          colisiones(hd, llaves, n, false));
+        Assert.assertTrue(rh.colisionMaxima() ==
+                          colisiones(hd, llaves, n, true));
+        Assert.assertTrue(rh.equals(le) && le.equals(rh));
+        rh.agrega(a[0], "x");
+        Assert.assertTrue(rh.getElementos() == a.length);
+        Assert.assertTrue(rh.get(a[0]).equals("x"));
+        int c = 0;
+        for (String s : rh)
+            c++;
+        Assert.assertTrue(c == a.length);
+        for (int i = 0; i < a.length; i += 2) {
+            rh.elimina(a[i]);
+            le.elimina(a[i]);
+            llaves.elimina(a[i]);
+            Assert.assertFalse(rh.contiene(a[i]));
+        }
+        for (int i = 1; i < a.length; i += 2)
+            Assert.assertTrue(rh.get(a[i]).equals(a[i]));
+        Assert.assertTrue(rh.getElementos() == a.length / 2);
+        n = (int)Math.round(rh.getElementos() / rh.carga());
+        Assert.assertTrue(rh.colisiones() ==
+                          colisiones(hd, llaves, n, false));
+        Assert.assertTrue(rh.colisionMaxima() ==
+                          colisiones(hd, llaves, n, true));
+        try {
+            rh.elimina(a[0]);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        rh.limpia();
+        Assert.assertTrue(rh.esVacia());
+        Assert.assertFalse(rh.iterator().hasNext());
+        Assert.assertTrue(rh.colisiones() == 0);
+    }
+
+    /**
+     * Prueba unitaria para el crecimiento incremental de {@link Diccionario}:
+     * justo después de crecer, el diccionario se debe poder consultar,
+     * recorrer y modificar sin perder ni repetir entradas.
+     */
+    @Test public void testCrecimientoIncremental() {
+        int ini = random.nextInt(10000);
+        Lista<String> lista = new Lista<String>();
+        double l = 0.0;
+        int i = 0;
+        while (diccionario.carga() >= l) {
+            l = diccionario.carga();
+            String s = String.format("%x", ini + i++ * 1000);
+            diccionario.agrega(s, s);
+            lista.agregaFinal(s);
+        }
+        int c = 0;
+        Iterator<String> iteradorLlaves = diccionario.iteradorLlaves();
+        while (iteradorLlaves.hasNext()) {
+            String s = iteradorLlaves.next();
+            Assert.assertTrue(diccionario.get(s).equals(s));
+            Assert.assertTrue(lista.contiene(s));
+            lista.elimina(s);
+            c++;
+        }
+        Assert.assertTrue(c == i);
+        Assert.assertTrue(lista.esVacia());
+        String s = String.format("%x", ini);
+        diccionario.elimina(s);
+        Assert.assertFalse(diccionario.contiene(s));
+        Assert.assertTrue(diccionario.getElementos() == i - 1);
+        for (int j = 1; j < i; j++) {
+            s = String.format("%x", ini + j * 1000);
+            Assert.assertTrue(diccionario.get(s).equals(s));
+        }
+        try {
+            diccionario.elimina(String.format("%x", ini));
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#getOrDefault}.
+     */
+    @Test public void testGetOrDefault() {
+        for (ModoDiccionario modo : ModoDiccionario.values()) {
+            Diccionario<String, String> d =
+                new Diccionario<String, String>(total, s -> s.hashCode(),
+                                                modo);
+            int ini = random.nextInt(10000);
+            for (int i = 0; i < total; i++) {
+                String s = String.format("%x", ini + i * 1000);
+                Assert.assertTrue(d.getOrDefault(s, "x").equals("x"));
+                d.agrega(s, s);
+                Assert.assertTrue(d.getOrDefault(s, "x").equals(s));
+            }
+            try {
+                d.getOrDefault(null, "x");
+                Assert.fail();
+            } catch (IllegalArgumentException iae) {}
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#agregaSiAusente}.
+     */
+    @Test public void testAgregaSiAusente() {
+        for (ModoDiccionario modo : ModoDiccionario.values()) {
+            Diccionario<String, String> d =
+                new Diccionario<String, String>(total, s -> s.hashCode(),
+                                                modo);
+            int ini = random.nextInt(10000);
+            for (int i = 0; i < total * 4; i++) {
+                String s = String.format("%x", ini + i * 1000);
+                Assert.assertTrue(d.agregaSiAusente(s, s) == null);
+                Assert.assertTrue(d.agregaSiAusente(s, "x").equals(s));
+                Assert.assertTrue(d.get(s).equals(s));
+                Assert.assertTrue(d.getElementos() == i+1);
+                Assert.assertTrue(d.carga() < Diccionario.MAXIMA_CARGA);
+            }
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#computa}.
+     */
+    @Test public void testComputa() {
+        for (ModoDiccionario modo : ModoDiccionario.values()) {
+            Diccionario<Integer, Integer> d =
+                new Diccionario<Integer, Integer>(total, n -> n, modo);
+            int[] cuentas = new int[total];
+            for (int i = 0; i < total * 8; i++) {
+                int n = random.nextInt(total);
+                cuentas[n]++;
+                d.computa(n, (k, v) -> v == null ? 1 : v + 1);
+            }
+            for (int i = 0; i < total; i++)
+                Assert.assertTrue(d.getOrDefault(i, 0) == cuentas[i]);
+            for (int i = 0; i < total; i++)
+                Assert.assertTrue(d.computa(i, (k, v) -> null) == null);
+            Assert.assertTrue(d.esVacia());
+            Assert.assertTrue(d.computa(0, (k, v) -> null) == null);
+            Assert.assertTrue(d.esVacia());
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#combina}.
+     */
+    @Test public void testCombina() {
+        for (ModoDiccionario modo : ModoDiccionario.values()) {
+            Diccionario<Integer, Integer> d =
+                new Diccionario<Integer, Integer>(total, n -> n, modo);
+            int[] sumas = new int[total];
+            for (int i = 0; i < total * 8; i++) {
+                int n = random.nextInt(total);
+                sumas[n] += i + 1;
+                d.combina(n, i + 1, (a, b) -> a + b);
+            }
+            int c = 0;
+            for (int i = 0; i < total; i++) {
+                Assert.assertTrue(d.getOrDefault(i, 0) == sumas[i]);
+                if (sumas[i] != 0)
+                    c++;
+            }
+            Assert.assertTrue(d.getElementos() == c);
+            for (int i = 0; i < total; i++)
+                if (sumas[i] != 0)
+                    d.combina(i, 1, (a, b) -> null);
+            Assert.assertTrue(d.esVacia());
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#eliminaYRegresa}.
+     */
+    @Test public void testEliminaYRegresa() {
+        for (ModoDiccionario modo : ModoDiccionario.values()) {
+            Diccionario<String, String> d =
+                new Diccionario<String, String>(total, s -> s.hashCode(),
+                                                modo);
+            int ini = random.nextInt(10000);
+            for (int i = 0; i < total; i++) {
+                String s = String.format("%x", ini + i * 1000);
+                d.agrega(s, s + "v");
+            }
+            for (int i = 0; i < total; i++) {
+                String s = String.format("%x", ini + i * 1000);
+                Assert.assertTrue(d.eliminaYRegresa(s).equals(s + "v"));
+                Assert.assertTrue(d.eliminaYRegresa(s) == null);
+                Assert.assertFalse(d.contiene(s));
+                Assert.assertTrue(d.getElementos() == total - (i+1));
+            }
+            try {
+                d.eliminaYRegresa(null);
+                Assert.fail();
+            } catch (IllegalArgumentException iae) {}
+        }
+    }
+
+    /* Revisa que el histograma cuadre con el diccionario: en modo encadenado
+     * cuenta todas las listas y suma las entradas, y en los otros modos
+     * cuenta todas las entradas. */
+    private void revisaHistograma(EstadisticasDiccionario e) {
+        int[] h = e.getHistograma();
+        int listas = 0, entradas = 0;
+        for (int i = 0; i < h.length; i++) {
+            Assert.assertTrue(h[i] >= 0);
+            listas += h[i];
+            entradas += i * h[i];
+        }
+        if (e.getModo() != ModoDiccionario.ENCADENADO) {
+            Assert.assertTrue(listas == e.getElementos());
+        } else {
+            Assert.assertTrue(listas == e.getCapacidad());
+            if (h[h.length - 1] == 0)
+                Assert.assertTrue(entradas == e.getElementos());
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#estadisticas}.
+     */
+    @Test public void testEstadisticas() {
+        for (ModoDiccionario modo : ModoDiccionario.values()) {
+            Diccionario<Integer, Integer> d =
+                new Diccionario<Integer, Integer>(0, n -> n, modo);
+            EstadisticasDiccionario e = d.estadisticas();
+            Assert.assertTrue(e.getModo() == modo);
+            Assert.assertTrue(e.getElementos() == 0);
+            Assert.assertTrue(e.getCrecimientos() == 0);
+            Assert.assertTrue(e.getRazonLapidas() == 0.0);
+            revisaHistograma(e);
+            int[] a = new int[total * 8];
+            for (int i = 0; i < a.length; i++) {
+                a[i] = random.nextInt(total * 64);
+                d.agrega(a[i], i);
+            }
+            e = d.estadisticas();
+            Assert.assertTrue(e.getElementos() == d.getElementos());
+            Assert.assertTrue(e.getCarga() == d.carga());
+            Assert.assertTrue(e.getCrecimientos() > 0);
+            Assert.assertTrue(e.getTiempoCrecimientos() > 0);
+            /* Cada búsqueda migra algunas listas; con tantas búsquedas como
+             * listas la migración termina. */
+            for (int i = 0; i < e.getCapacidad(); i++)
+                d.contiene(a[i % a.length]);
+            revisaHistograma(d.estadisticas());
+            long exitosas = d.estadisticas().getBusquedasExitosas();
+            long fallidas = d.estadisticas().getBusquedasFallidas();
+            for (int i = 0; i < a.length; i++)
+                Assert.assertTrue(d.contiene(a[i]));
+            Assert.assertFalse(d.contiene(-1));
+            e = d.estadisticas();
+            Assert.assertTrue(e.getBusquedasExitosas() ==
+                              exitosas + a.length);
+            Assert.assertTrue(e.getBusquedasFallidas() == fallidas + 1);
+            Assert.assertTrue(e.getSondeosExitosos() >= 1.0);
+            for (int i = 0; i < a.length; i += 2)
+                d.eliminaYRegresa(a[i]);
+            revisaHistograma(d.estadisticas());
+            d.limpia();
+            e = d.estadisticas();
+            Assert.assertTrue(e.getElementos() == 0);
+            revisaHistograma(e);
+        }
+    }
+
+    /**
+     * Prueba unitaria para revisar que {@link Diccionario} dispersa cada llave
+     * una sola vez por operación, y no la vuelve a dispersar al crecer.
+     */
+    @Test public void testDispersionGuardada() {
+        for (ModoDiccionario modo : ModoDiccionario.values()) {
+            int[] llamadas = { 0 };
+            Diccionario<Integer, Integer> d =
+                new Diccionario<Integer, Integer>(0, n -> {
+                        llamadas[0]++;
+                        return n % 97;
+                    }, modo);
+            int n = total * 8;
+            for (int i = 0; i < n; i++)
+                d.agrega(i, i);
+            Assert.assertTrue(llamadas[0] == n);
+            for (int i = 0; i < n; i++)
+                Assert.assertTrue(d.get(i) == i);
+            Assert.assertTrue(llamadas[0] == 2 * n);
+            for (int i = 0; i < n; i++)
+                d.elimina(i);
+            Assert.assertTrue(llamadas[0] == 3 * n);
+            Assert.assertTrue(d.esVacia());
+        }
+    }
+
+    /* Regresa la capacidad de un diccionario nuevo para n elementos. */
+    private int capacidadNueva(int n) {
+        return new Diccionario<Integer, Integer>(n).estadisticas()
+            .getCapacidad();
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#setMinimaCarga}.
+     */
+    @Test public void testMinimaCarga() {
+        for (ModoDiccionario modo : ModoDiccionario.values()) {
+            Diccionario<Integer, Integer> d =
+                new Diccionario<Integer, Integer>(0, n -> n, modo);
+            Assert.assertTrue(d.getMinimaCarga() == 0.0);
+            try {
+                d.setMinimaCarga(-0.1);
+                Assert.fail();
+            } catch (IllegalArgumentException iae) {}
+            try {
+                d.setMinimaCarga(Diccionario.MAXIMA_CARGA / 2);
+                Assert.fail();
+            } catch (IllegalArgumentException iae) {}
+            d.setMinimaCarga(0.1);
+            Assert.assertTrue(d.getMinimaCarga() == 0.1);
+            int n = total * 16;
+            for (int i = 0; i < n; i++)
+                d.agrega(i, i);
+            int capacidad = d.estadisticas().getCapacidad();
+            for (int i = 0; i < n; i++) {
+                d.elimina(i);
+                if (d.estadisticas().getCapacidad() > capacidadNueva(0))
+                    Assert.assertTrue(d.carga() >= 0.1);
+                for (int j = i + 1; j < n; j += 64)
+                    Assert.assertTrue(d.get(j) == j);
+            }
+            Assert.assertTrue(d.estadisticas().getCapacidad() < capacidad);
+            Assert.assertTrue(d.estadisticas().getCapacidad() ==
+                              capacidadNueva(0));
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#compacta}.
+     */
+    @Test public void testCompacta() {
+        for (ModoDiccionario modo : ModoDiccionario.values()) {
+            Diccionario<Integer, Integer> d =
+                new Diccionario<Integer, Integer>(0, n -> n, modo);
+            int n = total * 16;
+            for (int i = 0; i < n; i++)
+                d.agrega(i, i);
+            int capacidad = d.estadisticas().getCapacidad();
+            d.compacta();
+            Assert.assertTrue(d.estadisticas().getCapacidad() == capacidad);
+            for (int i = 0; i < n; i++)
+                if (i % 16 != 0)
+                    d.elimina(i);
+            Assert.assertTrue(d.estadisticas().getCapacidad() == capacidad);
+            d.compacta();
+            int m = d.getElementos();
+            Assert.assertTrue(d.estadisticas().getCapacidad() ==
+                              capacidadNueva(m));
+            for (int i = 0; i < n; i++)
+                Assert.assertTrue(d.contiene(i) == (i % 16 == 0));
+            int c = 0;
+            for (Integer v : d) {
+                Assert.assertTrue(v % 16 == 0);
+                c++;
+            }
+            Assert.assertTrue(c == m);
+            d.limpia();
+            Assert.assertTrue(d.esVacia());
+            Assert.assertTrue(d.estadisticas().getCapacidad() ==
+                              capacidadNueva(m));
+            d.compacta();
+            Assert.assertTrue(d.estadisticas().getCapacidad() ==
+                              capacidadNueva(0));
+            Assert.assertFalse(d.iterator().hasNext());
+        }
+    }
+
+    /* Regresa n entradas con llaves aleatorias, algunas repetidas; en
+     * ultimos deja el último valor de cada llave. */
+    private Lista<Map.Entry<Integer, Integer>> entradas(int n,
+                                                        int[] ultimos) {
+        Lista<Map.Entry<Integer, Integer>> l =
+            new Lista<Map.Entry<Integer, Integer>>();
+        for (int i = 0; i < n; i++) {
+            int k = random.nextInt(ultimos.length);
+            ultimos[k] = i + 1;
+            l.agrega(new AbstractMap.SimpleEntry<Integer, Integer>(k, i + 1));
+        }
+        return l;
+    }
+
+    /* Revisa que el diccionario tenga exactamente los últimos valores. */
+    private void revisaEntradas(Diccionario<Integer, Integer> d,
+                                int[] ultimos) {
+        int c = 0;
+        for (int k = 0; k < ultimos.length; k++) {
+            Assert.assertTrue(d.getOrDefault(k, 0) == ultimos[k]);
+            if (ultimos[k] != 0)
+                c++;
+        }
+        Assert.assertTrue(d.getElementos() == c);
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#agregaTodos}.
+     */
+    @Test public void testAgregaTodos() {
+        for (ModoDiccionario modo : ModoDiccionario.values()) {
+            Diccionario<Integer, Integer> d =
+                new Diccionario<Integer, Integer>(0, n -> n, modo);
+            int[] ultimos = new int[total * 8];
+            d.agrega(-1, -1);
+            d.agregaTodos(entradas(total * 16, ultimos), total * 16);
+            Assert.assertTrue(d.estadisticas().getCrecimientos() == 0);
+            Assert.assertTrue(d.eliminaYRegresa(-1) == -1);
+            revisaEntradas(d, ultimos);
+            try {
+                d.agregaTodos(null, 0);
+                Assert.fail();
+            } catch (IllegalArgumentException iae) {}
+            try {
+                d.agregaTodos(new Lista<Map.Entry<Integer, Integer>>(), -1);
+                Assert.fail();
+            } catch (IllegalArgumentException iae) {}
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#desde}.
+     */
+    @Test public void testDesde() {
+        for (ModoDiccionario modo : ModoDiccionario.values()) {
+            int[] ultimos = new int[total * 8];
+            Diccionario<Integer, Integer> d =
+                Diccionario.desde(entradas(total * 16, ultimos), total * 16,
+                                  n -> n, modo);
+            Assert.assertTrue(d.estadisticas().getCrecimientos() == 0);
+            revisaEntradas(d, ultimos);
+        }
+        int[] ultimos = new int[total];
+        Diccionario<Integer, Integer> d =
+            Diccionario.desde(entradas(total * 2, ultimos), 0);
+        revisaEntradas(d, ultimos);
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#desdeParalelo}.
+     */
+    @Test public void testDesdeParalelo() {
+        int n = 100000 + random.nextInt(100000);
+        int[] ultimos = new int[n / 2];
+        Lista<Map.Entry<Integer, Integer>> l = entradas(n, ultimos);
+        Diccionario<Integer, Integer> d =
+            Diccionario.desdeParalelo(l, n / 3, k -> k * 0x9e3779b9);
+        revisaEntradas(d, ultimos);
+        Diccionario<Integer, Integer> e =
+            Diccionario.desde(l, n, k -> k * 0x9e3779b9,
+                              ModoDiccionario.ENCADENADO);
+        Assert.assertTrue(d.equals(e));
+        Assert.assertTrue(d.colisiones() == e.colisiones());
+        revisaHistograma(d.estadisticas());
+        d.agrega(-1, -1);
+        Assert.assertTrue(d.get(-1) == -1);
+        d = Diccionario.desdeParalelo(new Lista<Map.Entry<Integer, Integer>>(),
+                                      0, k -> k);
+        Assert.assertTrue(d.esVacia());
+        Lista<Map.Entry<Integer, Integer>> nula =
+            new Lista<Map.Entry<Integer, Integer>>();
+        nula.agrega(new AbstractMap.SimpleEntry<Integer, Integer>(1, null));
+        try {
+            Diccionario.desdeParalelo(nula, 1, k -> k);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario} con muchas llaves comparables
+     * en la misma lista, que el diccionario indexa con árboles.
+     */
+    @Test public void testListasLargas() {
+        Diccionario<Integer, Integer> d =
+            new Diccionario<Integer, Integer>(0, n -> n % 3);
+        int n = 2000 + random.nextInt(1000);
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = random.nextInt(n * 4);
+            d.agrega(a[i], i);
+        }
+        boolean[] eliminados = new boolean[n * 4];
+        for (int i = 0; i < n; i++) {
+            Assert.assertTrue(d.contiene(a[i]));
+            Assert.assertFalse(d.contiene(-1 - a[i]));
+        }
+        long fallidas = d.estadisticas().getBusquedasFallidas();
+        Assert.assertTrue(d.estadisticas().getSondeosFallidos() < 4.0);
+        for (int i = 0; i < n; i++) {
+            if (eliminados[a[i]])
+                continue;
+            d.elimina(a[i]);
+            eliminados[a[i]] = true;
+            Assert.assertFalse(d.contiene(a[i]));
+            for (int j = i + 1; j < n; j += 37)
+                Assert.assertTrue(d.contiene(a[j]) == !eliminados[a[j]]);
+        }
+        Assert.assertTrue(d.esVacia());
+        Assert.assertTrue(d.estadisticas().getBusquedasFallidas() > fallidas);
+        revisaHistograma(d.estadisticas());
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario} con llaves de distintas clases
+     * en la misma lista.
+     */
+    @Test public void testListasLargasMixtas() {
+        Diccionario<Object, Integer> d =
+            new Diccionario<Object, Integer>(0, o -> 0);
+        int n = 100 + random.nextInt(100);
+        for (int i = 0; i < n; i++) {
+            d.agrega(i, i);
+            if (i % 10 == 9)
+                d.agrega(String.valueOf(i), -i);
+        }
+        d.agrega(new Object() {}, 0);
+        for (int i = 0; i < n; i++) {
+            Assert.assertTrue(d.get(i) == i);
+            if (i % 10 == 9)
+                Assert.assertTrue(d.get(String.valueOf(i)) == -i);
+            else
+                Assert.assertFalse(d.contiene(String.valueOf(i)));
+        }
+        for (int i = 0; i < n; i++)
+            d.elimina(i);
+        Assert.assertTrue(d.getElementos() == n / 10 + 1);
+        for (int i = 9; i < n; i += 10)
+            Assert.assertTrue(d.get(String.valueOf(i)) == -i);
+    }
+
+    /**
+     * Prueba que {@link Diccionario#eliminaYRegresa}, {@link
+     * Diccionario#computa} y {@link Diccionario#combina} busquen la llave
+     * una sola vez al eliminarla: hacen tantas comparaciones como {@link
+     * Diccionario#contiene}.
+     */
+    @Test public void testEliminaBuscaUnaVez() {
+        Diccionario<Contada, Integer> d = new Diccionario<Contada, Integer>(64);
+        int n = 7;
+        for (int i = 0; i < n; i++)
+            d.agrega(new Contada(i), i);
+        for (int j = 0; j < n; j++) {
+            int i = (3 * j) % n;
+            comparaciones = 0;
+            Assert.assertTrue(d.contiene(new Contada(i)));
+            int c = comparaciones;
+            comparaciones = 0;
+            Integer v;
+            if (j % 3 == 0)
+                v = d.eliminaYRegresa(new Contada(i));
+            else if (j % 3 == 1)
+                v = d.computa(new Contada(i), (k, x) -> null);
+            else
+                v = d.combina(new Contada(i), 1, (x, y) -> null);
+            Assert.assertTrue(comparaciones == c);
+            Assert.assertTrue(j % 3 == 0 ? v == i : v == null);
+            Assert.assertFalse(d.contiene(new Contada(i)));
+            Assert.assertTrue(d.getElementos() == n - j - 1);
+            for (int k = j + 1; k < n; k++)
+                Assert.assertTrue(d.get(new Contada((3 * k) % n)) ==
+                                  (3 * k) % n);
+        }
+        Assert.assertTrue(d.esVacia());
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario} con llaves en una lista
+     * indexada con árbol cuyo compareTo es inconsistente con equals.
+     */
+    @Test public void testListasLargasInconsistentes() {
+        Diccionario<Ficha, Integer> d = new Diccionario<Ficha, Integer>();
+        int n = 20 + random.nextInt(30);
+        for (int i = 0; i < n; i++)
+            d.agrega(new Ficha(i), i);
+        Assert.assertTrue(d.getElementos() == n);
+        for (int i = 0; i < n; i++)
+            Assert.assertTrue(d.get(new Ficha(i)) == i);
+        Assert.assertFalse(d.contiene(new Ficha(n)));
+        for (int i = 0; i < n; i += 2) {
+            d.elimina(new Ficha(i));
+            Assert.assertFalse(d.contiene(new Ficha(i)));
+        }
+        for (int i = 1; i < n; i += 2)
+            Assert.assertTrue(d.get(new Ficha(i)) == i);
+        for (int i = 0; i < n; i += 2)
+            d.agrega(new Ficha(i), -i);
+        for (int i = 0; i < n; i++)
+            Assert.assertTrue(d.get(new Ficha(i)) == (i % 2 == 0 ? -i : i));
+        for (int i = n - 1; i >= 0; i--) {
+            d.elimina(new Ficha(i));
+            Assert.assertFalse(d.contiene(new Ficha(i)));
+            if (i > 0)
+                Assert.assertTrue(d.contiene(new Ficha(i - 1)));
+        }
+        Assert.assertTrue(d.esVacia());
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario} en modo {@link
+     * ModoDiccionario#COMPACTO}.
+     */
+    @Test public void testCompacto() {
+        Dispersor<String> dispersor =
+            FabricaDispersores.dispersorCadena(AlgoritmoDispersor.BJ_STRING);
+        Diccionario<String, Integer> d =
+            new Diccionario<String, Integer>(0, dispersor,
+                                             ModoDiccionario.COMPACTO);
+        Diccionario<String, Integer> e =
+            new Diccionario<String, Integer>(0, dispersor,
+                                             ModoDiccionario.ENCADENADO);
+        Lista<String> orden = new Lista<String>();
+        int n = total * 8;
+        for (int i = 0; i < n; i++) {
+            String s = String.valueOf(random.nextInt(n * 2));
+            if (!d.contiene(s))
+                orden.agrega(s);
+            d.agrega(s, i);
+            e.agrega(s, i);
+        }
+        Assert.assertTrue(d.equals(e));
+        Assert.assertTrue(d.colisiones() == e.colisiones());
+        Assert.assertTrue(d.colisionMaxima() == e.colisionMaxima());
+        Iterator<String> it = d.iteradorLlaves();
+        for (String s : orden)
+            Assert.assertTrue(it.next().equals(s));
+        Assert.assertFalse(it.hasNext());
+        /* Eliminar deja lápidas; volver a agregar manda la llave al final. */
+        int m = orden.getElementos() / 2;
+        Lista<String> resto = new Lista<String>();
+        int i = 0;
+        for (String s : orden) {
+            if (i++ < m)
+                d.elimina(s);
+            else
+                resto.agrega(s);
+        }
+        Assert.assertTrue(d.estadisticas().getRazonLapidas() > 0.0);
+        String primera = orden.getPrimero();
+        d.agrega(primera, -1);
+        resto.agrega(primera);
+        it = d.iteradorLlaves();
+        for (String s : resto)
+            Assert.assertTrue(it.next().equals(s));
+        Assert.assertFalse(it.hasNext());
+        revisaHistograma(d.estadisticas());
+        d.compacta();
+        Assert.assertTrue(d.estadisticas().getRazonLapidas() == 0.0);
+        it = d.iteradorLlaves();
+        for (String s : resto)
+            Assert.assertTrue(it.next().equals(s));
+        Assert.assertTrue(d.get(primera) == -1);
+        revisaHistograma(d.estadisticas());
+        /* Muchas altas y bajas sin crecer el diccionario. */
+        for (int j = 0; j < n * 4; j++) {
+            d.agrega("x" + j, j);
+            d.elimina("x" + j);
+        }
+        Assert.assertTrue(d.getElementos() == resto.getElementos());
+        Assert.assertTrue(d.estadisticas().getCapacidad() <=
+                          capacidadNueva(n * 2));
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#setResiembra}: con llaves que
+     * chocan todas con la primera semilla, el diccionario debe resembrar y
+     * separarlas, en los tres modos.
+     */
+    @Test public void testResiembra() {
+        for (ModoDiccionario modo : ModoDiccionario.values()) {
+            Diccionario<String, Integer> d =
+                new Diccionario<String, Integer>(0, s -> 0, modo);
+            long[] atacada = new long[1];
+            boolean[] primera = { true };
+            DispersorSembrado<String> dispersor =
+                FabricaDispersores.dispersorSembradoCadena(
+                    AlgoritmoDispersor.MURMUR3_STRING);
+            d.setResiembra((s, semilla) -> {
+                    if (primera[0]) {
+                        atacada[0] = semilla;
+                        primera[0] = false;
+                    }
+                    return semilla == atacada[0] ? 0 :
+                        dispersor.dispersa(s, semilla);
+                }, 8);
+            int n = total * 8;
+            for (int i = 0; i < n; i++)
+                d.agrega(String.valueOf(i), i);
+            Assert.assertTrue(d.getResiembras() >= 2);
+            Assert.assertTrue(d.getElementos() == n);
+            Assert.assertTrue(d.colisionMaxima() < n / 4);
+            for (int i = 0; i < n; i++)
+                Assert.assertTrue(d.get(String.valueOf(i)) == i);
+            revisaHistograma(d.estadisticas());
+        }
+        /* Un dispersor que no separa a las llaves con ninguna semilla no debe
+           hacer que cada inserción vuelva a dispersar todo. */
+        Diccionario<Integer, Integer> e = new Diccionario<Integer, Integer>();
+        e.setResiembra((k, semilla) -> k & 0xff00, 4);
+        int n = 1 << 12;
+        for (int i = 0; i < n; i++)
+            e.agrega(i, i);
+        Assert.assertTrue(e.getResiembras() <= 16);
+        for (int i = 0; i < n; i++)
+            Assert.assertTrue(e.get(i) == i);
+        try {
+            e.setResiembra(null, 4);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            e.setResiembra((k, semilla) -> k, 0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#setFiltroBloom}.
+     */
+    @Test public void testFiltroBloom() {
+        for (ModoDiccionario modo : ModoDiccionario.values()) {
+            Diccionario<String, Integer> d =
+                new Diccionario<String, Integer>(
+                    0, FabricaDispersores.dispersorCadena(
+                        AlgoritmoDispersor.MURMUR3_STRING), modo);
+            d.agrega("-1", -1);
+            d.setFiltroBloom(0.01);
+            Assert.assertTrue(d.getFiltroBloom().getTasa() == 0.01);
+            Assert.assertTrue(d.contiene("-1"));
+            int n = total * 16;
+            for (int i = 0; i < n; i++)
+                d.agrega(String.valueOf(i), i);
+            Assert.assertTrue(d.getFiltroBloom().getCapacidad() > n);
+            for (int i = 0; i < n; i += 2)
+                Assert.assertTrue(d.eliminaYRegresa(String.valueOf(i)) == i);
+            for (int i = 0; i < n; i++) {
+                String s = String.valueOf(i);
+                Assert.assertTrue(d.contiene(s) == (i % 2 == 1));
+                Assert.assertTrue(d.getOrDefault(s, -1) ==
+                                  (i % 2 == 1 ? i : -1));
+                Assert.assertTrue(d.eliminaYRegresa("x" + s) == null);
+            }
+            Assert.assertTrue(d.getFiltroBloom().tasaEstimada() < 0.05);
+            d.limpia();
+            Assert.assertTrue(d.getFiltroBloom().getElementos() == 0);
+            Assert.assertFalse(d.contiene("1"));
+            d.agrega("1", 1);
+            Assert.assertTrue(d.get("1") == 1);
+            d.setFiltroBloom(0.0);
+            Assert.assertTrue(d.getFiltroBloom() == null);
+            Assert.assertTrue(d.get("1") == 1);
+        }
+        /* El filtro se reconstruye cuando el diccionario resiembra. */
+        Diccionario<String, Integer> e = new Diccionario<String, Integer>();
+        e.setFiltroBloom(0.001);
+        DispersorSembrado<String> dispersor =
+            FabricaDispersores.dispersorSembradoCadena(
+                AlgoritmoDispersor.MURMUR3_STRING);
+        e.setResiembra(dispersor, 8);
+        for (int i = 0; i < total; i++)
+            e.agrega(String.valueOf(i), i);
+        e.setResiembra(dispersor, 8);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(e.get(String.valueOf(i)) == i);
+        try {
+            e.setFiltroBloom(1.0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            e.setFiltroBloom(-0.5);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
 }
@@ -0,0 +1,193 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.DiccionarioConcurrente;
+import mx.unam.ciencias.edd.Lista;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioConcurrente}.
+ */
+public class TestDiccionarioConcurrente {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Número de hilos. */
+    private static final int HILOS = 4;
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* El diccionario. */
+    private DiccionarioConcurrente<String, String> diccionario;
+
+    /**
+     * Crea un diccionario para cada prueba.
+     */
+    public TestDiccionarioConcurrente() {
+        int N = 64;
+        random = new Random();
+        total = N + random.nextInt(N);
+        diccionario = new DiccionarioConcurrente<String, String>(total);
+    }
+
+    /**
+     * Prueba unitaria para {@link
+     * DiccionarioConcurrente#DiccionarioConcurrente}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(diccionario.esVacia());
+        Assert.assertTrue(diccionario.getElementos() == 0);
+        Assert.assertTrue(diccionario.carga() == 0.0);
+        Assert.assertTrue(diccionario.colisiones() == 0);
+        Assert.assertFalse(diccionario.iterator().hasNext());
+        Assert.assertFalse(diccionario.iteradorLlaves().hasNext());
+        try {
+            new DiccionarioConcurrente<String, String>(total, s -> 0, 0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioConcurrente#agrega}, {@link
+     * DiccionarioConcurrente#get} y {@link DiccionarioConcurrente#elimina} en
+     * un solo hilo.
+     */
+    @Test public void testAgregaGetElimina() {
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < total * 4; i++) {
+            String s = String.format("%x", ini + i * 1000);
+            Assert.assertFalse(diccionario.contiene(s));
+            diccionario.agrega(s, s);
+            Assert.assertTrue(diccionario.get(s).equals(s));
+            Assert.assertTrue(diccionario.getElementos() == i+1);
+            Assert.assertTrue(diccionario.carga() < Diccionario.MAXIMA_CARGA);
+        }
+        String k = String.format("%x", ini);
+        diccionario.agrega(k, "x");
+        Assert.assertTrue(diccionario.get(k).equals("x"));
+        Assert.assertTrue(diccionario.getElementos() == total * 4);
+        for (int i = 0; i < total * 4; i++) {
+            String s = String.format("%x", ini + i * 1000);
+            diccionario.elimina(s);
+            Assert.assertFalse(diccionario.contiene(s));
+        }
+        Assert.assertTrue(diccionario.esVacia());
+        try {
+            diccionario.get(k);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            diccionario.elimina(k);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            diccionario.agrega(null, "x");
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        Assert.assertFalse(diccionario.contiene(null));
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioConcurrente#colisiones}.
+     */
+    @Test public void testColisiones() {
+        diccionario = new DiccionarioConcurrente<String, String>(total,
+                                                                 s -> 7, 1);
+        diccionario.agrega("a", "a");
+        Assert.assertTrue(diccionario.colisiones() == 0);
+        diccionario.agrega("b", "b");
+        diccionario.agrega("c", "c");
+        Assert.assertTrue(diccionario.colisiones() == 2);
+        Assert.assertTrue(diccionario.colisionMaxima() == 2);
+        diccionario.elimina("b");
+        Assert.assertTrue(diccionario.colisiones() == 1);
+        Assert.assertTrue(diccionario.get("a").equals("a"));
+        Assert.assertTrue(diccionario.get("c").equals("c"));
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioConcurrente#iterator} y {@link
+     * DiccionarioConcurrente#iteradorLlaves}.
+     */
+    @Test public void testIteradores() {
+        Lista<String> lista = new Lista<String>();
+        for (int i = 0; i < total; i++) {
+            String s = String.valueOf(i);
+            diccionario.agrega(s, s);
+            lista.agrega(s);
+        }
+        int c = 0;
+        Iterator<String> llaves = diccionario.iteradorLlaves();
+        for (String s : diccionario) {
+            Assert.assertTrue(llaves.next().equals(s));
+            Assert.assertTrue(lista.contiene(s));
+            lista.elimina(s);
+            c++;
+        }
+        Assert.assertFalse(llaves.hasNext());
+        Assert.assertTrue(c == total);
+        diccionario.limpia();
+        Assert.assertTrue(diccionario.esVacia());
+        Assert.assertFalse(diccionario.iterator().hasNext());
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioConcurrente} con varios hilos
+     * escribiendo y leyendo al mismo tiempo.
+     */
+    @Test public void testConcurrencia() throws InterruptedException {
+        int n = total * 100;
+        Thread[] hilos = new Thread[HILOS * 2];
+        boolean[] errores = new boolean[hilos.length];
+        for (int h = 0; h < HILOS; h++) {
+            final int hilo = h;
+            hilos[h] = new Thread(() -> {
+                    for (int i = hilo; i < n; i += HILOS) {
+                        String s = String.valueOf(i);
+                        diccionario.agrega(s, s);
+                        if (!diccionario.get(s).equals(s))
+                            errores[hilo] = true;
+                    }
+            });
+            hilos[HILOS + h] = new Thread(() -> {
+                    for (int i = 0; i < n; i++) {
+                        String s = String.valueOf(i);
+                        if (diccionario.contiene(s) &&
+                            !diccionario.get(s).equals(s))
+                            errores[HILOS + hilo] = true;
+                    }
+            });
+        }
+        for (Thread t : hilos)
+            t.start();
+        for (Thread t : hilos)
+            t.join();
+        for (boolean e : errores)
+            Assert.assertFalse(e);
+        Assert.assertTrue(diccionario.getElementos() == n);
+        for (int i = 0; i < n; i++)
+            Assert.assertTrue(diccionario.get(String.valueOf(i))
+                              .equals(String.valueOf(i)));
+        for (int h = 0; h < HILOS; h++) {
+            final int hilo = h;
+            hilos[h] = new Thread(() -> {
+                    for (int i = hilo; i < n; i += HILOS)
+                        diccionario.elimina(String.valueOf(i));
+            });
+        }
+        for (int h = 0; h < HILOS; h++)
+            hilos[h].start();
+        for (int h = 0; h < HILOS; h++)
+            hilos[h].join();
+        Assert.assertTrue(diccionario.esVacia());
+    }
+}
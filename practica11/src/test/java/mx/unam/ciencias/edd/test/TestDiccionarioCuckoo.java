@@ -0,0 +1,256 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.DiccionarioCuckoo;
+import mx.unam.ciencias.edd.Dispersores;
+import mx.unam.ciencias.edd.Lista;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioCuckoo}.
+ */
+public class TestDiccionarioCuckoo {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+
+    /**
+     * Inicializa el número de elementos para cada prueba.
+     */
+    public TestDiccionarioCuckoo() {
+        random = new Random();
+        total = 1000 + random.nextInt(1000);
+    }
+
+    /* Revisa que el diccionario cuckoo tenga lo mismo que el diccionario. */
+    private void revisa(DiccionarioCuckoo<Integer, Integer> c,
+                        Diccionario<Integer, Integer> d) {
+        Assert.assertTrue(c.getElementos() == d.getElementos());
+        int n = 0;
+        Iterator<Integer> it = c.iteradorLlaves();
+        while (it.hasNext()) {
+            Integer k = it.next();
+            Assert.assertTrue(c.get(k).equals(d.get(k)));
+            n++;
+        }
+        Assert.assertTrue(n == d.getElementos());
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCuckoo#agrega}.
+     */
+    @Test public void testAgrega() {
+        DiccionarioCuckoo<Integer, Integer> c =
+            new DiccionarioCuckoo<Integer, Integer>();
+        Diccionario<Integer, Integer> d = new Diccionario<Integer, Integer>();
+        Assert.assertTrue(c.esVacia());
+        for (int i = 0; i < total; i++) {
+            int k = random.nextInt(total);
+            c.agrega(k, i);
+            d.agrega(k, i);
+            Assert.assertTrue(c.get(k) == i);
+            Assert.assertTrue(c.carga() <= DiccionarioCuckoo.MAXIMA_CARGA);
+        }
+        revisa(c, d);
+        try {
+            c.agrega(null, 1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            c.agrega(1, null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCuckoo#elimina}.
+     */
+    @Test public void testElimina() {
+        DiccionarioCuckoo<Integer, Integer> c =
+            new DiccionarioCuckoo<Integer, Integer>();
+        Diccionario<Integer, Integer> d = new Diccionario<Integer, Integer>();
+        for (int i = 0; i < total; i++) {
+            c.agrega(i, i);
+            d.agrega(i, i);
+        }
+        for (int i = 0; i < total / 2; i++) {
+            int k = random.nextInt(total);
+            if (d.contiene(k)) {
+                c.elimina(k);
+                d.elimina(k);
+                Assert.assertFalse(c.contiene(k));
+            } else {
+                try {
+                    c.elimina(k);
+                    Assert.fail();
+                } catch (NoSuchElementException nsee) {}
+            }
+        }
+        revisa(c, d);
+        try {
+            c.elimina(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCuckoo#get} y {@link
+     * DiccionarioCuckoo#getOrDefault}.
+     */
+    @Test public void testGet() {
+        DiccionarioCuckoo<Integer, Integer> c =
+            new DiccionarioCuckoo<Integer, Integer>();
+        for (int i = 0; i < total; i++)
+            c.agrega(i, total - i);
+        for (int i = 0; i < total; i++) {
+            Assert.assertTrue(c.get(i) == total - i);
+            Assert.assertTrue(c.getOrDefault(i + total, -1) == -1);
+        }
+        try {
+            c.get(total);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba que con dispersores malos las llaves terminen en el escondite o
+     * se reconstruya el diccionario, y que con dispersores que no separan a
+     * las llaves éstas se queden en el escondite.
+     */
+    @Test public void testEscondite() {
+        /* Sólo hay cuatro primeras cubetas: los choques son inevitables. */
+        DiccionarioCuckoo<Integer, Integer> c =
+            new DiccionarioCuckoo<Integer, Integer>(
+                (Integer k) -> k & 0xc, (Integer k) -> k * 0x9e3779b9);
+        Diccionario<Integer, Integer> d = new Diccionario<Integer, Integer>();
+        for (int i = 0; i < total; i++) {
+            c.agrega(i, i);
+            d.agrega(i, i);
+        }
+        revisa(c, d);
+        Assert.assertTrue(c.getEscondidas() >= 0);
+        DiccionarioCuckoo<Integer, Integer> m =
+            new DiccionarioCuckoo<Integer, Integer>((Integer k) -> 0,
+                                                    (Integer k) -> 0);
+        Diccionario<Integer, Integer> e = new Diccionario<Integer, Integer>();
+        for (int i = 0; i < 100; i++) {
+            m.agrega(i, i);
+            e.agrega(i, i);
+        }
+        revisa(m, e);
+        Assert.assertTrue(m.getEscondidas() == 100 - 8);
+        /* Las llaves tienen sólo dos cubetas posibles, pero no las mismas
+           dos dispersiones: ningún tamaño las acomoda, y el diccionario debe
+           quedarse con las casillas de antes y esconder a la que sobra. */
+        DiccionarioCuckoo<Integer, Integer> p =
+            new DiccionarioCuckoo<Integer, Integer>((Integer k) -> 0,
+                                                    (Integer k) -> k & 1);
+        e = new Diccionario<Integer, Integer>();
+        for (int i = 0; i < 40; i++) {
+            p.agrega(i, i);
+            e.agrega(i, i);
+            revisa(p, e);
+        }
+    }
+
+    /**
+     * Prueba que llaves de cadena con el mismo {@link String#hashCode} no
+     * hagan crecer el diccionario más de una vez ni se pierdan: con el
+     * constructor predeterminado su segunda dispersión las separa, y con dos
+     * dispersores que sólo dependen del hashCode se quedan en el escondite.
+     */
+    @Test public void testHashCodeRepetido() {
+        String[] a = new String[32];
+        for (int i = 0; i < a.length; i++) {
+            String s = "";
+            for (int j = 0; j < 5; j++)
+                s += ((i >>> j) & 1) == 0 ? "Aa" : "BB";
+            a[i] = s;
+        }
+        Assert.assertTrue(a[0].hashCode() == a[a.length - 1].hashCode());
+        Lista<DiccionarioCuckoo<String, Integer>> cs =
+            new Lista<DiccionarioCuckoo<String, Integer>>();
+        cs.agrega(new DiccionarioCuckoo<String, Integer>());
+        cs.agrega(new DiccionarioCuckoo<String, Integer>(
+                   (String k) -> k.hashCode(),
+                   (String k) -> Dispersores.dispersaEntero(k.hashCode())));
+        for (DiccionarioCuckoo<String, Integer> c : cs) {
+            for (int i = 0; i < a.length; i++)
+                c.agrega(a[i], i);
+            Assert.assertTrue(c.getElementos() == a.length);
+            Assert.assertTrue(c.carga() >= a.length / 128.0);
+            int n = 0;
+            for (Integer v : c) {
+                Assert.assertTrue(c.get(a[v]) == v);
+                n++;
+            }
+            Assert.assertTrue(n == a.length);
+            for (int i = 0; i < a.length; i += 2)
+                c.elimina(a[i]);
+            for (int i = 0; i < a.length; i++)
+                Assert.assertTrue(c.contiene(a[i]) == (i % 2 == 1));
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCuckoo#carga}: el diccionario
+     * debe aguantar una carga alta sin crecer.
+     */
+    @Test public void testCarga() {
+        DiccionarioCuckoo<Integer, Integer> c =
+            new DiccionarioCuckoo<Integer, Integer>(total,
+                (Integer k) -> k.hashCode(),
+                (Integer k) -> k * 0x9e3779b9 ^ (k >>> 15));
+        double maxima = 0;
+        for (int i = 0; i < total * 4; i++) {
+            c.agrega(random.nextInt(), i);
+            maxima = Math.max(maxima, c.carga());
+        }
+        Assert.assertTrue(maxima > 0.85);
+        Assert.assertTrue(maxima <= DiccionarioCuckoo.MAXIMA_CARGA);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCuckoo#limpia}.
+     */
+    @Test public void testLimpia() {
+        DiccionarioCuckoo<Integer, Integer> c =
+            new DiccionarioCuckoo<Integer, Integer>();
+        for (int i = 0; i < total; i++)
+            c.agrega(i, i);
+        c.limpia();
+        Assert.assertTrue(c.esVacia());
+        Assert.assertFalse(c.iterator().hasNext());
+        Assert.assertFalse(c.contiene(0));
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioCuckoo#equals}.
+     */
+    @Test public void testEquals() {
+        DiccionarioCuckoo<Integer, Integer> c1 =
+            new DiccionarioCuckoo<Integer, Integer>();
+        DiccionarioCuckoo<Integer, Integer> c2 =
+            new DiccionarioCuckoo<Integer, Integer>();
+        Assert.assertTrue(c1.equals(c2));
+        for (int i = 0; i < total; i++) {
+            c1.agrega(i, i);
+            c2.agrega(total - i - 1, total - i - 1);
+        }
+        Assert.assertTrue(c1.equals(c2));
+        c2.agrega(0, -1);
+        Assert.assertFalse(c1.equals(c2));
+        Assert.assertFalse(c1.equals(null));
+    }
+}
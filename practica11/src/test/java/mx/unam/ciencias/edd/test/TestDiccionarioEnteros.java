@@ -0,0 +1,172 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.DiccionarioEnteros;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioEnteros}.
+ */
+public class TestDiccionarioEnteros {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* El diccionario. */
+    private DiccionarioEnteros diccionario;
+
+    /**
+     * Crea un diccionario para cada prueba.
+     */
+    public TestDiccionarioEnteros() {
+        int N = 64;
+        random = new Random();
+        total = N + random.nextInt(N);
+        diccionario = new DiccionarioEnteros(total);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioEnteros#DiccionarioEnteros}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(diccionario.esVacia());
+        Assert.assertTrue(diccionario.getElementos() == 0);
+        Assert.assertTrue(diccionario.carga() == 0.0);
+        Assert.assertTrue(diccionario.colisiones() == 0);
+        Assert.assertFalse(diccionario.iteradorLlaves().hasNext());
+        Assert.assertFalse(diccionario.iteradorValores().hasNext());
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioEnteros#agrega} y {@link
+     * DiccionarioEnteros#get}.
+     */
+    @Test public void testAgrega() {
+        boolean crecio = false;
+        double l = 0.0;
+        for (int i = 0; i < total * 4; i++) {
+            Assert.assertFalse(diccionario.contiene(i));
+            diccionario.agrega(i, -i);
+            if (diccionario.carga() < l)
+                crecio = true;
+            l = diccionario.carga();
+            Assert.assertTrue(diccionario.getElementos() == i+1);
+            Assert.assertTrue(diccionario.contiene(i));
+            Assert.assertTrue(diccionario.get(i) == -i);
+            Assert.assertTrue(diccionario.carga() < Diccionario.MAXIMA_CARGA);
+        }
+        Assert.assertTrue(crecio);
+        diccionario.agrega(0, 17);
+        Assert.assertTrue(diccionario.getElementos() == total * 4);
+        Assert.assertTrue(diccionario.get(0) == 17);
+        for (int i = 0; i < total * 4; i++)
+            Assert.assertTrue(diccionario.get(i) == (i == 0 ? 17 : -i));
+        try {
+            diccionario.get(-1);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioEnteros#elimina}.
+     */
+    @Test public void testElimina() {
+        int[] a = new int[total];
+        for (int i = 0; i < total; i++) {
+            a[i] = random.nextInt() | 1;
+            while (diccionario.contiene(a[i]))
+                a[i] = random.nextInt() | 1;
+            diccionario.agrega(a[i], i);
+        }
+        for (int i = 0; i < total; i++) {
+            diccionario.elimina(a[i]);
+            Assert.assertFalse(diccionario.contiene(a[i]));
+            Assert.assertTrue(diccionario.getElementos() == total - (i+1));
+            for (int j = i+1; j < total; j++)
+                Assert.assertTrue(diccionario.get(a[j]) == j);
+        }
+        try {
+            diccionario.elimina(a[0]);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        Assert.assertTrue(diccionario.esVacia());
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioEnteros#colisiones} y {@link
+     * DiccionarioEnteros#colisionMaxima}.
+     */
+    @Test public void testColisiones() {
+        for (int i = 0; i < total; i++)
+            diccionario.agrega(i, i);
+        Assert.assertTrue(diccionario.colisiones() >= 0);
+        Assert.assertTrue(diccionario.colisiones() < total);
+        Assert.assertTrue(diccionario.colisionMaxima() <=
+                          diccionario.colisiones());
+        diccionario.limpia();
+        Assert.assertTrue(diccionario.colisiones() == 0);
+        Assert.assertTrue(diccionario.colisionMaxima() == 0);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioEnteros#iteradorLlaves} y {@link
+     * DiccionarioEnteros#iteradorValores}.
+     */
+    @Test public void testIteradores() {
+        for (int i = 0; i < total; i++)
+            diccionario.agrega(i, i * 2);
+        boolean[] vistos = new boolean[total];
+        int c = 0;
+        PrimitiveIterator.OfInt llaves = diccionario.iteradorLlaves();
+        PrimitiveIterator.OfInt valores = diccionario.iteradorValores();
+        while (llaves.hasNext()) {
+            int k = llaves.nextInt();
+            Assert.assertFalse(vistos[k]);
+            vistos[k] = true;
+            Assert.assertTrue(valores.nextInt() == k * 2);
+            c++;
+        }
+        Assert.assertFalse(valores.hasNext());
+        Assert.assertTrue(c == total);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioEnteros#limpia}.
+     */
+    @Test public void testLimpia() {
+        for (int i = 0; i < total; i++)
+            diccionario.agrega(i, i);
+        Assert.assertFalse(diccionario.esVacia());
+        diccionario.limpia();
+        Assert.assertTrue(diccionario.esVacia());
+        Assert.assertTrue(diccionario.carga() == 0.0);
+        for (int i = 0; i < total; i++)
+            Assert.assertFalse(diccionario.contiene(i));
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioEnteros#equals}.
+     */
+    @Test public void testEquals() {
+        DiccionarioEnteros d2 = new DiccionarioEnteros();
+        Assert.assertTrue(diccionario.equals(d2));
+        for (int i = 0; i < total; i++) {
+            diccionario.agrega(i, i);
+            d2.agrega(total - i - 1, total - i - 1);
+        }
+        Assert.assertTrue(diccionario.equals(d2));
+        d2.agrega(0, 1);
+        Assert.assertFalse(diccionario.equals(d2));
+        Assert.assertFalse(diccionario.equals(null));
+    }
+}
@@ -0,0 +1,161 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.DiccionarioLargo;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioLargo}.
+ */
+public class TestDiccionarioLargo {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+    /* El diccionario. */
+    private DiccionarioLargo<String> diccionario;
+
+    /**
+     * Crea un diccionario para cada prueba.
+     */
+    public TestDiccionarioLargo() {
+        int N = 64;
+        random = new Random();
+        total = N + random.nextInt(N);
+        diccionario = new DiccionarioLargo<String>(total);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioLargo#DiccionarioLargo}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(diccionario.esVacia());
+        Assert.assertTrue(diccionario.getElementos() == 0);
+        Assert.assertTrue(diccionario.carga() == 0.0);
+        Assert.assertTrue(diccionario.colisiones() == 0);
+        Assert.assertFalse(diccionario.iteradorLlaves().hasNext());
+        Assert.assertFalse(diccionario.iterator().hasNext());
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioLargo#agrega} y {@link
+     * DiccionarioLargo#get}.
+     */
+    @Test public void testAgrega() {
+        long ini = random.nextLong();
+        boolean crecio = false;
+        double l = 0.0;
+        for (int i = 0; i < total * 4; i++) {
+            long k = ini + ((long)i << 32);
+            Assert.assertFalse(diccionario.contiene(k));
+            diccionario.agrega(k, String.valueOf(i));
+            if (diccionario.carga() < l)
+                crecio = true;
+            l = diccionario.carga();
+            Assert.assertTrue(diccionario.getElementos() == i+1);
+            Assert.assertTrue(diccionario.get(k).equals(String.valueOf(i)));
+            Assert.assertTrue(diccionario.carga() < Diccionario.MAXIMA_CARGA);
+        }
+        Assert.assertTrue(crecio);
+        diccionario.agrega(ini, "x");
+        Assert.assertTrue(diccionario.getElementos() == total * 4);
+        Assert.assertTrue(diccionario.get(ini).equals("x"));
+        try {
+            diccionario.agrega(ini, null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            diccionario.get(ini - 1);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioLargo#elimina}.
+     */
+    @Test public void testElimina() {
+        long[] a = new long[total];
+        for (int i = 0; i < total; i++) {
+            a[i] = random.nextLong();
+            while (diccionario.contiene(a[i]))
+                a[i] = random.nextLong();
+            diccionario.agrega(a[i], String.valueOf(i));
+        }
+        for (int i = 0; i < total; i++) {
+            diccionario.elimina(a[i]);
+            Assert.assertFalse(diccionario.contiene(a[i]));
+            Assert.assertTrue(diccionario.getElementos() == total - (i+1));
+            for (int j = i+1; j < total; j++)
+                Assert.assertTrue(diccionario.get(a[j])
+                                  .equals(String.valueOf(j)));
+        }
+        try {
+            diccionario.elimina(a[0]);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        Assert.assertTrue(diccionario.esVacia());
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioLargo#colisiones} y {@link
+     * DiccionarioLargo#colisionMaxima}.
+     */
+    @Test public void testColisiones() {
+        for (int i = 0; i < total; i++)
+            diccionario.agrega(i, String.valueOf(i));
+        Assert.assertTrue(diccionario.colisiones() >= 0);
+        Assert.assertTrue(diccionario.colisiones() < total);
+        Assert.assertTrue(diccionario.colisionMaxima() <=
+                          diccionario.colisiones());
+        diccionario.limpia();
+        Assert.assertTrue(diccionario.colisiones() == 0);
+        Assert.assertTrue(diccionario.colisionMaxima() == 0);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioLargo#iteradorLlaves} y {@link
+     * DiccionarioLargo#iterator}.
+     */
+    @Test public void testIteradores() {
+        for (int i = 0; i < total; i++)
+            diccionario.agrega(i, String.valueOf(i));
+        boolean[] vistos = new boolean[total];
+        int c = 0;
+        PrimitiveIterator.OfLong llaves = diccionario.iteradorLlaves();
+        for (String s : diccionario) {
+            int k = (int)llaves.nextLong();
+            Assert.assertFalse(vistos[k]);
+            vistos[k] = true;
+            Assert.assertTrue(s.equals(String.valueOf(k)));
+            c++;
+        }
+        Assert.assertFalse(llaves.hasNext());
+        Assert.assertTrue(c == total);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioLargo#equals}.
+     */
+    @Test public void testEquals() {
+        DiccionarioLargo<String> d2 = new DiccionarioLargo<String>();
+        Assert.assertTrue(diccionario.equals(d2));
+        for (int i = 0; i < total; i++) {
+            diccionario.agrega(i, String.valueOf(i));
+            d2.agrega(total - i - 1, String.valueOf(total - i - 1));
+        }
+        Assert.assertTrue(diccionario.equals(d2));
+        d2.agrega(0, "x");
+        Assert.assertFalse(diccionario.equals(d2));
+        Assert.assertFalse(diccionario.equals(null));
+    }
+}
@@ -0,0 +1,186 @@
+package mx.unam.ciencias.edd.test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.AlgoritmoDispersor;
+import mx.unam.ciencias.edd.DiccionarioMapeado;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioMapeado}.
+ */
+public class TestDiccionarioMapeado {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+    /** Directorio temporal para los archivos. */
+    @Rule public TemporaryFolder directorio = new TemporaryFolder();
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+
+    /**
+     * Inicializa el número de elementos para cada prueba.
+     */
+    public TestDiccionarioMapeado() {
+        random = new Random();
+        total = 1000 + random.nextInt(1000);
+    }
+
+    /* Regresa un archivo nuevo en el directorio temporal. */
+    private Path archivo() throws IOException {
+        return directorio.newFile().toPath();
+    }
+
+    /* Regresa la i-ésima llave. */
+    private String llave(int ini, int i) {
+        return String.format("llave-%d", ini + i);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioMapeado#agrega} y {@link
+     * DiccionarioMapeado#get}.
+     * @throws IOException si ocurre un error de entrada/salida.
+     */
+    @Test public void testAgregaGet() throws IOException {
+        int ini = random.nextInt(1000);
+        try (DiccionarioMapeado d = new DiccionarioMapeado(archivo())) {
+            Assert.assertTrue(d.esVacia());
+            for (int i = 0; i < total; i++) {
+                d.agrega(llave(ini, i), "v" + i);
+                Assert.assertTrue(d.getElementos() == i + 1);
+            }
+            for (int i = 0; i < total; i++) {
+                Assert.assertTrue(d.contiene(llave(ini, i)));
+                Assert.assertTrue(d.get(llave(ini, i)).equals("v" + i));
+            }
+            Assert.assertFalse(d.contiene("no"));
+            try {
+                d.get("no");
+                Assert.fail();
+            } catch (NoSuchElementException nsee) {}
+            /* Mismo tamaño se sobreescribe; otro tamaño se agrega. */
+            d.agrega(llave(ini, 0), "w0");
+            d.agrega(llave(ini, 1), "valor largo");
+            Assert.assertTrue(d.get(llave(ini, 0)).equals("w0"));
+            Assert.assertTrue(d.get(llave(ini, 1)).equals("valor largo"));
+            Assert.assertTrue(d.getElementos() == total);
+            Assert.assertTrue(d.carga() <= 0.72);
+            byte[] b = new byte[random.nextInt(100)];
+            random.nextBytes(b);
+            d.agrega(b, b);
+            Assert.assertArrayEquals(d.get(b), b);
+            try {
+                d.agrega((byte[])null, b);
+                Assert.fail();
+            } catch (IllegalArgumentException iae) {}
+        }
+    }
+
+    /**
+     * Prueba unitaria para reabrir un {@link DiccionarioMapeado}.
+     * @throws IOException si ocurre un error de entrada/salida.
+     */
+    @Test public void testReabre() throws IOException {
+        Path a = archivo();
+        int ini = random.nextInt(1000);
+        try (DiccionarioMapeado d =
+             new DiccionarioMapeado(a, AlgoritmoDispersor.DJB_STRING)) {
+            for (int i = 0; i < total; i++)
+                d.agrega(llave(ini, i), "v" + i);
+        }
+        try (DiccionarioMapeado d = new DiccionarioMapeado(a)) {
+            Assert.assertTrue(d.getAlgoritmo() ==
+                              AlgoritmoDispersor.DJB_STRING);
+            Assert.assertTrue(d.getElementos() == total);
+            for (int i = 0; i < total; i++)
+                Assert.assertTrue(d.get(llave(ini, i)).equals("v" + i));
+            for (int i = 0; i < total; i += 2)
+                d.elimina(llave(ini, i));
+        }
+        try (DiccionarioMapeado d = new DiccionarioMapeado(a)) {
+            Assert.assertTrue(d.getElementos() == total - (total + 1) / 2);
+            for (int i = 0; i < total; i++)
+                Assert.assertTrue(d.contiene(llave(ini, i)) == (i % 2 == 1));
+        }
+        try {
+            new DiccionarioMapeado(a, AlgoritmoDispersor.BJ_STRING);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        Path b = archivo();
+        Files.write(b, new byte[100]);
+        try {
+            new DiccionarioMapeado(b);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioMapeado#elimina}.
+     * @throws IOException si ocurre un error de entrada/salida.
+     */
+    @Test public void testElimina() throws IOException {
+        try (DiccionarioMapeado d = new DiccionarioMapeado(archivo())) {
+            int[] a = new int[total];
+            for (int i = 0; i < total; i++) {
+                a[i] = random.nextInt(total * 4);
+                d.agrega(String.valueOf(a[i]), "v");
+            }
+            int n = d.getElementos();
+            boolean[] eliminados = new boolean[total * 4];
+            for (int i = 0; i < total; i++) {
+                String s = String.valueOf(a[i]);
+                if (eliminados[a[i]])
+                    continue;
+                d.elimina(s);
+                eliminados[a[i]] = true;
+                Assert.assertFalse(d.contiene(s));
+                Assert.assertTrue(d.getElementos() == --n);
+                for (int j = i + 1; j < total; j += 16)
+                    Assert.assertTrue(d.contiene(String.valueOf(a[j])) ==
+                                      !eliminados[a[j]]);
+            }
+            Assert.assertTrue(d.esVacia());
+            try {
+                d.elimina("0");
+                Assert.fail();
+            } catch (NoSuchElementException nsee) {}
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioMapeado#iteradorLlaves}.
+     * @throws IOException si ocurre un error de entrada/salida.
+     */
+    @Test public void testIteradorLlaves() throws IOException {
+        try (DiccionarioMapeado d = new DiccionarioMapeado(archivo())) {
+            for (int i = 0; i < total; i++)
+                d.agrega(llave(0, i), "v");
+            boolean[] vistas = new boolean[total];
+            Iterator<byte[]> it = d.iteradorLlaves();
+            int c = 0;
+            while (it.hasNext()) {
+                String s = new String(it.next(), "UTF-8");
+                int i = Integer.parseInt(s.substring(6));
+                Assert.assertFalse(vistas[i]);
+                vistas[i] = true;
+                c++;
+            }
+            Assert.assertTrue(c == total);
+            try {
+                it.next();
+                Assert.fail();
+            } catch (NoSuchElementException nsee) {}
+        }
+    }
+}
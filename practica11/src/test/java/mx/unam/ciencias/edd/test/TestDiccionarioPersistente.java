@@ -0,0 +1,158 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.DiccionarioPersistente;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioPersistente}.
+ */
+public class TestDiccionarioPersistente {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+
+    /**
+     * Inicializa el número de elementos para cada prueba.
+     */
+    public TestDiccionarioPersistente() {
+        random = new Random();
+        total = 1000 + random.nextInt(1000);
+    }
+
+    /* Revisa que el diccionario persistente tenga lo mismo que el
+     * diccionario. */
+    private void revisa(DiccionarioPersistente<Integer, Integer> p,
+                        Diccionario<Integer, Integer> d) {
+        Assert.assertTrue(p.getElementos() == d.getElementos());
+        int c = 0;
+        Iterator<Integer> it = p.iteradorLlaves();
+        while (it.hasNext()) {
+            Integer k = it.next();
+            Assert.assertTrue(p.get(k).equals(d.get(k)));
+            c++;
+        }
+        Assert.assertTrue(c == d.getElementos());
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioPersistente#agrega}.
+     */
+    @Test public void testAgrega() {
+        DiccionarioPersistente<Integer, Integer> p =
+            new DiccionarioPersistente<Integer, Integer>();
+        Assert.assertTrue(p.esVacia());
+        Diccionario<Integer, Integer> d = new Diccionario<Integer, Integer>();
+        for (int i = 0; i < total; i++) {
+            int k = random.nextInt(total);
+            DiccionarioPersistente<Integer, Integer> q = p.agrega(k, i);
+            Assert.assertTrue(q.get(k) == i);
+            Assert.assertTrue(p.getOrDefault(k, -1).equals(
+                                  d.getOrDefault(k, -1)));
+            d.agrega(k, i);
+            p = q;
+        }
+        revisa(p, d);
+        Integer v = p.iterator().next();
+        Integer k = p.iteradorLlaves().next();
+        Assert.assertTrue(p.agrega(k, v) == p);
+        try {
+            p.agrega(null, 1);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioPersistente#elimina}.
+     */
+    @Test public void testElimina() {
+        DiccionarioPersistente<Integer, Integer> p =
+            new DiccionarioPersistente<Integer, Integer>();
+        Diccionario<Integer, Integer> d = new Diccionario<Integer, Integer>();
+        int[] a = new int[total];
+        for (int i = 0; i < total; i++) {
+            a[i] = random.nextInt();
+            p = p.agrega(a[i], i);
+            d.agrega(a[i], i);
+        }
+        DiccionarioPersistente<Integer, Integer> original = p;
+        for (int i = 0; i < total; i++) {
+            if (!d.contiene(a[i]))
+                continue;
+            DiccionarioPersistente<Integer, Integer> q = p.elimina(a[i]);
+            d.elimina(a[i]);
+            Assert.assertFalse(q.contiene(a[i]));
+            Assert.assertTrue(p.contiene(a[i]));
+            Assert.assertTrue(q.getElementos() == p.getElementos() - 1);
+            p = q;
+            if (i % 100 == 0)
+                revisa(p, d);
+        }
+        Assert.assertTrue(p.esVacia());
+        Assert.assertFalse(p.iterator().hasNext());
+        try {
+            p.elimina(0);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(original.contiene(a[i]));
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioPersistente} con dispersiones
+     * repetidas.
+     */
+    @Test public void testColisiones() {
+        DiccionarioPersistente<Integer, Integer> p =
+            new DiccionarioPersistente<Integer, Integer>(k -> k % 7);
+        Diccionario<Integer, Integer> d = new Diccionario<Integer, Integer>();
+        int n = 200 + random.nextInt(200);
+        for (int i = 0; i < n; i++) {
+            int k = random.nextInt(n);
+            p = p.agrega(k, i);
+            d.agrega(k, i);
+        }
+        revisa(p, d);
+        for (int k = 0; k < n; k++) {
+            if (!d.contiene(k)) {
+                Assert.assertFalse(p.contiene(k));
+                continue;
+            }
+            p = p.elimina(k);
+            d.elimina(k);
+            revisa(p, d);
+        }
+        Assert.assertTrue(p.esVacia());
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioPersistente#equals}.
+     */
+    @Test public void testEquals() {
+        DiccionarioPersistente<Integer, Integer> p =
+            new DiccionarioPersistente<Integer, Integer>();
+        DiccionarioPersistente<Integer, Integer> q =
+            new DiccionarioPersistente<Integer, Integer>();
+        for (int i = 0; i < total; i++)
+            p = p.agrega(i, i);
+        for (int i = total - 1; i >= 0; i--)
+            q = q.agrega(i, i);
+        Assert.assertTrue(p.equals(q));
+        Assert.assertFalse(p.equals(q.agrega(0, 1)));
+        Assert.assertFalse(p.equals(q.elimina(0)));
+        Assert.assertTrue(p.limpia().equals(q.limpia()));
+        Assert.assertFalse(p.equals(null));
+        Assert.assertTrue(p.limpia().toString().equals("{}"));
+    }
+}
@@ -1,5 +1,8 @@
 package mx.unam.ciencias.edd.test;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.util.Random;
 import mx.unam.ciencias.edd.Dispersores;
 import org.junit.Assert;
@@ -116,6 +119,205 @@ public class TestDispersores {
         0xea5b748b, 0x35ca067d, 0xef0ad6a0, 0xd065aacb
     };
 
+    /* Cadenas de referencia para los algoritmos modernos. */
+    private static final String[] REFERENCIAS = {
+        "",
+        "a",
+        "abc",
+        "message digest",
+        "abcdefghijklmnopqrstuvwxyz",
+        "The quick brown fox jumps over the lazy dog",
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789",
+        "1234567890123456789012345678901234567890" +
+        "1234567890123456789012345678901234567890"
+    };
+
+    /* Los resultados MurmurHash3 para las cadenas de referencia. */
+    private static final int[] REFERENCIAS_MURMUR3 = {
+        0x00000000, 0x3c2569b2, 0xb3dd93fa, 0x638f4169, 0xa34e036d,
+        0x2e4ff723, 0xa27af39b, 0xf8e05287
+    };
+
+    /* Los resultados xxHash32 para las cadenas de referencia. */
+    private static final int[] REFERENCIAS_XXH32 = {
+        0x02cc5d05, 0x550d7456, 0x32d153ff, 0x7c948494, 0x63a14d5f,
+        0xe85ea4de, 0x9c285e64, 0x9c05f475
+    };
+
+    /* Los resultados xxHash64 para las cadenas de referencia. */
+    private static final long[] REFERENCIAS_XXH64 = {
+        0xef46db3751d8e999L, 0xd24ec4f1a98c6e5bL, 0x44bc2cf5ad770999L,
+        0x066ed728fceeb3beL, 0xcfe1f278fa89835cL, 0x0b242d361fda71bcL,
+        0xaaa46907d3047814L, 0xe04a477f19ee145dL
+    };
+
+    /* Los resultados wyhash para las cadenas de referencia. */
+    private static final long[] REFERENCIAS_WYHASH = {
+        0x0409638ee2bde459L, 0x28d2053309d28531L, 0x02a4f1d7cb516c72L,
+        0x41d032e1df79b67eL, 0x774fa8c21ed6acd2L, 0x6303b3bade45a571L,
+        0x0369bcbe3f0f0c0dL, 0x48662e17cabfab37L
+    };
+
+    /* Los resultados MurmurHash3 x64_128 (primeros 64 bits) para las cadenas
+       de referencia. */
+    private static final long[] REFERENCIAS_MURMUR3_X64 = {
+        0x0000000000000000L, 0x85555565f6597889L, 0xb4963f3f3fad7867L,
+        0x875d2c2d76147dfcL, 0x749c9d7e516f4aa9L, 0xe34bbc7bbc071b6cL,
+        0x49991f325fd73e3bL, 0x9163067fa4876aeeL
+    };
+
+    /* Los resultados DJB de 64 bits para las cadenas de referencia. */
+    private static final long[] REFERENCIAS_DJB64 = {
+        0x0000000000001505L, 0x000000000002b606L, 0x000000000b885c8bL,
+        0xfb526487a972cf8aL, 0xfb589926ea11b604L, 0x36d23eef34cc38deL,
+        0x9ef2f1df0c3eff50L, 0x1e7cc5b3067ea36dL
+    };
+
+    /* Los resultados CRC32C para las cadenas de referencia. */
+    private static final int[] REFERENCIAS_CRC32C = {
+        0x00000000, 0xc1d04330, 0x364b3fb7, 0x02bd79d0, 0x9ee6ef25,
+        0x22620404, 0xa245d57d, 0x477a6781
+    };
+
+    /* Interfaz para comparar los algoritmos en las mismas pruebas. */
+    private interface Algoritmo {
+        public int dispersa(byte[] llave);
+        public int dispersa(byte[] llave, int inicio, int lon);
+        public int dispersa(ByteBuffer llave);
+        public int dispersa(CharSequence llave);
+    }
+
+    /* Los algoritmos. */
+    private static final Algoritmo[] ALGORITMOS = {
+        new Algoritmo() {
+            public int dispersa(byte[] k) { return Dispersores.dispersaXOR(k); }
+            public int dispersa(byte[] k, int i, int n) {
+                return Dispersores.dispersaXOR(k, i, n);
+            }
+            public int dispersa(ByteBuffer k) {
+                return Dispersores.dispersaXOR(k);
+            }
+            public int dispersa(CharSequence k) {
+                return Dispersores.dispersaXOR(k);
+            }
+        },
+        new Algoritmo() {
+            public int dispersa(byte[] k) { return Dispersores.dispersaBJ(k); }
+            public int dispersa(byte[] k, int i, int n) {
+                return Dispersores.dispersaBJ(k, i, n);
+            }
+            public int dispersa(ByteBuffer k) {
+                return Dispersores.dispersaBJ(k);
+            }
+            public int dispersa(CharSequence k) {
+                return Dispersores.dispersaBJ(k);
+            }
+        },
+        new Algoritmo() {
+            public int dispersa(byte[] k) { return Dispersores.dispersaDJB(k); }
+            public int dispersa(byte[] k, int i, int n) {
+                return Dispersores.dispersaDJB(k, i, n);
+            }
+            public int dispersa(ByteBuffer k) {
+                return Dispersores.dispersaDJB(k);
+            }
+            public int dispersa(CharSequence k) {
+                return Dispersores.dispersaDJB(k);
+            }
+        },
+        new Algoritmo() {
+            public int dispersa(byte[] k) {
+                return Dispersores.dispersaMurmur3(k);
+            }
+            public int dispersa(byte[] k, int i, int n) {
+                return Dispersores.dispersaMurmur3(k, i, n);
+            }
+            public int dispersa(ByteBuffer k) {
+                return Dispersores.dispersaMurmur3(k);
+            }
+            public int dispersa(CharSequence k) {
+                return Dispersores.dispersaMurmur3(k);
+            }
+        },
+        new Algoritmo() {
+            public int dispersa(byte[] k) {
+                return Dispersores.dispersaXXH32(k);
+            }
+            public int dispersa(byte[] k, int i, int n) {
+                return Dispersores.dispersaXXH32(k, i, n);
+            }
+            public int dispersa(ByteBuffer k) {
+                return Dispersores.dispersaXXH32(k);
+            }
+            public int dispersa(CharSequence k) {
+                return Dispersores.dispersaXXH32(k);
+            }
+        },
+        new Algoritmo() {
+            public int dispersa(byte[] k) {
+                return Dispersores.pliega(Dispersores.dispersaXXH64(k));
+            }
+            public int dispersa(byte[] k, int i, int n) {
+                return Dispersores.pliega(Dispersores.dispersaXXH64(k, i, n));
+            }
+            public int dispersa(ByteBuffer k) {
+                return Dispersores.pliega(Dispersores.dispersaXXH64(k));
+            }
+            public int dispersa(CharSequence k) {
+                return Dispersores.pliega(Dispersores.dispersaXXH64(k));
+            }
+        },
+        new Algoritmo() {
+            public int dispersa(byte[] k) {
+                return Dispersores.pliega(Dispersores.dispersaWyhash(k));
+            }
+            public int dispersa(byte[] k, int i, int n) {
+                return Dispersores.pliega(
+                    Dispersores.dispersaWyhash(k, i, n));
+            }
+            public int dispersa(ByteBuffer k) {
+                return Dispersores.pliega(Dispersores.dispersaWyhash(k));
+            }
+            public int dispersa(CharSequence k) {
+                return Dispersores.pliega(Dispersores.dispersaWyhash(k));
+            }
+        },
+        new Algoritmo() {
+            public int dispersa(byte[] k) {
+                return Dispersores.dispersaCRC32C(k);
+            }
+            public int dispersa(byte[] k, int i, int n) {
+                return Dispersores.dispersaCRC32C(k, i, n);
+            }
+            public int dispersa(ByteBuffer k) {
+                return Dispersores.dispersaCRC32C(k);
+            }
+            public int dispersa(CharSequence k) {
+                return Dispersores.dispersaCRC32C(k);
+            }
+        }
+    };
+
+    /* Generador de números aleatorios. */
+    private Random random = new Random();
+
+    /* Regresa una cadena aleatoria con caracteres de uno a cuatro bytes en
+       UTF-8, y de vez en cuando sustitutos sin pareja. */
+    private String cadena(int n) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            switch (random.nextInt(5)) {
+            case 0: sb.append((char)(0x20 + random.nextInt(0x60))); break;
+            case 1: sb.append((char)(0x80 + random.nextInt(0x780))); break;
+            case 2: sb.append((char)(0x800 + random.nextInt(0xd000))); break;
+            case 3: sb.appendCodePoint(0x10000 + random.nextInt(0x100000));
+                break;
+            default: sb.append((char)(0xd800 + random.nextInt(0x800)));
+            }
+        }
+        return sb.toString();
+    }
+
     /* Regresa un subarreglo del arreglo. */
     private byte[] subArreglo(int n) {
         byte[] sub = new byte[n];
@@ -156,4 +358,290 @@ public class TestDispersores {
             Assert.assertTrue(RESULTADOS_DJB[i-1] == r);
         }
     }
+
+    /**
+     * Prueba que los dispersores sobre pedazos de arreglos regresen lo mismo
+     * que sobre los subarreglos.
+     */
+    @Test public void testDispersaPedazo() {
+        for (Algoritmo a : ALGORITMOS) {
+            for (int i = 0; i < ARREGLO.length; i++)
+                for (int n = 0; i + n <= ARREGLO.length; n++) {
+                    byte[] sub = new byte[n];
+                    System.arraycopy(ARREGLO, i, sub, 0, n);
+                    Assert.assertTrue(a.dispersa(ARREGLO, i, n) ==
+                                      a.dispersa(sub));
+                }
+            try {
+                a.dispersa(ARREGLO, 1, ARREGLO.length);
+                Assert.fail();
+            } catch (IndexOutOfBoundsException ioobe) {}
+            try {
+                a.dispersa(ARREGLO, -1, 2);
+                Assert.fail();
+            } catch (IndexOutOfBoundsException ioobe) {}
+        }
+    }
+
+    /**
+     * Prueba que los dispersores sobre buffers regresen lo mismo que sobre
+     * arreglos, para buffers en el montículo y directos y en cualquier orden
+     * de bytes, sin mover su posición.
+     */
+    @Test public void testDispersaBuffer() {
+        for (Algoritmo a : ALGORITMOS) {
+            for (int i = 1; i < ARREGLO.length; i++) {
+                byte[] sub = subArreglo(i);
+                int r = a.dispersa(sub);
+                ByteBuffer b = ByteBuffer.wrap(ARREGLO, 0, i);
+                Assert.assertTrue(a.dispersa(b) == r);
+                b = ByteBuffer.wrap(ARREGLO);
+                b.position(ARREGLO.length - i);
+                ByteBuffer s = b.slice();
+                Assert.assertTrue(a.dispersa(s) == a.dispersa(
+                                      ARREGLO, ARREGLO.length - i, i));
+                ByteBuffer d = ByteBuffer.allocateDirect(i + 3);
+                d.put(new byte[3]).put(sub).position(3);
+                Assert.assertTrue(a.dispersa(d) == r);
+                Assert.assertTrue(d.position() == 3);
+                d.order(ByteOrder.LITTLE_ENDIAN);
+                Assert.assertTrue(a.dispersa(d) == r);
+                b = ByteBuffer.wrap(ARREGLO, 0, i);
+                b.order(ByteOrder.LITTLE_ENDIAN);
+                Assert.assertTrue(a.dispersa(b) == r);
+            }
+            ByteBuffer d = ByteBuffer.allocateDirect(1000);
+            for (int i = 0; i < 1000; i++)
+                d.put((byte)random.nextInt());
+            d.flip();
+            byte[] todo = new byte[1000];
+            d.duplicate().get(todo);
+            Assert.assertTrue(a.dispersa(d) == a.dispersa(todo));
+        }
+    }
+
+    /**
+     * Prueba que los dispersores sobre cadenas regresen lo mismo que sobre su
+     * codificación UTF-8.
+     */
+    @Test public void testDispersaCadena() {
+        for (Algoritmo a : ALGORITMOS) {
+            Assert.assertTrue(a.dispersa("") == a.dispersa(new byte[0]));
+            for (int i = 0; i < 200; i++) {
+                String s = cadena(random.nextInt(i + 1));
+                int r = a.dispersa(s.getBytes(StandardCharsets.UTF_8));
+                Assert.assertTrue(a.dispersa(s) == r);
+                Assert.assertTrue(a.dispersa(new StringBuilder(s)) == r);
+            }
+            String s = cadena(1000);
+            Assert.assertTrue(a.dispersa(s) ==
+                              a.dispersa(s.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    /* Regresa los bytes en ASCII de una cadena de referencia. */
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Prueba unitaria para {@link Dispersores#dispersaMurmur3}.
+     */
+    @Test public void testDispersaMurmur3() {
+        for (int i = 0; i < REFERENCIAS.length; i++)
+            Assert.assertTrue(Dispersores.dispersaMurmur3(bytes(REFERENCIAS[i]))
+                              == REFERENCIAS_MURMUR3[i]);
+        Assert.assertTrue(Dispersores.dispersaMurmur3(bytes("hello")) ==
+                          0x248bfa47);
+    }
+
+    /**
+     * Prueba unitaria para {@link Dispersores#dispersaXXH32}.
+     */
+    @Test public void testDispersaXXH32() {
+        for (int i = 0; i < REFERENCIAS.length; i++)
+            Assert.assertTrue(Dispersores.dispersaXXH32(bytes(REFERENCIAS[i]))
+                              == REFERENCIAS_XXH32[i]);
+        Assert.assertTrue(Dispersores.dispersaXXH32(
+                              bytes("Nobody inspects the spammish repetition"))
+                          == 0xe2293b2f);
+    }
+
+    /**
+     * Prueba unitaria para {@link Dispersores#dispersaXXH64}.
+     */
+    @Test public void testDispersaXXH64() {
+        for (int i = 0; i < REFERENCIAS.length; i++)
+            Assert.assertTrue(Dispersores.dispersaXXH64(bytes(REFERENCIAS[i]))
+                              == REFERENCIAS_XXH64[i]);
+        Assert.assertTrue(Dispersores.dispersaXXH64(
+                              bytes("Nobody inspects the spammish repetition"))
+                          == 0xfbcea83c8a378bf1L);
+    }
+
+    /**
+     * Prueba unitaria para {@link Dispersores#dispersaWyhash}.
+     */
+    @Test public void testDispersaWyhash() {
+        for (int i = 0; i < REFERENCIAS.length; i++)
+            Assert.assertTrue(Dispersores.dispersaWyhash(bytes(REFERENCIAS[i]))
+                              == REFERENCIAS_WYHASH[i]);
+    }
+
+    /**
+     * Prueba unitaria para {@link Dispersores#dispersaCRC32C}, con los
+     * vectores del RFC 3720.
+     */
+    @Test public void testDispersaCRC32C() {
+        for (int i = 0; i < REFERENCIAS.length; i++)
+            Assert.assertTrue(Dispersores.dispersaCRC32C(bytes(REFERENCIAS[i]))
+                              == REFERENCIAS_CRC32C[i]);
+        Assert.assertTrue(Dispersores.dispersaCRC32C(bytes("123456789")) ==
+                          0xe3069283);
+        byte[] b = new byte[32];
+        Assert.assertTrue(Dispersores.dispersaCRC32C(b) == 0x8a9136aa);
+        for (int i = 0; i < b.length; i++)
+            b[i] = (byte)0xff;
+        Assert.assertTrue(Dispersores.dispersaCRC32C(b) == 0x62a8ab43);
+        for (int i = 0; i < b.length; i++)
+            b[i] = (byte)i;
+        Assert.assertTrue(Dispersores.dispersaCRC32C(b) == 0x46dd794e);
+        for (int i = 0; i < b.length; i++)
+            b[i] = (byte)(31 - i);
+        Assert.assertTrue(Dispersores.dispersaCRC32C(b) == 0x113fdb5c);
+    }
+
+    /**
+     * Prueba unitaria para {@link Dispersores#dispersaMurmur3x64}.
+     */
+    @Test public void testDispersaMurmur3x64() {
+        for (int i = 0; i < REFERENCIAS.length; i++) {
+            byte[] b = bytes(REFERENCIAS[i]);
+            long r = REFERENCIAS_MURMUR3_X64[i];
+            Assert.assertTrue(Dispersores.dispersaMurmur3x64(b) == r);
+            Assert.assertTrue(Dispersores.dispersaMurmur3x64(REFERENCIAS[i])
+                              == r);
+            ByteBuffer d = ByteBuffer.allocateDirect(b.length);
+            d.put(b);
+            d.flip();
+            Assert.assertTrue(Dispersores.dispersaMurmur3x64(d) == r);
+        }
+        Assert.assertTrue(Dispersores.dispersaMurmur3x64(bytes("hello")) ==
+                          0xcbd8a7b341bd9b02L);
+        for (int i = 0; i < ARREGLO.length; i++) {
+            byte[] sub = new byte[ARREGLO.length - i];
+            System.arraycopy(ARREGLO, i, sub, 0, sub.length);
+            Assert.assertTrue(Dispersores.dispersaMurmur3x64(sub) ==
+                              Dispersores.dispersaMurmur3x64(ARREGLO, i,
+                                                             sub.length));
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Dispersores#dispersaDJB64}.
+     */
+    @Test public void testDispersaDJB64() {
+        for (int i = 0; i < REFERENCIAS.length; i++) {
+            byte[] b = bytes(REFERENCIAS[i]);
+            long r = REFERENCIAS_DJB64[i];
+            Assert.assertTrue(Dispersores.dispersaDJB64(b) == r);
+            Assert.assertTrue(Dispersores.dispersaDJB64(REFERENCIAS[i]) == r);
+            Assert.assertTrue(Dispersores.dispersaDJB64(ByteBuffer.wrap(b)) ==
+                              r);
+            Assert.assertTrue((int)r == Dispersores.dispersaDJB(b));
+        }
+    }
+
+    /**
+     * Prueba unitaria para las variantes con semilla de {@link Dispersores}:
+     * con la semilla predeterminada dan lo mismo que sin semilla, con otras
+     * semillas dan los valores de referencia, y la cadena y el pedazo de
+     * arreglo dispersan igual.
+     */
+    @Test public void testDispersaConSemilla() {
+        String f = REFERENCIAS[5];
+        Assert.assertTrue(Dispersores.dispersaMurmur3("", 1) == 0x514e28b7);
+        Assert.assertTrue(Dispersores.dispersaMurmur3(f, 0x9747b28c) ==
+                          0x2fa826cd);
+        Assert.assertTrue(Dispersores.dispersaXXH32("", 0x9e3779b1) ==
+                          0x36b78ae7);
+        Assert.assertTrue(Dispersores.dispersaXXH32(f, 0x9e3779b1) ==
+                          0x98c7f3bf);
+        Assert.assertTrue(Dispersores.dispersaXXH64("", 0x9e3779b1L) ==
+                          0xac75fda2929b17efL);
+        Assert.assertTrue(Dispersores.dispersaWyhash(f, 42) ==
+                          0x4f0e75ed5d33843dL);
+        Assert.assertTrue(Dispersores.dispersaMurmur3x64(f, 42) ==
+                          0x740dcf93fe0bd5d7L);
+        for (int i = 0; i < ARREGLO.length; i++) {
+            byte[] sub = new byte[ARREGLO.length - i];
+            System.arraycopy(ARREGLO, i, sub, 0, sub.length);
+            Assert.assertTrue(Dispersores.dispersaBJ(ARREGLO, i, sub.length,
+                                                     0xffffffff) ==
+                              Dispersores.dispersaBJ(sub));
+            Assert.assertTrue(Dispersores.dispersaMurmur3(ARREGLO, i,
+                                                          sub.length, 0) ==
+                              Dispersores.dispersaMurmur3(sub));
+            Assert.assertTrue(Dispersores.dispersaXXH32(ARREGLO, i,
+                                                        sub.length, 0) ==
+                              Dispersores.dispersaXXH32(sub));
+            Assert.assertTrue(Dispersores.dispersaXXH64(ARREGLO, i,
+                                                        sub.length, 0) ==
+                              Dispersores.dispersaXXH64(sub));
+            Assert.assertTrue(Dispersores.dispersaWyhash(ARREGLO, i,
+                                                         sub.length, 0) ==
+                              Dispersores.dispersaWyhash(sub));
+            Assert.assertTrue(Dispersores.dispersaMurmur3x64(ARREGLO, i,
+                                                             sub.length, 0) ==
+                              Dispersores.dispersaMurmur3x64(sub));
+        }
+        for (String r : REFERENCIAS) {
+            byte[] b = bytes(r);
+            int s = random.nextInt();
+            long l = random.nextLong();
+            Assert.assertTrue(Dispersores.dispersaBJ(r, s) ==
+                              Dispersores.dispersaBJ(b, 0, b.length, s));
+            Assert.assertTrue(Dispersores.dispersaMurmur3(r, s) ==
+                              Dispersores.dispersaMurmur3(b, 0, b.length, s));
+            Assert.assertTrue(Dispersores.dispersaXXH32(r, s) ==
+                              Dispersores.dispersaXXH32(b, 0, b.length, s));
+            Assert.assertTrue(Dispersores.dispersaXXH64(r, l) ==
+                              Dispersores.dispersaXXH64(b, 0, b.length, l));
+            Assert.assertTrue(Dispersores.dispersaWyhash(r, l) ==
+                              Dispersores.dispersaWyhash(b, 0, b.length, l));
+            Assert.assertTrue(Dispersores.dispersaMurmur3x64(r, l) ==
+                              Dispersores.dispersaMurmur3x64(b, 0, b.length,
+                                                             l));
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Dispersores#dispersaEntero}, {@link
+     * Dispersores#dispersaLargo} y {@link Dispersores#dispersaDoble}.
+     */
+    @Test public void testDispersaNumeros() {
+        Assert.assertTrue(Dispersores.dispersaEntero(0) == 0);
+        Assert.assertTrue(Dispersores.dispersaEntero(1) ==
+                          Dispersores.dispersaMurmur3("", 1));
+        Assert.assertTrue(Dispersores.dispersaLargo(1L) == 0x34c2cb2c);
+        Assert.assertTrue(Dispersores.dispersaDoble(1.0) ==
+                          Dispersores.dispersaLargo(0x3ff0000000000000L));
+        Assert.assertTrue(Dispersores.dispersaDoble(0.0) !=
+                          Dispersores.dispersaDoble(-0.0));
+        Assert.assertTrue(Dispersores.dispersaDoble(Double.NaN) ==
+                          Dispersores.dispersaDoble(
+                              Double.longBitsToDouble(0x7ff8000000000001L)));
+        /* Múltiplos de 64 caerían todos en la misma de 64 casillas. */
+        boolean[] enteros = new boolean[64];
+        boolean[] largos = new boolean[64];
+        int e = 0, l = 0;
+        for (int i = 0; i < 64; i++) {
+            int a = Dispersores.dispersaEntero(i << 6) & 63;
+            int b = Dispersores.dispersaLargo((long)i << 38) & 63;
+            e += enteros[a] ? 0 : 1;
+            l += largos[b] ? 0 : 1;
+            enteros[a] = largos[b] = true;
+        }
+        Assert.assertTrue(e > 32 && l > 32);
+    }
 }
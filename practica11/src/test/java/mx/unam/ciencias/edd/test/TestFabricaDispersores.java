@@ -1,9 +1,13 @@
 package mx.unam.ciencias.edd.test;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Random;
 import mx.unam.ciencias.edd.AlgoritmoDispersor;
 import mx.unam.ciencias.edd.FabricaDispersores;
 import mx.unam.ciencias.edd.Dispersor;
+import mx.unam.ciencias.edd.Dispersor64;
+import mx.unam.ciencias.edd.DispersorSembrado;
+import mx.unam.ciencias.edd.Dispersores;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -79,6 +83,8 @@ public class TestFabricaDispersores {
 
     /* El dispersor. */
     private Dispersor<String> dispersor;
+    /* Generador de números aleatorios. */
+    private Random random = new Random();
 
     /**
      * Prueba unitaria para {@link FabricaDispersores#dispersorCadena} con la
@@ -115,4 +121,167 @@ public class TestFabricaDispersores {
         for (String mensaje : MENSAJES)
             Assert.assertTrue(djb.dispersa(mensaje) == DISPERSORES_DJB[i++]);
     }
+
+    /**
+     * Prueba unitaria para {@link FabricaDispersores#dispersorCadena} con los
+     * algoritmos modernos: deben dispersar la codificación UTF-8 de la cadena.
+     */
+    @Test public void testDispersorCadenaModernos() {
+        Dispersor<String> murmur3 = FabricaDispersores.dispersorCadena(
+            AlgoritmoDispersor.MURMUR3_STRING);
+        Dispersor<String> xxh32 = FabricaDispersores.dispersorCadena(
+            AlgoritmoDispersor.XXH32_STRING);
+        Dispersor<String> xxh64 = FabricaDispersores.dispersorCadena(
+            AlgoritmoDispersor.XXH64_STRING);
+        Dispersor<String> wyhash = FabricaDispersores.dispersorCadena(
+            AlgoritmoDispersor.WYHASH_STRING);
+        Dispersor<String> crc32c = FabricaDispersores.dispersorCadena(
+            AlgoritmoDispersor.CRC32C_STRING);
+        for (String mensaje : MENSAJES) {
+            byte[] b = mensaje.getBytes(StandardCharsets.UTF_8);
+            Assert.assertTrue(murmur3.dispersa(mensaje) ==
+                              Dispersores.dispersaMurmur3(b));
+            Assert.assertTrue(xxh32.dispersa(mensaje) ==
+                              Dispersores.dispersaXXH32(b));
+            Assert.assertTrue(xxh64.dispersa(mensaje) ==
+                              Dispersores.pliega(Dispersores.dispersaXXH64(b)));
+            Assert.assertTrue(wyhash.dispersa(mensaje) ==
+                              Dispersores.pliega(
+                                  Dispersores.dispersaWyhash(b)));
+            Assert.assertTrue(crc32c.dispersa(mensaje) ==
+                              Dispersores.dispersaCRC32C(b));
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaDispersores#dispersor64Cadena} y los
+     * adaptadores de {@link Dispersor64}.
+     */
+    @Test public void testDispersor64Cadena() {
+        Dispersor64<String> xxh64 = FabricaDispersores.dispersor64Cadena(
+            AlgoritmoDispersor.XXH64_STRING);
+        Dispersor<String> xxh32 = FabricaDispersores.dispersorCadena(
+            AlgoritmoDispersor.XXH64_STRING);
+        Dispersor64<String> murmur3 = FabricaDispersores.dispersor64Cadena(
+            AlgoritmoDispersor.MURMUR3_STRING);
+        Dispersor64<String> wyhash = FabricaDispersores.dispersor64Cadena(
+            AlgoritmoDispersor.WYHASH_STRING);
+        Dispersor64<String> djb = FabricaDispersores.dispersor64Cadena(
+            AlgoritmoDispersor.DJB_STRING);
+        for (int i = 0; i < MENSAJES.length; i++) {
+            String mensaje = MENSAJES[i];
+            byte[] b = mensaje.getBytes(StandardCharsets.UTF_8);
+            long h = xxh64.dispersa(mensaje);
+            Assert.assertTrue(h == Dispersores.dispersaXXH64(b));
+            Assert.assertTrue(xxh64.plegado().dispersa(mensaje) ==
+                              xxh32.dispersa(mensaje));
+            Assert.assertTrue(xxh64.altos().dispersa(mensaje) ==
+                              (int)(h >>> 32));
+            Assert.assertTrue(murmur3.dispersa(mensaje) ==
+                              Dispersores.dispersaMurmur3x64(b));
+            Assert.assertTrue(wyhash.dispersa(mensaje) ==
+                              Dispersores.dispersaWyhash(b));
+            Assert.assertTrue((int)djb.dispersa(mensaje) ==
+                              DISPERSORES_DJB[i]);
+        }
+        try {
+            FabricaDispersores.dispersor64Cadena(
+                AlgoritmoDispersor.CRC32C_STRING);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaDispersores#dispersorSembradoCadena},
+     * {@link FabricaDispersores#dispersorCadena(AlgoritmoDispersor, long)} y
+     * {@link FabricaDispersores#dispersorCadenaAleatorio}.
+     */
+    @Test public void testDispersorSembradoCadena() {
+        AlgoritmoDispersor[] algoritmos = {
+            AlgoritmoDispersor.MURMUR3_STRING, AlgoritmoDispersor.XXH32_STRING,
+            AlgoritmoDispersor.XXH64_STRING, AlgoritmoDispersor.WYHASH_STRING
+        };
+        for (AlgoritmoDispersor a : algoritmos) {
+            Dispersor<String> d = FabricaDispersores.dispersorCadena(a);
+            Dispersor<String> cero = FabricaDispersores.dispersorCadena(a, 0);
+            DispersorSembrado<String> s =
+                FabricaDispersores.dispersorSembradoCadena(a);
+            Dispersor<String> r1 =
+                FabricaDispersores.dispersorCadenaAleatorio(a);
+            Dispersor<String> r2 =
+                FabricaDispersores.dispersorCadenaAleatorio(a);
+            long semilla = random.nextLong();
+            int distintos = 0;
+            for (String mensaje : MENSAJES) {
+                Assert.assertTrue(cero.dispersa(mensaje) ==
+                                  d.dispersa(mensaje));
+                Assert.assertTrue(s.dispersa(mensaje, semilla) ==
+                                  s.sembrado(semilla).dispersa(mensaje));
+                if (r1.dispersa(mensaje) != r2.dispersa(mensaje))
+                    distintos++;
+            }
+            Assert.assertTrue(distintos > 0);
+        }
+        Dispersor<String> bj =
+            FabricaDispersores.dispersorCadena(AlgoritmoDispersor.BJ_STRING);
+        Dispersor<String> bjs =
+            FabricaDispersores.dispersorCadena(AlgoritmoDispersor.BJ_STRING,
+                                               0xffffffffL);
+        for (String mensaje : MENSAJES)
+            Assert.assertTrue(bj.dispersa(mensaje) == bjs.dispersa(mensaje));
+        AlgoritmoDispersor[] invalidos = {
+            AlgoritmoDispersor.XOR_STRING, AlgoritmoDispersor.DJB_STRING,
+            AlgoritmoDispersor.CRC32C_STRING
+        };
+        for (AlgoritmoDispersor a : invalidos) {
+            try {
+                FabricaDispersores.dispersorCadenaAleatorio(a);
+                Assert.fail();
+            } catch (IllegalArgumentException iae) {}
+        }
+    }
+
+    /**
+     * Prueba unitaria para los dispersores de números, arreglos y llaves
+     * compuestas de {@link FabricaDispersores}.
+     */
+    @Test public void testDispersoresNumericos() {
+        Dispersor<Integer> entero = FabricaDispersores.dispersorEntero();
+        Dispersor<Long> largo = FabricaDispersores.dispersorLargo();
+        Dispersor<Double> doble = FabricaDispersores.dispersorDoble();
+        Dispersor<byte[]> arreglo = FabricaDispersores.dispersorArreglo();
+        for (int i = 0; i < 100; i++) {
+            int n = random.nextInt();
+            long m = random.nextLong();
+            double d = random.nextDouble();
+            Assert.assertTrue(entero.dispersa(n) ==
+                              Dispersores.dispersaEntero(n));
+            Assert.assertTrue(largo.dispersa(m) ==
+                              Dispersores.dispersaLargo(m));
+            Assert.assertTrue(doble.dispersa(d) ==
+                              Dispersores.dispersaDoble(d));
+        }
+        for (String mensaje : MENSAJES) {
+            byte[] b = mensaje.getBytes(StandardCharsets.UTF_8);
+            Assert.assertTrue(arreglo.dispersa(b) ==
+                              Dispersores.dispersaMurmur3(mensaje));
+        }
+        Dispersor<int[]> par = FabricaDispersores.dispersorCompuesto(
+            p -> Dispersores.dispersaEntero(p[0]),
+            p -> Dispersores.dispersaEntero(p[1]));
+        int iguales = 0;
+        for (int i = 0; i < 100; i++) {
+            int a = random.nextInt(), b = random.nextInt();
+            Assert.assertTrue(par.dispersa(new int[] { a, b }) ==
+                              par.dispersa(new int[] { a, b }));
+            if (par.dispersa(new int[] { a, b }) ==
+                par.dispersa(new int[] { b, a }))
+                iguales++;
+        }
+        Assert.assertTrue(iguales < 5);
+        try {
+            FabricaDispersores.<int[]>dispersorCompuesto();
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
 }
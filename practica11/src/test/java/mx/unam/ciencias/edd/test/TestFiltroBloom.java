@@ -0,0 +1,122 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Random;
+import mx.unam.ciencias.edd.AlgoritmoDispersor;
+import mx.unam.ciencias.edd.FabricaDispersores;
+import mx.unam.ciencias.edd.FiltroBloom;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link FiltroBloom}.
+ */
+public class TestFiltroBloom {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /* Generador de números aleatorios. */
+    private Random random;
+    /* Número total de elementos. */
+    private int total;
+
+    /**
+     * Crea un generador de números aleatorios y un número total de elementos
+     * para cada prueba.
+     */
+    public TestFiltroBloom() {
+        random = new Random();
+        total = 10000 + random.nextInt(10000);
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroBloom#FiltroBloom}.
+     */
+    @Test public void testConstructor() {
+        FiltroBloom<Integer> f = new FiltroBloom<Integer>(1000, 0.01);
+        Assert.assertTrue(f.getCapacidad() == 1000);
+        Assert.assertTrue(f.getTasa() == 0.01);
+        Assert.assertTrue(f.getBits() >= 9585 && f.getBits() < 9600);
+        Assert.assertTrue(f.getFunciones() == 7);
+        Assert.assertTrue(f.getElementos() == 0);
+        Assert.assertTrue(f.tasaEstimada() == 0.0);
+        f = new FiltroBloom<Integer>(0, 0.5);
+        Assert.assertTrue(f.getBits() > 0 && f.getFunciones() > 0);
+        Assert.assertFalse(f.puedeContener(0));
+        try {
+            new FiltroBloom<Integer>(-1, 0.01);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new FiltroBloom<Integer>(10, 0.0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new FiltroBloom<Integer>(10, 1.0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new FiltroBloom<Integer>(10, Double.NaN);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new FiltroBloom<Integer>(10, 0.01, null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroBloom#agrega} y {@link
+     * FiltroBloom#puedeContener}: no hay falsos negativos, y los falsos
+     * positivos son cerca de la tasa pedida.
+     */
+    @Test public void testAgrega() {
+        double tasa = 0.01;
+        FiltroBloom<Integer> f = new FiltroBloom<Integer>(total, tasa);
+        for (int i = 0; i < total; i++)
+            f.agrega(i);
+        Assert.assertTrue(f.getElementos() == total);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(f.puedeContener(i));
+        int positivos = 0;
+        for (int i = total; i < 2 * total; i++)
+            if (f.puedeContener(i))
+                positivos++;
+        Assert.assertTrue(positivos < 2 * tasa * total);
+        Assert.assertTrue(Math.abs(f.tasaEstimada() - tasa) < tasa / 2);
+        Assert.assertFalse(f.puedeContener(null));
+        try {
+            f.agrega(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        f.limpia();
+        Assert.assertTrue(f.getElementos() == 0);
+        for (int i = 0; i < total; i++)
+            Assert.assertFalse(f.puedeContener(i));
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroBloom} con un dispersor definido por
+     * el usuario.
+     */
+    @Test public void testDispersor() {
+        FiltroBloom<String> f =
+            new FiltroBloom<String>(total, 0.001,
+                                    FabricaDispersores.dispersorCadena(
+                                        AlgoritmoDispersor.XXH32_STRING));
+        String[] a = new String[total];
+        for (int i = 0; i < total; i++) {
+            a[i] = Integer.toHexString(random.nextInt());
+            f.agrega(a[i]);
+        }
+        for (String s : a)
+            Assert.assertTrue(f.puedeContener(s));
+        int positivos = 0;
+        for (int i = 0; i < total; i++)
+            if (f.puedeContener("x" + i))
+                positivos++;
+        Assert.assertTrue(positivos < 0.003 * total);
+    }
+}
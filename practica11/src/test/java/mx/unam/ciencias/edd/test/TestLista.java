@@ -715,6 +715,38 @@ public class TestLista {
         Assert.assertTrue(iterador.previous() == total - 1);
     }
 
+    /**
+     * Prueba unitaria para la implementación {@link Iterator#remove} a través
+     * del método {@link Lista#iteradorLista}.
+     */
+    @Test public void testIteradorRemove() {
+        IteradorLista<Integer> iterador = lista.iteradorLista();
+        try {
+            iterador.remove();
+            Assert.fail();
+        } catch (IllegalStateException ise) {}
+        for (int i = 0; i < total; i++)
+            lista.agrega(i);
+        iterador = lista.iteradorLista();
+        while (iterador.hasNext())
+            if (iterador.next() % 2 == 0)
+                iterador.remove();
+        validaLista(lista);
+        Assert.assertTrue(lista.getLongitud() == total / 2);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(lista.contiene(i) == (i % 2 == 1));
+        while (iterador.hasPrevious()) {
+            iterador.previous();
+            iterador.remove();
+            try {
+                iterador.remove();
+                Assert.fail();
+            } catch (IllegalStateException ise) {}
+        }
+        validaLista(lista);
+        Assert.assertTrue(lista.esVacia());
+    }
+
     /**
      * Prueba unitaria para {@link Lista#mergeSort}.
      */
@@ -0,0 +1,50 @@
+package mx.unam.ciencias.edd.test;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.MonitorDiccionario;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link MonitorDiccionario}.
+ */
+public class TestMonitorDiccionario {
+
+    /** Expiración para que ninguna prueba tarde más de 5 segundos. */
+    @Rule public Timeout expiracion = Timeout.seconds(5);
+
+    /**
+     * Prueba unitaria para {@link MonitorDiccionario#registra} y {@link
+     * MonitorDiccionario#desregistra}.
+     * @throws JMException si no se pueden leer los atributos.
+     */
+    @Test public void testRegistra() throws JMException {
+        Diccionario<Integer, Integer> d = new Diccionario<Integer, Integer>();
+        for (int i = 0; i < 100; i++)
+            d.agrega(i, i);
+        ObjectName n = MonitorDiccionario.registra(d, "prueba");
+        MBeanServer s = ManagementFactory.getPlatformMBeanServer();
+        Assert.assertTrue(s.isRegistered(n));
+        Assert.assertTrue((Integer)s.getAttribute(n, "Elementos") == 100);
+        d.agrega(100, 100);
+        Assert.assertTrue((Integer)s.getAttribute(n, "Elementos") == 101);
+        Assert.assertTrue((Double)s.getAttribute(n, "Carga") == d.carga());
+        try {
+            MonitorDiccionario.registra(d, "prueba");
+            Assert.fail();
+        } catch (IllegalStateException ise) {}
+        MonitorDiccionario.desregistra(n);
+        Assert.assertFalse(s.isRegistered(n));
+        try {
+            MonitorDiccionario.registra(null, "prueba");
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        Assert.assertFalse(s.isRegistered(n));
+    }
+}